@@ -0,0 +1,170 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid;
+
+import com.reandroid.apk.ApkModule;
+import com.reandroid.archive.ByteInputSource;
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.arsc.chunk.xml.ResXmlDocument;
+import com.reandroid.arsc.chunk.xml.ResXmlElement;
+import com.reandroid.arsc.model.ResourceLibrary;
+import com.reandroid.arsc.value.ValueType;
+import com.reandroid.dex.model.DexFile;
+import com.reandroid.dex.smali.SmaliReader;
+import com.reandroid.utils.io.IOUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Inputs shared by benchmarks, either one of the bundled frameworks (e.g: android-36)
+ * or generated when the source is {@link #SYNTHETIC}. Nothing is downloaded.
+ * */
+public class BenchmarkInputs {
+
+    public static final String SYNTHETIC = "synthetic";
+
+    public static boolean isSynthetic(String source) {
+        return SYNTHETIC.equals(source);
+    }
+    public static byte[] frameworkApk(String name) throws IOException {
+        InputStream inputStream = BenchmarkInputs.class
+                .getResourceAsStream("/frameworks/android/" + name + ".apk");
+        if (inputStream == null) {
+            throw new IOException("Missing bundled framework: " + name);
+        }
+        return IOUtil.readFully(inputStream);
+    }
+    public static byte[] readEntry(byte[] apk, String name) throws IOException {
+        List<byte[]> results = readEntries(apk, name, null);
+        if (results.isEmpty()) {
+            throw new IOException("Missing entry: " + name);
+        }
+        return results.get(0);
+    }
+    /**
+     * Reads entries whose name starts with prefix and, if not null, ends with suffix
+     * */
+    public static List<byte[]> readEntries(byte[] apk, String prefix, String suffix) throws IOException {
+        List<byte[]> results = new ArrayList<>();
+        ZipInputStream zipInputStream = new ZipInputStream(new ByteArrayInputStream(apk));
+        ZipEntry zipEntry;
+        while ((zipEntry = zipInputStream.getNextEntry()) != null) {
+            String name = zipEntry.getName();
+            if (name.startsWith(prefix) && (suffix == null || name.endsWith(suffix))) {
+                results.add(readEntry(zipInputStream));
+            }
+        }
+        zipInputStream.close();
+        return results;
+    }
+    private static byte[] readEntry(ZipInputStream zipInputStream) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = zipInputStream.read(buffer)) > 0) {
+            outputStream.write(buffer, 0, read);
+        }
+        return outputStream.toByteArray();
+    }
+
+    public static TableBlock syntheticTable(int entries) {
+        TableBlock tableBlock = new TableBlock();
+        PackageBlock packageBlock = tableBlock.newPackage(0x7f, "com.example");
+        String[] qualifiers = new String[]{"", "-land", "-de", "-fr-rCA", "-v21"};
+        for (int i = 0; i < entries; i++) {
+            String config = qualifiers[i % qualifiers.length];
+            packageBlock.getOrCreate(config, "string", "string_" + (i / qualifiers.length))
+                    .setValueAsString("Value " + i + config);
+            if ((i & 3) == 0) {
+                packageBlock.getOrCreate(config, "dimen", "dimen_" + i)
+                        .setValueAsRaw(ValueType.DIMENSION, i << 8);
+            }
+        }
+        tableBlock.refreshFull();
+        return tableBlock;
+    }
+    public static ResXmlDocument syntheticXml(int elements) {
+        ResXmlDocument document = new ResXmlDocument();
+        ResXmlElement root = document.getOrCreateElement("LinearLayout");
+        root.getOrCreateAttribute(ResourceLibrary.URI_ANDROID, ResourceLibrary.PREFIX_ANDROID,
+                "orientation", 0x010100c4).setTypeAndData(ValueType.DEC, 1);
+        for (int i = 0; i < elements; i++) {
+            ResXmlElement element = root.newElement(i % 3 == 0 ? "TextView" : "ImageView");
+            element.getOrCreateAttribute(ResourceLibrary.URI_ANDROID, ResourceLibrary.PREFIX_ANDROID,
+                    "id", 0x010100d0).setTypeAndData(ValueType.REFERENCE, 0x7f080000 + i);
+            element.getOrCreateAttribute(ResourceLibrary.URI_ANDROID, ResourceLibrary.PREFIX_ANDROID,
+                    "text", 0x0101014f).setValueAsString("Text " + i);
+        }
+        document.refreshFull();
+        return document;
+    }
+    public static DexFile syntheticDex(int classes) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < classes; i++) {
+            String type = "Lcom/example/p" + (i % 16) + "/Class" + i + ";";
+            String next = "Lcom/example/p" + ((i + 1) % 16) + "/Class" + ((i + 1) % classes) + ";";
+            builder.append(".class public ").append(type).append('\n')
+                    .append(".super Ljava/lang/Object;\n")
+                    .append(".field private value:I\n")
+                    .append(".field public static next:").append(next).append('\n')
+                    .append(".method public constructor <init>()V\n")
+                    .append("    .registers 1\n")
+                    .append("    invoke-direct {p0}, Ljava/lang/Object;-><init>()V\n")
+                    .append("    return-void\n")
+                    .append(".end method\n")
+                    .append(".method public compute(I)I\n")
+                    .append("    .registers 4\n")
+                    .append("    iget v0, p0, ").append(type).append("->value:I\n")
+                    .append("    add-int v0, v0, p1\n")
+                    .append("    const-string v1, \"Class").append(i).append("\"\n")
+                    .append("    invoke-virtual {v1}, Ljava/lang/String;->length()I\n")
+                    .append("    move-result v1\n")
+                    .append("    mul-int/2addr v0, v1\n")
+                    .append("    return v0\n")
+                    .append(".end method\n");
+        }
+        DexFile dexFile = DexFile.createDefault();
+        dexFile.getOrCreateFirst().fromSmaliAll(SmaliReader.of(builder.toString()));
+        dexFile.refresh();
+        return dexFile;
+    }
+    /**
+     * Apk of generated resources.arsc, res xml files, raw files and classes.dex
+     * */
+    public static ApkModule syntheticApk(int size) throws IOException {
+        ApkModule apkModule = new ApkModule();
+        apkModule.setTableBlock(syntheticTable(size));
+        byte[] layout = syntheticXml(20).getBytes();
+        for (int i = 0; i < size; i++) {
+            apkModule.add(new ByteInputSource(layout, "res/layout/layout_" + i + ".xml"));
+            byte[] raw = new byte[256 + (i % 7) * 512];
+            for (int j = 0; j < raw.length; j++) {
+                raw[j] = (byte) (j * 31 + i);
+            }
+            apkModule.add(new ByteInputSource(raw, "res/raw/raw_" + i + ".bin"));
+        }
+        apkModule.add(new ByteInputSource(syntheticDex(size / 4 + 1).getBytes(), "classes.dex"));
+        return apkModule;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.apk;
+
+import com.reandroid.BenchmarkInputs;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes a loaded apk module to bytes and to a temporary file.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApkWriterBenchmark {
+
+    @Param({"android-36", BenchmarkInputs.SYNTHETIC})
+    public String source;
+
+    private ApkModule apkModule;
+    private File outputFile;
+
+    @Setup
+    public void setup() throws IOException {
+        if (BenchmarkInputs.isSynthetic(source)) {
+            apkModule = ApkModule.readApkBytes(BenchmarkInputs.syntheticApk(2000).writeApkBytes());
+        } else {
+            apkModule = ApkModule.readApkBytes(BenchmarkInputs.frameworkApk(source));
+        }
+        outputFile = File.createTempFile("benchmark", ".apk");
+    }
+    @TearDown
+    public void tearDown() throws IOException {
+        apkModule.close();
+        outputFile.delete();
+    }
+
+    @Benchmark
+    public byte[] writeBytes() throws IOException {
+        return apkModule.writeApkBytes();
+    }
+    @Benchmark
+    public long writeFile() throws IOException {
+        apkModule.writeApk(outputFile);
+        return outputFile.length();
+    }
+}
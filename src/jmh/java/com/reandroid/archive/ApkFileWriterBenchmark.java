@@ -0,0 +1,78 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.archive;
+
+import com.reandroid.archive.writer.ApkFileWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes changed entries to a file through the temporary buffer file or directly,
+ * scores are entries per second.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApkFileWriterBenchmark {
+
+    private static final int ENTRIES = 2000;
+
+    @Param({"false", "true"})
+    public boolean direct;
+
+    private byte[][] contents;
+    private File file;
+
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(ENTRIES);
+        contents = new byte[ENTRIES][];
+        for (int i = 0; i < ENTRIES; i++) {
+            // a few entries exceed the in-memory limit of direct write
+            int length = i % 200 == 0 ? 3 * 1024 * 1024 : 1024 + random.nextInt(16384);
+            byte[] bytes = new byte[length];
+            for (int j = 0; j < bytes.length; j++) {
+                bytes[j] = (byte) ('a' + random.nextInt(1 + j % 16));
+            }
+            contents[i] = bytes;
+        }
+        file = File.createTempFile("benchmark", ".apk");
+    }
+    @TearDown
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTRIES)
+    public long write() throws IOException {
+        InputSource[] sources = new InputSource[ENTRIES];
+        for (int i = 0; i < ENTRIES; i++) {
+            sources[i] = new ByteInputSource(contents[i], "res/raw/entry_" + i + ".txt");
+        }
+        ApkFileWriter writer = new ApkFileWriter(file, sources);
+        writer.setDirectWrite(direct);
+        writer.write();
+        return file.length();
+    }
+}
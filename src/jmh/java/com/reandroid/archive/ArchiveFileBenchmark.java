@@ -0,0 +1,94 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.archive;
+
+import com.reandroid.BenchmarkInputs;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens an apk as {@link ArchiveFile} and {@link ArchiveBytes}, lists the entries
+ * and optionally inflates all of them.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArchiveFileBenchmark {
+
+    @Param({"android-36", BenchmarkInputs.SYNTHETIC})
+    public String source;
+
+    private byte[] apkBytes;
+    private File apkFile;
+
+    @Setup
+    public void setup() throws IOException {
+        if (BenchmarkInputs.isSynthetic(source)) {
+            apkBytes = BenchmarkInputs.syntheticApk(2000).writeApkBytes();
+        } else {
+            apkBytes = BenchmarkInputs.frameworkApk(source);
+        }
+        apkFile = File.createTempFile("benchmark", ".apk");
+        FileOutputStream outputStream = new FileOutputStream(apkFile);
+        outputStream.write(apkBytes);
+        outputStream.close();
+    }
+    @TearDown
+    public void tearDown() {
+        apkFile.delete();
+    }
+
+    @Benchmark
+    public int openFile() throws IOException {
+        ArchiveFile archive = new ArchiveFile(apkFile);
+        int result = archive.createZipEntryMap().size();
+        archive.close();
+        return result;
+    }
+    @Benchmark
+    public int openBytes() throws IOException {
+        ArchiveBytes archive = new ArchiveBytes(apkBytes);
+        int result = archive.createZipEntryMap().size();
+        archive.close();
+        return result;
+    }
+    @Benchmark
+    public long readAllFile() throws IOException {
+        ArchiveFile archive = new ArchiveFile(apkFile);
+        long result = 0;
+        byte[] buffer = new byte[8192];
+        Iterator<ArchiveEntry> iterator = archive.getFiles();
+        while (iterator.hasNext()) {
+            InputStream inputStream = archive.openInputStream(iterator.next());
+            int read;
+            while ((read = inputStream.read(buffer)) > 0) {
+                result += read;
+            }
+            inputStream.close();
+        }
+        archive.close();
+        return result;
+    }
+}
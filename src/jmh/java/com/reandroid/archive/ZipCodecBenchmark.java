@@ -0,0 +1,92 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.archive;
+
+import com.reandroid.archive.writer.ApkByteWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deflates and inflates many small entries, scores are entries per second.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ZipCodecBenchmark {
+
+    private static final int ENTRIES = 2000;
+
+    @Param({"1", "6", "9"})
+    public int level;
+
+    private byte[][] contents;
+    private ArchiveBytes archive;
+    private InputSource[] entrySources;
+
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(ENTRIES);
+        contents = new byte[ENTRIES][];
+        for (int i = 0; i < ENTRIES; i++) {
+            byte[] bytes = new byte[1024 + random.nextInt(8192)];
+            for (int j = 0; j < bytes.length; j++) {
+                bytes[j] = (byte) ('a' + random.nextInt(1 + j % 16));
+            }
+            contents[i] = bytes;
+        }
+        archive = new ArchiveBytes(deflate());
+        entrySources = archive.createZipEntryMap().toArray();
+    }
+    @TearDown
+    public void tearDown() throws IOException {
+        archive.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTRIES)
+    public byte[] deflate() throws IOException {
+        InputSource[] sources = new InputSource[ENTRIES];
+        for (int i = 0; i < ENTRIES; i++) {
+            sources[i] = new ByteInputSource(contents[i], "res/raw/entry_" + i + ".txt");
+        }
+        ApkByteWriter writer = new ApkByteWriter(sources);
+        writer.getCompressionSetting().setLevel(level);
+        writer.write();
+        return writer.toByteArray();
+    }
+    @Benchmark
+    @OperationsPerInvocation(ENTRIES)
+    public long inflate() throws IOException {
+        long result = 0;
+        byte[] buffer = new byte[8192];
+        for (InputSource inputSource : entrySources) {
+            InputStream inputStream = inputSource.openStream();
+            int read;
+            while ((read = inputStream.read(buffer)) > 0) {
+                result += read;
+            }
+            inputStream.close();
+        }
+        return result;
+    }
+}
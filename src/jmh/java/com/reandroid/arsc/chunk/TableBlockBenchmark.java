@@ -0,0 +1,68 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.arsc.chunk;
+
+import com.reandroid.BenchmarkInputs;
+import com.reandroid.arsc.value.Entry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads resources.arsc of a bundled framework or a generated table, and
+ * modifies one entry and writes it back.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TableBlockBenchmark {
+
+    @Param({"android-36", BenchmarkInputs.SYNTHETIC})
+    public String source;
+
+    private byte[] tableBytes;
+
+    @Setup
+    public void setup() throws IOException {
+        if (BenchmarkInputs.isSynthetic(source)) {
+            tableBytes = BenchmarkInputs.syntheticTable(20000).getBytes();
+        } else {
+            tableBytes = BenchmarkInputs.readEntry(
+                    BenchmarkInputs.frameworkApk(source), TableBlock.FILE_NAME);
+        }
+    }
+
+    @Benchmark
+    public TableBlock read() throws IOException {
+        TableBlock tableBlock = new TableBlock();
+        tableBlock.readBytes(new ByteArrayInputStream(tableBytes));
+        return tableBlock;
+    }
+    @Benchmark
+    public byte[] modifyAndWrite() throws IOException {
+        TableBlock tableBlock = read();
+        PackageBlock packageBlock = tableBlock.pickOne();
+        Entry entry = packageBlock.getOrCreate("", "string", "benchmark_added");
+        entry.setValueAsString("Benchmark");
+        tableBlock.refresh();
+        return tableBlock.getBytes();
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.arsc.chunk;
+
+import com.reandroid.arsc.container.SpecTypePair;
+import com.reandroid.arsc.model.ResourceEntry;
+import com.reandroid.arsc.value.Entry;
+import com.reandroid.arsc.value.ResValue;
+import com.reandroid.utils.io.IOUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Loads several copies of resources.arsc and scans all entries, reports retained heap
+ * with and without shared item bytes. Uses the largest bundled framework unless an apk
+ * is given, e.g: gradle jmh -Pjmh.args="TableBlockMemoryBenchmark -p apk=/path/to/app.apk"
+ * The heap is sampled after gc inside the measured method, thus the time score
+ * includes the gc and is only meaningful relative to the other mode.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class TableBlockMemoryBenchmark {
+
+    @Param({"false", "true"})
+    public boolean shared;
+
+    @Param({"4"})
+    public int copies;
+
+    @Param({""})
+    public String apk;
+
+    private byte[] tableBytes;
+    private long baseline;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        InputStream inputStream;
+        if (apk.length() != 0) {
+            inputStream = new FileInputStream(apk);
+        } else {
+            inputStream = TableBlockMemoryBenchmark.class
+                    .getResourceAsStream("/frameworks/android/android-36.apk");
+        }
+        tableBytes = readTable(inputStream);
+        baseline = usedHeap();
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Heap {
+        public long retainedKiB;
+    }
+
+    @Benchmark
+    public Object loadCopies(Heap heap) throws IOException {
+        TableBlock[] tableBlocks = new TableBlock[copies];
+        for (int i = 0; i < copies; i++) {
+            TableBlock tableBlock;
+            if (shared) {
+                // every copy owns its buffer as an apk loaded separately would
+                tableBlock = TableBlock.loadShared(tableBytes.clone());
+            } else {
+                tableBlock = TableBlock.load(new ByteArrayInputStream(tableBytes));
+            }
+            scan(tableBlock);
+            tableBlocks[i] = tableBlock;
+        }
+        heap.retainedKiB = (usedHeap() - baseline) / 1024;
+        return tableBlocks;
+    }
+
+    private static long scan(TableBlock tableBlock) {
+        long result = 0;
+        for (PackageBlock packageBlock : tableBlock.listPackages()) {
+            for (SpecTypePair specTypePair : packageBlock.listSpecTypePairs()) {
+                Iterator<ResourceEntry> iterator = specTypePair.getResources();
+                while (iterator.hasNext()) {
+                    for (Entry entry : iterator.next()) {
+                        if (entry.isNull()) {
+                            continue;
+                        }
+                        result += entry.getName().length();
+                        ResValue resValue = entry.getResValue();
+                        if (resValue != null) {
+                            result += resValue.getData();
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+    private static byte[] readTable(InputStream inputStream) throws IOException {
+        ZipInputStream zipInputStream = new ZipInputStream(inputStream);
+        ZipEntry zipEntry;
+        while ((zipEntry = zipInputStream.getNextEntry()) != null) {
+            if (TableBlock.FILE_NAME.equals(zipEntry.getName())) {
+                byte[] bytes = IOUtil.readFully(zipInputStream);
+                zipInputStream.close();
+                return bytes;
+            }
+        }
+        zipInputStream.close();
+        throw new IOException("Missing " + TableBlock.FILE_NAME);
+    }
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.arsc.chunk.xml;
+
+import com.reandroid.BenchmarkInputs;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses all binary xml files of a bundled framework (only the manifest), or a set
+ * of generated layouts, and writes them back after refresh.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResXmlDocumentBenchmark {
+
+    @Param({"android-36", BenchmarkInputs.SYNTHETIC})
+    public String source;
+
+    private List<byte[]> xmlFiles;
+
+    @Setup
+    public void setup() throws IOException {
+        List<byte[]> results = new ArrayList<>();
+        if (BenchmarkInputs.isSynthetic(source)) {
+            for (int i = 1; i <= 100; i++) {
+                results.add(BenchmarkInputs.syntheticXml(i).getBytes());
+            }
+        } else {
+            byte[] apk = BenchmarkInputs.frameworkApk(source);
+            for (byte[] bytes : BenchmarkInputs.readEntries(apk, "", ".xml")) {
+                if (ResXmlDocument.isResXmlBlock(bytes)) {
+                    results.add(bytes);
+                }
+            }
+        }
+        xmlFiles = results;
+    }
+
+    @Benchmark
+    public int read() throws IOException {
+        int result = 0;
+        for (byte[] bytes : xmlFiles) {
+            result += parse(bytes).getElementsCount();
+        }
+        return result;
+    }
+    @Benchmark
+    public int readAndWrite() throws IOException {
+        int result = 0;
+        for (byte[] bytes : xmlFiles) {
+            ResXmlDocument document = parse(bytes);
+            document.refresh();
+            result += document.getBytes().length;
+        }
+        return result;
+    }
+    private static ResXmlDocument parse(byte[] bytes) throws IOException {
+        ResXmlDocument document = new ResXmlDocument();
+        document.readBytes(new ByteArrayInputStream(bytes));
+        return document;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.dex.key;
+
+import com.reandroid.dex.model.DexClass;
+import com.reandroid.dex.model.DexFile;
+import com.reandroid.dex.model.DexLayout;
+import com.reandroid.dex.model.DexMethod;
+import com.reandroid.dex.smali.SmaliReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads several copies of the same dex (like multiple DexDirectory instances sharing
+ * framework classes) and reports retained heap with and without key interning.
+ * The heap is sampled after gc inside the measured method, thus the time score
+ * includes the gc and is only meaningful relative to the other mode.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class KeyInternerBenchmark {
+
+    @Param({"false", "true"})
+    public boolean interning;
+
+    @Param({"4"})
+    public int copies;
+
+    private byte[] dexBytes;
+    private long baseline;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dexBytes = createDex(3000, 8);
+        KeyInterner.setEnabled(interning);
+        baseline = usedHeap();
+    }
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        KeyInterner.setEnabled(false);
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Heap {
+        public long retainedKiB;
+    }
+
+    @Benchmark
+    public Object loadCopies(Heap heap) throws IOException {
+        DexFile[] dexFiles = new DexFile[copies];
+        for (int i = 0; i < copies; i++) {
+            DexFile dexFile = DexFile.read(dexBytes);
+            touchKeys(dexFile);
+            dexFiles[i] = dexFile;
+        }
+        heap.retainedKiB = (usedHeap() - baseline) / 1024;
+        return dexFiles;
+    }
+
+    private static void touchKeys(DexFile dexFile) {
+        Iterator<DexClass> iterator = dexFile.getFirst().getDexClasses();
+        while (iterator.hasNext()) {
+            DexClass dexClass = iterator.next();
+            dexClass.getKey();
+            Iterator<DexMethod> methods = dexClass.getDeclaredMethods();
+            while (methods.hasNext()) {
+                methods.next().getKey();
+            }
+        }
+    }
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+    private static byte[] createDex(int classes, int methods) throws IOException {
+        DexFile dexFile = DexFile.createDefault();
+        DexLayout layout = dexFile.getOrCreateFirst();
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < classes; i++) {
+            builder.setLength(0);
+            builder.append(".class public Lcom/example/p").append(i % 50)
+                    .append("/Class").append(i).append(";\n");
+            builder.append(".super Ljava/lang/Object;\n");
+            for (int j = 0; j < methods; j++) {
+                int lib = (i + j) % 200;
+                builder.append(".method public method").append(j)
+                        .append("(Landroid/lib/Type").append(lib).append(";)Ljava/lang/String;\n")
+                        .append("    .registers 3\n")
+                        .append("    invoke-virtual {p1}, Landroid/lib/Type").append(lib)
+                        .append(";->call").append(j).append("()Ljava/lang/String;\n")
+                        .append("    move-result-object v0\n")
+                        .append("    return-object v0\n")
+                        .append(".end method\n");
+            }
+            layout.fromSmali(SmaliReader.of(builder.toString()));
+        }
+        dexFile.refresh();
+        return dexFile.getBytes();
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.dex.model;
+
+import com.reandroid.BenchmarkInputs;
+import com.reandroid.dex.ins.Opcode;
+import com.reandroid.dex.key.MethodKey;
+import com.reandroid.dex.smali.SmaliWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a generated dex and writes all classes as smali. The bundled frameworks
+ * carry resources only, thus there is no framework source for dex.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DexFileBenchmark {
+
+    @Param({"500", "5000"})
+    public int classes;
+
+    private byte[] dexBytes;
+    private DexFile dexFile;
+    private DexFile patchFile;
+    private DexInstruction patchInstruction;
+    private int patchCount;
+
+    @Setup
+    public void setup() throws IOException {
+        dexBytes = BenchmarkInputs.syntheticDex(classes).getBytes();
+        dexFile = DexFile.read(dexBytes);
+        patchFile = DexFile.read(dexBytes);
+        DexMethod dexMethod = patchFile.getDeclaredMethod(MethodKey.parse(
+                "Lcom/example/p4/Class100;->compute(I)I"));
+        patchInstruction = dexMethod.getInstructions(Opcode.CONST_STRING).next();
+    }
+    @TearDown
+    public void tearDown() {
+        dexFile.close();
+        patchFile.close();
+    }
+
+    @Benchmark
+    public DexFile read() throws IOException {
+        return DexFile.read(dexBytes);
+    }
+    @Benchmark
+    public long writeSmali() throws IOException {
+        CountingWriter writer = new CountingWriter();
+        SmaliWriter smaliWriter = new SmaliWriter(writer);
+        Iterator<DexClass> iterator = dexFile.getDexClasses();
+        while (iterator.hasNext()) {
+            iterator.next().append(smaliWriter);
+        }
+        smaliWriter.close();
+        return writer.count;
+    }
+
+    /**
+     * Hot-patch case, one instruction of one method is modified then written
+     * */
+    @Benchmark
+    public byte[] patchAndWrite() {
+        patchCount ++;
+        patchInstruction.setString((patchCount & 1) == 0 ? "Class100" : "Class100-patched");
+        patchFile.refresh();
+        return patchFile.getBytes();
+    }
+
+    static class CountingWriter extends Writer {
+        long count;
+
+        @Override
+        public void write(int c) {
+            count ++;
+        }
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            count += length;
+        }
+        @Override
+        public void write(String str, int offset, int length) {
+            count += length;
+        }
+        @Override
+        public void flush() {
+        }
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.utils;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares byte-at-a-time table crc (the previous implementation), slice-by-8
+ * and the jdk backed default.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Crc32Benchmark {
+
+    @Param({"64", "4096", "1048576"})
+    public int size;
+
+    private byte[] data;
+
+    @Setup
+    public void setup() {
+        data = new byte[size];
+        new Random(1).nextBytes(data);
+    }
+
+    @Benchmark
+    public long byteTable() {
+        return ByteTableCrc32.of(data);
+    }
+    @Benchmark
+    public long sliceBy8() {
+        Crc32 crc32 = new Crc32(false);
+        crc32.update(data, 0, data.length);
+        return crc32.getValue();
+    }
+    @Benchmark
+    public long jdk() {
+        Crc32 crc32 = new Crc32(true);
+        crc32.update(data, 0, data.length);
+        return crc32.getValue();
+    }
+
+    static class ByteTableCrc32 {
+        private static final long[] CRC_TABLE;
+        static {
+            long[] table = new long[256];
+            for (int i = 0; i < 256; i++) {
+                long c = i;
+                for (int j = 0; j < 8; j++) {
+                    if ((c & 1) == 1) {
+                        c = 0xedb88320L ^ (c >> 1);
+                    } else {
+                        c = c >> 1;
+                    }
+                }
+                table[i] = c;
+            }
+            CRC_TABLE = table;
+        }
+        static long of(byte[] data) {
+            long c = 0xffffffffL;
+            long[] table = CRC_TABLE;
+            for (byte b : data) {
+                c = table[(int) ((c ^ (b & 0xff)) & 0xff)] ^ (c >> 8);
+            }
+            return c ^ 0xffffffffL;
+        }
+    }
+}
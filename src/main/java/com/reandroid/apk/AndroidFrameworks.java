@@ -45,6 +45,17 @@ public class AndroidFrameworks {
     public static FrameworkApk getBestMatch(int version){
         return getFrameworkManager().getBestMatch(version);
     }
+    public static FrameworkApk acquire(int version){
+        return getFrameworkManager().acquire(version);
+    }
+    public static FrameworkApk acquireLatest(){
+        return getFrameworkManager().acquireLatest();
+    }
+    public static void release(FrameworkApk frameworkApk){
+        if(frameworkApk != null){
+            getFrameworkManager().release(frameworkApk);
+        }
+    }
     public static FrameworkManager getFrameworkManager(){
         synchronized (AndroidFrameworks.class){
             FrameworkManager manager = AndroidFrameworks.frameworkManager;
@@ -24,6 +24,7 @@ import com.reandroid.archive.WriteProgress;
 import com.reandroid.archive.ZipEntryMap;
 import com.reandroid.archive.block.ApkSignatureBlock;
 import com.reandroid.archive.io.ArchiveFileEntrySource;
+import com.reandroid.archive.signer.ApkSigner;
 import com.reandroid.archive.writer.ApkByteWriter;
 import com.reandroid.archive.writer.ApkFileWriter;
 import com.reandroid.archive.writer.ApkStreamWriter;
@@ -79,9 +80,11 @@ public class ApkModule implements ApkFile, Closeable {
     private APKLogger apkLogger;
     private ApkType mApkType;
     private ApkSignatureBlock apkSignatureBlock;
+    private ApkSigner apkSigner;
     private Integer preferredFramework;
     private Closeable mCloseable;
     private final List<TableBlock> mExternalFrameworks;
+    private final List<FrameworkApk> mAcquiredFrameworks;
     private int extractNativeLibs;
 
     private final Map<Object, Object> mTagMaps;
@@ -92,6 +95,7 @@ public class ApkModule implements ApkFile, Closeable {
         this.mUncompressedFiles=new UncompressedFiles();
         this.mUncompressedFiles.addPath(zipEntryMap);
         this.mExternalFrameworks = new ArrayCollection<>();
+        this.mAcquiredFrameworks = new ArrayCollection<>();
         this.zipEntryMap.setModuleName(moduleName);
         this.mTagMaps = new HashMap<>();
     }
@@ -178,6 +182,16 @@ public class ApkModule implements ApkFile, Closeable {
         this.apkSignatureBlock = apkSignatureBlock;
     }
 
+    public ApkSigner getApkSigner() {
+        return apkSigner;
+    }
+    /**
+     * Sets signer applied to all apk writers created by this module
+     * */
+    public void setApkSigner(ApkSigner apkSigner) {
+        this.apkSigner = apkSigner;
+    }
+
     public boolean hasSignatureBlock() {
         return getApkSignatureBlock() != null;
     }
@@ -279,11 +293,12 @@ public class ApkModule implements ApkFile, Closeable {
         FrameworkApk frameworkApk;
         if (version == null) {
             logMessage("Can not read framework version, loading latest");
-            frameworkApk = AndroidFrameworks.getLatest();
+            frameworkApk = AndroidFrameworks.acquireLatest();
         } else {
             logMessage("Loading android framework for version: " + version);
-            frameworkApk = AndroidFrameworks.getBestMatch(version);
+            frameworkApk = AndroidFrameworks.acquire(version);
         }
+        mAcquiredFrameworks.add(frameworkApk);
         FrameworkTable frameworkTable = frameworkApk.getTableBlock();
         tableBlock.addFramework(frameworkTable);
         logMessage("Initialized framework: " + frameworkApk.getName()
@@ -379,7 +394,9 @@ public class ApkModule implements ApkFile, Closeable {
         }
         logMessage("Initializing preferred framework: " + version);
         mTableBlock.clearFrameworks();
-        FrameworkApk frameworkApk = AndroidFrameworks.getBestMatch(version);
+        releaseFrameworks();
+        FrameworkApk frameworkApk = AndroidFrameworks.acquire(version);
+        mAcquiredFrameworks.add(frameworkApk);
         AndroidFrameworks.setCurrent(frameworkApk);
         mTableBlock.addFramework(frameworkApk.getTableBlock());
         logMessage("Initialized framework: " + frameworkApk.getVersionCode());
@@ -533,6 +550,7 @@ public class ApkModule implements ApkFile, Closeable {
     private void applyDefaultApkWriterSetting(ApkWriter<?, ?> writer) {
         writer.setAPKLogger(getApkLogger());
         writer.setApkSignatureBlock(getApkSignatureBlock());
+        writer.setApkSigner(getApkSigner());
         writer.setArchiveInfo(getZipEntryMap().getArchiveInfo());
         writer.setDataDescriptorFactory(DataDescriptorFactory.NO_ACTION);
     }
@@ -1378,8 +1396,20 @@ public class ApkModule implements ApkFile, Closeable {
     public void setCloseable(Closeable closeable) {
         this.mCloseable = closeable;
     }
+    /**
+     * Releases the shared android frameworks acquired by this module, the frameworks remain
+     * attached to the table block but are no longer counted as used by this module.
+     * */
+    public void releaseFrameworks() {
+        List<FrameworkApk> acquired = this.mAcquiredFrameworks;
+        for (FrameworkApk frameworkApk : acquired) {
+            AndroidFrameworks.release(frameworkApk);
+        }
+        acquired.clear();
+    }
     @Override
     public void close() throws IOException {
+        releaseFrameworks();
         Closeable closeable = this.mCloseable;
         if (closeable != null) {
             closeable.close();
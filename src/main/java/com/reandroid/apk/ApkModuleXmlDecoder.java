@@ -24,6 +24,7 @@ import com.reandroid.arsc.chunk.xml.AndroidManifestBlock;
 import com.reandroid.arsc.chunk.xml.ResXmlDocument;
 import com.reandroid.arsc.coder.xml.XmlCoder;
 import com.reandroid.arsc.list.OverlayableList;
+import com.reandroid.utils.concurrent.WorkerPool;
 import com.reandroid.utils.io.IOUtil;
 import com.reandroid.arsc.value.*;
 import com.reandroid.json.JSONObject;
@@ -34,15 +35,20 @@ import org.xmlpull.v1.XmlSerializer;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
 import org.apache.commons.collections4.Predicate;
 
 public class ApkModuleXmlDecoder extends ApkModuleDecoder implements Predicate<Entry> {
     private final Map<Integer, Set<ResConfig>> decodedEntries;
     private boolean keepResPath;
+    private WorkerPool workerPool;
+    private int parallelism;
+    private WorkerPool activeWorkerPool;
 
     public ApkModuleXmlDecoder(ApkModule apkModule){
         super(apkModule);
-        this.decodedEntries = new HashMap<>();
+        this.decodedEntries = new ConcurrentHashMap<>();
     }
     public void setKeepResPath(boolean keepResPath){
         this.keepResPath = keepResPath;
@@ -50,6 +56,46 @@ public class ApkModuleXmlDecoder extends ApkModuleDecoder implements Predicate<E
     public boolean keepResPath() {
         return keepResPath;
     }
+    /**
+     * Sets number of threads used to decode res files and values xml, the decoded files are
+     * identical to sequential mode. Values less than 2 disables parallel mode.
+     * */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+    public int getParallelism() {
+        WorkerPool workerPool = this.workerPool;
+        if(workerPool != null){
+            return workerPool.getParallelism();
+        }
+        return parallelism;
+    }
+    /**
+     * Sets caller owned worker pool, it is not shut down after decoding
+     * */
+    public void setWorkerPool(WorkerPool workerPool) {
+        this.workerPool = workerPool;
+    }
+    WorkerPool getWorkerPool() {
+        return activeWorkerPool;
+    }
+    private void openWorkerPool() {
+        WorkerPool workerPool = this.workerPool;
+        if(workerPool == null && parallelism > 1){
+            workerPool = WorkerPool.create(parallelism, "res-decoder");
+        }
+        if(workerPool != null && workerPool.getParallelism() < 2){
+            workerPool = null;
+        }
+        this.activeWorkerPool = workerPool;
+    }
+    private void closeWorkerPool() {
+        WorkerPool workerPool = this.activeWorkerPool;
+        this.activeWorkerPool = null;
+        if(workerPool != null && workerPool != this.workerPool){
+            workerPool.close();
+        }
+    }
 
     @Override
     void initialize(){
@@ -59,10 +105,18 @@ public class ApkModuleXmlDecoder extends ApkModuleDecoder implements Predicate<E
     @Override
     public void decodeResourceTable(File mainDirectory) throws IOException{
         TableBlock tableBlock = getApkModule().getTableBlock();
-        decodeTableBlock(mainDirectory, tableBlock);
-        decodeResFiles(mainDirectory);
-        decodeValues(mainDirectory, tableBlock);
-        decodeOverlayable(mainDirectory, tableBlock);
+        boolean indexEnabled = tableBlock.isResourceIndexEnabled();
+        tableBlock.setResourceIndexEnabled(true);
+        openWorkerPool();
+        try {
+            decodeTableBlock(mainDirectory, tableBlock);
+            decodeResFiles(mainDirectory);
+            decodeValues(mainDirectory, tableBlock);
+            decodeOverlayable(mainDirectory, tableBlock);
+        } finally {
+            closeWorkerPool();
+            tableBlock.setResourceIndexEnabled(indexEnabled);
+        }
     }
     private void decodeTableBlock(File mainDirectory, TableBlock tableBlock) throws IOException {
         try{
@@ -91,34 +145,96 @@ public class ApkModuleXmlDecoder extends ApkModuleDecoder implements Predicate<E
             logMessage("Res files: " + TableBlock.DIRECTORY_NAME);
         }
         List<ResFile> resFileList = getApkModule().listResFiles();
+        WorkerPool workerPool = getWorkerPool();
+        if(workerPool != null){
+            decodeResFiles(mainDirectory, resFileList, workerPool);
+            return;
+        }
         for(ResFile resFile:resFileList){
             decodeResFile(mainDirectory, resFile);
         }
     }
+    /**
+     * Output paths are resolved in order on the calling thread as it renames entry values
+     * of the shared table, then files are decoded on worker threads. Sources which are
+     * not thread safe are decoded on the calling thread.
+     * */
+    private void decodeResFiles(File mainDirectory, List<ResFile> resFileList,
+                                WorkerPool workerPool) throws IOException{
+        int length = resFileList.size();
+        logMessage("Decoding res files: " + length + ", threads = " + workerPool.getParallelism());
+        File[] files = new File[length];
+        for(int i = 0; i < length; i++){
+            files[i] = prepareResFile(mainDirectory, resFileList.get(i));
+        }
+        int window = workerPool.getParallelism() * 2;
+        Future<?>[] futures = new Future<?>[length];
+        int submitted = 0;
+        try {
+            for(int i = 0; i < length; i++){
+                int limit = Math.min(length, i + window);
+                while (submitted < limit){
+                    ResFile resFile = resFileList.get(submitted);
+                    File file = files[submitted];
+                    if(file != null && resFile.getInputSource().isThreadSafe()){
+                        futures[submitted] = workerPool.submit(() -> {
+                            decodeResFile(resFile, file);
+                            return null;
+                        });
+                    }
+                    submitted ++;
+                }
+                Future<?> future = futures[i];
+                if(future != null){
+                    futures[i] = null;
+                    WorkerPool.await(future);
+                }else if(files[i] != null){
+                    decodeResFile(resFileList.get(i), files[i]);
+                }
+            }
+        } finally {
+            WorkerPool.cancel(futures);
+        }
+    }
     private void decodeResFile(File mainDirectory, ResFile resFile)
             throws IOException{
+        File file = prepareResFile(mainDirectory, resFile);
+        if(file != null){
+            decodeResFile(resFile, file);
+        }
+    }
+    private File prepareResFile(File mainDirectory, ResFile resFile) throws IOException{
         if(resFile.isBinaryXml()){
             try{
-                decodeResXml(mainDirectory, resFile);
+                return toDecodeResFile(mainDirectory, resFile, resFile.pickOne().getPackageBlock());
             }catch (Exception ex){
                 logOrThrow("Failed to decode: "
                         + resFile.getFilePath(), ex);
             }
-            return;
+            return null;
         }
         String path = resFile.getFilePath();
         if(path.endsWith(".xml")){
             logMessage("Ignore non bin xml: " + path);
+            return null;
+        }
+        return toDecodeResFile(mainDirectory, resFile, resFile.pickOne().getPackageBlock());
+    }
+    private void decodeResFile(ResFile resFile, File file) throws IOException{
+        if(resFile.isBinaryXml()){
+            try{
+                decodeResXml(resFile, file);
+            }catch (Exception ex){
+                logOrThrow("Failed to decode: "
+                        + resFile.getFilePath(), ex);
+            }
             return;
         }
-        decodeResRaw(mainDirectory, resFile);
+        decodeResRaw(resFile, file);
     }
-    private void decodeResRaw(File mainDirectory, ResFile resFile)
+    private void decodeResRaw(ResFile resFile, File file)
             throws IOException {
         Entry entry = resFile.pickOne();
-        PackageBlock packageBlock = entry.getPackageBlock();
-
-        File file = toDecodeResFile(mainDirectory, resFile, packageBlock);
         InputSource inputSource = resFile.getInputSource();
         logVerbose(inputSource.getAlias());
         inputSource.write(file);
@@ -127,12 +243,10 @@ public class ApkModuleXmlDecoder extends ApkModuleDecoder implements Predicate<E
         }
         addDecodedPath(inputSource.getAlias());
     }
-    private void decodeResXml(File mainDirectory, ResFile resFile)
+    private void decodeResXml(ResFile resFile, File file)
             throws IOException{
         Entry entry = resFile.pickOne();
         PackageBlock packageBlock = entry.getPackageBlock();
-
-        File file = toDecodeResFile(mainDirectory, resFile, packageBlock);
         InputSource inputSource = resFile.getInputSource();
 
         logVerbose(inputSource.getAlias());
@@ -265,13 +379,8 @@ public class ApkModuleXmlDecoder extends ApkModuleDecoder implements Predicate<E
         if(entry.isNull()){
             return;
         }
-        int resourceId= entry.getResourceId();
-        Set<ResConfig> resConfigSet = decodedEntries.get(resourceId);
-        if(resConfigSet==null){
-            resConfigSet=new HashSet<>();
-            decodedEntries.put(resourceId, resConfigSet);
-        }
-        resConfigSet.add(entry.getResConfig());
+        decodedEntries.computeIfAbsent(entry.getResourceId(),
+                key -> ConcurrentHashMap.newKeySet()).add(entry.getResConfig());
     }
     private boolean containsDecodedEntry(Entry entry){
         Set<ResConfig> resConfigSet = decodedEntries.get(entry.getResourceId());
@@ -283,7 +392,7 @@ public class ApkModuleXmlDecoder extends ApkModuleDecoder implements Predicate<E
     private void decodeValues(File mainDirectory, TableBlock tableBlock) throws IOException {
         File resourcesDir = new File(mainDirectory, TableBlock.DIRECTORY_NAME);
         XmlCoder xmlCoder = XmlCoder.getInstance();
-        xmlCoder.VALUES_XML.decodeTable(resourcesDir, tableBlock, this);
+        xmlCoder.VALUES_XML.decodeTable(resourcesDir, tableBlock, this, getWorkerPool());
     }
     private void decodeOverlayable(File mainDirectory, TableBlock tableBlock) throws IOException {
         for (PackageBlock packageBlock : tableBlock) {
@@ -19,19 +19,26 @@ import com.reandroid.apk.xmlencoder.XMLEncodeSource;
 import com.reandroid.apk.xmlencoder.XMLTableBlockEncoder;
 import com.reandroid.archive.Archive;
 import com.reandroid.archive.FileInputSource;
+import com.reandroid.archive.InputSource;
 import com.reandroid.arsc.chunk.PackageBlock;
 import com.reandroid.arsc.chunk.TableBlock;
 import com.reandroid.arsc.chunk.xml.AndroidManifestBlock;
 import com.reandroid.arsc.value.Entry;
+import com.reandroid.utils.concurrent.WorkerPool;
 import com.reandroid.xml.source.XMLFileParserSource;
 import com.reandroid.xml.source.XMLParserSource;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Future;
 
 public class ApkModuleXmlEncoder extends ApkModuleEncoder{
     private final XMLTableBlockEncoder tableBlockEncoder;
+    private WorkerPool workerPool;
+    private int parallelism;
+    private WorkerPool activeWorkerPool;
     public ApkModuleXmlEncoder(){
         this.tableBlockEncoder = new XMLTableBlockEncoder();
     }
@@ -39,12 +46,59 @@ public class ApkModuleXmlEncoder extends ApkModuleEncoder{
         this.tableBlockEncoder = new XMLTableBlockEncoder(module, tableBlock);
     }
 
+    /**
+     * Sets number of threads used to parse values xml and to encode xml files, the encoded
+     * apk is identical to sequential mode. Values less than 2 disables parallel mode.
+     * */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+    public int getParallelism() {
+        WorkerPool workerPool = this.workerPool;
+        if(workerPool != null){
+            return workerPool.getParallelism();
+        }
+        return parallelism;
+    }
+    /**
+     * Sets caller owned worker pool, it is not shut down after encoding
+     * */
+    public void setWorkerPool(WorkerPool workerPool) {
+        this.workerPool = workerPool;
+    }
+    WorkerPool getWorkerPool() {
+        return activeWorkerPool;
+    }
+    private void openWorkerPool() {
+        WorkerPool workerPool = this.workerPool;
+        if(workerPool == null && parallelism > 1){
+            workerPool = WorkerPool.create(parallelism, "res-encoder");
+        }
+        if(workerPool != null && workerPool.getParallelism() < 2){
+            workerPool = null;
+        }
+        this.activeWorkerPool = workerPool;
+    }
+    private void closeWorkerPool() {
+        WorkerPool workerPool = this.activeWorkerPool;
+        this.activeWorkerPool = null;
+        if(workerPool != null && workerPool != this.workerPool){
+            workerPool.close();
+        }
+    }
+
     @Override
     public void buildResources(File mainDirectory) throws IOException{
-        encodeManifestBinary(mainDirectory);
-        buildTableBlock(mainDirectory);
-        encodeManifestXml(mainDirectory);
-        scanResFilesDirectory(mainDirectory);
+        openWorkerPool();
+        try {
+            encodeManifestBinary(mainDirectory);
+            buildTableBlock(mainDirectory);
+            encodeManifestXml(mainDirectory);
+            scanResFilesDirectory(mainDirectory);
+            encodeXmlFiles();
+        } finally {
+            closeWorkerPool();
+        }
     }
     @Override
     public ApkModule getApkModule(){
@@ -53,7 +107,47 @@ public class ApkModuleXmlEncoder extends ApkModuleEncoder{
 
     private void buildTableBlock(File mainDirectory) throws IOException {
         XMLTableBlockEncoder tableBlockEncoder = this.tableBlockEncoder;
-        tableBlockEncoder.scanMainDirectory(mainDirectory);
+        tableBlockEncoder.setWorkerPool(getWorkerPool());
+        try {
+            tableBlockEncoder.scanMainDirectory(mainDirectory);
+        } finally {
+            tableBlockEncoder.setWorkerPool(null);
+        }
+    }
+    /**
+     * The table is complete at this stage and encoding xml files only reads it,
+     * thus all xml files are encoded on worker threads.
+     * */
+    private void encodeXmlFiles() throws IOException {
+        WorkerPool workerPool = getWorkerPool();
+        if(workerPool == null){
+            return;
+        }
+        List<XMLEncodeSource> sourceList = new ArrayList<>();
+        for(InputSource inputSource : getApkModule().getZipEntryMap()){
+            if(inputSource instanceof XMLEncodeSource){
+                sourceList.add((XMLEncodeSource) inputSource);
+            }
+        }
+        int size = sourceList.size();
+        logMessage("Encoding xml files: " + size + ", threads = " + workerPool.getParallelism());
+        Future<?>[] futures = new Future<?>[size];
+        try {
+            for(int i = 0; i < size; i++){
+                XMLEncodeSource encodeSource = sourceList.get(i);
+                futures[i] = workerPool.submit(() -> {
+                    encodeSource.encodeNow();
+                    return null;
+                });
+            }
+            for(int i = 0; i < size; i++){
+                Future<?> future = futures[i];
+                futures[i] = null;
+                WorkerPool.await(future);
+            }
+        } finally {
+            WorkerPool.cancel(futures);
+        }
     }
     private void encodeManifestBinary(File mainDirectory) {
         File file = new File(mainDirectory, AndroidManifestBlock.FILE_NAME_BIN);
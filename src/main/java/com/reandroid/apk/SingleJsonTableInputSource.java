@@ -21,7 +21,6 @@ import com.reandroid.archive.InputSource;
 import com.reandroid.arsc.chunk.TableBlock;
 import com.reandroid.json.JSONException;
 import com.reandroid.json.JSONObject;
-import com.reandroid.utils.Crc32OutputStream;
 
 import java.io.*;
 
@@ -35,35 +34,12 @@ public class SingleJsonTableInputSource extends BlockInputSource<TableBlock> {
         this.inputSource = inputSource;
     }
 
-    @Override
-    public TableBlock getBlock() {
-        try {
-            return getTableBlock();
-        } catch (IOException exception) {
-            throw new RuntimeException(exception);
-        }
+    public TableBlock getTableBlock() throws IOException {
+        clearCache();
+        return loadBlock();
     }
     @Override
-    public long write(OutputStream outputStream) throws IOException {
-        return getTableBlock().writeBytes(outputStream);
-    }
-    @Override
-    public InputStream openStream() throws IOException {
-        TableBlock tableBlock = getTableBlock();
-        return new ByteArrayInputStream(tableBlock.getBytes());
-    }
-    @Override
-    public long getLength() throws IOException{
-        TableBlock tableBlock = getTableBlock();
-        return tableBlock.countBytes();
-    }
-    @Override
-    public long getCrc() throws IOException {
-        Crc32OutputStream outputStream = new Crc32OutputStream();
-        this.write(outputStream);
-        return outputStream.getValue();
-    }
-    public TableBlock getTableBlock() throws IOException{
+    protected TableBlock loadBlock() throws IOException {
         if(mCache != null){
             return mCache;
         }
@@ -17,7 +17,6 @@ package com.reandroid.apk;
 
 import com.reandroid.archive.BlockInputSource;
 import com.reandroid.arsc.chunk.TableBlock;
-import com.reandroid.utils.Crc32OutputStream;
 
 import java.io.*;
 
@@ -30,36 +29,12 @@ public class SplitJsonTableInputSource extends BlockInputSource<TableBlock> {
         this.resourcesDirectory =resourcesDirectory;
     }
 
-    @Override
-    public TableBlock getBlock() {
-        try {
-            return getTableBlock();
-        } catch (IOException exception) {
-            throw new RuntimeException(exception);
-        }
-    }
-
-    @Override
-    public long write(OutputStream outputStream) throws IOException {
-        return getTableBlock().writeBytes(outputStream);
-    }
-    @Override
-    public InputStream openStream() throws IOException {
-        TableBlock tableBlock = getTableBlock();
-        return new ByteArrayInputStream(tableBlock.getBytes());
-    }
-    @Override
-    public long getLength() throws IOException{
-        TableBlock tableBlock = getTableBlock();
-        return tableBlock.countBytes();
+    public TableBlock getTableBlock() throws IOException {
+        clearCache();
+        return loadBlock();
     }
     @Override
-    public long getCrc() throws IOException {
-        Crc32OutputStream outputStream = new Crc32OutputStream();
-        this.write(outputStream);
-        return outputStream.getValue();
-    }
-    public TableBlock getTableBlock() throws IOException {
+    protected TableBlock loadBlock() throws IOException {
         if(mCache!=null){
             return mCache;
         }
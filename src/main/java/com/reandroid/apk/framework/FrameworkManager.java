@@ -28,6 +28,23 @@ public abstract class FrameworkManager {
     public abstract Integer getLatestVersion();
     public abstract FrameworkApk getLatest();
 
+    /**
+     * Same as {@link #getBestMatch(int)} but counts a reference to the returned framework,
+     * every call must be paired with {@link #release(FrameworkApk)} once the caller is done.
+     * The returned framework may be shared with other callers and must not be modified.
+     * */
+    public FrameworkApk acquire(int version){
+        return getBestMatch(version);
+    }
+    /**
+     * Same as {@link #getLatest()}, see {@link #acquire(int)}
+     * */
+    public FrameworkApk acquireLatest(){
+        return getLatest();
+    }
+    public void release(FrameworkApk frameworkApk){
+    }
+
     public void setCurrent(FrameworkApk current){
         synchronized (this){
             mCurrent = current;
@@ -17,21 +17,134 @@ package com.reandroid.apk.framework;
 
 import com.reandroid.apk.AndroidFrameworks;
 import com.reandroid.apk.FrameworkApk;
+import com.reandroid.archive.ArchiveBytes;
+import com.reandroid.archive.ArchiveMapped;
+import com.reandroid.archive.ByteInputSource;
+import com.reandroid.archive.InputSource;
+import com.reandroid.archive.writer.ApkFileWriter;
+import com.reandroid.arsc.ARSCLib;
+import com.reandroid.utils.io.IOUtil;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.zip.ZipEntry;
 
 public class InternalFrameworks extends FrameworkManager {
 
     public static final InternalFrameworks INSTANCE = new InternalFrameworks();
 
     private Map<Integer, String> resourcePaths;
+    private final Map<Integer, SharedFramework> sharedFrameworks;
+    private boolean retainUnused;
+    private File snapshotDirectory;
 
     private InternalFrameworks() {
         super();
+        this.sharedFrameworks = new HashMap<>();
+        this.retainUnused = true;
+    }
+
+    /**
+     * If true (default), frameworks are kept loaded after the last reference is released,
+     * so that the next module of the same api level does not decode it again.
+     * */
+    public boolean isRetainUnused() {
+        return retainUnused;
+    }
+    public void setRetainUnused(boolean retainUnused) {
+        synchronized (AndroidFrameworks.class) {
+            this.retainUnused = retainUnused;
+            if (!retainUnused) {
+                trimUnused();
+            }
+        }
+    }
+    public File getSnapshotDirectory() {
+        return snapshotDirectory;
+    }
+    /**
+     * Sets directory where uncompressed copies of the internal frameworks are saved on first load,
+     * later loads (including from other processes) memory-map the snapshot instead of inflating
+     * the jar resource. Set null to disable.
+     * */
+    public void setSnapshotDirectory(File snapshotDirectory) {
+        synchronized (AndroidFrameworks.class) {
+            this.snapshotDirectory = snapshotDirectory;
+        }
+    }
+    public void trimUnused() {
+        synchronized (AndroidFrameworks.class) {
+            Iterator<SharedFramework> iterator = sharedFrameworks.values().iterator();
+            while (iterator.hasNext()) {
+                SharedFramework shared = iterator.next();
+                if (isUnused(shared)) {
+                    iterator.remove();
+                    closeUnused(shared);
+                }
+            }
+        }
+    }
+    public int getReferenceCount(FrameworkApk frameworkApk) {
+        synchronized (AndroidFrameworks.class) {
+            SharedFramework shared = findShared(frameworkApk);
+            if (shared != null) {
+                return shared.references;
+            }
+            return 0;
+        }
+    }
+    @Override
+    public FrameworkApk acquire(int version) {
+        Integer nearest = getNearestVersion(version);
+        if (nearest == null) {
+            return null;
+        }
+        synchronized (AndroidFrameworks.class) {
+            FrameworkApk current = getCurrent();
+            if (isCustom(current, nearest)) {
+                return current;
+            }
+            SharedFramework shared = getShared(nearest);
+            shared.references ++;
+            return shared.frameworkApk;
+        }
+    }
+    @Override
+    public FrameworkApk acquireLatest() {
+        synchronized (AndroidFrameworks.class) {
+            int latest = getLatestVersion();
+            FrameworkApk current = getCurrent();
+            if (isCustom(current, latest)) {
+                return current;
+            }
+            SharedFramework shared = getShared(latest);
+            shared.references ++;
+            if (getCurrent() == null) {
+                setCurrent(shared.frameworkApk);
+            }
+            return shared.frameworkApk;
+        }
+    }
+    @Override
+    public void release(FrameworkApk frameworkApk) {
+        synchronized (AndroidFrameworks.class) {
+            SharedFramework shared = findShared(frameworkApk);
+            if (shared == null || shared.references == 0) {
+                return;
+            }
+            shared.references --;
+            if (!isRetainUnused() && isUnused(shared)) {
+                sharedFrameworks.remove(shared.version);
+                closeUnused(shared);
+            }
+        }
     }
 
     @Override
@@ -50,11 +163,9 @@ public class InternalFrameworks extends FrameworkManager {
             if (current != null && best == current.getVersionCode()) {
                 return current;
             }
-            try {
-                return loadResource(best);
-            } catch (IOException exception) {
-                throw new RuntimeException(exception);
-            }
+            SharedFramework shared = getShared(best);
+            shared.pinned = true;
+            return shared.frameworkApk;
         }
     }
     @Override
@@ -65,12 +176,9 @@ public class InternalFrameworks extends FrameworkManager {
             if (current != null && latest == current.getVersionCode()) {
                 return current;
             }
-            FrameworkApk frameworkApk;
-            try {
-                frameworkApk = loadResource(latest);
-            } catch (IOException exception) {
-                throw new RuntimeException(exception);
-            }
+            SharedFramework shared = getShared(latest);
+            shared.pinned = true;
+            FrameworkApk frameworkApk = shared.frameworkApk;
             if (current == null) {
                 setCurrent(frameworkApk);
             }
@@ -131,13 +239,135 @@ public class InternalFrameworks extends FrameworkManager {
             return resourcePaths;
         }
     }
+    /**
+     * Returns true if the user set a framework of the given version by setCurrent, such
+     * framework is preferred over the internal one and is not reference counted
+     * */
+    private boolean isCustom(FrameworkApk current, int version) {
+        return current != null && version == current.getVersionCode()
+                && findShared(current) == null;
+    }
+    /**
+     * Frameworks handed out by getBestMatch/getLatest or set as current are not reference
+     * counted, thus they stay loaded
+     * */
+    private boolean isUnused(SharedFramework shared) {
+        return shared.references == 0 && !shared.pinned
+                && shared.frameworkApk != getCurrent();
+    }
+    private static void closeUnused(SharedFramework shared) {
+        closeQuietly(shared.frameworkApk);
+    }
+    private SharedFramework findShared(FrameworkApk frameworkApk) {
+        for (SharedFramework shared : sharedFrameworks.values()) {
+            if (shared.frameworkApk == frameworkApk) {
+                return shared;
+            }
+        }
+        return null;
+    }
+    private SharedFramework getShared(int version) {
+        SharedFramework shared = sharedFrameworks.get(version);
+        if (shared != null && !shared.frameworkApk.isDestroyed()) {
+            return shared;
+        }
+        FrameworkApk frameworkApk;
+        try {
+            frameworkApk = loadResource(version);
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        }
+        shared = new SharedFramework(version, frameworkApk);
+        sharedFrameworks.put(version, shared);
+        return shared;
+    }
     private FrameworkApk loadResource(int version) throws IOException {
         String path = getResourcePaths().get(version);
         if (path == null) {
             throw new IOException("No resource found for version: " + version);
         }
         String simpleName = toSimpleName(path);
-        return FrameworkApk.loadApkBuffer(simpleName, AndroidFrameworks.class.getResourceAsStream(path));
+        File snapshot = toSnapshotFile(simpleName);
+        if (snapshot == null) {
+            return FrameworkApk.loadApkBuffer(simpleName, AndroidFrameworks.class.getResourceAsStream(path));
+        }
+        FrameworkApk frameworkApk = loadSnapshot(simpleName, snapshot);
+        if (frameworkApk != null) {
+            return frameworkApk;
+        }
+        byte[] bytes = IOUtil.readFully(AndroidFrameworks.class.getResourceAsStream(path));
+        try {
+            writeSnapshot(new ArchiveBytes(bytes), snapshot);
+            frameworkApk = loadSnapshot(simpleName, snapshot);
+        } catch (IOException ignored) {
+            // the snapshot is optional, fall back to the resource
+        }
+        if (frameworkApk == null) {
+            frameworkApk = FrameworkApk.loadApkBuffer(simpleName, new ByteArrayInputStream(bytes));
+        }
+        return frameworkApk;
+    }
+    private File toSnapshotFile(String simpleName) {
+        File dir = getSnapshotDirectory();
+        if (dir == null) {
+            return null;
+        }
+        String name = simpleName;
+        String libVersion = ARSCLib.getVersion();
+        if (libVersion.length() != 0) {
+            name = name + "-" + libVersion;
+        }
+        return new File(dir, name + FRAMEWORK_EXTENSION);
+    }
+    private static FrameworkApk loadSnapshot(String simpleName, File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+        ArchiveMapped archive = null;
+        try {
+            archive = new ArchiveMapped(file);
+            FrameworkApk frameworkApk = new FrameworkApk(simpleName, archive.createZipEntryMap());
+            frameworkApk.setCloseable(archive);
+            if (frameworkApk.getVersionCode() <= 0) {
+                throw new IOException("Invalid framework snapshot: " + file);
+            }
+            return frameworkApk;
+        } catch (Exception exception) {
+            closeQuietly(archive);
+            file.delete();
+            return null;
+        }
+    }
+    /**
+     * Writes all entries uncompressed, thus the tables can be read directly from the mapping
+     * */
+    private static void writeSnapshot(ArchiveBytes archive, File file) throws IOException {
+        InputSource[] inputSources = archive.getInputSources();
+        int length = inputSources.length;
+        InputSource[] stored = new InputSource[length];
+        for (int i = 0; i < length; i++) {
+            InputSource inputSource = inputSources[i];
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            inputSource.write(outputStream);
+            ByteInputSource byteInputSource = new ByteInputSource(
+                    outputStream.toByteArray(), inputSource.getName());
+            byteInputSource.setSort(i);
+            byteInputSource.setMethod(ZipEntry.STORED);
+            stored[i] = byteInputSource;
+        }
+        File dir = file.getParentFile();
+        if (dir != null && !dir.exists()) {
+            dir.mkdirs();
+        }
+        File tmp = File.createTempFile(file.getName(), ".tmp", dir);
+        try {
+            new ApkFileWriter(tmp, stored).write();
+            if (!tmp.renameTo(file) && !file.isFile()) {
+                throw new IOException("Failed to rename: " + tmp + ", to: " + file);
+            }
+        } finally {
+            tmp.delete();
+        }
     }
     private Map<Integer, String> scanAvailableResourcePaths() {
         Map<Integer, String> results = new HashMap<>();
@@ -177,7 +407,7 @@ public class InternalFrameworks extends FrameworkManager {
         closeQuietly(inputStream);
         return true;
     }
-    private static void closeQuietly(InputStream stream) {
+    private static void closeQuietly(Closeable stream) {
         if (stream == null) {
             return;
         }
@@ -192,6 +422,18 @@ public class InternalFrameworks extends FrameworkManager {
                 + FRAMEWORK_EXTENSION;
     }
 
+    static class SharedFramework {
+        final int version;
+        final FrameworkApk frameworkApk;
+        int references;
+        boolean pinned;
+
+        SharedFramework(int version, FrameworkApk frameworkApk) {
+            this.version = version;
+            this.frameworkApk = frameworkApk;
+        }
+    }
+
     private static final String ANDROID_RESOURCE_DIRECTORY = "/frameworks/android/";
     private static final String ANDROID_PACKAGE = "android";
     private static final String FRAMEWORK_EXTENSION = ".apk";
@@ -57,6 +57,18 @@ public class XMLEncodeSource extends ByteInputSource {
     public void disposeInputSource(){
         array = DISPOSED;
     }
+    /**
+     * Encodes now and keeps the bytes, encoding only reads the package block thus
+     * different sources can be encoded concurrently once the table is complete.
+     * */
+    public void encodeNow() throws IOException {
+        getArray();
+    }
+    @Override
+    public boolean isThreadSafe(){
+        // encoding reads the shared table, which may be written at the same time
+        return array != null;
+    }
     private byte[] getArray() throws IOException{
         if(array != null){
             return array;
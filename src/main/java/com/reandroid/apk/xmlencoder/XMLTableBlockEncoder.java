@@ -27,6 +27,7 @@ import com.reandroid.arsc.coder.xml.XmlCoder;
 import com.reandroid.arsc.list.OverlayableList;
 import com.reandroid.arsc.pool.TableStringPool;
 import com.reandroid.utils.HexUtil;
+import com.reandroid.utils.concurrent.WorkerPool;
 import com.reandroid.utils.io.FileUtil;
 import com.reandroid.utils.io.IOUtil;
 import com.reandroid.json.JSONObject;
@@ -40,6 +41,7 @@ import org.xmlpull.v1.XmlPullParserException;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.Future;
 import java.util.zip.ZipEntry;
 
 public class XMLTableBlockEncoder {
@@ -49,6 +51,9 @@ public class XMLTableBlockEncoder {
     private final Set<File> nonTypeValueFiles = new HashSet<>();
     private final ApkModule apkModule;
     private Integer mMainPackageId;
+    private WorkerPool workerPool;
+    private int parallelism;
+    private WorkerPool activeWorkerPool;
 
     public XMLTableBlockEncoder(ApkModule apkModule, TableBlock tableBlock){
         this.apkModule = apkModule;
@@ -72,6 +77,44 @@ public class XMLTableBlockEncoder {
         return mMainPackageId;
     }
 
+    /**
+     * Sets number of threads used to parse values xml files, the parsed entries are added to
+     * the table in the same order as sequential mode. Values less than 2 disables parallel mode.
+     * */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+    public int getParallelism() {
+        WorkerPool workerPool = this.workerPool;
+        if(workerPool != null){
+            return workerPool.getParallelism();
+        }
+        return parallelism;
+    }
+    /**
+     * Sets caller owned worker pool, it is not shut down after encoding
+     * */
+    public void setWorkerPool(WorkerPool workerPool) {
+        this.workerPool = workerPool;
+    }
+    private void openWorkerPool() {
+        WorkerPool workerPool = this.workerPool;
+        if(workerPool == null && parallelism > 1){
+            workerPool = WorkerPool.create(parallelism, "res-encoder");
+        }
+        if(workerPool != null && workerPool.getParallelism() < 2){
+            workerPool = null;
+        }
+        this.activeWorkerPool = workerPool;
+    }
+    private void closeWorkerPool() {
+        WorkerPool workerPool = this.activeWorkerPool;
+        this.activeWorkerPool = null;
+        if(workerPool != null && workerPool != this.workerPool){
+            workerPool.close();
+        }
+    }
+
     public TableBlock getTableBlock(){
         return tableBlock;
     }
@@ -83,11 +126,14 @@ public class XMLTableBlockEncoder {
         scanResourcesDirectory(resourcesDirectory);
     }
     public void scanResourcesDirectory(File resourcesDirectory) throws IOException {
+        openWorkerPool();
         try {
             scanResourceFiles(resourcesDirectory);
             ensureEmptyTable();
         } catch (XmlPullParserException ex) {
             throw new IOException(ex);
+        } finally {
+            closeWorkerPool();
         }
     }
     private void ensureEmptyTable() {
@@ -274,26 +320,89 @@ public class XMLTableBlockEncoder {
                 + HexUtil.toHex2((byte)packageId) + ", from: " + ref );
     }
     private void encodeResDir(File resDir) throws IOException, XmlPullParserException {
+        WorkerPool workerPool = this.activeWorkerPool;
+        if(workerPool != null){
+            encodeResDir(resDir, workerPool);
+            return;
+        }
         preloadStyledStrings(resDir);
         List<File> valuesDirList = ApkUtil.listValuesDirectory(resDir);
         for(File valuesDir : valuesDirList){
             encodeValuesDir(valuesDir);
         }
     }
+    /**
+     * Staged encoding, values xml files are parsed on worker threads then styled strings and
+     * entries are added to the table on the calling thread in the same order as sequential.
+     * */
+    private void encodeResDir(File resDir, WorkerPool workerPool) throws IOException, XmlPullParserException {
+        List<File> xmlFiles = new ArrayList<>();
+        List<File> valuesDirList = ApkUtil.listValuesDirectory(resDir);
+        for(File valuesDir : valuesDirList){
+            List<File> files = ApkUtil.listFiles(valuesDir, ".xml");
+            EncodeUtil.sortValuesXml(files);
+            for(File file : files){
+                if(!isAlreadyParsed(file) && !addNonTypeValueFile(file)){
+                    xmlFiles.add(file);
+                }
+            }
+        }
+        Map<File, List<XMLElement>> parsedEntries = parseValuesXml(xmlFiles, workerPool);
+        preloadStyledStrings(resDir, parsedEntries);
+        PackageBlock packageBlock = getTableBlock().getCurrentPackage();
+        XmlCoder xmlCoder = XmlCoder.getInstance();
+        for(File file : xmlFiles){
+            addParsedFiles(file);
+            logVerbose("Encoding: " + FileUtil.shortPath(file, 4));
+            xmlCoder.VALUES_XML.encode(file, packageBlock, parsedEntries.get(file));
+        }
+    }
+    @SuppressWarnings("unchecked")
+    private Map<File, List<XMLElement>> parseValuesXml(List<File> xmlFiles, WorkerPool workerPool) throws IOException {
+        int size = xmlFiles.size();
+        logVerbose("Parsing values xml: " + size + ", threads = " + workerPool.getParallelism());
+        XmlCoder xmlCoder = XmlCoder.getInstance();
+        Future<?>[] futures = new Future<?>[size];
+        Map<File, List<XMLElement>> results = new HashMap<>();
+        try {
+            for(int i = 0; i < size; i++){
+                File file = xmlFiles.get(i);
+                futures[i] = workerPool.submit(() -> xmlCoder.VALUES_XML.parseEntries(file));
+            }
+            for(int i = 0; i < size; i++){
+                Future<?> future = futures[i];
+                futures[i] = null;
+                results.put(xmlFiles.get(i), (List<XMLElement>) WorkerPool.await(future));
+            }
+        } finally {
+            WorkerPool.cancel(futures);
+        }
+        return results;
+    }
     private void preloadStyledStrings(File resDir) throws IOException, XmlPullParserException {
+        preloadStyledStrings(resDir, Collections.emptyMap());
+    }
+    private void preloadStyledStrings(File resDir, Map<File, List<XMLElement>> parsedEntries) throws IOException, XmlPullParserException {
         logVerbose("Preloading styled strings ...");
         List<File> valuesDirList = ApkUtil.listValuesDirectory(resDir);
         for(File valuesDir : valuesDirList){
             List<File> xmlFiles = ApkUtil.listFiles(valuesDir, "strings.xml");
             for(File file : xmlFiles){
-                preloadStyledStringsXml(file);
+                List<XMLElement> entries = parsedEntries.get(file);
+                if(entries != null){
+                    preloadStyledStrings(entries.iterator());
+                }else {
+                    preloadStyledStringsXml(file);
+                }
             }
         }
     }
     private void preloadStyledStringsXml(File file) throws IOException, XmlPullParserException {
         XMLDocument document = XMLDocument.load(file);
         XMLElement root = document.getDocumentElement();
-        Iterator<? extends XMLElement> iterator = root.getElements();
+        preloadStyledStrings(root.getElements());
+    }
+    private void preloadStyledStrings(Iterator<? extends XMLElement> iterator) {
         TableStringPool stringPool = getTableBlock().getStringPool();
         while (iterator.hasNext()) {
             XMLElement element = iterator.next();
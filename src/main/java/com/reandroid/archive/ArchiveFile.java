@@ -31,6 +31,12 @@ public class ArchiveFile extends Archive<ZipFileInput>{
     public ArchiveFile(File file) throws IOException {
         this(new ZipFileInput(file));
     }
+    /**
+     * @param positionalRead see {@link ZipFileInput#setPositionalRead(boolean)}
+     * */
+    public ArchiveFile(File file, boolean positionalRead) throws IOException {
+        this(new ZipFileInput(file, positionalRead));
+    }
 
     @Override
     InputSource createInputSource(ArchiveEntry entry) {
@@ -39,18 +45,8 @@ public class ArchiveFile extends Archive<ZipFileInput>{
     @Override
     void extractStored(File file, ArchiveEntry archiveEntry) throws IOException {
         FileChannel outputChannel = FileUtil.openWriteChannel(file);
-        FileChannel fileChannel = getZipInput().getFileChannel();
-        fileChannel.position(archiveEntry.getFileOffset());
-
-        long totalTransferred = 0;
-        long remaining = archiveEntry.getDataSize();
-
-        while (remaining > 0) {
-            long transferred = outputChannel.transferFrom(fileChannel, totalTransferred, remaining);
-            totalTransferred += transferred;
-            remaining -= transferred;
-        }
-
+        getZipInput().transferTo(archiveEntry.getFileOffset(),
+                archiveEntry.getDataSize(), outputChannel);
         outputChannel.close();
     }
 }
@@ -0,0 +1,45 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.archive;
+
+import com.reandroid.archive.io.ArchiveMappedEntrySource;
+import com.reandroid.archive.io.ZipMappedInput;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Archive backed by memory mapped file, stored entries (e.g resources.arsc, dex, .so)
+ * are read directly from the mapping without copying to heap.
+ * */
+public class ArchiveMapped extends Archive<ZipMappedInput> {
+
+    public ArchiveMapped(ZipMappedInput zipInput) throws IOException {
+        super(zipInput);
+    }
+    public ArchiveMapped(File file) throws IOException {
+        this(new ZipMappedInput(file));
+    }
+
+    @Override
+    InputSource createInputSource(ArchiveEntry entry) {
+        return new ArchiveMappedEntrySource(getZipInput(), entry);
+    }
+    @Override
+    void extractStored(File file, ArchiveEntry archiveEntry) throws IOException {
+        createInputSource(archiveEntry).write(file);
+    }
+}
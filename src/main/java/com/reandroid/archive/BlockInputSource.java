@@ -15,16 +15,31 @@
  */
 package com.reandroid.archive;
 
+import com.reandroid.archive.io.CountingOutputStream;
 import com.reandroid.arsc.base.Block;
 import com.reandroid.arsc.base.BlockRefresh;
-import com.reandroid.utils.Crc32OutputStream;
+import com.reandroid.arsc.chunk.Chunk;
+import com.reandroid.common.BytesInputStream;
+import com.reandroid.utils.io.IOUtil;
 
-import java.io.IOException;
-import java.io.OutputStream;
+import java.io.*;
 
+/**
+ * Serializes the block at most once for any sequence of length, crc, bytes and write calls.
+ * The serialized result is kept only for {@link Chunk} blocks and is dropped as soon as the
+ * chunk reports a modification, see {@link Chunk#getModificationStamp()}. It is also dropped
+ * on {@link #getBlock()}, {@link #clearCache()} and {@link #disposeInputSource()}.
+ * */
 public class BlockInputSource<T extends Block> extends ByteInputSource {
 
     private final T mBlock;
+    private long spillThreshold = -1;
+    private byte[] mCachedBytes;
+    private File mCachedFile;
+    private long mCachedLength = -1;
+    private long mCachedCrc;
+    private Block mCachedBlock;
+    private int mCachedStamp;
 
     public BlockInputSource(String name, T block) {
         super(new byte[0], name);
@@ -37,30 +52,154 @@ public class BlockInputSource<T extends Block> extends ByteInputSource {
     }
 
     public T getBlock() {
-        T block = this.mBlock;
+        clearCache();
+        try {
+            return refreshBlock();
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+    protected T loadBlock() throws IOException {
+        return mBlock;
+    }
+    private T refreshBlock() throws IOException {
+        T block = loadBlock();
         if(block instanceof BlockRefresh){
             ((BlockRefresh) block).refresh();
         }
         return block;
     }
+    /**
+     * Serialized bytes larger than this are kept in a temp file instead of memory,
+     * a negative value (default) keeps everything in memory
+     * */
+    public long getSpillThreshold() {
+        return spillThreshold;
+    }
+    public void setSpillThreshold(long spillThreshold) {
+        if(spillThreshold != this.spillThreshold){
+            clearCache();
+            this.spillThreshold = spillThreshold;
+        }
+    }
+    public void clearCache() {
+        this.mCachedBytes = null;
+        this.mCachedLength = -1;
+        this.mCachedCrc = 0;
+        this.mCachedBlock = null;
+        File file = this.mCachedFile;
+        if(file != null){
+            this.mCachedFile = null;
+            file.delete();
+        }
+    }
     @Override
     public long getLength() throws IOException{
-        Block block = getBlock();
-        return block.countBytes();
+        serialize();
+        return mCachedLength;
     }
     @Override
     public long getCrc() throws IOException{
-        Block block = getBlock();
-        Crc32OutputStream outputStream = new Crc32OutputStream();
-        block.writeBytes(outputStream);
-        return outputStream.getValue();
+        serialize();
+        return mCachedCrc;
     }
     @Override
     public long write(OutputStream outputStream) throws IOException {
-        return getBlock().writeBytes(outputStream);
+        validateCache();
+        byte[] bytes = this.mCachedBytes;
+        if(bytes != null){
+            outputStream.write(bytes);
+            return bytes.length;
+        }
+        File file = this.mCachedFile;
+        if(file != null){
+            InputStream inputStream = new FileInputStream(file);
+            IOUtil.writeAll(inputStream, outputStream, false);
+            inputStream.close();
+            return mCachedLength;
+        }
+        // a single write is the common case, stream it without keeping a copy
+        return refreshBlock().writeBytes(outputStream);
+    }
+    @Override
+    public InputStream openStream() throws IOException {
+        serialize();
+        byte[] bytes = this.mCachedBytes;
+        if(bytes != null){
+            return new BytesInputStream(bytes);
+        }
+        return new FileInputStream(mCachedFile);
     }
     @Override
     public byte[] getBytes() {
-        return getBlock().getBytes();
+        try {
+            serialize();
+            byte[] bytes = this.mCachedBytes;
+            if(bytes != null){
+                return bytes.clone();
+            }
+            return IOUtil.readFully(mCachedFile);
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+    private void validateCache() throws IOException {
+        Block block = this.mCachedBlock;
+        if(block == null){
+            return;
+        }
+        if(block != loadBlock() || !(block instanceof Chunk) ||
+                ((Chunk<?>) block).getModificationStamp() != mCachedStamp){
+            clearCache();
+        }
+    }
+    private void serialize() throws IOException {
+        validateCache();
+        if(mCachedBytes != null || mCachedFile != null){
+            return;
+        }
+        T block = refreshBlock();
+        int length = block.countBytes();
+        long threshold = getSpillThreshold();
+        if(threshold < 0 || length <= threshold){
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(length);
+            CountingOutputStream<ByteArrayOutputStream> counter =
+                    new CountingOutputStream<>(outputStream);
+            block.writeBytes(counter);
+            this.mCachedBytes = outputStream.toByteArray();
+            this.mCachedLength = counter.getSize();
+            this.mCachedCrc = counter.getCrc32();
+            onSerialized(block);
+            return;
+        }
+        File file = File.createTempFile("block", ".tmp");
+        file.deleteOnExit();
+        CountingOutputStream<OutputStream> counter = new CountingOutputStream<>(
+                new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            block.writeBytes(counter);
+        } finally {
+            counter.close();
+        }
+        this.mCachedFile = file;
+        this.mCachedLength = counter.getSize();
+        this.mCachedCrc = counter.getCrc32();
+        onSerialized(block);
+    }
+    private void onSerialized(T block) {
+        this.mCachedBlock = block;
+        if(block instanceof Chunk){
+            this.mCachedStamp = ((Chunk<?>) block).getModificationStamp();
+        }
+    }
+    @Override
+    public void disposeInputSource(){
+        super.disposeInputSource();
+        clearCache();
+    }
+    @Override
+    public boolean isThreadSafe(){
+        // refresh could touch blocks shared with other sources
+        return false;
     }
 }
@@ -44,4 +44,8 @@ public class ByteInputSource extends InputSource {
     public void disposeInputSource(){
         array = new byte[0];
     }
+    @Override
+    public boolean isThreadSafe(){
+        return true;
+    }
 }
@@ -44,5 +44,9 @@ public class FileInputSource extends InputSource {
     public File getFile(){
         return file;
     }
+    @Override
+    public boolean isThreadSafe(){
+        return true;
+    }
 
 }
@@ -49,6 +49,13 @@ public abstract class InputSource {
     }
     public void disposeInputSource(){
     }
+    /**
+     * Returns true if this source can be written from a worker thread while other sources
+     * of the same archive are being written on other threads.
+     * */
+    public boolean isThreadSafe(){
+        return false;
+    }
     public int getSort() {
         return sort;
     }
@@ -68,4 +68,8 @@ public class RenamedInputSource<T extends InputSource> extends InputSource {
     public InputStream openStream() throws IOException {
         return getInputSource().openStream();
     }
+    @Override
+    public boolean isThreadSafe(){
+        return getInputSource().isThreadSafe();
+    }
 }
@@ -23,4 +23,8 @@ public class ArchiveByteEntrySource extends ArchiveEntrySource<ZipByteInput> {
         super(zipInput, archiveEntry);
         setSort(archiveEntry.getIndex());
     }
+    @Override
+    public boolean isThreadSafe(){
+        return true;
+    }
 }
@@ -21,7 +21,6 @@ import com.reandroid.utils.io.FileUtil;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 
 public class ArchiveFileEntrySource extends ArchiveEntrySource<ZipFileInput> {
@@ -33,41 +32,26 @@ public class ArchiveFileEntrySource extends ArchiveEntrySource<ZipFileInput> {
 
     @Override
     public byte[] getBytes(int length) throws IOException {
-        FileChannel fileChannel = getFileChannel();
-        if(getMethod() != Archive.STORED || fileChannel == null){
+        if(getMethod() != Archive.STORED){
             return super.getBytes(length);
         }
         byte[] bytes = new byte[length];
-        ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
-        fileChannel.read(byteBuffer);
+        getZipSource().read(getArchiveEntry().getFileOffset(), bytes, length);
         return bytes;
     }
-
-    FileChannel getFileChannel() throws IOException {
-        ZipFileInput zipInput = getZipSource();
-        FileChannel fileChannel = zipInput.getFileChannel();
-        fileChannel.position(getArchiveEntry().getFileOffset());
-        return fileChannel;
+    @Override
+    public boolean isThreadSafe(){
+        return getZipSource().isPositionalRead();
     }
 
     @Override
     public void write(File file) throws IOException {
-        FileChannel fileChannel = getFileChannel();
-        if(getMethod() != Archive.STORED || fileChannel == null){
+        if(getMethod() != Archive.STORED){
             super.write(file);
             return;
         }
         FileChannel outputChannel = FileUtil.openWriteChannel(file);
-
-        long totalTransferred = 0;
-        long remaining = getLength();
-
-        while (remaining > 0) {
-            long transferred = outputChannel.transferFrom(fileChannel, totalTransferred, remaining);
-            totalTransferred += transferred;
-            remaining -= transferred;
-        }
-
+        getZipSource().transferTo(getArchiveEntry().getFileOffset(), getLength(), outputChannel);
         outputChannel.close();
     }
 
@@ -0,0 +1,74 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.archive.io;
+
+import com.reandroid.archive.Archive;
+import com.reandroid.archive.ArchiveEntry;
+import com.reandroid.utils.io.FileUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+public class ArchiveMappedEntrySource extends ArchiveEntrySource<ZipMappedInput> {
+
+    public ArchiveMappedEntrySource(ZipMappedInput zipInput, ArchiveEntry archiveEntry){
+        super(zipInput, archiveEntry);
+        setSort(archiveEntry.getIndex());
+    }
+
+    /**
+     * Returns zero-copy view of stored (uncompressed) entry, or null if the entry is compressed.
+     * */
+    public ByteBuffer getStoredBuffer() throws IOException {
+        ArchiveEntry archiveEntry = getArchiveEntry();
+        if(archiveEntry.getMethod() != Archive.STORED){
+            return null;
+        }
+        return getZipSource().slice(archiveEntry.getFileOffset(), archiveEntry.getDataSize());
+    }
+    @Override
+    public byte[] getBytes(int length) throws IOException {
+        ByteBuffer byteBuffer = getStoredBuffer();
+        if(byteBuffer == null){
+            return super.getBytes(length);
+        }
+        if(length > byteBuffer.remaining()){
+            length = byteBuffer.remaining();
+        }
+        byte[] bytes = new byte[length];
+        byteBuffer.get(bytes);
+        return bytes;
+    }
+    @Override
+    public void write(File file) throws IOException {
+        ByteBuffer byteBuffer = getStoredBuffer();
+        if(byteBuffer == null){
+            super.write(file);
+            return;
+        }
+        FileChannel outputChannel = FileUtil.openWriteChannel(file);
+        while (byteBuffer.hasRemaining()){
+            outputChannel.write(byteBuffer);
+        }
+        outputChannel.close();
+    }
+    @Override
+    public boolean isThreadSafe(){
+        return true;
+    }
+}
@@ -22,8 +22,13 @@ import java.nio.channels.FileChannel;
 
 public class FileChannelOutputStream extends OutputStream {
     private final FileChannel fileChannel;
-    public FileChannelOutputStream(FileChannel fileChannel){
+    private final ZipOutput zipOutput;
+    public FileChannelOutputStream(FileChannel fileChannel, ZipOutput zipOutput){
         this.fileChannel = fileChannel;
+        this.zipOutput = zipOutput;
+    }
+    public FileChannelOutputStream(FileChannel fileChannel){
+        this(fileChannel, null);
     }
     @Override
     public void write(byte[] bytes) throws IOException {
@@ -34,6 +39,13 @@ public class FileChannelOutputStream extends OutputStream {
         long position = fileChannel.position();
         length = fileChannel.write(ByteBuffer.wrap(bytes, offset, length));
         fileChannel.position(position + length);
+        ZipOutput zipOutput = this.zipOutput;
+        if(zipOutput != null){
+            OutputStream mirror = zipOutput.getMirror();
+            if(mirror != null){
+                mirror.write(bytes, offset, length);
+            }
+        }
     }
     @Override
     public void write(int i) throws IOException {
@@ -0,0 +1,58 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.archive.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Inflates raw deflate data with an inflater from {@link ZlibPool}, which is returned
+ * to the pool on {@link #close()}
+ * */
+public class PooledInflaterInputStream extends InflaterInputStream {
+
+    private boolean mReleased;
+
+    public PooledInflaterInputStream(InputStream inputStream, long compressedSize){
+        super(inputStream, ZlibPool.obtainInflater(), bufferSize(compressedSize));
+    }
+    public PooledInflaterInputStream(InputStream inputStream){
+        this(inputStream, ZlibPool.BUFFER_SIZE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            if(!mReleased){
+                mReleased = true;
+                ZlibPool.release(inf);
+            }
+        }
+    }
+
+    private static int bufferSize(long compressedSize){
+        if(compressedSize < 512){
+            return 512;
+        }
+        if(compressedSize > ZlibPool.BUFFER_SIZE){
+            return ZlibPool.BUFFER_SIZE;
+        }
+        return (int) compressedSize;
+    }
+}
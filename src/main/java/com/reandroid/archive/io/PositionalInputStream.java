@@ -0,0 +1,189 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.archive.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads a region of file channel using absolute positions (pread), it never changes
+ * the position of the channel, thus any number of streams can be opened on the same channel
+ * from different threads. Closing this stream does not close the channel.
+ * */
+public class PositionalInputStream extends InputStream {
+
+    private final FileChannel fileChannel;
+    private final long startOffset;
+    private final long length;
+    private final byte[] buffer;
+    private long bufferStart;
+    private int bufferLength;
+    private long position;
+    private long mark;
+    private boolean mClosed;
+
+    public PositionalInputStream(FileChannel fileChannel, long offset, long length, int bufferSize) {
+        this.fileChannel = fileChannel;
+        this.startOffset = offset;
+        this.length = length;
+        if(bufferSize > length){
+            bufferSize = (int) length;
+        }
+        if(bufferSize < 0){
+            bufferSize = 0;
+        }
+        this.buffer = new byte[bufferSize];
+    }
+    public PositionalInputStream(FileChannel fileChannel, long offset, long length) {
+        this(fileChannel, offset, length, DEFAULT_BUFFER_SIZE);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if(!fillBuffer()){
+            return -1;
+        }
+        int result = buffer[(int) (position - bufferStart)] & 0xff;
+        position ++;
+        return result;
+    }
+    @Override
+    public int read(byte[] bytes) throws IOException {
+        return read(bytes, 0, bytes.length);
+    }
+    @Override
+    public int read(byte[] bytes, int offset, int len) throws IOException {
+        checkOpen();
+        long remaining = length - position;
+        if(remaining <= 0){
+            return -1;
+        }
+        if(len == 0){
+            return 0;
+        }
+        if(len > remaining){
+            len = (int) remaining;
+        }
+        int result = readBuffered(bytes, offset, len);
+        if(result != 0){
+            return result;
+        }
+        if(len >= buffer.length){
+            result = readChannel(ByteBuffer.wrap(bytes, offset, len), position);
+            position += result;
+            return result;
+        }
+        fillBuffer();
+        return readBuffered(bytes, offset, len);
+    }
+    private int readBuffered(byte[] bytes, int offset, int len){
+        long bufferPosition = position - bufferStart;
+        if(bufferPosition < 0 || bufferPosition >= bufferLength){
+            return 0;
+        }
+        int available = bufferLength - (int) bufferPosition;
+        if(len > available){
+            len = available;
+        }
+        System.arraycopy(buffer, (int) bufferPosition, bytes, offset, len);
+        position += len;
+        return len;
+    }
+    private boolean fillBuffer() throws IOException {
+        checkOpen();
+        if(position >= length){
+            return false;
+        }
+        long bufferPosition = position - bufferStart;
+        if(bufferPosition >= 0 && bufferPosition < bufferLength){
+            return true;
+        }
+        int read = buffer.length;
+        long remaining = length - position;
+        if(read > remaining){
+            read = (int) remaining;
+        }
+        bufferStart = position;
+        bufferLength = 0;
+        bufferLength = readChannel(ByteBuffer.wrap(buffer, 0, read), position);
+        return true;
+    }
+    private int readChannel(ByteBuffer byteBuffer, long relativePosition) throws IOException {
+        long filePosition = startOffset + relativePosition;
+        int result = 0;
+        while (byteBuffer.hasRemaining()){
+            int read = fileChannel.read(byteBuffer, filePosition + result);
+            if(read < 0){
+                if(result == 0){
+                    throw new EOFException("Unexpected end of file at: " + (filePosition + result));
+                }
+                break;
+            }
+            result += read;
+        }
+        return result;
+    }
+    @Override
+    public long skip(long amount) throws IOException {
+        if(amount <= 0){
+            return 0;
+        }
+        long remaining = length - position;
+        if(amount > remaining){
+            amount = remaining;
+        }
+        position += amount;
+        return amount;
+    }
+    @Override
+    public int available() {
+        long available = length - position;
+        if(available > Integer.MAX_VALUE){
+            return Integer.MAX_VALUE;
+        }
+        return (int) available;
+    }
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+    @Override
+    public synchronized void mark(int readLimit) {
+        this.mark = position;
+    }
+    @Override
+    public synchronized void reset() {
+        this.position = mark;
+    }
+    @Override
+    public void close() {
+        mClosed = true;
+    }
+    private void checkOpen() throws IOException {
+        if(mClosed){
+            throw new IOException("Stream closed");
+        }
+    }
+    @Override
+    public String toString(){
+        return position + " / " + length;
+    }
+
+    private static final int DEFAULT_BUFFER_SIZE = 1024 * 8;
+}
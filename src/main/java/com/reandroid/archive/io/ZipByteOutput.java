@@ -23,8 +23,10 @@ import java.io.OutputStream;
 
 public class ZipByteOutput extends ZipOutput{
     private final BytesOutputStream bis;
+    private final MirrorOutputStream outputStream;
     public ZipByteOutput(){
         this.bis = new BytesOutputStream();
+        this.outputStream = new MirrorOutputStream(bis, this);
     }
     public byte[] toByteArray(){
         return bis.toByteArray();
@@ -47,13 +49,22 @@ public class ZipByteOutput extends ZipOutput{
     }
     @Override
     public void write(InputStream inputStream) throws IOException {
-        bis.write(inputStream);
+        if(getMirror() == null){
+            bis.write(inputStream);
+            return;
+        }
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = inputStream.read(buffer, 0, buffer.length)) >= 0){
+            outputStream.write(buffer, 0, read);
+        }
+        inputStream.close();
     }
     public void write(byte[] bytes) throws IOException {
-        bis.write(bytes);
+        outputStream.write(bytes);
     }
     @Override
     public OutputStream getOutputStream() {
-        return bis;
+        return outputStream;
     }
 }
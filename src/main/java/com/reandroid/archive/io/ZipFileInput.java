@@ -24,15 +24,31 @@ import java.nio.channels.FileChannel;
 
 public class ZipFileInput extends ZipInput {
     private final File file;
-    private FileChannel fileChannel;
+    private volatile FileChannel fileChannel;
     private InputStream mCurrentInputStream;
+    private boolean positionalRead;
     public ZipFileInput(File file){
         this.file = file;
     }
+    public ZipFileInput(File file, boolean positionalRead){
+        this.file = file;
+        this.positionalRead = positionalRead;
+    }
 
     public File getFile(){
         return file;
     }
+    public boolean isPositionalRead() {
+        return positionalRead;
+    }
+    /**
+     * When enabled, every stream returned by getInputStream reads with absolute positions
+     * and does not share the channel position, thus many entries can be read at the same time
+     * from different threads. Otherwise (default) opening a stream closes the previous one.
+     * */
+    public void setPositionalRead(boolean positionalRead) {
+        this.positionalRead = positionalRead;
+    }
 
     @Override
     public long position() throws IOException {
@@ -52,6 +68,9 @@ public class ZipFileInput extends ZipInput {
     }
     @Override
     public InputStream getInputStream(long offset, long length) throws IOException {
+        if(isPositionalRead()){
+            return new PositionalInputStream(getFileChannel(), offset, length);
+        }
         closeCurrentInputStream();
         FileChannel fileChannel = getFileChannel();
         fileChannel.position(offset);
@@ -72,14 +91,46 @@ public class ZipFileInput extends ZipInput {
         fileChannel.read(buffer);
         return buffer.array();
     }
+    /**
+     * Reads bytes at absolute file offset without changing the channel position
+     * */
+    public int read(long offset, byte[] bytes, int length) throws IOException {
+        FileChannel fileChannel = getFileChannel();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+        int result = 0;
+        int read;
+        while (buffer.hasRemaining() && (read = fileChannel.read(buffer, offset + result)) >= 0){
+            result += read;
+        }
+        return result;
+    }
+    /**
+     * Copies bytes at absolute file offset without changing the channel position
+     * */
+    public void transferTo(long offset, long length, FileChannel output) throws IOException {
+        FileChannel fileChannel = getFileChannel();
+        long totalTransferred = 0;
+        while (totalTransferred < length) {
+            long transferred = fileChannel.transferTo(offset + totalTransferred,
+                    length - totalTransferred, output);
+            if(transferred <= 0){
+                throw new EOFException("Unexpected end of file: " + getFile()
+                        + ", remaining = " + (length - totalTransferred));
+            }
+            totalTransferred += transferred;
+        }
+    }
     public FileChannel getFileChannel() throws IOException {
         FileChannel fileChannel = this.fileChannel;
         if(fileChannel != null){
             return fileChannel;
         }
         synchronized (this){
-            fileChannel = FileUtil.openReadChannel(file);
-            this.fileChannel = fileChannel;
+            fileChannel = this.fileChannel;
+            if(fileChannel == null){
+                fileChannel = FileUtil.openReadChannel(file);
+                this.fileChannel = fileChannel;
+            }
             return fileChannel;
         }
     }
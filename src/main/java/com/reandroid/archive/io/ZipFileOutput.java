@@ -17,9 +17,11 @@ package com.reandroid.archive.io;
 
 import com.reandroid.utils.io.FileUtil;
 
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 
@@ -35,6 +37,10 @@ public class ZipFileOutput extends ZipOutput{
         return file;
     }
     public void write(FileChannel input, long length) throws IOException{
+        if(getMirror() != null){
+            writeMirrored(input, length);
+            return;
+        }
         FileChannel fileChannel = getFileChannel();
         long pos = fileChannel.position();
 
@@ -49,6 +55,23 @@ public class ZipFileOutput extends ZipOutput{
 
         fileChannel.position(pos + totalTransferred);
     }
+    private void writeMirrored(FileChannel input, long length) throws IOException{
+        FileChannelOutputStream outputStream = getOutputStream();
+        int bufferLength = (int) Math.min(length, 1024 * 1024);
+        byte[] buffer = new byte[bufferLength];
+        long remaining = length;
+        while (remaining > 0) {
+            int count = (int) Math.min(remaining, bufferLength);
+            ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, count);
+            while (byteBuffer.hasRemaining()) {
+                if(input.read(byteBuffer) < 0){
+                    throw new EOFException("Remaining bytes = " + (remaining - byteBuffer.position()));
+                }
+            }
+            outputStream.write(buffer, 0, count);
+            remaining -= count;
+        }
+    }
 
     @Override
     public long position() throws IOException {
@@ -97,6 +120,10 @@ public class ZipFileOutput extends ZipOutput{
             ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, read);
             fileChannel.write(byteBuffer);
             result += read;
+            OutputStream mirror = getMirror();
+            if(mirror != null){
+                mirror.write(buffer, 0, read);
+            }
         }
         inputStream.close();
         fileChannel.position(pos + result);
@@ -105,7 +132,7 @@ public class ZipFileOutput extends ZipOutput{
     public FileChannelOutputStream getOutputStream() throws IOException {
         FileChannelOutputStream outputStream = this.outputStream;
         if(outputStream == null){
-            outputStream = new FileChannelOutputStream(getFileChannel());
+            outputStream = new FileChannelOutputStream(getFileChannel(), this);
             this.outputStream = outputStream;
         }
         return outputStream;
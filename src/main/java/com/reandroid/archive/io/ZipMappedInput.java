@@ -0,0 +1,121 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.archive.io;
+
+import com.reandroid.common.ByteBufferInputStream;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Zip input backed by read-only memory mapped file. Every stream and slice is an independent
+ * view of the same mapping thus can be used from many threads at the same time.
+ * Files larger than 2GB are not supported, use {@link ZipFileInput} instead.
+ * */
+public class ZipMappedInput extends ZipInput {
+    private final File file;
+    private MappedByteBuffer mappedBuffer;
+    private long position;
+
+    public ZipMappedInput(File file) throws IOException {
+        this.file = file;
+        this.mappedBuffer = map(file);
+    }
+
+    public File getFile(){
+        return file;
+    }
+    /**
+     * Returns read-only zero-copy view of the given region
+     * */
+    public ByteBuffer slice(long offset, long length) throws IOException {
+        ByteBuffer buffer = getMappedBuffer().duplicate();
+        int limit = buffer.limit();
+        if(offset < 0 || length < 0 || offset + length > limit){
+            throw new IOException("Out of bounds: offset = " + offset
+                    + ", length = " + length + ", file length = " + limit);
+        }
+        ((Buffer) buffer).position((int) offset);
+        ((Buffer) buffer).limit((int) (offset + length));
+        return buffer.slice();
+    }
+    @Override
+    public InputStream getInputStream(long offset, long length) throws IOException {
+        return new ByteBufferInputStream(slice(offset, length));
+    }
+    @Override
+    public byte[] getFooter(int minLength) throws IOException {
+        long length = getLength();
+        if(minLength > length){
+            minLength = (int) length;
+        }
+        byte[] bytes = new byte[minLength];
+        slice(length - minLength, minLength).get(bytes);
+        return bytes;
+    }
+    @Override
+    public long getLength() throws IOException {
+        return getMappedBuffer().limit();
+    }
+    @Override
+    public long position() {
+        return position;
+    }
+    @Override
+    public void position(long pos) {
+        this.position = pos;
+    }
+    @Override
+    public void close() {
+        // the mapping is released once all views become unreachable
+        this.mappedBuffer = null;
+    }
+    @Override
+    public boolean isOpen() {
+        return mappedBuffer != null;
+    }
+    private MappedByteBuffer getMappedBuffer() throws IOException {
+        MappedByteBuffer mappedBuffer = this.mappedBuffer;
+        if(mappedBuffer == null){
+            throw new IOException("Closed: " + file);
+        }
+        return mappedBuffer;
+    }
+    @Override
+    public String toString(){
+        return "Mapped: " + this.file;
+    }
+
+    private static MappedByteBuffer map(File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            FileChannel fileChannel = randomAccessFile.getChannel();
+            long length = fileChannel.size();
+            if(length > Integer.MAX_VALUE){
+                throw new IOException("File too large to map: " + file);
+            }
+            return fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+}
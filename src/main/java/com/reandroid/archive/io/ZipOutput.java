@@ -15,5 +15,20 @@
  */
 package com.reandroid.archive.io;
 
+import java.io.OutputStream;
+
 public abstract class ZipOutput implements WriteOnlyStream{
+
+    private OutputStream mirror;
+
+    public OutputStream getMirror() {
+        return mirror;
+    }
+    /**
+     * Sets a stream that receives a copy of every byte written from now on, e.g. to digest
+     * the archive while it is being written. Set null to stop mirroring.
+     * */
+    public void setMirror(OutputStream mirror) {
+        this.mirror = mirror;
+    }
 }
@@ -22,7 +22,8 @@ import java.io.OutputStream;
 public class ZipStreamOutput extends ZipOutput {
     private final CountingOutputStream<OutputStream> countingStream;
     public ZipStreamOutput(OutputStream outputStream){
-        this.countingStream = new CountingOutputStream<>(outputStream, true);
+        this.countingStream = new CountingOutputStream<>(
+                new MirrorOutputStream(outputStream, this), true);
     }
     @Override
     public long position() throws IOException {
@@ -0,0 +1,87 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.archive.io;
+
+import java.util.ArrayDeque;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Reusable raw (nowrap) inflaters and deflaters. Released instances are reset and kept
+ * for the next entry; instances beyond the pool capacity are ended right away, so native
+ * zlib memory never waits for finalization.
+ * */
+public class ZlibPool {
+
+    public static final int BUFFER_SIZE = 1024 * 8;
+
+    private static final int CAPACITY = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    private static final ArrayDeque<Inflater> INFLATERS = new ArrayDeque<>();
+    private static final ArrayDeque<Deflater> DEFLATERS = new ArrayDeque<>();
+
+    private ZlibPool(){
+    }
+
+    public static Inflater obtainInflater(){
+        Inflater inflater;
+        synchronized (INFLATERS){
+            inflater = INFLATERS.pollFirst();
+        }
+        if(inflater == null){
+            inflater = new Inflater(true);
+        }
+        return inflater;
+    }
+    public static void release(Inflater inflater){
+        if(inflater == null){
+            return;
+        }
+        inflater.reset();
+        synchronized (INFLATERS){
+            if(INFLATERS.size() < CAPACITY){
+                INFLATERS.addFirst(inflater);
+                return;
+            }
+        }
+        inflater.end();
+    }
+    public static Deflater obtainDeflater(int level, int strategy){
+        Deflater deflater;
+        synchronized (DEFLATERS){
+            deflater = DEFLATERS.pollFirst();
+        }
+        if(deflater == null){
+            deflater = new Deflater(level, true);
+        }else {
+            deflater.setLevel(level);
+        }
+        deflater.setStrategy(strategy);
+        return deflater;
+    }
+    public static void release(Deflater deflater){
+        if(deflater == null){
+            return;
+        }
+        deflater.reset();
+        synchronized (DEFLATERS){
+            if(DEFLATERS.size() < CAPACITY){
+                DEFLATERS.addFirst(deflater);
+                return;
+            }
+        }
+        deflater.end();
+    }
+}
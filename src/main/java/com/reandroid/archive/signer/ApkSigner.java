@@ -0,0 +1,338 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.archive.signer;
+
+import com.reandroid.archive.InputSource;
+import com.reandroid.archive.block.ApkSignatureBlock;
+import com.reandroid.archive.block.SignatureId;
+import com.reandroid.archive.block.SignatureInfo;
+import com.reandroid.arsc.io.BlockReader;
+import com.reandroid.utils.concurrent.WorkerPool;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.*;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+
+/**
+ * Signs apk while it is written by {@link com.reandroid.archive.writer.ApkWriter}.
+ * The v2/v3 content digest is computed from the bytes as they are written, thus the written
+ * file is never read back. v1 (JAR) signature entries are generated before writing from
+ * the digests of source contents.
+ * */
+public class ApkSigner {
+
+    private final PrivateKey privateKey;
+    private final X509Certificate[] certificates;
+    private boolean v1SigningEnabled;
+    private boolean v2SigningEnabled;
+    private boolean v3SigningEnabled;
+    private int v3MinSdkVersion;
+    private String v1SignerName;
+    private String createdBy;
+
+    public ApkSigner(PrivateKey privateKey, X509Certificate... certificates){
+        if(privateKey == null){
+            throw new NullPointerException("Null private key");
+        }
+        if(certificates == null || certificates.length == 0){
+            throw new IllegalArgumentException("Empty certificates");
+        }
+        this.privateKey = privateKey;
+        this.certificates = certificates;
+        this.v1SigningEnabled = true;
+        this.v2SigningEnabled = true;
+        this.v3SigningEnabled = true;
+        this.v3MinSdkVersion = V3_MIN_SDK_VERSION;
+        this.v1SignerName = "CERT";
+        this.createdBy = "1.0 (ARSCLib)";
+        getSignatureAlgorithmId();
+    }
+
+    public boolean isV1SigningEnabled() {
+        return v1SigningEnabled;
+    }
+    public void setV1SigningEnabled(boolean v1SigningEnabled) {
+        this.v1SigningEnabled = v1SigningEnabled;
+    }
+    public boolean isV2SigningEnabled() {
+        return v2SigningEnabled;
+    }
+    public void setV2SigningEnabled(boolean v2SigningEnabled) {
+        this.v2SigningEnabled = v2SigningEnabled;
+    }
+    public boolean isV3SigningEnabled() {
+        return v3SigningEnabled;
+    }
+    public void setV3SigningEnabled(boolean v3SigningEnabled) {
+        this.v3SigningEnabled = v3SigningEnabled;
+    }
+    public boolean isSigningBlockEnabled() {
+        return isV2SigningEnabled() || isV3SigningEnabled();
+    }
+    public int getV3MinSdkVersion() {
+        return v3MinSdkVersion;
+    }
+    public void setV3MinSdkVersion(int v3MinSdkVersion) {
+        this.v3MinSdkVersion = v3MinSdkVersion;
+    }
+    public String getV1SignerName() {
+        return v1SignerName;
+    }
+    public void setV1SignerName(String v1SignerName) {
+        this.v1SignerName = v1SignerName;
+    }
+    public String getCreatedBy() {
+        return createdBy;
+    }
+    public void setCreatedBy(String createdBy) {
+        this.createdBy = createdBy;
+    }
+    public X509Certificate getCertificate() {
+        return certificates[0];
+    }
+    public String getKeyAlgorithm() {
+        return privateKey.getAlgorithm().toUpperCase();
+    }
+
+    /**
+     * Returns sources with generated v1 signature entries at the beginning,
+     * any existing signature files are removed. If v1 signing is disabled, only
+     * existing signature files are removed.
+     * */
+    public InputSource[] signV1(InputSource[] sources, WorkerPool workerPool) throws IOException {
+        if(!isV1SigningEnabled()){
+            int count = 0;
+            for(InputSource inputSource : sources){
+                if(!V1Signer.isSignatureFile(inputSource.getAlias())){
+                    count ++;
+                }
+            }
+            if(count == sources.length){
+                return sources;
+            }
+            InputSource[] results = new InputSource[count];
+            int index = 0;
+            for(InputSource inputSource : sources){
+                if(!V1Signer.isSignatureFile(inputSource.getAlias())){
+                    results[index] = inputSource;
+                    index ++;
+                }
+            }
+            return results;
+        }
+        return new V1Signer(this).sign(sources, workerPool);
+    }
+    /**
+     * Completes the content digest with the given central directory and end record
+     * (whose central directory offset must point to the signing block) and
+     * creates the signing block.
+     * */
+    public ApkSignatureBlock createSignatureBlock(ContentDigest contentDigest,
+                                                  byte[] centralDirectory, byte[] endRecord) throws IOException {
+        contentDigest.endSection();
+        contentDigest.write(centralDirectory);
+        contentDigest.endSection();
+        contentDigest.write(endRecord);
+        byte[] digest = contentDigest.digest();
+        ApkSignatureBlock signatureBlock = new ApkSignatureBlock();
+        if(isV2SigningEnabled()){
+            signatureBlock.add(createSignatureInfo(SignatureId.V2, createV2Scheme(digest)));
+        }
+        if(isV3SigningEnabled()){
+            signatureBlock.add(createSignatureInfo(SignatureId.V3, createV3Scheme(digest)));
+        }
+        return signatureBlock;
+    }
+    private byte[] createV2Scheme(byte[] digest) throws IOException {
+        byte[] attributes;
+        if(isV3SigningEnabled()){
+            // protects against stripping v3 signature
+            attributes = lengthPrefixed(int32(STRIPPING_PROTECTION_ATTRIBUTE), int32(3));
+        }else {
+            attributes = new byte[0];
+        }
+        byte[] signedData = concat(
+                lengthPrefixed(createDigests(digest)),
+                lengthPrefixed(createCertificates()),
+                lengthPrefixed(attributes));
+        byte[] signer = concat(
+                lengthPrefixed(signedData),
+                lengthPrefixed(createSignatures(signedData)),
+                lengthPrefixed(getEncodedPublicKey()));
+        return lengthPrefixed(lengthPrefixed(signer));
+    }
+    private byte[] createV3Scheme(byte[] digest) throws IOException {
+        byte[] sdkRange = concat(int32(getV3MinSdkVersion()), int32(Integer.MAX_VALUE));
+        byte[] signedData = concat(
+                lengthPrefixed(createDigests(digest)),
+                lengthPrefixed(createCertificates()),
+                sdkRange,
+                lengthPrefixed(new byte[0]));
+        byte[] signer = concat(
+                lengthPrefixed(signedData),
+                sdkRange,
+                lengthPrefixed(createSignatures(signedData)),
+                lengthPrefixed(getEncodedPublicKey()));
+        return lengthPrefixed(lengthPrefixed(signer));
+    }
+    private byte[] createDigests(byte[] digest){
+        return lengthPrefixed(int32(getSignatureAlgorithmId()), lengthPrefixed(digest));
+    }
+    private byte[] createCertificates() throws IOException {
+        byte[][] certificates = getEncodedCertificates();
+        byte[][] results = new byte[certificates.length][];
+        for(int i = 0; i < results.length; i++){
+            results[i] = lengthPrefixed(certificates[i]);
+        }
+        return concat(results);
+    }
+    private byte[] createSignatures(byte[] signedData) throws IOException {
+        return lengthPrefixed(int32(getSignatureAlgorithmId()), lengthPrefixed(sign(signedData)));
+    }
+    private SignatureInfo createSignatureInfo(SignatureId signatureId, byte[] value) throws IOException {
+        byte[] bytes = new byte[12 + value.length];
+        long length = 4 + value.length;
+        for(int i = 0; i < 8; i++){
+            bytes[i] = (byte) (length >>> (i * 8));
+        }
+        System.arraycopy(int32(signatureId.getId()), 0, bytes, 8, 4);
+        System.arraycopy(value, 0, bytes, 12, value.length);
+        SignatureInfo signatureInfo = new SignatureInfo();
+        signatureInfo.readBytes(new BlockReader(bytes));
+        return signatureInfo;
+    }
+
+    byte[] sign(byte[] data) throws IOException {
+        try {
+            Signature signature = Signature.getInstance(getJcaSignatureAlgorithm());
+            signature.initSign(privateKey);
+            signature.update(data);
+            return signature.sign();
+        } catch (GeneralSecurityException ex) {
+            throw new IOException("Failed to sign: " + ex.getMessage(), ex);
+        }
+    }
+    byte[][] getEncodedCertificates() throws IOException {
+        X509Certificate[] certificates = this.certificates;
+        byte[][] results = new byte[certificates.length][];
+        try {
+            for(int i = 0; i < results.length; i++){
+                results[i] = certificates[i].getEncoded();
+            }
+        } catch (CertificateEncodingException ex) {
+            throw new IOException(ex.getMessage(), ex);
+        }
+        return results;
+    }
+    private byte[] getEncodedPublicKey(){
+        return getCertificate().getPublicKey().getEncoded();
+    }
+    byte[] getV1SignatureAlgorithmIdentifier(){
+        String algorithm = getKeyAlgorithm();
+        if("RSA".equals(algorithm)){
+            return Der.sequence(Der.oid("1.2.840.113549.1.1.1"), Der.nullValue());
+        }
+        if("EC".equals(algorithm)){
+            return Der.sequence(Der.oid("1.2.840.10045.4.3.2"));
+        }
+        return Der.sequence(Der.oid("2.16.840.1.101.3.4.3.2"));
+    }
+    String getAndroidSignedSchemes(){
+        if(isV2SigningEnabled() && isV3SigningEnabled()){
+            return "2, 3";
+        }
+        if(isV2SigningEnabled()){
+            return "2";
+        }
+        if(isV3SigningEnabled()){
+            return "3";
+        }
+        return null;
+    }
+    private String getJcaSignatureAlgorithm(){
+        String algorithm = getKeyAlgorithm();
+        if("EC".equals(algorithm)){
+            return "SHA256withECDSA";
+        }
+        return "SHA256with" + algorithm;
+    }
+    private int getSignatureAlgorithmId(){
+        String algorithm = getKeyAlgorithm();
+        if("RSA".equals(algorithm)){
+            return SIGNATURE_RSA_PKCS1_V1_5_WITH_SHA256;
+        }
+        if("EC".equals(algorithm)){
+            return SIGNATURE_ECDSA_WITH_SHA256;
+        }
+        if("DSA".equals(algorithm)){
+            return SIGNATURE_DSA_WITH_SHA256;
+        }
+        throw new IllegalArgumentException("Unsupported key algorithm: " + algorithm);
+    }
+
+    private static byte[] lengthPrefixed(byte[]... parts){
+        byte[] data = concat(parts);
+        return concat(int32(data.length), data);
+    }
+    private static byte[] concat(byte[]... parts){
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        for(byte[] part : parts){
+            outputStream.write(part, 0, part.length);
+        }
+        return outputStream.toByteArray();
+    }
+    private static byte[] int32(int value){
+        return new byte[]{
+                (byte) value,
+                (byte) (value >>> 8),
+                (byte) (value >>> 16),
+                (byte) (value >>> 24)
+        };
+    }
+
+    public static ApkSigner fromKeyStore(KeyStore keyStore, String alias, char[] password) throws IOException {
+        try {
+            if(alias == null){
+                alias = keyStore.aliases().nextElement();
+            }
+            Key key = keyStore.getKey(alias, password);
+            if(!(key instanceof PrivateKey)){
+                throw new IOException("No private key for alias: " + alias);
+            }
+            Certificate[] chain = keyStore.getCertificateChain(alias);
+            if(chain == null || chain.length == 0){
+                throw new IOException("No certificate for alias: " + alias);
+            }
+            X509Certificate[] certificates = new X509Certificate[chain.length];
+            for(int i = 0; i < chain.length; i++){
+                certificates[i] = (X509Certificate) chain[i];
+            }
+            return new ApkSigner((PrivateKey) key, certificates);
+        } catch (GeneralSecurityException ex) {
+            throw new IOException(ex.getMessage(), ex);
+        }
+    }
+
+    public static final int V3_MIN_SDK_VERSION = 28;
+
+    private static final int SIGNATURE_RSA_PKCS1_V1_5_WITH_SHA256 = 0x0103;
+    private static final int SIGNATURE_ECDSA_WITH_SHA256 = 0x0201;
+    private static final int SIGNATURE_DSA_WITH_SHA256 = 0x0301;
+    private static final int STRIPPING_PROTECTION_ATTRIBUTE = 0xbeeff00d;
+}
@@ -0,0 +1,169 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.archive.signer;
+
+import com.reandroid.utils.SHA256;
+import com.reandroid.utils.concurrent.WorkerPool;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * Computes APK signature scheme v2/v3 chunked SHA-256 content digest while the archive is
+ * being written. Bytes are split in 1MB chunks, each chunk is digested on worker threads (if any)
+ * and at most two chunks per worker are held in memory. Chunks never span over sections,
+ * call {@link #endSection()} at the end of each of the three digested sections.
+ * */
+public class ContentDigest extends OutputStream {
+
+    private final WorkerPool workerPool;
+    private final List<Future<byte[]>> pending;
+    private final List<byte[]> chunkDigests;
+    private final int window;
+    private byte[] chunk;
+    private int chunkLength;
+    private byte[] digest;
+
+    public ContentDigest(WorkerPool workerPool){
+        this.workerPool = workerPool;
+        this.pending = new ArrayList<>();
+        this.chunkDigests = new ArrayList<>();
+        int window;
+        if(workerPool != null){
+            window = workerPool.getParallelism() * 2;
+        }else {
+            window = 0;
+        }
+        this.window = window;
+    }
+    public ContentDigest(){
+        this(null);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        checkNotFinished();
+        while (length > 0){
+            byte[] chunk = this.chunk;
+            if(chunk == null){
+                chunk = new byte[CHUNK_SIZE];
+                this.chunk = chunk;
+            }
+            int count = Math.min(length, CHUNK_SIZE - chunkLength);
+            System.arraycopy(bytes, offset, chunk, chunkLength, count);
+            chunkLength += count;
+            offset += count;
+            length -= count;
+            if(chunkLength == CHUNK_SIZE){
+                flushChunk();
+            }
+        }
+    }
+    @Override
+    public void write(byte[] bytes) throws IOException {
+        write(bytes, 0, bytes.length);
+    }
+    @Override
+    public void write(int i) throws IOException {
+        write(new byte[]{(byte) i}, 0, 1);
+    }
+    public void endSection() throws IOException {
+        checkNotFinished();
+        flushChunk();
+    }
+    /**
+     * Returns top level digest of all chunks, the last section is ended implicitly
+     * */
+    public byte[] digest() throws IOException {
+        byte[] digest = this.digest;
+        if(digest != null){
+            return digest;
+        }
+        flushChunk();
+        List<Future<byte[]>> pending = this.pending;
+        while (!pending.isEmpty()){
+            chunkDigests.add(WorkerPool.await(pending.remove(0)));
+        }
+        List<byte[]> chunkDigests = this.chunkDigests;
+        int count = chunkDigests.size();
+        SHA256 sha256 = new SHA256();
+        byte[] header = new byte[5];
+        header[0] = 0x5a;
+        putInt(header, 1, count);
+        sha256.update(header);
+        for(byte[] chunkDigest : chunkDigests){
+            sha256.update(chunkDigest);
+        }
+        digest = sha256.digest();
+        this.digest = digest;
+        chunkDigests.clear();
+        return digest;
+    }
+    private void flushChunk() throws IOException {
+        int length = this.chunkLength;
+        if(length == 0){
+            return;
+        }
+        byte[] chunk = this.chunk;
+        this.chunk = null;
+        this.chunkLength = 0;
+        WorkerPool workerPool = this.workerPool;
+        if(workerPool == null){
+            chunkDigests.add(digestChunk(chunk, length));
+            this.chunk = chunk;
+            return;
+        }
+        List<Future<byte[]>> pending = this.pending;
+        if(pending.size() >= window){
+            chunkDigests.add(WorkerPool.await(pending.remove(0)));
+        }
+        pending.add(workerPool.submit(() -> digestChunk(chunk, length)));
+    }
+    private void checkNotFinished() throws IOException {
+        if(digest != null){
+            throw new IOException("Digest already finished");
+        }
+    }
+    /**
+     * Cancels pending chunks of unfinished digest
+     * */
+    @Override
+    public void close() throws IOException {
+        WorkerPool.cancel(pending.toArray(new Future<?>[0]));
+        pending.clear();
+    }
+
+    static byte[] digestChunk(byte[] chunk, int length){
+        SHA256 sha256 = new SHA256();
+        byte[] header = new byte[5];
+        header[0] = (byte) 0xa5;
+        putInt(header, 1, length);
+        sha256.update(header);
+        sha256.update(chunk, 0, length);
+        return sha256.digest();
+    }
+    private static void putInt(byte[] bytes, int offset, int value){
+        bytes[offset] = (byte) value;
+        bytes[offset + 1] = (byte) (value >>> 8);
+        bytes[offset + 2] = (byte) (value >>> 16);
+        bytes[offset + 3] = (byte) (value >>> 24);
+    }
+
+    public static final int CHUNK_SIZE = 1024 * 1024;
+}
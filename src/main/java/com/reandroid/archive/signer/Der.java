@@ -0,0 +1,90 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.archive.signer;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Minimal DER encoder, just enough to build PKCS#7 signed data of JAR signature
+ * */
+class Der {
+
+    static byte[] sequence(byte[]... elements){
+        return encode(0x30, elements);
+    }
+    static byte[] set(byte[]... elements){
+        return encode(0x31, elements);
+    }
+    static byte[] tagged(int tag, byte[]... elements){
+        return encode(tag, elements);
+    }
+    static byte[] integer(byte[] value){
+        return encode(0x02, value);
+    }
+    static byte[] octetString(byte[] value){
+        return encode(0x04, value);
+    }
+    static byte[] nullValue(){
+        return new byte[]{0x05, 0x00};
+    }
+    static byte[] oid(String oid){
+        String[] parts = oid.split("\\.");
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        outputStream.write(Integer.parseInt(parts[0]) * 40 + Integer.parseInt(parts[1]));
+        for(int i = 2; i < parts.length; i++){
+            writeBase128(outputStream, Long.parseLong(parts[i]));
+        }
+        return encode(0x06, outputStream.toByteArray());
+    }
+    private static void writeBase128(ByteArrayOutputStream outputStream, long value){
+        int shift = 0;
+        while ((value >>> (shift + 7)) != 0){
+            shift += 7;
+        }
+        while (shift > 0){
+            outputStream.write((int) (((value >>> shift) & 0x7f) | 0x80));
+            shift -= 7;
+        }
+        outputStream.write((int) (value & 0x7f));
+    }
+    private static byte[] encode(int tag, byte[]... elements){
+        int length = 0;
+        for(byte[] element : elements){
+            length += element.length;
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(length + 6);
+        outputStream.write(tag);
+        writeLength(outputStream, length);
+        for(byte[] element : elements){
+            outputStream.write(element, 0, element.length);
+        }
+        return outputStream.toByteArray();
+    }
+    private static void writeLength(ByteArrayOutputStream outputStream, int length){
+        if(length < 0x80){
+            outputStream.write(length);
+            return;
+        }
+        int count = 0;
+        for(int i = length; i != 0; i >>>= 8){
+            count ++;
+        }
+        outputStream.write(0x80 | count);
+        for(int i = count - 1; i >= 0; i--){
+            outputStream.write(length >>> (i * 8));
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.archive.signer;
+
+import com.reandroid.archive.ByteInputSource;
+import com.reandroid.archive.InputSource;
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.utils.SHA256;
+import com.reandroid.utils.concurrent.WorkerPool;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * JAR signature (v1 scheme) with SHA-256 digests, thus verifiable on API 18+.
+ * Entry digests are computed from the source contents (on worker threads for thread safe sources),
+ * the written archive is not read back.
+ * */
+class V1Signer {
+
+    private final ApkSigner apkSigner;
+
+    V1Signer(ApkSigner apkSigner){
+        this.apkSigner = apkSigner;
+    }
+
+    InputSource[] sign(InputSource[] sources, WorkerPool workerPool) throws IOException {
+        List<InputSource> entries = new ArrayList<>(sources.length + 3);
+        for(InputSource inputSource : sources){
+            if(!isSignatureFile(inputSource.getAlias())){
+                entries.add(inputSource);
+            }
+        }
+        byte[][] digests = digestEntries(entries, workerPool);
+        ByteArrayOutputStream manifest = new ByteArrayOutputStream();
+        ByteArrayOutputStream signatureFile = new ByteArrayOutputStream();
+        writeAttribute(manifest, "Manifest-Version", "1.0");
+        writeAttribute(manifest, "Created-By", apkSigner.getCreatedBy());
+        writeLine(manifest, "");
+        int size = entries.size();
+        List<byte[]> sections = new ArrayList<>(size);
+        for(int i = 0; i < size; i++){
+            ByteArrayOutputStream section = new ByteArrayOutputStream();
+            writeAttribute(section, "Name", entries.get(i).getAlias());
+            writeAttribute(section, DIGEST_NAME, base64(digests[i]));
+            writeLine(section, "");
+            byte[] bytes = section.toByteArray();
+            manifest.write(bytes);
+            sections.add(bytes);
+        }
+        byte[] manifestBytes = manifest.toByteArray();
+        writeAttribute(signatureFile, "Signature-Version", "1.0");
+        writeAttribute(signatureFile, "Created-By", apkSigner.getCreatedBy());
+        writeAttribute(signatureFile, DIGEST_NAME + "-Manifest", base64(sha256(manifestBytes)));
+        String signedSchemes = apkSigner.getAndroidSignedSchemes();
+        if(signedSchemes != null){
+            writeAttribute(signatureFile, "X-Android-APK-Signed", signedSchemes);
+        }
+        writeLine(signatureFile, "");
+        for(int i = 0; i < size; i++){
+            writeAttribute(signatureFile, "Name", entries.get(i).getAlias());
+            writeAttribute(signatureFile, DIGEST_NAME, base64(sha256(sections.get(i))));
+            writeLine(signatureFile, "");
+        }
+        byte[] signatureFileBytes = signatureFile.toByteArray();
+        byte[] signatureBlock = createSignatureBlock(signatureFileBytes);
+
+        String name = apkSigner.getV1SignerName();
+        List<InputSource> results = new ArrayList<>(entries.size() + 3);
+        results.add(new ByteInputSource(manifestBytes, MANIFEST_NAME));
+        results.add(new ByteInputSource(signatureFileBytes, META_INF + name + ".SF"));
+        results.add(new ByteInputSource(signatureBlock,
+                META_INF + name + "." + apkSigner.getKeyAlgorithm()));
+        results.addAll(entries);
+        return results.toArray(new InputSource[0]);
+    }
+    private byte[][] digestEntries(List<InputSource> entries, WorkerPool workerPool) throws IOException {
+        int size = entries.size();
+        byte[][] results = new byte[size][];
+        Future<?>[] futures = new Future<?>[size];
+        InputSource tableSource = null;
+        int tableIndex = -1;
+        try {
+            for(int i = 0; i < size; i++){
+                InputSource inputSource = entries.get(i);
+                if(workerPool != null && inputSource.isThreadSafe()){
+                    int index = i;
+                    futures[i] = workerPool.submit(() -> {
+                        results[index] = digest(inputSource);
+                        return null;
+                    });
+                }
+            }
+            for(int i = 0; i < size; i++){
+                InputSource inputSource = entries.get(i);
+                if(futures[i] != null){
+                    continue;
+                }
+                if(tableSource == null && TableBlock.FILE_NAME.equals(inputSource.getAlias())){
+                    // xml encoding may still modify table
+                    tableSource = inputSource;
+                    tableIndex = i;
+                    continue;
+                }
+                results[i] = digest(inputSource);
+            }
+            if(tableSource != null){
+                results[tableIndex] = digest(tableSource);
+            }
+            for(int i = 0; i < size; i++){
+                Future<?> future = futures[i];
+                if(future != null){
+                    futures[i] = null;
+                    WorkerPool.await(future);
+                }
+            }
+        } finally {
+            WorkerPool.cancel(futures);
+        }
+        return results;
+    }
+    private byte[] createSignatureBlock(byte[] signatureFile) throws IOException {
+        X509Certificate certificate = apkSigner.getCertificate();
+        byte[] signature = apkSigner.sign(signatureFile);
+        byte[] sha256Algorithm = Der.sequence(Der.oid(OID_SHA256), Der.nullValue());
+        byte[] issuerAndSerial = Der.sequence(
+                certificate.getIssuerX500Principal().getEncoded(),
+                Der.integer(certificate.getSerialNumber().toByteArray()));
+        byte[] signerInfo = Der.sequence(
+                Der.integer(new byte[]{1}),
+                issuerAndSerial,
+                sha256Algorithm,
+                apkSigner.getV1SignatureAlgorithmIdentifier(),
+                Der.octetString(signature));
+        byte[][] certificates = apkSigner.getEncodedCertificates();
+        byte[] signedData = Der.sequence(
+                Der.integer(new byte[]{1}),
+                Der.set(sha256Algorithm),
+                Der.sequence(Der.oid(OID_DATA)),
+                Der.tagged(0xa0, certificates),
+                Der.set(signerInfo));
+        return Der.sequence(Der.oid(OID_SIGNED_DATA), Der.tagged(0xa0, signedData));
+    }
+
+    private static byte[] digest(InputSource inputSource) throws IOException {
+        DigestOutputStream outputStream = new DigestOutputStream();
+        inputSource.write(outputStream);
+        return outputStream.sha256.digest();
+    }
+    static byte[] sha256(byte[] bytes){
+        SHA256 sha256 = new SHA256();
+        sha256.update(bytes);
+        return sha256.digest();
+    }
+    private static String base64(byte[] bytes){
+        return android.Base64.encodeToString(bytes, android.Base64.NO_WRAP);
+    }
+    /**
+     * Writes manifest attribute, lines longer than 72 bytes are continued on next lines
+     * starting with single space
+     * */
+    private static void writeAttribute(ByteArrayOutputStream outputStream, String name, String value) {
+        byte[] bytes = (name + ": " + value).getBytes(StandardCharsets.UTF_8);
+        int length = bytes.length;
+        int offset = 0;
+        int max = MAX_LINE_LENGTH;
+        while (true){
+            int count = Math.min(max, length - offset);
+            outputStream.write(bytes, offset, count);
+            outputStream.write('\r');
+            outputStream.write('\n');
+            offset += count;
+            if(offset >= length){
+                break;
+            }
+            outputStream.write(' ');
+            max = MAX_LINE_LENGTH - 1;
+        }
+    }
+    private static void writeLine(ByteArrayOutputStream outputStream, String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        outputStream.write(bytes, 0, bytes.length);
+        outputStream.write('\r');
+        outputStream.write('\n');
+    }
+    static boolean isSignatureFile(String path){
+        if(path == null || !path.startsWith(META_INF)){
+            return false;
+        }
+        String name = path.substring(META_INF.length());
+        if(name.indexOf('/') >= 0){
+            return false;
+        }
+        if(name.equals("MANIFEST.MF")){
+            return true;
+        }
+        String upper = name.toUpperCase();
+        return upper.endsWith(".SF") || upper.endsWith(".RSA")
+                || upper.endsWith(".DSA") || upper.endsWith(".EC");
+    }
+
+    static class DigestOutputStream extends OutputStream {
+        final SHA256 sha256 = new SHA256();
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            sha256.update(bytes, offset, length);
+        }
+        @Override
+        public void write(int i) {
+            sha256.update((byte) i);
+        }
+    }
+
+    private static final String META_INF = "META-INF/";
+    private static final String MANIFEST_NAME = META_INF + "MANIFEST.MF";
+    private static final String DIGEST_NAME = "SHA-256-Digest";
+    private static final int MAX_LINE_LENGTH = 72;
+
+    private static final String OID_SHA256 = "2.16.840.1.101.3.4.2.1";
+    private static final String OID_DATA = "1.2.840.113549.1.7.1";
+    private static final String OID_SIGNED_DATA = "1.2.840.113549.1.7.2";
+}
@@ -42,6 +42,14 @@ public class ApkByteWriter extends ApkWriter<ZipByteOutput, ByteOutputSource>{
     void prepareOutputs(ByteOutputSource[] outList) throws IOException {
     }
     @Override
+    boolean isBufferedWrite() {
+        return true;
+    }
+    @Override
+    void makeBuffer(ByteOutputSource outputSource) throws IOException {
+        outputSource.makeBuffer();
+    }
+    @Override
     ByteOutputSource toOutputSource(InputSource inputSource) {
         return new ByteOutputSource(inputSource);
     }
@@ -20,25 +20,113 @@ import com.reandroid.archive.RenamedInputSource;
 import com.reandroid.archive.io.ArchiveFileEntrySource;
 import com.reandroid.archive.io.ZipFileOutput;
 import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.utils.concurrent.WorkerPool;
 
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
 
 public class ApkFileWriter extends ApkWriter<ZipFileOutput, FileOutputSource> {
     private BufferFileInput buffer;
+    private WorkerBuffer[] workerBuffers;
+    private boolean directWrite;
+    private ByteArrayOutputStream directMemory;
+    private FileOutputSource deferredTable;
     public ApkFileWriter(File file, InputSource[] sources) throws IOException {
         super(new ZipFileOutput(file), sources);
     }
+
+    public boolean isDirectWrite() {
+        return directWrite;
+    }
+    /**
+     * When true, entries are compressed straight into the output file in a single pass
+     * instead of through a temporary buffer file next to it. Entries of up to
+     * {@link #DIRECT_MEMORY_LIMIT} bytes are held in memory, larger ones get their local
+     * header patched in place, or use a data descriptor when the output is being signed.
+     * Direct write is sequential, worker pool is not used for compression.
+     * Default false.
+     * */
+    public void setDirectWrite(boolean directWrite) {
+        this.directWrite = directWrite;
+    }
     @Override
     void closeBuffer() throws IOException{
-        buffer.close();
+        FileOutputSource deferredTable = this.deferredTable;
+        if(deferredTable != null){
+            this.deferredTable = null;
+            writeDirect(deferredTable, getZipAligner());
+        }
+        this.directMemory = null;
+        BufferFileInput buffer = this.buffer;
+        if(buffer != null){
+            this.buffer = null;
+            buffer.close();
+        }
+        WorkerBuffer[] workerBuffers = this.workerBuffers;
+        if(workerBuffers != null){
+            this.workerBuffers = null;
+            for(WorkerBuffer workerBuffer : workerBuffers){
+                workerBuffer.input.close();
+            }
+        }
+    }
+    @Override
+    void discardBuffer(){
+        this.deferredTable = null;
+        this.directMemory = null;
+        BufferFileInput buffer = this.buffer;
+        if(buffer != null){
+            this.buffer = null;
+            closeQuietly(buffer);
+        }
+        WorkerBuffer[] workerBuffers = this.workerBuffers;
+        if(workerBuffers != null){
+            this.workerBuffers = null;
+            for(WorkerBuffer workerBuffer : workerBuffers){
+                if(workerBuffer != null){
+                    workerBuffer.discard();
+                }
+            }
+        }
     }
     @Override
     void writeApk(FileOutputSource outputSource, ZipAligner zipAligner) throws IOException{
-        outputSource.writeApk(getZipOutput(), zipAligner);
+        if(!isDirectWrite()){
+            outputSource.writeApk(getZipOutput(), zipAligner);
+            return;
+        }
+        if(deferredTable == null && TableBlock.FILE_NAME.equals(
+                outputSource.getInputSource().getAlias())){
+            // encoding of other sources could still modify the table, its data goes last
+            // while the central directory keeps the original order
+            deferredTable = outputSource;
+            return;
+        }
+        writeDirect(outputSource, zipAligner);
+    }
+    private void writeDirect(FileOutputSource outputSource, ZipAligner zipAligner) throws IOException{
+        ZipFileOutput zipFileOutput = getZipOutput();
+        InputSource inputSource = outputSource.getInputSource();
+        onCompressFileProgress(inputSource.getAlias(),
+                inputSource.getMethod(),
+                zipFileOutput.position());
+        ByteArrayOutputStream memory = this.directMemory;
+        if(memory == null){
+            memory = new ByteArrayOutputStream(8192);
+            this.directMemory = memory;
+        }
+        outputSource.writeDirect(zipFileOutput, zipAligner, memory, DIRECT_MEMORY_LIMIT);
     }
     @Override
     void prepareOutputs(FileOutputSource[] outList) throws IOException {
+        if(isDirectWrite()){
+            return;
+        }
         logMessage("Buffering compress changed files ...");
         BufferFileInput buffer = writeBuffer(outList);
         buffer.unlock();
@@ -67,25 +155,96 @@ public class ApkFileWriter extends ApkWriter<ZipFileOutput, FileOutputSource> {
         BufferFileOutput output = new BufferFileOutput(bufferFile);
         BufferFileInput input = new BufferFileInput(bufferFile);
         FileOutputSource tableSource = null;
+        WorkerPool workerPool = getWorkerPool();
+        BlockingQueue<WorkerBuffer> workerQueue = null;
+        Future<?>[] futures = null;
+        if(workerPool != null){
+            workerQueue = createWorkerBuffers(bufferFile, workerPool.getParallelism());
+            futures = new Future<?>[outputList.length];
+        }
         int length = outputList.length;
-        for(int i = 0; i < length; i++){
-            FileOutputSource fileOutputSource = outputList[i];
-            InputSource inputSource = fileOutputSource.getInputSource();
-            if(tableSource == null && TableBlock.FILE_NAME.equals(inputSource.getAlias())){
-                tableSource = fileOutputSource;
-                continue;
+        boolean complete = false;
+        try {
+            for(int i = 0; i < length; i++){
+                FileOutputSource fileOutputSource = outputList[i];
+                InputSource inputSource = fileOutputSource.getInputSource();
+                if(tableSource == null && TableBlock.FILE_NAME.equals(inputSource.getAlias())){
+                    tableSource = fileOutputSource;
+                    continue;
+                }
+                onCompressFileProgress(inputSource.getAlias(),
+                        inputSource.getMethod(),
+                        output.position());
+                if(futures != null && fileOutputSource.isThreadSafe()){
+                    futures[i] = submitBuffer(workerPool, workerQueue, fileOutputSource);
+                }else {
+                    fileOutputSource.makeBuffer(input, output);
+                }
+            }
+            if(futures != null){
+                for(int i = 0; i < length; i++){
+                    Future<?> future = futures[i];
+                    if(future != null){
+                        futures[i] = null;
+                        WorkerPool.await(future);
+                    }
+                }
+                closeWorkerOutputs();
+            }
+            if(tableSource != null){
+                tableSource.makeBuffer(input, output);
+            }
+            output.close();
+            complete = true;
+        } finally {
+            if(futures != null){
+                WorkerPool.cancel(futures);
+            }
+            if(!complete){
+                closeQuietly(output);
+                input.unlock();
+                closeQuietly(input);
             }
-            onCompressFileProgress(inputSource.getAlias(),
-                    inputSource.getMethod(),
-                    output.position());
-            fileOutputSource.makeBuffer(input, output);
-        }
-        if(tableSource != null){
-            tableSource.makeBuffer(input, output);
         }
-        output.close();
         return input;
     }
+    private Future<?> submitBuffer(WorkerPool workerPool,
+                                   BlockingQueue<WorkerBuffer> workerQueue,
+                                   FileOutputSource fileOutputSource){
+        return workerPool.submit(() -> {
+            WorkerBuffer workerBuffer = workerQueue.take();
+            try {
+                fileOutputSource.makeBuffer(workerBuffer.input, workerBuffer.output);
+            } finally {
+                workerQueue.offer(workerBuffer);
+            }
+            return null;
+        });
+    }
+    /**
+     * Each worker compresses into its own buffer file, thus the order of data within
+     * buffer files does not matter as the entries are copied in order on writeApk
+     * */
+    private BlockingQueue<WorkerBuffer> createWorkerBuffers(File bufferFile, int count) throws IOException {
+        WorkerBuffer[] workerBuffers = new WorkerBuffer[count];
+        this.workerBuffers = workerBuffers;
+        BlockingQueue<WorkerBuffer> queue = new ArrayBlockingQueue<>(count);
+        File dir = bufferFile.getParentFile();
+        for(int i = 0; i < count; i++){
+            File file = new File(dir, bufferFile.getName() + "-" + i);
+            file.deleteOnExit();
+            WorkerBuffer workerBuffer = new WorkerBuffer(file);
+            workerBuffers[i] = workerBuffer;
+            queue.add(workerBuffer);
+        }
+        return queue;
+    }
+    private void closeWorkerOutputs() throws IOException {
+        for(WorkerBuffer workerBuffer : workerBuffers){
+            workerBuffer.output.close();
+            workerBuffer.input.unlock();
+        }
+    }
     private File getBufferFile(){
         File file = getZipOutput().getFile();
         File dir = file.getParentFile();
@@ -100,4 +259,28 @@ public class ApkFileWriter extends ApkWriter<ZipFileOutput, FileOutputSource> {
         bufFile.deleteOnExit();
         return bufFile;
     }
+
+    private static void closeQuietly(Closeable closeable){
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    public static final int DIRECT_MEMORY_LIMIT = 1024 * 1024;
+
+    static class WorkerBuffer {
+        final BufferFileOutput output;
+        final BufferFileInput input;
+
+        WorkerBuffer(File file) throws IOException {
+            this.output = new BufferFileOutput(file);
+            this.input = new BufferFileInput(file);
+        }
+        void discard(){
+            closeQuietly(output);
+            input.unlock();
+            closeQuietly(input);
+        }
+    }
 }
@@ -36,6 +36,14 @@ public class ApkStreamWriter extends ApkWriter<ZipStreamOutput, StreamOutputSour
     void prepareOutputs(StreamOutputSource[] outList) throws IOException {
     }
     @Override
+    boolean isBufferedWrite() {
+        return true;
+    }
+    @Override
+    void makeBuffer(StreamOutputSource outputSource) throws IOException {
+        outputSource.makeBuffer();
+    }
+    @Override
     StreamOutputSource toOutputSource(InputSource inputSource) {
         return new StreamOutputSource(inputSource);
     }
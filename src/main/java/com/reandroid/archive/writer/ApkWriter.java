@@ -21,11 +21,16 @@ import com.reandroid.archive.InputSource;
 import com.reandroid.archive.WriteProgress;
 import com.reandroid.archive.ZipSignature;
 import com.reandroid.archive.block.*;
+import com.reandroid.archive.io.ZipByteOutput;
 import com.reandroid.archive.io.ZipOutput;
+import com.reandroid.archive.signer.ApkSigner;
+import com.reandroid.archive.signer.ContentDigest;
+import com.reandroid.utils.concurrent.WorkerPool;
 
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.concurrent.Future;
 
 public abstract class ApkWriter<T extends ZipOutput, OUT extends OutputSource> implements Closeable {
     private final Object mLock = new Object();
@@ -36,6 +41,12 @@ public abstract class ApkWriter<T extends ZipOutput, OUT extends OutputSource> i
     private APKLogger apkLogger;
     private WriteProgress writeProgress;
     private final HeaderInterceptorChain interceptorChain;
+    private WorkerPool workerPool;
+    private int parallelism;
+    private WorkerPool activeWorkerPool;
+    private ApkSigner apkSigner;
+    private ContentDigest contentDigest;
+    private CompressionSetting compressionSetting;
 
     public ApkWriter(T zipOutput, InputSource[] sources){
         this.zipOutput = zipOutput;
@@ -46,20 +57,33 @@ public abstract class ApkWriter<T extends ZipOutput, OUT extends OutputSource> i
 
     public void write()throws IOException {
         synchronized (mLock){
-            OUT[] outList = buildOutputEntries();
+            openWorkerPool();
+            try {
+                OUT[] outList = buildOutputEntries();
+                prepareOutputs(outList);
+                openContentDigest();
+                writeApkList(outList);
 
-            prepareOutputs(outList);
-            writeApkList(outList);
+                closeBuffer();
 
-            closeBuffer();
-
-            writeSignatureBlock();
-            writeCEHList(outList);
+                byte[] centralDirectory = buildCentralDirectory(outList);
+                writeSignatureBlock(centralDirectory, outList.length);
+                writeCentralDirectory(centralDirectory, outList.length);
+            } finally {
+                closeContentDigest();
+                discardBuffer();
+                closeWorkerPool();
+            }
 
             this.close();
         }
     }
     private void writeApkList(OUT[] outputList) throws IOException{
+        WorkerPool workerPool = getWorkerPool();
+        if(workerPool != null && isBufferedWrite()){
+            writeApkList(outputList, workerPool);
+            return;
+        }
         int length = outputList.length;
         logMessage("Writing files: " + length);
         APKLogger logger = this.getApkLogger();
@@ -73,24 +97,65 @@ public abstract class ApkWriter<T extends ZipOutput, OUT extends OutputSource> i
             }
         }
     }
+    /**
+     * Compresses entries on worker threads ahead of the single ordered writer,
+     * at most two entries per worker are held in memory at a time.
+     * */
+    private void writeApkList(OUT[] outputList, WorkerPool workerPool) throws IOException{
+        int length = outputList.length;
+        logMessage("Writing files: " + length + ", threads = " + workerPool.getParallelism());
+        APKLogger logger = this.getApkLogger();
+        ZipAligner zipAligner = getZipAligner();
+        int window = workerPool.getParallelism() * 2;
+        Future<?>[] futures = new Future<?>[length];
+        int submitted = 0;
+        try {
+            for(int i = 0; i < length; i++){
+                int limit = Math.min(length, i + window);
+                while (submitted < limit){
+                    OUT out = outputList[submitted];
+                    if(out.isThreadSafe()){
+                        futures[submitted] = workerPool.submit(() -> {
+                            makeBuffer(out);
+                            return null;
+                        });
+                    }
+                    submitted ++;
+                }
+                Future<?> future = futures[i];
+                if(future != null){
+                    futures[i] = null;
+                    WorkerPool.await(future);
+                }
+                OUT out = outputList[i];
+                out.setAPKLogger(logger);
+                writeApk(out, zipAligner);
+                if(i % 100 == 0){
+                    out.logFileWrite();
+                }
+            }
+        } finally {
+            WorkerPool.cancel(futures);
+        }
+    }
     void closeBuffer() throws IOException{
     }
-    private void writeCEHList(OUT[] outputList) throws IOException{
-        EndRecord endRecord = new EndRecord();
-        endRecord.setSignature(ZipSignature.END_RECORD);
-        long offset = position();
-        endRecord.setOffsetOfCentralDirectory(offset);
-        int count = outputList.length;
-        endRecord.setNumberOfDirectories(count);
-        endRecord.setTotalNumberOfDirectories(count);
-        ZipOutput zipOutput = getZipOutput();
-        for(int i = 0; i < count; i++){
-            OUT outputSource = outputList[i];
+    /**
+     * Releases buffers left open by a failed write, no-op after closeBuffer
+     * */
+    void discardBuffer(){
+    }
+    private byte[] buildCentralDirectory(OUT[] outputList) throws IOException{
+        ZipByteOutput zipOutput = new ZipByteOutput();
+        for(OUT outputSource : outputList){
             outputSource.writeCEH(zipOutput);
         }
-        long cedLength = position() - offset;
-        endRecord.setLengthOfCentralDirectory(cedLength);
+        return zipOutput.toByteArray();
+    }
+    private void writeCentralDirectory(byte[] centralDirectory, int count) throws IOException{
+        EndRecord endRecord = createEndRecord(position(), count, centralDirectory.length);
         OutputStream outputStream = getOutputStream();
+        outputStream.write(centralDirectory);
         Zip64Record zip64Record = endRecord.getZip64Record();
         if(zip64Record != null){
             long offsetOfRecord = position();
@@ -103,8 +168,21 @@ public abstract class ApkWriter<T extends ZipOutput, OUT extends OutputSource> i
         }
         endRecord.writeBytes(getOutputStream());
     }
-    OUT[] buildOutputEntries(){
+    private EndRecord createEndRecord(long offset, int count, long length){
+        EndRecord endRecord = new EndRecord();
+        endRecord.setSignature(ZipSignature.END_RECORD);
+        endRecord.setOffsetOfCentralDirectory(offset);
+        endRecord.setNumberOfDirectories(count);
+        endRecord.setTotalNumberOfDirectories(count);
+        endRecord.setLengthOfCentralDirectory(length);
+        return endRecord;
+    }
+    OUT[] buildOutputEntries() throws IOException {
         InputSource[] sources = this.getInputSources();
+        ApkSigner apkSigner = this.getApkSigner();
+        if(apkSigner != null){
+            sources = apkSigner.signV1(sources, getWorkerPool());
+        }
         int length = sources.length;
         OUT[] results = createOutArray(length);
         HeaderInterceptorChain interceptorChain = this.getInterceptorChain();
@@ -115,12 +193,18 @@ public abstract class ApkWriter<T extends ZipOutput, OUT extends OutputSource> i
             InputSource inputSource = sources[i];
             OUT out = toOutputSource(inputSource);
             out.setHeaderInterceptor(interceptorChain);
+            out.setCompressionSetting(compressionSetting);
             results[i] = out;
         }
         return results;
     }
 
     abstract void writeApk(OUT outputSource, ZipAligner zipAligner) throws IOException;
+    boolean isBufferedWrite(){
+        return false;
+    }
+    void makeBuffer(OUT outputSource) throws IOException {
+    }
     abstract void prepareOutputs(OUT[] outList) throws IOException;
     abstract OUT toOutputSource(InputSource inputSource);
     abstract OUT[] createOutArray(int length);
@@ -137,6 +221,57 @@ public abstract class ApkWriter<T extends ZipOutput, OUT extends OutputSource> i
     InputSource[] getInputSources() {
         return inputSources;
     }
+    /**
+     * Sets number of threads used to compress entries, the written bytes are identical
+     * to sequential mode. Values less than 2 disables parallel mode.
+     * */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+    public int getParallelism() {
+        WorkerPool workerPool = this.workerPool;
+        if(workerPool != null){
+            return workerPool.getParallelism();
+        }
+        return parallelism;
+    }
+    /**
+     * Sets caller owned worker pool, it is not shut down after writing
+     * */
+    public void setWorkerPool(WorkerPool workerPool) {
+        this.workerPool = workerPool;
+    }
+    WorkerPool getWorkerPool() {
+        return activeWorkerPool;
+    }
+    private void openWorkerPool() {
+        WorkerPool workerPool = this.workerPool;
+        if(workerPool == null && parallelism > 1){
+            workerPool = WorkerPool.create(parallelism, "apk-writer");
+        }
+        if(workerPool != null && workerPool.getParallelism() < 2){
+            workerPool = null;
+        }
+        this.activeWorkerPool = workerPool;
+    }
+    private void closeWorkerPool() {
+        WorkerPool workerPool = this.activeWorkerPool;
+        this.activeWorkerPool = null;
+        if(workerPool != null && workerPool != this.workerPool){
+            workerPool.close();
+        }
+    }
+    public CompressionSetting getCompressionSetting() {
+        CompressionSetting setting = this.compressionSetting;
+        if(setting == null){
+            setting = new CompressionSetting();
+            this.compressionSetting = setting;
+        }
+        return setting;
+    }
+    public void setCompressionSetting(CompressionSetting compressionSetting) {
+        this.compressionSetting = compressionSetting;
+    }
     public ZipAligner getZipAligner(){
         return zipAligner;
     }
@@ -150,15 +285,44 @@ public abstract class ApkWriter<T extends ZipOutput, OUT extends OutputSource> i
     public ApkSignatureBlock getApkSignatureBlock() {
         return apkSignatureBlock;
     }
-    void writeSignatureBlock() throws IOException {
+    /**
+     * Signs while writing, any signature block set by {@link #setApkSignatureBlock(ApkSignatureBlock)}
+     * is replaced and existing v1 signature files are removed.
+     * */
+    public void setApkSigner(ApkSigner apkSigner) {
+        this.apkSigner = apkSigner;
+    }
+    public ApkSigner getApkSigner() {
+        return apkSigner;
+    }
+    private void openContentDigest() {
+        ApkSigner apkSigner = getApkSigner();
+        if(apkSigner == null || !apkSigner.isSigningBlockEnabled()){
+            return;
+        }
+        ContentDigest contentDigest = new ContentDigest(getWorkerPool());
+        this.contentDigest = contentDigest;
+        getZipOutput().setMirror(contentDigest);
+    }
+    private void closeContentDigest() throws IOException {
+        ContentDigest contentDigest = this.contentDigest;
+        if(contentDigest != null){
+            this.contentDigest = null;
+            getZipOutput().setMirror(null);
+            contentDigest.close();
+        }
+    }
+    void writeSignatureBlock(byte[] centralDirectory, int count) throws IOException {
         ApkSignatureBlock signatureBlock = this.getApkSignatureBlock();
-        if(signatureBlock == null){
+        ContentDigest contentDigest = this.contentDigest;
+        if(signatureBlock == null && contentDigest == null){
             return;
         }
         logMessage("Writing signature block ...");
         long offset = position();
         if(ZipHeader.isZip64Length(offset)){
             logMessage("ZIP64 mode, skip writing signature block!");
+            closeContentDigest();
             return;
         }
         int alignment = 4096;
@@ -167,6 +331,17 @@ public abstract class ApkWriter<T extends ZipOutput, OUT extends OutputSource> i
         if(filesPadding > 0){
             outputStream.write(new byte[filesPadding]);
         }
+        if(contentDigest != null){
+            getZipOutput().setMirror(null);
+            EndRecord endRecord = createEndRecord(position(), count, centralDirectory.length);
+            if(endRecord.getZip64Record() != null){
+                logMessage("ZIP64 mode, skip signing!");
+                return;
+            }
+            logMessage("Signing ...");
+            signatureBlock = getApkSigner().createSignatureBlock(contentDigest,
+                    centralDirectory, endRecord.getBytes());
+        }
         signatureBlock.updatePadding();
         signatureBlock.writeBytes(outputStream);
     }
@@ -21,13 +21,25 @@ import com.reandroid.archive.io.ZipByteOutput;
 import java.io.IOException;
 
 class ByteOutputSource extends OutputSource{
+    private ZipByteOutput buffer;
+
     ByteOutputSource(InputSource inputSource) {
         super(inputSource);
     }
-    void writeApk(ZipByteOutput zipOutput, ZipAligner zipAligner) throws IOException {
+
+    void makeBuffer() throws IOException {
+        if(this.buffer != null){
+            return;
+        }
         ZipByteOutput buffer = new ZipByteOutput();
         writeBuffer(buffer);
         buffer.close();
+        this.buffer = buffer;
+    }
+    void writeApk(ZipByteOutput zipOutput, ZipAligner zipAligner) throws IOException {
+        makeBuffer();
+        ZipByteOutput buffer = this.buffer;
+        this.buffer = null;
         writeLFH(zipOutput, zipAligner);
         getLocalFileHeader().setFileOffset(zipOutput.position());
         zipOutput.write(buffer.toByteArray());
@@ -0,0 +1,153 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.archive.writer;
+
+import com.reandroid.utils.StringsUtil;
+import com.reandroid.utils.io.FileUtil;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * Deflate level and strategy of compressed entries, with optional overrides per file
+ * extension. Entries copied as-is from a source archive keep their original compression.
+ * */
+public class CompressionSetting {
+
+    private final Map<String, Integer> levelMap;
+    private final Map<String, Integer> strategyMap;
+    private int level;
+    private int strategy;
+
+    public CompressionSetting() {
+        this.levelMap = new HashMap<>();
+        this.strategyMap = new HashMap<>();
+        this.level = Deflater.DEFAULT_COMPRESSION;
+        this.strategy = Deflater.DEFAULT_STRATEGY;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+    /**
+     * Sets default level, from {@link Deflater#BEST_SPEED} to {@link Deflater#BEST_COMPRESSION}
+     * or {@link Deflater#DEFAULT_COMPRESSION}
+     * */
+    public void setLevel(int level) {
+        this.level = checkLevel(level);
+    }
+    public int getStrategy() {
+        return strategy;
+    }
+    /**
+     * Sets default strategy, one of {@link Deflater#DEFAULT_STRATEGY},
+     * {@link Deflater#FILTERED} or {@link Deflater#HUFFMAN_ONLY}
+     * */
+    public void setStrategy(int strategy) {
+        this.strategy = checkStrategy(strategy);
+    }
+    /**
+     * Overrides the level for paths with the given extension e.g "png" or ".png",
+     * a negative level other than {@link Deflater#DEFAULT_COMPRESSION} removes the override
+     * */
+    public void setLevel(String extension, int level) {
+        extension = toExtensionKey(extension);
+        if (level < Deflater.DEFAULT_COMPRESSION) {
+            levelMap.remove(extension);
+        } else {
+            levelMap.put(extension, checkLevel(level));
+        }
+    }
+    /**
+     * Overrides the strategy for paths with the given extension, a negative strategy
+     * removes the override
+     * */
+    public void setStrategy(String extension, int strategy) {
+        extension = toExtensionKey(extension);
+        if (strategy < 0) {
+            strategyMap.remove(extension);
+        } else {
+            strategyMap.put(extension, checkStrategy(strategy));
+        }
+    }
+    public void clearOverrides() {
+        levelMap.clear();
+        strategyMap.clear();
+    }
+    public int getLevel(String path) {
+        if (levelMap.isEmpty()) {
+            return getLevel();
+        }
+        Integer level = levelMap.get(toExtensionKey(FileUtil.getExtension(path)));
+        if (level != null) {
+            return level;
+        }
+        return getLevel();
+    }
+    public int getStrategy(String path) {
+        if (strategyMap.isEmpty()) {
+            return getStrategy();
+        }
+        Integer strategy = strategyMap.get(toExtensionKey(FileUtil.getExtension(path)));
+        if (strategy != null) {
+            return strategy;
+        }
+        return getStrategy();
+    }
+
+    @Override
+    public String toString() {
+        return "level=" + getLevel() + ", strategy=" + getStrategy()
+                + ", levels=" + levelMap + ", strategies=" + strategyMap;
+    }
+
+    private static String toExtensionKey(String extension) {
+        if (extension == null) {
+            return StringsUtil.EMPTY;
+        }
+        extension = StringsUtil.toLowercase(extension);
+        if (extension.length() != 0 && extension.charAt(0) != '.') {
+            extension = "." + extension;
+        }
+        return extension;
+    }
+    private static int checkLevel(int level) {
+        if (level != Deflater.DEFAULT_COMPRESSION
+                && (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+        }
+        return level;
+    }
+    private static int checkStrategy(int strategy) {
+        if (strategy != Deflater.DEFAULT_STRATEGY && strategy != Deflater.FILTERED
+                && strategy != Deflater.HUFFMAN_ONLY) {
+            throw new IllegalArgumentException("Invalid compression strategy: " + strategy);
+        }
+        return strategy;
+    }
+
+    public static CompressionSetting fastest() {
+        CompressionSetting setting = new CompressionSetting();
+        setting.setLevel(Deflater.BEST_SPEED);
+        return setting;
+    }
+    public static CompressionSetting smallest() {
+        CompressionSetting setting = new CompressionSetting();
+        setting.setLevel(Deflater.BEST_COMPRESSION);
+        return setting;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.archive.writer;
+
+import com.reandroid.archive.block.LocalFileHeader;
+import com.reandroid.archive.io.ZipFileOutput;
+import com.reandroid.archive.io.ZipOutput;
+import com.reandroid.common.BytesOutputStream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Receives the data of one entry for direct write of {@link ApkFileWriter}. Data is kept in
+ * memory up to a limit, beyond it the local header is written with the sizes known so far
+ * and the rest goes straight to the final file. Such header is patched in place after the
+ * data, unless the output is being digested where the sizes must be known in advance or
+ * go to a data descriptor.
+ * */
+class DirectEntryOutput extends ZipOutput {
+
+    private final FileOutputSource outputSource;
+    private final ZipFileOutput zipFileOutput;
+    private final ZipAligner zipAligner;
+    private final ByteArrayOutputStream memory;
+    private final int memoryLimit;
+    private final OutputStream outputStream;
+    private OutputStream fileStream;
+    private long headerOffset;
+    private byte[] headerBytes;
+    private long position;
+
+    DirectEntryOutput(FileOutputSource outputSource, ZipFileOutput zipFileOutput,
+                      ZipAligner zipAligner, ByteArrayOutputStream memory, int memoryLimit) {
+        memory.reset();
+        this.outputSource = outputSource;
+        this.zipFileOutput = zipFileOutput;
+        this.zipAligner = zipAligner;
+        this.memory = memory;
+        this.memoryLimit = memoryLimit;
+        this.outputStream = new OutputStream() {
+            @Override
+            public void write(int i) throws IOException {
+                write(new byte[]{(byte) i}, 0, 1);
+            }
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                DirectEntryOutput.this.write(bytes, offset, length);
+            }
+        };
+    }
+
+    void finish() throws IOException {
+        OutputSource outputSource = this.outputSource;
+        ZipFileOutput zipFileOutput = this.zipFileOutput;
+        LocalFileHeader lfh = outputSource.getLocalFileHeader();
+        if(fileStream == null){
+            outputSource.writeLFH(zipFileOutput, zipAligner);
+            lfh.setFileOffset(zipFileOutput.position());
+            memory.writeTo(zipFileOutput.getOutputStream());
+            memory.reset();
+        }else {
+            patchHeader(lfh);
+        }
+        outputSource.writeDD(zipFileOutput);
+    }
+    private void write(byte[] bytes, int offset, int length) throws IOException {
+        position += length;
+        OutputStream fileStream = this.fileStream;
+        if(fileStream == null){
+            if(memory.size() + length <= memoryLimit){
+                memory.write(bytes, offset, length);
+                return;
+            }
+            fileStream = spill();
+        }
+        fileStream.write(bytes, offset, length);
+    }
+    private OutputStream spill() throws IOException {
+        OutputSource outputSource = this.outputSource;
+        ZipFileOutput zipFileOutput = this.zipFileOutput;
+        LocalFileHeader lfh = outputSource.getLocalFileHeader();
+        if(zipFileOutput.getMirror() != null && lfh.getSize() == 0){
+            // digested bytes can not be patched afterwards
+            outputSource.setRequireDataDescriptor(true);
+        }
+        this.headerOffset = zipFileOutput.position();
+        outputSource.writeLFH(zipFileOutput, zipAligner);
+        this.headerBytes = toBytes(lfh);
+        lfh.setFileOffset(zipFileOutput.position());
+        OutputStream fileStream = zipFileOutput.getOutputStream();
+        memory.writeTo(fileStream);
+        memory.reset();
+        this.fileStream = fileStream;
+        return fileStream;
+    }
+    private void patchHeader(LocalFileHeader lfh) throws IOException {
+        byte[] bytes = toBytes(lfh);
+        byte[] headerBytes = this.headerBytes;
+        if(Arrays.equals(bytes, headerBytes)){
+            return;
+        }
+        if(bytes.length != headerBytes.length){
+            throw new IOException("Header size changed on direct write: " + lfh.getFileName());
+        }
+        ZipFileOutput zipFileOutput = this.zipFileOutput;
+        if(zipFileOutput.getMirror() != null){
+            throw new IOException("Header of digested entry changed on direct write: "
+                    + lfh.getFileName());
+        }
+        long end = zipFileOutput.position();
+        zipFileOutput.position(headerOffset);
+        zipFileOutput.getOutputStream().write(bytes);
+        zipFileOutput.position(end);
+    }
+
+    @Override
+    public long position() {
+        return position;
+    }
+    @Override
+    public void position(long pos) throws IOException {
+        throw new IOException("Can not seek on direct write");
+    }
+    @Override
+    public void close() {
+    }
+    @Override
+    public boolean isOpen() {
+        return true;
+    }
+    @Override
+    public void write(InputStream inputStream) throws IOException {
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = inputStream.read(buffer, 0, buffer.length)) >= 0){
+            write(buffer, 0, read);
+        }
+        inputStream.close();
+    }
+    @Override
+    public OutputStream getOutputStream() {
+        return outputStream;
+    }
+
+    private static byte[] toBytes(LocalFileHeader lfh) throws IOException {
+        BytesOutputStream outputStream = new BytesOutputStream(lfh.countBytes());
+        lfh.writeBytes(outputStream);
+        return outputStream.toByteArray();
+    }
+}
@@ -15,11 +15,13 @@
  */
 package com.reandroid.archive.writer;
 
+import com.reandroid.archive.Archive;
 import com.reandroid.archive.InputSource;
 import com.reandroid.archive.block.LocalFileHeader;
 import com.reandroid.archive.io.ZipFileOutput;
 import com.reandroid.archive.io.ZipOutput;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.channels.FileChannel;
 
@@ -59,6 +61,35 @@ class FileOutputSource extends OutputSource {
         writeData(input, entryBuffer.getLength(), zipFileOutput);
         writeDD(zipFileOutput);
     }
+    /**
+     * Writes straight to the final file without buffer, memory is used for data
+     * up to memoryLimit bytes
+     * */
+    void writeDirect(ZipFileOutput zipFileOutput, ZipAligner zipAligner,
+                     ByteArrayOutputStream memory, int memoryLimit) throws IOException {
+        EntryBuffer entryBuffer = makeFromEntry();
+        if(entryBuffer != null){
+            this.entryBuffer = entryBuffer;
+            writeApk(zipFileOutput, zipAligner);
+            return;
+        }
+        InputSource inputSource = getInputSource();
+        if(inputSource.getMethod() == Archive.STORED){
+            long length = inputSource.getLength();
+            if(length > memoryLimit){
+                // known ahead, thus the header needs neither patch nor data descriptor
+                LocalFileHeader lfh = getLocalFileHeader();
+                lfh.setSize(length);
+                lfh.setCompressedSize(length);
+                lfh.setCrc(inputSource.getCrc());
+            }
+        }
+        DirectEntryOutput output = new DirectEntryOutput(this, zipFileOutput,
+                zipAligner, memory, memoryLimit);
+        writeBuffer(output);
+        output.finish();
+        logLargeFileWrite();
+    }
     private void writeData(FileChannel input, long length, ZipFileOutput apkFileWriter) throws IOException{
         long offset = apkFileWriter.position();
         LocalFileHeader lfh = getLocalFileHeader();
@@ -24,6 +24,7 @@ import com.reandroid.archive.block.DataDescriptor;
 import com.reandroid.archive.block.LocalFileHeader;
 import com.reandroid.archive.io.CountingOutputStream;
 import com.reandroid.archive.io.ZipOutput;
+import com.reandroid.archive.io.ZlibPool;
 import com.reandroid.utils.io.FileUtil;
 
 import java.io.IOException;
@@ -36,6 +37,8 @@ class OutputSource {
     private LocalFileHeader lfh;
     private APKLogger apkLogger;
     private HeaderInterceptor headerInterceptor;
+    private CompressionSetting compressionSetting;
+    private boolean requireDataDescriptor;
 
     OutputSource(InputSource inputSource){
         this.inputSource = inputSource;
@@ -47,16 +50,24 @@ class OutputSource {
         OutputStream rawStream = zipOutput.getOutputStream();
         CountingOutputStream<OutputStream> rawCounter = new CountingOutputStream<>(rawStream);
         CountingOutputStream<DeflaterOutputStream> deflateCounter = null;
+        Deflater deflater = null;
 
         if(inputSource.getMethod() != Archive.STORED){
+            CompressionSetting setting = getCompressionSetting();
+            String path = inputSource.getAlias();
+            deflater = ZlibPool.obtainDeflater(setting.getLevel(path), setting.getStrategy(path));
             DeflaterOutputStream deflaterInputStream =
-                    new DeflaterOutputStream(rawCounter, new Deflater(Deflater.DEFAULT_COMPRESSION, true), true);
+                    new DeflaterOutputStream(rawCounter, deflater, ZlibPool.BUFFER_SIZE, true);
             deflateCounter = new CountingOutputStream<>(deflaterInputStream, false);
         }
         if(deflateCounter != null){
             rawCounter.disableCrc(true);
-            inputSource.write(deflateCounter);
-            deflateCounter.close();
+            try {
+                inputSource.write(deflateCounter);
+                deflateCounter.close();
+            } finally {
+                ZlibPool.release(deflater);
+            }
             rawCounter.close();
         }else {
             inputSource.write(rawCounter);
@@ -95,9 +106,28 @@ class OutputSource {
             zipAligner.align(zipOutput.position(), lfh);
         }
         notifyLFHWrite(lfh);
+        if(requireDataDescriptor){
+            lfh.setHasDataDescriptor(true);
+        }
         lfh.writeBytes(zipOutput.getOutputStream());
     }
+    /**
+     * Forces sizes and crc to a data descriptor, for headers written before the data is known
+     * */
+    void setRequireDataDescriptor(boolean requireDataDescriptor) {
+        this.requireDataDescriptor = requireDataDescriptor;
+    }
 
+    CompressionSetting getCompressionSetting() {
+        CompressionSetting setting = this.compressionSetting;
+        if(setting == null){
+            setting = DEFAULT_COMPRESSION;
+        }
+        return setting;
+    }
+    void setCompressionSetting(CompressionSetting compressionSetting) {
+        this.compressionSetting = compressionSetting;
+    }
     public void setHeaderInterceptor(HeaderInterceptor interceptor) {
         this.headerInterceptor = interceptor;
     }
@@ -122,6 +152,9 @@ class OutputSource {
     InputSource getInputSource() {
         return inputSource;
     }
+    boolean isThreadSafe() {
+        return getInputSource().isThreadSafe();
+    }
     LocalFileHeader getLocalFileHeader(){
         if(lfh == null){
             LocalFileHeader lfh = createLocalFileHeader();
@@ -170,5 +203,6 @@ class OutputSource {
             apkLogger.logVerbose(msg);
         }
     }
+    private static final CompressionSetting DEFAULT_COMPRESSION = new CompressionSetting();
     private static final long LOG_LARGE_FILE_SIZE = 2L * 1000 * 1024;
 }
@@ -22,13 +22,25 @@ import com.reandroid.archive.io.ZipStreamOutput;
 import java.io.IOException;
 
 class StreamOutputSource extends OutputSource{
+    private ZipByteOutput buffer;
+
     StreamOutputSource(InputSource inputSource) {
         super(inputSource);
     }
-    void writeApk(ZipStreamOutput zipOutput, ZipAligner zipAligner) throws IOException {
+
+    void makeBuffer() throws IOException {
+        if(this.buffer != null){
+            return;
+        }
         ZipByteOutput buffer = new ZipByteOutput();
         writeBuffer(buffer);
         buffer.close();
+        this.buffer = buffer;
+    }
+    void writeApk(ZipStreamOutput zipOutput, ZipAligner zipAligner) throws IOException {
+        makeBuffer();
+        ZipByteOutput buffer = this.buffer;
+        this.buffer = null;
 
         writeLFH(zipOutput, zipAligner);
         getLocalFileHeader().setFileOffset(zipOutput.position());
@@ -18,6 +18,7 @@ package com.reandroid.arsc.array;
 import com.reandroid.arsc.base.Block;
 import com.reandroid.arsc.base.BlockArray;
 import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.chunk.TableBlock;
 import com.reandroid.arsc.io.BlockLoad;
 import com.reandroid.arsc.io.BlockReader;
 import com.reandroid.arsc.item.IntegerItem;
@@ -170,6 +171,11 @@ public class PackageArray extends BlockArray<PackageBlock>
         }
     }
     @Override
+    public void onChanged() {
+        super.onChanged();
+        TableBlock.notifyResourcesChanged(this);
+    }
+    @Override
     public int compare(PackageBlock p1, PackageBlock p2) {
         return p1.compareTo(p2);
     }
@@ -17,6 +17,7 @@ package com.reandroid.arsc.array;
 
 import com.reandroid.arsc.base.BlockArray;
 import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.chunk.TableBlock;
 import com.reandroid.arsc.chunk.SpecBlock;
 import com.reandroid.arsc.chunk.TypeBlock;
 import com.reandroid.arsc.container.SpecTypePair;
@@ -357,6 +358,11 @@ public class SpecTypePairArray extends BlockArray<SpecTypePair>
         return null;
     }
     @Override
+    public void onChanged() {
+        super.onChanged();
+        TableBlock.notifyResourcesChanged(this);
+    }
+    @Override
     public int compare(SpecTypePair typePair1, SpecTypePair typePair2) {
         return typePair1.compareTo(typePair2);
     }
@@ -17,6 +17,7 @@ package com.reandroid.arsc.array;
 
 import com.reandroid.arsc.base.Block;
 import com.reandroid.arsc.base.BlockArray;
+import com.reandroid.arsc.chunk.TableBlock;
 import com.reandroid.arsc.io.BlockLoad;
 import com.reandroid.arsc.io.BlockReader;
 import com.reandroid.arsc.item.IntegerItem;
@@ -100,4 +101,9 @@ public class StagedAliasEntryArray extends BlockArray<StagedAliasEntry>
             get(i).fromJson(json.getJSONObject(i));
         }
     }
+    @Override
+    public void onChanged() {
+        super.onChanged();
+        TableBlock.notifyResourcesChanged(this);
+    }
 }
@@ -18,6 +18,7 @@ package com.reandroid.arsc.array;
 import com.reandroid.arsc.base.BlockArray;
 import com.reandroid.arsc.chunk.ChunkType;
 import com.reandroid.arsc.chunk.SpecBlock;
+import com.reandroid.arsc.chunk.TableBlock;
 import com.reandroid.arsc.chunk.TypeBlock;
 import com.reandroid.arsc.container.SpecTypePair;
 import com.reandroid.arsc.header.HeaderBlock;
@@ -43,7 +44,7 @@ public class TypeBlockArray extends BlockArray<TypeBlock>
         implements JSONConvert<JSONArray>, Comparator<TypeBlock> {
     private byte mTypeId;
     private Boolean mHasComplexEntry;
-    private Map<String, TypeBlock> mQualifiersMap;
+    private volatile Map<String, TypeBlock> mQualifiersMap;
 
     public TypeBlockArray(){
         super();
@@ -163,16 +164,12 @@ public class TypeBlockArray extends BlockArray<TypeBlock>
     private TypeBlock getFromQualifiersMap(String qualifiers) {
         Map<String, TypeBlock> map = this.mQualifiersMap;
         if (map == null) {
-            buildQualifiersMap();
-            map = this.mQualifiersMap;
-            return map.get(qualifiers);
+            return buildQualifiersMap().get(qualifiers);
         }
         TypeBlock typeBlock = map.get(qualifiers);
         if (typeBlock != null && !qualifiers.equals(typeBlock.getQualifiers()) ||
                 typeBlock != null && typeBlock.getParent() == null) {
-            buildQualifiersMap();
-            map = this.mQualifiersMap;
-            typeBlock = map.get(qualifiers);
+            typeBlock = buildQualifiersMap().get(qualifiers);
         }
         return typeBlock;
     }
@@ -196,14 +193,19 @@ public class TypeBlockArray extends BlockArray<TypeBlock>
         }
         return null;
     }
-    private void buildQualifiersMap() {
+    /**
+     * The map is published only once completely filled, concurrent readers may build
+     * their own copy but never observe a partial one
+     * */
+    private Map<String, TypeBlock> buildQualifiersMap() {
         Map<String, TypeBlock> map = new HashMap<>(size());
-        this.mQualifiersMap = map;
         Iterator<TypeBlock> iterator = iterator();
         while (iterator.hasNext()) {
             TypeBlock typeBlock = iterator.next();
             map.put(typeBlock.getQualifiers(), typeBlock);
         }
+        this.mQualifiersMap = map;
+        return map;
     }
     public void setTypeId(byte id){
         this.mTypeId = id;
@@ -307,6 +309,7 @@ public class TypeBlockArray extends BlockArray<TypeBlock>
     public void onChanged() {
         super.onChanged();
         mQualifiersMap = null;
+        TableBlock.notifyResourcesChanged(this);
     }
 
     @Override
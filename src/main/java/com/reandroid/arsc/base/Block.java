@@ -24,9 +24,12 @@ import java.io.IOException;
 import java.io.OutputStream;
 
 public abstract class Block {
-    private int mIndex=-1;
+    /**
+     * index + 1 and null flag on the sign bit, a single field keeps
+     * small blocks (e.g. BlockItem) within 32 bytes of heap
+     * */
+    private int mIndexAndNull;
     private Block mParent;
-    private boolean mNull;
     private BlockLoad mBlockLoad;
     public abstract byte[] getBytes();
     public abstract int countBytes();
@@ -67,32 +70,61 @@ public abstract class Block {
     }
     protected abstract int onWriteBytes(OutputStream stream) throws IOException;
     public boolean isNull(){
-        return mNull;
+        return mIndexAndNull < 0;
     }
     public void setNull(boolean is_null){
-        mNull=is_null;
+        if(is_null == isNull()){
+            return;
+        }
+        if(is_null){
+            mIndexAndNull |= NULL_FLAG;
+        }else {
+            mIndexAndNull &= ~NULL_FLAG;
+        }
+        onModified();
     }
     public final int getIndex(){
-        return mIndex;
+        return (mIndexAndNull & ~NULL_FLAG) - 1;
     }
     public final void setIndex(int index){
-        int old=mIndex;
+        int old=getIndex();
         if(index==old){
             return;
         }
-        mIndex=index;
+        mIndexAndNull = (mIndexAndNull & NULL_FLAG) | ((index + 1) & ~NULL_FLAG);
         if(old!=-1 && index!=-1){
             onIndexChanged(old, index);
+            Block parent = getParent();
+            if(parent != null){
+                parent.onModified();
+            }
         }
     }
     public void onIndexChanged(int oldIndex, int newIndex){
 
+    }
+    /**
+     * Called when bytes of this block or any of its descendants could have been changed,
+     * propagates to parents. See Chunk#isSourceUnchanged()
+     * */
+    protected void onModified(){
+        Block parent = getParent();
+        if(parent != null){
+            parent.onModified();
+        }
     }
     public final void setParent(Block parent){
-        if(parent==this){
+        Block old = mParent;
+        if(parent==this || parent==old){
             return;
         }
         mParent=parent;
+        if(old != null){
+            old.onModified();
+        }
+        if(parent != null){
+            parent.onModified();
+        }
     }
     public final Block getParent(){
         return mParent;
@@ -424,4 +456,6 @@ public abstract class Block {
         }
         return hash;
     }
+
+    private static final int NULL_FLAG = 0x80000000;
 }
@@ -29,10 +29,16 @@ public abstract class BlockContainer<T extends Block> extends Block implements B
 
     }
     protected abstract void onRefreshed();
+    /**
+     * Returns true when the content is known to be unchanged since it was read
+     * */
+    protected boolean canSkipRefresh(){
+        return false;
+    }
 
     @Override
     public final void refresh(){
-        if(isNull()){
+        if(isNull() || canSkipRefresh()){
             return;
         }
         onPreRefresh();
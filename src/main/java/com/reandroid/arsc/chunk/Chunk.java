@@ -23,6 +23,7 @@ import com.reandroid.arsc.io.BlockReader;
 import com.reandroid.arsc.item.AlignItem;
 
 import java.io.IOException;
+import java.io.OutputStream;
 
 public abstract class Chunk<T extends HeaderBlock> extends ExpandableBlockContainer {
 
@@ -30,6 +31,11 @@ public abstract class Chunk<T extends HeaderBlock> extends ExpandableBlockContai
     private final SingleBlockContainer<Block> firstPlaceHolder;
     private AlignItem alignItem;
 
+    private byte[] mSource;
+    private int mSourceOffset;
+    private int mSourceLength;
+    private int mModificationStamp;
+
     protected Chunk(T headerBlock, SingleBlockContainer<Block> firstPlaceHolder, int initialChildesCount) {
         super(initialChildesCount + (firstPlaceHolder == null ? 2 : 3));
 
@@ -79,16 +85,83 @@ public abstract class Chunk<T extends HeaderBlock> extends ExpandableBlockContai
     protected abstract void onChunkRefreshed();
     public void onChunkLoaded() {
 
+    }
+    /**
+     * Returns true if the bytes of this chunk read from shared buffer can be written back
+     * as they are while no modification is made, see {@link BlockReader#setSharedBuffer(boolean)}
+     * */
+    protected boolean canKeepSource() {
+        return false;
+    }
+    /**
+     * Returns true if this chunk is not modified since it was read and is going to be written
+     * from the original bytes
+     * */
+    public boolean isSourceUnchanged() {
+        return mSource != null;
+    }
+    /**
+     * Changes whenever this chunk or any of its descendants is reported modified, items
+     * written since the last change report their first access as modification
+     * */
+    public int getModificationStamp() {
+        return mModificationStamp;
+    }
+    @Override
+    protected void onModified() {
+        mSource = null;
+        mModificationStamp ++;
+        super.onModified();
+    }
+    @Override
+    protected boolean canSkipRefresh() {
+        return mSource != null;
+    }
+    @Override
+    public int countBytes() {
+        if (mSource != null && !isNull()) {
+            return mSourceLength;
+        }
+        return super.countBytes();
+    }
+    @Override
+    public int onWriteBytes(OutputStream stream) throws IOException {
+        if (mSource == null || isNull()) {
+            return super.onWriteBytes(stream);
+        }
+        stream.write(mSource, mSourceOffset, mSourceLength);
+        return mSourceLength;
+    }
+    @Override
+    public byte[] getBytes() {
+        if (mSource == null || isNull()) {
+            return super.getBytes();
+        }
+        return getBytes(mSource, mSourceOffset, mSourceLength);
     }
     @Override
     public void onReadBytes(BlockReader reader) throws IOException {
         HeaderBlock headerBlock = reader.readHeaderBlock();
         checkInvalidChunk(headerBlock);
-        BlockReader chunkReader = reader.create(headerBlock.getChunkSize());
+        int chunkSize = headerBlock.getChunkSize();
+        int start = reader.getActualPosition();
+        mSource = null;
+        BlockReader chunkReader = reader.create(chunkSize);
         onReadChildes(chunkReader);
-        reader.offset(headerBlock.getChunkSize());
+        reader.offset(chunkSize);
         chunkReader.close();
         onChunkLoaded();
+        if (canKeepSource() && reader.isSharedBuffer()) {
+            keepSource(reader.getBuffer(), start, chunkSize);
+        }
+    }
+    private void keepSource(byte[] buffer, int start, int length) {
+        if (start + length > buffer.length || super.countBytes() != length) {
+            return;
+        }
+        mSource = buffer;
+        mSourceOffset = start;
+        mSourceLength = length;
     }
     protected void onReadChildes(BlockReader reader) throws IOException{
         AlignItem alignItem = getAlignItem();
@@ -66,6 +66,9 @@ import java.util.Set;
 import org.apache.commons.collections4.Predicate;
 
 
+/**
+ * Follows the concurrent read contract of {@link TableBlock}.
+ * */
 public class PackageBlock extends Chunk<PackageHeader>
         implements ParentChunk,
         JSONConvert<JSONObject>,
@@ -422,6 +425,7 @@ public class PackageBlock extends Chunk<PackageHeader>
         getHeaderBlock().getPackageId().set(id);
         mPrefix = null;
         mHasValidPrefix = false;
+        TableBlock.notifyResourcesChanged(this);
     }
     @Override
     public String getName(){
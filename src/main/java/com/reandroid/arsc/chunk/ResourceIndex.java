@@ -0,0 +1,181 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.arsc.chunk;
+
+import com.reandroid.arsc.container.SpecTypePair;
+import com.reandroid.arsc.list.EntryItemList;
+import com.reandroid.arsc.model.ResourceEntry;
+import com.reandroid.arsc.value.Entry;
+import com.reandroid.arsc.value.StagedAliasEntry;
+import com.reandroid.utils.collection.ArrayCollection;
+import com.reandroid.utils.collection.IntMap;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Resource id to {@link ResourceEntry} map of a table and its frameworks, in the same
+ * precedence as {@link TableBlock#getAllPackages()} and with staged aliases pre-resolved.
+ * It is rebuilt on first lookup after the table or any of its frameworks is changed.
+ * Lookups are lock free, the map is immutable once published.
+ * */
+class ResourceIndex {
+
+    private final TableBlock tableBlock;
+    private volatile Snapshot snapshot;
+
+    ResourceIndex(TableBlock tableBlock){
+        this.tableBlock = tableBlock;
+    }
+
+    ResourceEntry get(int resourceId){
+        return getSnapshot().map.get(resourceId);
+    }
+    private Snapshot getSnapshot(){
+        Snapshot snapshot = this.snapshot;
+        if(snapshot != null && snapshot.isValid(tableBlock)){
+            return snapshot;
+        }
+        synchronized (this){
+            snapshot = this.snapshot;
+            if(snapshot == null || !snapshot.isValid(tableBlock)){
+                snapshot = build(tableBlock);
+                this.snapshot = snapshot;
+            }
+            return snapshot;
+        }
+    }
+
+    private static Snapshot build(TableBlock tableBlock){
+        int version = tableBlock.getResourcesVersion();
+        List<TableBlock> frameworkList = tableBlock.getFrameWorks();
+        int count = frameworkList.size();
+        TableBlock[] frameworks = new TableBlock[count];
+        int[] versions = new int[count];
+        for(int i = 0; i < count; i++){
+            TableBlock framework = frameworkList.get(i);
+            frameworks[i] = framework;
+            versions[i] = framework.getResourcesVersion();
+        }
+        List<PackageBlock> packages = new ArrayCollection<>();
+        Iterator<PackageBlock> iterator = tableBlock.getAllPackages();
+        while (iterator.hasNext()){
+            packages.add(iterator.next());
+        }
+        IntMap<ResourceEntry> map = new IntMap<>(1024);
+        for(PackageBlock packageBlock : packages){
+            addEntries(map, packageBlock);
+            addLocalStagedAliases(map, packageBlock);
+        }
+        for(PackageBlock packageBlock : packages){
+            addStagedAliases(map, packageBlock);
+        }
+        return new Snapshot(map, version, frameworks, versions);
+    }
+    private static void addEntries(IntMap<ResourceEntry> map, PackageBlock packageBlock){
+        int packageId = packageBlock.getId();
+        if(packageId == 0){
+            return;
+        }
+        for(SpecTypePair specTypePair : packageBlock.listSpecTypePairs()){
+            int prefix = (packageId << 24) | ((specTypePair.getTypeId() & 0xff) << 16);
+            Iterator<TypeBlock> iterator = specTypePair.iterator();
+            while (iterator.hasNext()){
+                EntryItemList entryList = iterator.next().getEntryArray();
+                int size = entryList.size();
+                for(int i = 0; i < size; i++){
+                    Entry entry = entryList.get(i);
+                    if(entry == null){
+                        continue;
+                    }
+                    int resourceId = prefix | (entryList.getEntryId(i) & 0xffff);
+                    if(!map.containsKey(resourceId)){
+                        map.put(resourceId, new ResourceEntry(packageBlock, resourceId));
+                    }
+                }
+            }
+        }
+    }
+    /**
+     * Same as {@link PackageBlock#getResource(int)}, aliases finalized within the package
+     * take precedence over entries of the next packages
+     * */
+    private static void addLocalStagedAliases(IntMap<ResourceEntry> map, PackageBlock packageBlock){
+        int packageId = packageBlock.getId();
+        for(StagedAlias stagedAlias : packageBlock.listStagedAlias()){
+            for(StagedAliasEntry aliasEntry : stagedAlias.listStagedAliasEntry()){
+                int staged = aliasEntry.getStagedResId();
+                int finalized = aliasEntry.getFinalizedResId();
+                if(staged == 0 || finalized == 0 || staged == finalized
+                        || ((finalized >> 24) & 0xff) != packageId || map.containsKey(staged)){
+                    continue;
+                }
+                ResourceEntry resourceEntry = packageBlock.getResource(
+                        (finalized >> 16) & 0xff, finalized & 0xffff);
+                if(resourceEntry != null){
+                    map.put(staged, resourceEntry);
+                }
+            }
+        }
+    }
+    private static void addStagedAliases(IntMap<ResourceEntry> map, PackageBlock packageBlock){
+        for(StagedAlias stagedAlias : packageBlock.listStagedAlias()){
+            for(StagedAliasEntry aliasEntry : stagedAlias.listStagedAliasEntry()){
+                int staged = aliasEntry.getStagedResId();
+                if(staged == 0 || map.containsKey(staged)){
+                    continue;
+                }
+                ResourceEntry resourceEntry = map.get(aliasEntry.getFinalizedResId());
+                if(resourceEntry != null){
+                    map.put(staged, resourceEntry);
+                }
+            }
+        }
+    }
+
+    static class Snapshot {
+        final IntMap<ResourceEntry> map;
+        final int version;
+        final TableBlock[] frameworks;
+        final int[] versions;
+
+        Snapshot(IntMap<ResourceEntry> map, int version, TableBlock[] frameworks, int[] versions){
+            this.map = map;
+            this.version = version;
+            this.frameworks = frameworks;
+            this.versions = versions;
+        }
+        boolean isValid(TableBlock tableBlock){
+            if(version != tableBlock.getResourcesVersion()){
+                return false;
+            }
+            List<TableBlock> frameworkList = tableBlock.getFrameWorks();
+            TableBlock[] frameworks = this.frameworks;
+            int length = frameworks.length;
+            if(length != frameworkList.size()){
+                return false;
+            }
+            for(int i = 0; i < length; i++){
+                TableBlock framework = frameworks[i];
+                if(framework != frameworkList.get(i)
+                        || versions[i] != framework.getResourcesVersion()){
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
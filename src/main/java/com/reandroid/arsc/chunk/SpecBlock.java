@@ -80,6 +80,10 @@ public class SpecBlock extends Chunk<SpecHeader> implements JSONConvert<JSONObje
     protected void onChunkRefreshed() {
         specFlagsArray.refresh();
     }
+    @Override
+    protected boolean canKeepSource() {
+        return true;
+    }
 
     public void merge(SpecBlock specBlock){
         if(specBlock == null || specBlock==this){
@@ -18,6 +18,7 @@ package com.reandroid.arsc.chunk;
 import com.reandroid.arsc.ARSCLib;
 import com.reandroid.arsc.ApkFile;
 import com.reandroid.arsc.array.PackageArray;
+import com.reandroid.arsc.base.Block;
 import com.reandroid.arsc.header.HeaderBlock;
 import com.reandroid.arsc.header.InfoHeader;
 import com.reandroid.arsc.header.TableHeader;
@@ -44,6 +45,12 @@ import java.util.List;
 import java.util.Objects;
 import org.apache.commons.collections4.Predicate;
 
+/**
+ * Concurrent reads: once loaded and safely published (e.g. handed to other threads through
+ * an executor or a final/volatile field), resource lookups by id or name, entry values,
+ * string decoding and reference resolving are thread-safe and may run from any number
+ * of threads. Any modification, including refresh, requires exclusive access.
+ * */
 public class TableBlock extends Chunk<TableHeader>
         implements MainChunk, Iterable<PackageBlock>, JSONConvert<JSONObject> {
 
@@ -51,9 +58,10 @@ public class TableBlock extends Chunk<TableHeader>
     private final PackageArray mPackageArray;
     private final List<TableBlock> mFrameWorks;
     private ApkFile mApkFile;
-    private ReferenceResolver referenceResolver;
     private PackageBlock mCurrentPackage;
     private PackageBlock mEmptyTablePackage;
+    private ResourceIndex mResourceIndex;
+    private volatile int mResourcesVersion;
 
     public TableBlock() {
         super(new TableHeader(), 2);
@@ -69,6 +77,7 @@ public class TableBlock extends Chunk<TableHeader>
         for (PackageBlock packageBlock : this) {
             packageBlock.changePackageId(packageIdOld, packageIdNew);
         }
+        onResourcesChanged();
     }
     // Experimental
     public Iterator<ValueItem> allValues(){
@@ -81,6 +90,7 @@ public class TableBlock extends Chunk<TableHeader>
     }
     public void setCurrentPackage(PackageBlock packageBlock){
         mCurrentPackage = packageBlock;
+        onResourcesChanged();
     }
     public PackageBlock getPackageBlockByTag(Object tag){
         for(PackageBlock packageBlock : this){
@@ -102,6 +112,10 @@ public class TableBlock extends Chunk<TableHeader>
         if(resourceId == 0){
             return null;
         }
+        ResourceIndex resourceIndex = this.mResourceIndex;
+        if(resourceIndex != null){
+            return resourceIndex.get(resourceId);
+        }
         Iterator<PackageBlock> iterator = getAllPackages();
         while (iterator.hasNext()){
             PackageBlock packageBlock = iterator.next();
@@ -128,6 +142,16 @@ public class TableBlock extends Chunk<TableHeader>
         if(resourceId == 0){
             return null;
         }
+        ResourceIndex resourceIndex = this.mResourceIndex;
+        if(resourceIndex != null){
+            if(context != null && context != getCurrentPackage()){
+                ResourceEntry resourceEntry = context.getResource(resourceId);
+                if(resourceEntry != null){
+                    return resourceEntry;
+                }
+            }
+            return resourceIndex.get(resourceId);
+        }
         Iterator<PackageBlock> iterator = getAllPackages(context);
         while (iterator.hasNext()){
             PackageBlock packageBlock = iterator.next();
@@ -150,6 +174,33 @@ public class TableBlock extends Chunk<TableHeader>
         }
         return null;
     }
+    public boolean isResourceIndexEnabled(){
+        return mResourceIndex != null;
+    }
+    /**
+     * When enabled, {@link #getResource(int)} and {@link #getResource(PackageBlock, int)} are
+     * answered from a hash index of this table and its frameworks instead of scanning packages.
+     * The index is rebuilt lazily after packages, types, entries, staged aliases or frameworks change.
+     * */
+    public void setResourceIndexEnabled(boolean enabled){
+        if(enabled == isResourceIndexEnabled()){
+            return;
+        }
+        if(enabled){
+            mResourceIndex = new ResourceIndex(this);
+        }else {
+            mResourceIndex = null;
+        }
+    }
+    int getResourcesVersion(){
+        return mResourcesVersion;
+    }
+    /**
+     * Invalidates resource index, called on structural changes of packages, types and entries
+     * */
+    public void onResourcesChanged(){
+        mResourcesVersion ++;
+    }
     public ResourceEntry getResource(ResourceName resourceName) {
         if(resourceName != null) {
             return getResource(resourceName.getPackageName(),
@@ -487,20 +538,11 @@ public class TableBlock extends Chunk<TableHeader>
         return resolveReference(referenceId, null);
     }
     public List<Entry> resolveReferenceWithConfig(int referenceId, ResConfig resConfig){
-        ReferenceResolver resolver = this.referenceResolver;
-        if(resolver == null){
-            resolver = new ReferenceResolver(this);
-            this.referenceResolver = resolver;
-        }
-        return resolver.resolveWithConfig(referenceId, resConfig);
+        // a resolver per call keeps concurrent lookups from contending on its lock
+        return new ReferenceResolver(this).resolveWithConfig(referenceId, resConfig);
     }
     public List<Entry> resolveReference(int referenceId, Predicate<Entry> filter){
-        ReferenceResolver resolver = this.referenceResolver;
-        if(resolver == null){
-            resolver = new ReferenceResolver(this);
-            this.referenceResolver = resolver;
-        }
-        return resolver.resolveAll(referenceId, filter);
+        return new ReferenceResolver(this).resolveAll(referenceId, filter);
     }
     public Iterator<PackageBlock> iterator(){
         return getPackageArray().iterator();
@@ -641,6 +683,7 @@ public class TableBlock extends Chunk<TableHeader>
     protected void onPreRefresh() {
         getPackageArray().removeIf(PackageBlock::isEmpty);
         super.onPreRefresh();
+        onResourcesChanged();
     }
 
     @Override
@@ -851,12 +894,30 @@ public class TableBlock extends Chunk<TableHeader>
         tableBlock.readBytes(inputStream);
         return tableBlock;
     }
+    /**
+     * Loads with items pointing into the given bytes instead of copying, an item copies
+     * its bytes only when modified. Uses less heap for read mostly use, the bytes
+     * must not be modified afterwards. See {@link BlockReader#setSharedBuffer(boolean)}
+     * */
+    public static TableBlock loadShared(byte[] bytes) throws IOException{
+        BlockReader reader = new BlockReader(bytes);
+        reader.setSharedBuffer(true);
+        TableBlock tableBlock = new TableBlock();
+        tableBlock.readBytes(reader);
+        return tableBlock;
+    }
     public static TableBlock createEmpty() {
         TableBlock tableBlock = new TableBlock();
         tableBlock.initializeAsEmpty();
         return tableBlock;
     }
 
+    public static void notifyResourcesChanged(Block block){
+        TableBlock tableBlock = block.getParentInstance(TableBlock.class);
+        if(tableBlock != null){
+            tableBlock.onResourcesChanged();
+        }
+    }
     public static boolean isResTableBlock(InputStream inputStream){
         try {
             HeaderBlock headerBlock= BlockReader.readHeaderBlock(inputStream);
@@ -285,6 +285,10 @@ public class TypeBlock extends Chunk<TypeHeader>
         //getEntryArray().refreshCountAndStart();
     }
     @Override
+    protected boolean canKeepSource() {
+        return true;
+    }
+    @Override
     protected void onPreRefresh() {
         getHeaderBlock().getConfig().refresh();
         super.onPreRefresh();
@@ -0,0 +1,839 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.arsc.chunk.xml;
+
+import android.content.res.XmlResourceParser;
+import com.reandroid.archive.InputSource;
+import com.reandroid.arsc.base.Block;
+import com.reandroid.arsc.chunk.ChunkType;
+import com.reandroid.arsc.coder.ValueCoder;
+import com.reandroid.arsc.io.BlockReader;
+import com.reandroid.arsc.item.StringItem;
+import com.reandroid.arsc.value.ValueType;
+import com.reandroid.utils.ObjectsUtil;
+import com.reandroid.utils.StringsUtil;
+import com.reandroid.utils.io.IOUtil;
+import com.reandroid.xml.XMLUtil;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+
+/**
+ * Pull parser reading events directly from binary xml chunk bytes, without building
+ * ResXmlDocument. Strings are decoded from string pool on first access and cached.
+ * Namespaces are processed and namespace declarations are not reported as attributes
+ * by default, same as the framework parser. Comments are not reported.
+ * See
+ * https://android.googlesource.com/platform/frameworks/base/+/main/core/java/android/content/res/XmlBlock.java
+ * */
+public class ResXmlStreamParser implements XmlResourceParser {
+
+    private byte[] mBytes;
+    private int mStart;
+    private int mEnd;
+
+    private boolean mInitialized;
+    private int mPosition;
+
+    private boolean mUtf8;
+    private int mStringCount;
+    private int mStringOffsets;
+    private int mStringsStart;
+    private String[] mStrings;
+
+    private int mResourceIds;
+    private int mResourceIdsCount;
+
+    private int mEventType;
+    private int mChunk;
+    private int mDepth;
+    private boolean mDecrementDepth;
+    private int mAttributeStart;
+    private int mAttributeSize;
+    private int mAttributeCount;
+
+    private int[] mNamespaces;
+    private int mNamespacesSize;
+    private int[] mNamespaceCounts;
+
+    private boolean processNamespaces;
+    private boolean reportNamespaceAttrs;
+    private Object location;
+
+    public ResXmlStreamParser() {
+        this.processNamespaces = true;
+        this.mNamespaces = new int[8];
+        this.mNamespaceCounts = new int[8];
+        this.mEventType = START_DOCUMENT;
+    }
+    public ResXmlStreamParser(byte[] bytes) {
+        this(bytes, 0, bytes.length);
+    }
+    public ResXmlStreamParser(byte[] bytes, int offset, int length) {
+        this();
+        setInput(bytes, offset, length);
+    }
+    /**
+     * Parses the remaining bytes of the reader, the underlying buffer is not copied
+     * unless the reader is memory mapped.
+     * */
+    public ResXmlStreamParser(BlockReader reader) {
+        this();
+        if (reader.isMapped()) {
+            setInput(reader.create(reader.available()).getBytes(), 0, reader.available());
+        } else {
+            setInput(reader.getBuffer(), reader.getActualPosition(), reader.available());
+        }
+    }
+
+    public void setInput(byte[] bytes, int offset, int length) {
+        this.mBytes = bytes;
+        this.mStart = offset;
+        this.mEnd = offset + length;
+        this.mInitialized = false;
+        this.mStrings = null;
+        this.mStringCount = 0;
+        this.mResourceIdsCount = 0;
+        this.mEventType = START_DOCUMENT;
+        this.mChunk = -1;
+        this.mDepth = 0;
+        this.mDecrementDepth = false;
+        this.mNamespacesSize = 0;
+    }
+    @Override
+    public void setInput(Reader in) throws XmlPullParserException {
+        throw new XmlPullParserException("Unsupported operation");
+    }
+    @Override
+    public void setInput(InputStream inputStream, String inputEncoding) throws XmlPullParserException {
+        try {
+            byte[] bytes = IOUtil.readFully(inputStream);
+            setInput(bytes, 0, bytes.length);
+        } catch (IOException exception) {
+            throw new XmlPullParserException(exception.getMessage(), this, exception);
+        }
+    }
+
+    private void initialize() throws XmlPullParserException {
+        if (mInitialized) {
+            return;
+        }
+        byte[] bytes = this.mBytes;
+        if (bytes == null) {
+            throw new XmlPullParserException("Input not set", this, null);
+        }
+        int start = this.mStart;
+        if (mEnd - start < 8 || Block.getShort(bytes, start) != ChunkType.XML.ID) {
+            throw new XmlPullParserException("Not a binary xml", this, null);
+        }
+        int size = Block.getInteger(bytes, start + 4);
+        if (size > 8 && start + size < mEnd) {
+            mEnd = start + size;
+        }
+        mPosition = start + Block.getShortUnsigned(bytes, start + 2);
+        mInitialized = true;
+    }
+    private int nextEvent() throws XmlPullParserException {
+        initialize();
+        if (mEventType == END_DOCUMENT) {
+            return END_DOCUMENT;
+        }
+        if (mDecrementDepth) {
+            mDepth --;
+            mDecrementDepth = false;
+        }
+        byte[] bytes = this.mBytes;
+        int end = this.mEnd;
+        while (mPosition + 8 <= end) {
+            int chunk = mPosition;
+            int type = Block.getShort(bytes, chunk);
+            int size = Block.getInteger(bytes, chunk + 4);
+            if (size < 8 || chunk + size > end) {
+                throw new XmlPullParserException("Invalid chunk size = " + size
+                        + ", at offset = " + (chunk - mStart), this, null);
+            }
+            mPosition = chunk + size;
+            if (type == ChunkType.STRING.ID) {
+                onStringPool(chunk);
+            } else if (type == ChunkType.XML_RESOURCE_MAP.ID) {
+                int headerSize = Block.getShortUnsigned(bytes, chunk + 2);
+                mResourceIds = chunk + headerSize;
+                mResourceIdsCount = (size - headerSize) / 4;
+            } else if (type == ChunkType.XML_START_NAMESPACE.ID) {
+                int ext = chunk + Block.getShortUnsigned(bytes, chunk + 2);
+                pushNamespace(Block.getInteger(bytes, ext), Block.getInteger(bytes, ext + 4));
+            } else if (type == ChunkType.XML_END_NAMESPACE.ID) {
+                if (mNamespacesSize > 0) {
+                    mNamespacesSize -= 2;
+                }
+            } else if (type == ChunkType.XML_START_ELEMENT.ID) {
+                onStartElement(chunk);
+                return START_TAG;
+            } else if (type == ChunkType.XML_END_ELEMENT.ID) {
+                mChunk = chunk;
+                mDecrementDepth = true;
+                return END_TAG;
+            } else if (type == ChunkType.XML_CDATA.ID) {
+                mChunk = chunk;
+                return TEXT;
+            }
+        }
+        mChunk = -1;
+        return END_DOCUMENT;
+    }
+    private void onStringPool(int chunk) {
+        byte[] bytes = this.mBytes;
+        mStringCount = Block.getInteger(bytes, chunk + 8);
+        mUtf8 = (Block.getInteger(bytes, chunk + 16) & 0x0100) != 0;
+        mStringsStart = chunk + Block.getInteger(bytes, chunk + 20);
+        mStringOffsets = chunk + Block.getShortUnsigned(bytes, chunk + 2);
+        mStrings = null;
+    }
+    private void onStartElement(int chunk) {
+        byte[] bytes = this.mBytes;
+        int ext = chunk + Block.getShortUnsigned(bytes, chunk + 2);
+        mChunk = chunk;
+        mAttributeStart = ext + Block.getShortUnsigned(bytes, ext + 8);
+        mAttributeSize = Block.getShortUnsigned(bytes, ext + 10);
+        mAttributeCount = Block.getShortUnsigned(bytes, ext + 12);
+        int depth = mDepth + 1;
+        mDepth = depth;
+        int[] counts = this.mNamespaceCounts;
+        if (depth >= counts.length) {
+            int[] update = new int[depth + 8];
+            System.arraycopy(counts, 0, update, 0, counts.length);
+            counts = update;
+            this.mNamespaceCounts = counts;
+        }
+        counts[depth] = mNamespacesSize / 2;
+    }
+    private void pushNamespace(int prefix, int uri) {
+        int[] namespaces = this.mNamespaces;
+        int size = this.mNamespacesSize;
+        if (size + 2 > namespaces.length) {
+            int[] update = new int[namespaces.length * 2];
+            System.arraycopy(namespaces, 0, update, 0, size);
+            namespaces = update;
+            this.mNamespaces = namespaces;
+        }
+        namespaces[size] = prefix;
+        namespaces[size + 1] = uri;
+        this.mNamespacesSize = size + 2;
+    }
+
+    /**
+     * Returns string pool entry of the given index, decoded lazily and cached
+     * */
+    public String getPoolString(int index) {
+        if (index < 0 || index >= mStringCount) {
+            return null;
+        }
+        String[] strings = this.mStrings;
+        if (strings == null) {
+            strings = new String[mStringCount];
+            this.mStrings = strings;
+        }
+        String result = strings[index];
+        if (result == null) {
+            byte[] bytes = this.mBytes;
+            int offset = mStringsStart + Block.getInteger(bytes, mStringOffsets + index * 4);
+            if (offset < mStart || offset >= mEnd) {
+                return null;
+            }
+            result = StringItem.decodeString(bytes, offset, mUtf8);
+            strings[index] = result;
+        }
+        return result;
+    }
+    private int getResourceId(int nameReference) {
+        if (nameReference >= 0 && nameReference < mResourceIdsCount) {
+            return Block.getInteger(mBytes, mResourceIds + nameReference * 4);
+        }
+        return 0;
+    }
+    private boolean isElementEvent() {
+        return mEventType == START_TAG || mEventType == END_TAG;
+    }
+    private int getElementField(int offset) {
+        if (!isElementEvent()) {
+            return -1;
+        }
+        byte[] bytes = this.mBytes;
+        int ext = mChunk + Block.getShortUnsigned(bytes, mChunk + 2);
+        return Block.getInteger(bytes, ext + offset);
+    }
+    private int getNamespaceStart() {
+        return mNamespaceCounts[mDepth - 1];
+    }
+    private int getDeclaredNamespaceCount() {
+        if (mEventType != START_TAG) {
+            return 0;
+        }
+        return mNamespaceCounts[mDepth] - getNamespaceStart();
+    }
+    private String findPrefix(int uriReference) {
+        if (uriReference == -1) {
+            return null;
+        }
+        String uri = getPoolString(uriReference);
+        int[] namespaces = this.mNamespaces;
+        for (int i = mNamespacesSize - 2; i >= 0; i -= 2) {
+            int reference = namespaces[i + 1];
+            if (reference == uriReference || (uri != null && uri.equals(getPoolString(reference)))) {
+                return getPoolString(namespaces[i]);
+            }
+        }
+        return null;
+    }
+    private String toName(int uriReference, String name) {
+        if (processNamespaces || name == null) {
+            return name;
+        }
+        String prefix = findPrefix(uriReference);
+        if (prefix == null) {
+            return name;
+        }
+        return prefix + ":" + name;
+    }
+    private int getRealAttributeIndex(int index) {
+        if (mEventType != START_TAG) {
+            throw new IndexOutOfBoundsException("Not at START_TAG");
+        }
+        if (reportNamespaceAttrs) {
+            index = index - getDeclaredNamespaceCount();
+        }
+        if (index >= mAttributeCount) {
+            throw new IndexOutOfBoundsException("Attribute index = " + index
+                    + ", count = " + mAttributeCount);
+        }
+        return index;
+    }
+    private int getAttributeOffset(int index) {
+        index = getRealAttributeIndex(index);
+        if (index < 0) {
+            return -1;
+        }
+        return mAttributeStart + index * mAttributeSize;
+    }
+    private int attributeUri(int offset) {
+        return Block.getInteger(mBytes, offset);
+    }
+    private int attributeName(int offset) {
+        return Block.getInteger(mBytes, offset + 4);
+    }
+    private int attributeRawValue(int offset) {
+        return Block.getInteger(mBytes, offset + 8);
+    }
+    private int attributeType(int offset) {
+        return mBytes[offset + 15] & 0xff;
+    }
+    private int attributeData(int offset) {
+        return Block.getInteger(mBytes, offset + 16);
+    }
+    private String attributeValue(int offset) {
+        int raw = attributeRawValue(offset);
+        if (raw >= 0) {
+            return getPoolString(raw);
+        }
+        int data = attributeData(offset);
+        ValueType valueType = ValueType.valueOf(attributeType(offset));
+        if (valueType == null || valueType == ValueType.NULL) {
+            return null;
+        }
+        if (valueType == ValueType.STRING) {
+            return getPoolString(data);
+        }
+        if (valueType.isReference()) {
+            if (data == 0) {
+                return ValueCoder.decodeReference(null, valueType, data);
+            }
+            return ValueCoder.decodeUnknownResourceId(valueType == ValueType.REFERENCE, data);
+        }
+        return ValueCoder.decode(valueType, data);
+    }
+    private int attributeIntValue(int offset, int defaultValue) {
+        if (offset >= 0) {
+            int type = attributeType(offset);
+            if (type >= 0x10 && type <= 0x1f) {
+                return attributeData(offset);
+            }
+        }
+        return defaultValue;
+    }
+    private int findAttribute(String namespace, String name) {
+        if (mEventType != START_TAG || name == null) {
+            return -1;
+        }
+        int count = mAttributeCount;
+        for (int i = 0; i < count; i++) {
+            int offset = mAttributeStart + i * mAttributeSize;
+            if (!name.equals(getPoolString(attributeName(offset)))) {
+                continue;
+            }
+            if (namespace == null) {
+                return offset;
+            }
+            String uri = getPoolString(attributeUri(offset));
+            if (namespace.equals(uri == null ? "" : uri)) {
+                return offset;
+            }
+        }
+        return -1;
+    }
+    private int getSpecialAttribute(int fieldOffset) {
+        if (mEventType != START_TAG) {
+            return -1;
+        }
+        byte[] bytes = this.mBytes;
+        int ext = mChunk + Block.getShortUnsigned(bytes, mChunk + 2);
+        int index = Block.getShortUnsigned(bytes, ext + fieldOffset) - 1;
+        if (index < 0 || index >= mAttributeCount) {
+            return -1;
+        }
+        return mAttributeStart + index * mAttributeSize;
+    }
+
+    @Override
+    public void close() {
+        mBytes = null;
+        mStrings = null;
+        mInitialized = false;
+        mEventType = END_DOCUMENT;
+    }
+    @Override
+    public int getAttributeNameResource(int index) {
+        if (reportNamespaceAttrs && index < getDeclaredNamespaceCount()) {
+            return 0;
+        }
+        return getResourceId(attributeName(getAttributeOffset(index)));
+    }
+    @Override
+    public int getAttributeListValue(String namespace, String attribute, String[] options, int defaultValue) {
+        return attributeListValue(findAttribute(namespace, attribute), options, defaultValue);
+    }
+    @Override
+    public boolean getAttributeBooleanValue(String namespace, String attribute, boolean defaultValue) {
+        int offset = findAttribute(namespace, attribute);
+        if (offset < 0) {
+            return defaultValue;
+        }
+        return attributeIntValue(offset, 0) != 0;
+    }
+    @Override
+    public int getAttributeResourceValue(String namespace, String attribute, int defaultValue) {
+        return attributeResourceValue(findAttribute(namespace, attribute), defaultValue);
+    }
+    @Override
+    public int getAttributeIntValue(String namespace, String attribute, int defaultValue) {
+        return attributeIntValue(findAttribute(namespace, attribute), defaultValue);
+    }
+    @Override
+    public int getAttributeUnsignedIntValue(String namespace, String attribute, int defaultValue) {
+        return attributeIntValue(findAttribute(namespace, attribute), defaultValue);
+    }
+    @Override
+    public float getAttributeFloatValue(String namespace, String attribute, float defaultValue) {
+        return attributeFloatValue(findAttribute(namespace, attribute), defaultValue);
+    }
+    @Override
+    public int getAttributeListValue(int index, String[] options, int defaultValue) {
+        return attributeListValue(getAttributeOffset(index), options, defaultValue);
+    }
+    @Override
+    public boolean getAttributeBooleanValue(int index, boolean defaultValue) {
+        int offset = getAttributeOffset(index);
+        if (offset < 0) {
+            return defaultValue;
+        }
+        return attributeIntValue(offset, 0) != 0;
+    }
+    @Override
+    public int getAttributeResourceValue(int index, int defaultValue) {
+        return attributeResourceValue(getAttributeOffset(index), defaultValue);
+    }
+    @Override
+    public int getAttributeIntValue(int index, int defaultValue) {
+        return attributeIntValue(getAttributeOffset(index), defaultValue);
+    }
+    @Override
+    public int getAttributeUnsignedIntValue(int index, int defaultValue) {
+        return attributeIntValue(getAttributeOffset(index), defaultValue);
+    }
+    @Override
+    public float getAttributeFloatValue(int index, float defaultValue) {
+        return attributeFloatValue(getAttributeOffset(index), defaultValue);
+    }
+    private int attributeResourceValue(int offset, int defaultValue) {
+        if (offset >= 0 && attributeType(offset) == ValueType.REFERENCE.getByte()) {
+            return attributeData(offset);
+        }
+        return defaultValue;
+    }
+    private float attributeFloatValue(int offset, float defaultValue) {
+        if (offset >= 0 && attributeType(offset) == ValueType.FLOAT.getByte()) {
+            return Float.intBitsToFloat(attributeData(offset));
+        }
+        return defaultValue;
+    }
+    private int attributeListValue(int offset, String[] options, int defaultValue) {
+        if (offset < 0 || options == null || options.length == 0 ||
+                attributeType(offset) != ValueType.STRING.getByte()) {
+            return defaultValue;
+        }
+        String value = attributeValue(offset);
+        if (!StringsUtil.isEmpty(value)) {
+            for (int i = 0; i < options.length; i++) {
+                if (value.equals(options[i])) {
+                    return i;
+                }
+            }
+        }
+        return defaultValue;
+    }
+
+    @Override
+    public String getIdAttribute() {
+        int offset = getSpecialAttribute(14);
+        if (offset >= 0) {
+            return attributeValue(offset);
+        }
+        return null;
+    }
+    @Override
+    public String getClassAttribute() {
+        int offset = getSpecialAttribute(16);
+        if (offset >= 0) {
+            return attributeValue(offset);
+        }
+        return null;
+    }
+    @Override
+    public int getIdAttributeResourceValue(int defaultValue) {
+        return attributeResourceValue(getSpecialAttribute(14), defaultValue);
+    }
+    @Override
+    public int getStyleAttribute() {
+        return attributeResourceValue(getSpecialAttribute(18), 0);
+    }
+
+    @Override
+    public void setFeature(String name, boolean state) throws XmlPullParserException {
+        if (FEATURE_PROCESS_NAMESPACES.equals(name)) {
+            processNamespaces = state;
+        } else if (FEATURE_REPORT_NAMESPACE_ATTRIBUTES.equals(name)) {
+            reportNamespaceAttrs = state;
+        } else {
+            throw new XmlPullParserException("Unsupported feature: " + name);
+        }
+    }
+    @Override
+    public boolean getFeature(String name) {
+        if (FEATURE_PROCESS_NAMESPACES.equals(name)) {
+            return processNamespaces;
+        } else if (FEATURE_REPORT_NAMESPACE_ATTRIBUTES.equals(name)) {
+            return reportNamespaceAttrs;
+        }
+        return false;
+    }
+    @Override
+    public void setProperty(String name, Object value) throws XmlPullParserException {
+        if (XMLUtil.PROPERTY_LOCATION.equals(name)) {
+            location = value;
+        } else {
+            throw new XmlPullParserException("unsupported property: " + name);
+        }
+    }
+    @Override
+    public Object getProperty(String name) {
+        if (XMLUtil.PROPERTY_LOCATION.equals(name)) {
+            return location;
+        }
+        return null;
+    }
+    @Override
+    public String getInputEncoding() {
+        if (mStringCount == 0) {
+            return null;
+        }
+        return mUtf8 ? "utf-8" : "utf-16";
+    }
+    @Override
+    public void defineEntityReplacementText(String entityName, String replacementText) throws XmlPullParserException {
+        throw new XmlPullParserException("Unsupported operation");
+    }
+
+    @Override
+    public int getNamespaceCount(int depth) throws XmlPullParserException {
+        if (depth < 0 || depth > mDepth) {
+            throw new IllegalArgumentException("depth = " + depth + ", current = " + mDepth);
+        }
+        if (depth == 0) {
+            return 0;
+        }
+        if (depth == mDepth && mEventType != START_TAG && mEventType != END_TAG) {
+            return mNamespacesSize / 2;
+        }
+        return mNamespaceCounts[depth];
+    }
+    @Override
+    public String getNamespacePrefix(int pos) throws XmlPullParserException {
+        return getPoolString(mNamespaces[pos * 2]);
+    }
+    @Override
+    public String getNamespaceUri(int pos) throws XmlPullParserException {
+        return getPoolString(mNamespaces[pos * 2 + 1]);
+    }
+    @Override
+    public String getNamespace(String prefix) {
+        int[] namespaces = this.mNamespaces;
+        for (int i = mNamespacesSize - 2; i >= 0; i -= 2) {
+            if (ObjectsUtil.equals(prefix, getPoolString(namespaces[i]))) {
+                return getPoolString(namespaces[i + 1]);
+            }
+        }
+        return null;
+    }
+    @Override
+    public int getDepth() {
+        return mDepth;
+    }
+    @Override
+    public String getPositionDescription() {
+        StringBuilder builder = new StringBuilder();
+        Object location = XMLUtil.getLocation(this);
+        if (location != null) {
+            builder.append(" at ");
+            builder.append(location);
+        }
+        builder.append(" Binary XML file line #");
+        builder.append(getLineNumber());
+        if (isElementEvent()) {
+            builder.append(mEventType == START_TAG ? " START_TAG <" : " END_TAG <");
+            builder.append(getName());
+            builder.append('>');
+        }
+        return builder.toString();
+    }
+    @Override
+    public int getLineNumber() {
+        if (mChunk < 0) {
+            return -1;
+        }
+        return Block.getInteger(mBytes, mChunk + 8);
+    }
+    @Override
+    public int getColumnNumber() {
+        return -1;
+    }
+    @Override
+    public boolean isWhitespace() throws XmlPullParserException {
+        if (mEventType != TEXT) {
+            throw new XmlPullParserException("Not a TEXT event", this, null);
+        }
+        return StringsUtil.isBlank(getText());
+    }
+    @Override
+    public String getText() {
+        if (mEventType != TEXT) {
+            return null;
+        }
+        byte[] bytes = this.mBytes;
+        int ext = mChunk + Block.getShortUnsigned(bytes, mChunk + 2);
+        return getPoolString(Block.getInteger(bytes, ext));
+    }
+    @Override
+    public char[] getTextCharacters(int[] holderForStartAndLength) {
+        String text = getText();
+        if (text == null) {
+            holderForStartAndLength[0] = -1;
+            holderForStartAndLength[1] = -1;
+            return null;
+        }
+        char[] result = text.toCharArray();
+        holderForStartAndLength[0] = 0;
+        holderForStartAndLength[1] = result.length;
+        return result;
+    }
+    @Override
+    public String getNamespace() {
+        if (!isElementEvent()) {
+            return null;
+        }
+        if (!processNamespaces) {
+            return "";
+        }
+        String uri = getPoolString(getElementField(0));
+        if (uri == null) {
+            return "";
+        }
+        return uri;
+    }
+    @Override
+    public String getName() {
+        if (!isElementEvent()) {
+            return null;
+        }
+        return toName(getElementField(0), getPoolString(getElementField(4)));
+    }
+    @Override
+    public String getPrefix() {
+        if (!isElementEvent() || !processNamespaces) {
+            return null;
+        }
+        return findPrefix(getElementField(0));
+    }
+    @Override
+    public boolean isEmptyElementTag() throws XmlPullParserException {
+        if (mEventType != START_TAG) {
+            throw new XmlPullParserException("Not at START_TAG", this, null);
+        }
+        int next = mPosition;
+        return next + 2 <= mEnd && Block.getShort(mBytes, next) == ChunkType.XML_END_ELEMENT.ID;
+    }
+    @Override
+    public int getAttributeCount() {
+        if (mEventType != START_TAG) {
+            return -1;
+        }
+        int count = mAttributeCount;
+        if (reportNamespaceAttrs) {
+            count += getDeclaredNamespaceCount();
+        }
+        return count;
+    }
+    @Override
+    public String getAttributeNamespace(int index) {
+        if (reportNamespaceAttrs && index < getDeclaredNamespaceCount()) {
+            return processNamespaces ? "http://www.w3.org/2000/xmlns/" : "";
+        }
+        int offset = getAttributeOffset(index);
+        if (!processNamespaces) {
+            return "";
+        }
+        String uri = getPoolString(attributeUri(offset));
+        if (uri == null) {
+            return "";
+        }
+        return uri;
+    }
+    @Override
+    public String getAttributeName(int index) {
+        if (reportNamespaceAttrs && index < getDeclaredNamespaceCount()) {
+            String prefix = getPoolString(mNamespaces[(getNamespaceStart() + index) * 2]);
+            if (processNamespaces) {
+                return prefix;
+            }
+            return "xmlns:" + prefix;
+        }
+        int offset = getAttributeOffset(index);
+        return toName(attributeUri(offset), getPoolString(attributeName(offset)));
+    }
+    @Override
+    public String getAttributePrefix(int index) {
+        if (reportNamespaceAttrs && index < getDeclaredNamespaceCount()) {
+            return processNamespaces ? "xmlns" : null;
+        }
+        int offset = getAttributeOffset(index);
+        if (!processNamespaces) {
+            return null;
+        }
+        return findPrefix(attributeUri(offset));
+    }
+    @Override
+    public String getAttributeType(int index) {
+        return "CDATA";
+    }
+    @Override
+    public boolean isAttributeDefault(int index) {
+        return false;
+    }
+    @Override
+    public String getAttributeValue(int index) {
+        if (reportNamespaceAttrs && index < getDeclaredNamespaceCount()) {
+            return getPoolString(mNamespaces[(getNamespaceStart() + index) * 2 + 1]);
+        }
+        return attributeValue(getAttributeOffset(index));
+    }
+    @Override
+    public String getAttributeValue(String namespace, String name) {
+        int offset = findAttribute(namespace, name);
+        if (offset < 0) {
+            return null;
+        }
+        return attributeValue(offset);
+    }
+    @Override
+    public int getEventType() throws XmlPullParserException {
+        return mEventType;
+    }
+    @Override
+    public int next() throws XmlPullParserException, IOException {
+        int event = nextEvent();
+        this.mEventType = event;
+        return event;
+    }
+    @Override
+    public int nextToken() throws XmlPullParserException, IOException {
+        return next();
+    }
+    @Override
+    public void require(int type, String namespace, String name) throws XmlPullParserException, IOException {
+        if (type != getEventType()
+                || (namespace != null && !namespace.equals(getNamespace()))
+                || (name != null && !name.equals(getName()))) {
+            throw new XmlPullParserException(
+                    "expected: " + TYPES[type] + " {" + namespace + "}" + name, this, null);
+        }
+    }
+    @Override
+    public String nextText() throws XmlPullParserException, IOException {
+        if (getEventType() != START_TAG) {
+            throw new XmlPullParserException("precondition: START_TAG", this, null);
+        }
+        int event = next();
+        if (event == TEXT) {
+            String result = getText();
+            event = next();
+            if (event != END_TAG) {
+                throw new XmlPullParserException("END_TAG expected", this, null);
+            }
+            return result;
+        } else if (event == END_TAG) {
+            return "";
+        }
+        throw new XmlPullParserException("TEXT or END_TAG expected", this, null);
+    }
+    @Override
+    public int nextTag() throws XmlPullParserException, IOException {
+        int event = next();
+        if (event == TEXT && isWhitespace()) {
+            event = next();
+        }
+        if (event != START_TAG && event != END_TAG) {
+            throw new XmlPullParserException("START_TAG or END_TAG expected", this, null);
+        }
+        return event;
+    }
+
+    public static ResXmlStreamParser of(InputSource inputSource) throws IOException {
+        InputStream inputStream = inputSource.openStream();
+        byte[] bytes = IOUtil.readFully(inputStream);
+        inputSource.close(inputStream);
+        return new ResXmlStreamParser(bytes);
+    }
+}
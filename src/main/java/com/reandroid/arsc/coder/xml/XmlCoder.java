@@ -35,6 +35,8 @@ import com.reandroid.arsc.value.ResValue;
 import com.reandroid.arsc.value.ResValueMap;
 import com.reandroid.arsc.value.ValueHeader;
 import com.reandroid.arsc.value.ValueType;
+import com.reandroid.utils.collection.ArrayCollection;
+import com.reandroid.utils.concurrent.WorkerPool;
 import com.reandroid.utils.io.IOUtil;
 import com.reandroid.xml.StyleDocument;
 import com.reandroid.xml.XMLAttribute;
@@ -48,7 +50,11 @@ import org.xmlpull.v1.XmlSerializer;
 import java.io.File;
 import java.io.IOException;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Future;
 import org.apache.commons.collections4.Predicate;
 
 public class XmlCoder {
@@ -115,10 +121,18 @@ public class XmlCoder {
         public void decodeTable(File resourcesDir,
                                 TableBlock tableBlock,
                                 Predicate<Entry> decodedEntries) throws IOException {
+            decodeTable(resourcesDir, tableBlock, decodedEntries, null);
+        }
+        public void decodeTable(File resourcesDir,
+                                TableBlock tableBlock,
+                                Predicate<Entry> decodedEntries,
+                                WorkerPool workerPool) throws IOException {
             logMessage("Resource table ...");
             ValuesDirectorySerializer directorySerializer =
                     new ValuesDirectorySerializer(resourcesDir);
-            decodeTable(directorySerializer, tableBlock, decodedEntries);
+            for (PackageBlock packageBlock : tableBlock.listPackages()){
+                decodePackage(directorySerializer, packageBlock, decodedEntries, workerPool);
+            }
             logMessage("Finished resource table");
         }
         public void decodeTable(ValuesSerializerFactory serializerFactory,
@@ -151,6 +165,62 @@ public class XmlCoder {
                 }
             }
         }
+        /**
+         * Same as {@link #decodePackage(ValuesSerializerFactory, PackageBlock, Predicate)} but
+         * decodes on worker threads, one task per values directory. Types sharing a directory
+         * are decoded in the same order by one task, thus the output is identical to sequential.
+         * The serializer factory must be thread safe.
+         * */
+        public void decodePackage(ValuesSerializerFactory serializerFactory,
+                                  PackageBlock packageBlock,
+                                  Predicate<Entry> decodedEntries,
+                                  WorkerPool workerPool) throws IOException {
+            if (workerPool == null) {
+                decodePackage(serializerFactory, packageBlock, decodedEntries);
+                return;
+            }
+            packageBlock.sortTypes();
+
+            Map<String, List<TypeBlock>> directories = new LinkedHashMap<>();
+            for (SpecTypePair specTypePair : packageBlock.listSpecTypePairs()){
+                for(ResConfig resConfig : specTypePair.listResConfig()){
+                    directories.computeIfAbsent(resConfig.getQualifiers(), key -> new ArrayCollection<>())
+                            .add(specTypePair.getTypeBlock(resConfig));
+                }
+            }
+            Future<?>[] futures = new Future<?>[directories.size()];
+            try {
+                int i = 0;
+                for (List<TypeBlock> typeBlocks : directories.values()) {
+                    futures[i] = workerPool.submit(() -> {
+                        decodeTypes(serializerFactory, packageBlock, typeBlocks, decodedEntries);
+                        return null;
+                    });
+                    i ++;
+                }
+                for (i = 0; i < futures.length; i++) {
+                    Future<?> future = futures[i];
+                    futures[i] = null;
+                    WorkerPool.await(future);
+                }
+            } finally {
+                WorkerPool.cancel(futures);
+            }
+        }
+        private void decodeTypes(ValuesSerializerFactory serializerFactory,
+                                 PackageBlock packageBlock,
+                                 List<TypeBlock> typeBlocks,
+                                 Predicate<Entry> decodedEntries) throws IOException {
+            for (TypeBlock typeBlock : typeBlocks) {
+                ResConfig resConfig = typeBlock.getResConfig();
+                logVerbose(packageBlock.getName() + ":" + typeBlock.getTypeName()
+                        + resConfig.getQualifiers());
+                XmlSerializer serializer = serializerFactory.createSerializer(typeBlock);
+                int entriesCount = decode(serializer, typeBlock.getParentSpecTypePair(),
+                        resConfig, decodedEntries);
+                serializerFactory.onFinish(serializer, entriesCount);
+            }
+        }
         public int decode(XmlSerializer serializer,
                            SpecTypePair specTypePair,
                            ResConfig resConfig,
@@ -255,7 +325,49 @@ public class XmlCoder {
 
             encode(parser, typeBlock);
         }
+        /**
+         * Encodes entries previously parsed by {@link #parseEntries(File)}
+         * */
+        public void encode(File valuesXmlFile, PackageBlock packageBlock, List<XMLElement> entries) throws IOException {
+            TypeBlock typeBlock = packageBlock.getOrCreateTypeBlock(
+                    XmlEncodeUtil.getQualifiersFromValuesXml(valuesXmlFile),
+                    XmlEncodeUtil.getTypeFromValuesXml(valuesXmlFile));
+            try {
+                for (XMLElement element : entries) {
+                    encodeEntry(element, typeBlock);
+                }
+            } catch (XmlEncodeException e) {
+                throw new XmlEncodeException(valuesXmlFile + "\n" + e.getMessage());
+            }
+        }
+        /**
+         * Parses entry elements of values xml file without touching any table, thus can be
+         * called concurrently. The entries are encoded later by
+         * {@link #encode(File, PackageBlock, List)}
+         * */
+        public List<XMLElement> parseEntries(File valuesXmlFile) throws IOException, XmlPullParserException {
+            XmlPullParser parser = XMLFactory.newPullParser(valuesXmlFile);
+            startEntries(parser);
+            List<XMLElement> results = new ArrayCollection<>();
+            while (XMLUtil.ensureStartTag(parser) == XmlPullParser.START_TAG) {
+                results.add(XMLElement.parseElement(parser));
+            }
+            IOUtil.close(parser);
+            return results;
+        }
         public void encode(XmlPullParser parser, TypeBlock typeBlock) throws IOException, XmlPullParserException {
+            startEntries(parser);
+            try {
+                while (XMLUtil.ensureStartTag(parser) == XmlPullParser.START_TAG) {
+                    XMLElement element = XMLElement.parseElement(parser);
+                    encodeEntry(element, typeBlock);
+                }
+            } catch (XmlEncodeException e) {
+                throw new XmlEncodeException(parser, e.getMessage());
+            }
+            IOUtil.close(parser);
+        }
+        private void startEntries(XmlPullParser parser) throws IOException, XmlPullParserException {
             int event = parser.getEventType();
             boolean documentStarted = false;
             if (event == XmlPullParser.START_DOCUMENT) {
@@ -272,15 +384,6 @@ public class XmlCoder {
             } else if(documentStarted){
                 throw new XmlEncodeException(parser, "Expecting <resources> tag but found: " + parser.getName());
             }
-            try {
-                while (XMLUtil.ensureStartTag(parser) == XmlPullParser.START_TAG) {
-                    XMLElement element = XMLElement.parseElement(parser);
-                    encodeEntry(element, typeBlock);
-                }
-            } catch (XmlEncodeException e) {
-                throw new XmlEncodeException(parser, e.getMessage());
-            }
-            IOUtil.close(parser);
         }
         public void encodeEntry(XMLElement entryElement, TypeBlock typeBlock) throws IOException{
             Entry entry = typeBlock.getOrCreateDefinedEntry(
@@ -18,18 +18,24 @@ package com.reandroid.arsc.io;
 import com.reandroid.arsc.header.InfoHeader;
 import com.reandroid.arsc.header.SpecHeader;
 import com.reandroid.arsc.header.TypeHeader;
+import com.reandroid.common.ByteBufferInputStream;
 
 import java.io.*;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 public class BlockReader extends InputStream {
     private final Object mLock = new Object();
 
     private byte[] BUFFER;
+    private ByteBuffer mByteBuffer;
     private final int mStart;
     private final int mLength;
     private int mPosition;
     private boolean mIsClosed;
     private int mMark;
+    private boolean mSharedBuffer;
 
     public BlockReader(byte[] buffer, int start, int length) {
         this.BUFFER = buffer;
@@ -37,11 +43,29 @@ public class BlockReader extends InputStream {
         this.mLength = length;
         this.mPosition = 0;
     }
+    /**
+     * Reads directly from the remaining bytes of the given buffer without copying it to heap,
+     * the buffer could be a memory mapped file or a slice of it.
+     * */
+    public BlockReader(ByteBuffer byteBuffer) {
+        this(byteBuffer, byteBuffer.position(), byteBuffer.remaining());
+    }
+    private BlockReader(ByteBuffer byteBuffer, int start, int length) {
+        if(byteBuffer.hasArray()){
+            this.BUFFER = byteBuffer.array();
+            start = start + byteBuffer.arrayOffset();
+        }else {
+            this.mByteBuffer = byteBuffer.duplicate();
+        }
+        this.mStart = start;
+        this.mLength = length;
+        this.mPosition = 0;
+    }
     public BlockReader(byte[] buffer) {
         this(buffer, 0, buffer.length);
     }
     public BlockReader(InputStream in) throws IOException {
-        this(loadBuffer(in));
+        this(loadByteBuffer(in));
     }
     public BlockReader(InputStream in, int length) throws IOException {
         this(loadBuffer(in, length));
@@ -93,21 +117,52 @@ public class BlockReader extends InputStream {
         return (short) (bytes[0] & 0xff |
                 (bytes[1] & 0xff) << 8);
     }
+    /**
+     * Returns the backing array, positions are absolute (see {@link #getActualPosition()}).
+     * Returns null for memory mapped readers, use {@link #getBytes()} to get a copy.
+     * */
     public byte[] getBuffer(){
         return BUFFER;
     }
     public byte[] getBytes(){
         int len = length();
-        if(this.BUFFER.length == len){
+        if(this.BUFFER != null && this.BUFFER.length == len){
             return BUFFER;
         }
         byte[] bytes = new byte[len];
         if(len==0){
             return bytes;
         }
-        System.arraycopy(BUFFER, mStart, bytes, 0, len);
+        copy(mStart, bytes, 0, len);
         return bytes;
     }
+    private void copy(int position, byte[] bytes, int start, int length){
+        byte[] buffer = this.BUFFER;
+        if(buffer != null){
+            System.arraycopy(buffer, position, bytes, start, length);
+            return;
+        }
+        synchronized (mLock){
+            ByteBuffer byteBuffer = this.mByteBuffer;
+            ((Buffer) byteBuffer).position(position);
+            byteBuffer.get(bytes, start, length);
+        }
+    }
+    public boolean isMapped(){
+        return mByteBuffer != null;
+    }
+    /**
+     * When enabled, small items read from this reader keep a view into the buffer
+     * instead of copying their bytes and copy only when modified. Reduces heap for
+     * read mostly use, the buffer must not be modified while the items are in use.
+     * Has no effect on memory mapped readers.
+     * */
+    public void setSharedBuffer(boolean sharedBuffer){
+        this.mSharedBuffer = sharedBuffer;
+    }
+    public boolean isSharedBuffer(){
+        return mSharedBuffer && BUFFER != null;
+    }
     public BlockReader create(int len){
         return create(getPosition(), len);
     }
@@ -117,7 +172,15 @@ public class BlockReader extends InputStream {
             len = this.mLength - start;
         }
         start = start + this.mStart;
-        return new BlockReader(BUFFER, start, len);
+        ByteBuffer byteBuffer = this.mByteBuffer;
+        BlockReader reader;
+        if(byteBuffer != null){
+            reader = new BlockReader(byteBuffer, start, len);
+        }else {
+            reader = new BlockReader(BUFFER, start, len);
+        }
+        reader.mSharedBuffer = this.mSharedBuffer;
+        return reader;
     }
     public boolean isAvailable(){
         if(mIsClosed){
@@ -184,17 +247,13 @@ public class BlockReader extends InputStream {
             length = bytes.length;
         }
         synchronized (mLock){
-            int actualPosition = mStart + mPosition;
-            int i;
-            for(i = 0; i < length; i++){
-                bytes[start + i] = BUFFER[actualPosition + i];
-                mPosition ++;
-                if(mPosition >= mLength){
-                    i++;
-                    break;
-                }
+            int available = mLength - mPosition;
+            if(length > available){
+                length = available;
             }
-            return i;
+            copy(mStart + mPosition, bytes, start, length);
+            mPosition += length;
+            return length;
         }
     }
     public int getPosition(){
@@ -214,7 +273,13 @@ public class BlockReader extends InputStream {
         }
         synchronized (mLock){
             int actPos = mStart + i;
-            int val = BUFFER[actPos] & 0xff;
+            int val;
+            byte[] buffer = this.BUFFER;
+            if(buffer != null){
+                val = buffer[actPos] & 0xff;
+            }else {
+                val = mByteBuffer.get(actPos) & 0xff;
+            }
             mPosition ++;
             return val;
         }
@@ -243,6 +308,7 @@ public class BlockReader extends InputStream {
     public void close(){
         mIsClosed=true;
         BUFFER=null;
+        mByteBuffer=null;
         mMark=0;
     }
     @Override
@@ -275,6 +341,27 @@ public class BlockReader extends InputStream {
     }
 
 
+    private static ByteBuffer loadByteBuffer(InputStream in) throws IOException {
+        if(in instanceof ByteBufferInputStream){
+            return ((ByteBufferInputStream) in).getByteBuffer();
+        }
+        return ByteBuffer.wrap(loadBuffer(in));
+    }
+    /**
+     * Maps the file to memory instead of loading to heap, the file length should not exceed 2GB
+     * */
+    public static BlockReader map(File file) throws IOException {
+        FileChannel fileChannel = new RandomAccessFile(file, "r").getChannel();
+        try {
+            long length = fileChannel.size();
+            if(length > Integer.MAX_VALUE){
+                throw new IOException("File too large to map: " + file);
+            }
+            return new BlockReader(fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, length));
+        } finally {
+            fileChannel.close();
+        }
+    }
     private static byte[] loadBuffer(File file) throws IOException {
         FileInputStream in=new FileInputStream(file);
         byte[] result = loadBuffer(in);
@@ -64,7 +64,7 @@ public class AlignItem extends BlockItem {
         int size = size();
         int available = reader.available();
         if (size != 0 && available >= size) {
-            reader.readFully(getBytesInternal(), 0, size);
+            readOwnBytes(reader, size);
         }
     }
     public void clear() {
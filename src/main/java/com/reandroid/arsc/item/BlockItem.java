@@ -26,6 +26,13 @@ import java.io.OutputStream;
 public abstract class BlockItem extends Block {
 
     private byte[] mBytes;
+    /**
+     * Zero when mBytes is owned by this item, otherwise mBytes is a buffer shared
+     * with other items and this holds (offset << 8 | length) of this item on it.
+     * {@link #WATCHED} marks own bytes read from shared reader or written out, the first
+     * access for writing is reported as modification same as shared bytes.
+     * */
+    private int mShared;
 
     public BlockItem(int bytesLength){
         super();
@@ -37,9 +44,75 @@ public abstract class BlockItem extends Block {
     }
     protected void onBytesChanged(){
     }
+    /**
+     * Returns own bytes of this item for reading and writing, shared bytes are copied first.
+     * */
     protected byte[] getBytesInternal() {
+        int shared = mShared;
+        if(shared != 0){
+            if(shared == WATCHED){
+                mShared = 0;
+                onModified();
+            }else {
+                unShare();
+            }
+        }
+        return mBytes;
+    }
+    /**
+     * Returns bytes for reading only without copying shared bytes, the bytes of
+     * this item start at {@link #getBytesOffset()}
+     * */
+    protected final byte[] getBytesView(){
         return mBytes;
     }
+    protected final int getBytesOffset(){
+        int shared = mShared;
+        if((shared & 0xff) == 0){
+            return 0;
+        }
+        return shared >>> 8;
+    }
+    public final boolean isSharedBytes(){
+        return (mShared & 0xff) != 0;
+    }
+    private void unShare(){
+        int shared = mShared;
+        byte[] bytes = new byte[shared & 0xff];
+        System.arraycopy(mBytes, shared >>> 8, bytes, 0, bytes.length);
+        mBytes = bytes;
+        mShared = 0;
+        onModified();
+    }
+    /**
+     * Points this item to bytes of the reader buffer instead of copying,
+     * see {@link BlockReader#setSharedBuffer(boolean)}
+     * */
+    protected final boolean readShared(BlockReader reader, int length) {
+        if(length <= 0 || length > 0xff || !reader.isSharedBuffer() ||
+                reader.available() < length){
+            return false;
+        }
+        int offset = reader.getActualPosition();
+        if((offset >>> 24) != 0){
+            return false;
+        }
+        mBytes = reader.getBuffer();
+        mShared = (offset << 8) | length;
+        reader.offset(length);
+        return true;
+    }
+    /**
+     * Reads into own bytes of this item, on shared reader the bytes are watched
+     * for modification like shared bytes.
+     * */
+    protected final void readOwnBytes(BlockReader reader, int length) throws IOException {
+        byte[] bytes = getBytesInternal();
+        reader.readFully(bytes, 0, length);
+        if(reader.isSharedBuffer()){
+            mShared = WATCHED;
+        }
+    }
     void setBytesInternal(byte[] bytes){
         setBytesInternal(bytes, true);
     }
@@ -47,10 +120,12 @@ public abstract class BlockItem extends Block {
         if(bytes == null || bytes.length == 0){
             bytes = EMPTY;
         }
-        if(bytes == mBytes){
+        if(bytes == mBytes && mShared == 0){
             return;
         }
         mBytes = bytes;
+        mShared = 0;
+        onModified();
         if(notify){
             onBytesChanged();
         }
@@ -63,13 +138,18 @@ public abstract class BlockItem extends Block {
             length = 0;
         }
         if(length == 0){
+            if(mBytes == EMPTY){
+                return;
+            }
             mBytes = EMPTY;
+            mShared = 0;
+            onModified();
             if(notify){
                 onBytesChanged();
             }
             return;
         }
-        int old = mBytes.length;
+        int old = getBytesLength();
         if(length == old){
             return;
         }
@@ -77,13 +157,19 @@ public abstract class BlockItem extends Block {
         if(length < old){
             old = length;
         }
-        System.arraycopy(mBytes, 0, bytes, 0, old);
+        System.arraycopy(mBytes, getBytesOffset(), bytes, 0, old);
         mBytes = bytes;
+        mShared = 0;
+        onModified();
         if(notify){
             onBytesChanged();
         }
     }
-    int getBytesLength(){
+    protected final int getBytesLength(){
+        int shared = mShared;
+        if((shared & 0xff) != 0){
+            return shared & 0xff;
+        }
         return mBytes.length;
     }
 
@@ -92,13 +178,19 @@ public abstract class BlockItem extends Block {
         if(isNull()){
             return 0;
         }
-        return getBytesInternal().length;
+        return getBytesLength();
     }
+    /**
+     * Returns internal bytes, or a copy when the bytes are shared
+     * */
     @Override
     public byte[] getBytes() {
         if(isNull()){
             return null;
         }
+        if(isSharedBytes()){
+            return getBytes(mBytes, getBytesOffset(), getBytesLength());
+        }
         return getBytesInternal();
     }
     @Override
@@ -115,12 +207,13 @@ public abstract class BlockItem extends Block {
     }
     @Override
     public void onReadBytes(BlockReader reader) throws IOException{
-        byte[] bytes = getBytesInternal();
-        int length = bytes.length;
+        int length = getBytesLength();
         if(length == 0){
             return;
         }
-        reader.readFully(bytes);
+        if(!readShared(reader, length)){
+            readOwnBytes(reader, length);
+        }
         onBytesChanged();
     }
     @Override
@@ -128,12 +221,15 @@ public abstract class BlockItem extends Block {
         if (isNull()) {
             return 0;
         }
-        byte[] bytes = getBytesInternal();
-        int length = bytes.length;
+        int length = getBytesLength();
         if(length == 0){
             return 0;
         }
-        stream.write(bytes, 0, length);
+        stream.write(mBytes, getBytesOffset(), length);
+        if(mShared == 0){
+            // let cached serializations detect later changes, see Chunk#getModificationStamp()
+            mShared = WATCHED;
+        }
         return length;
     }
 
@@ -156,10 +252,11 @@ public abstract class BlockItem extends Block {
     }
     public void setBytes(BlockItem blockItem){
         if(blockItem != this) {
-            byte[] coming = blockItem.getBytesInternal();
-            setBytesInternal(coming.clone());
+            setBytesInternal(getBytes(blockItem.mBytes,
+                    blockItem.getBytesOffset(), blockItem.getBytesLength()));
         }
     }
 
     private static final byte[] EMPTY = new byte[0];
+    private static final int WATCHED = 0x100;
 }
@@ -68,7 +68,7 @@ public class ByteArray extends BlockItem {
         return getBytesLength();
     }
     public byte get(int index){
-        return getBytesInternal()[index];
+        return getBytesView()[getBytesOffset() + index];
     }
     public int getByteUnsigned(int index){
         return 0xff & get(index);
@@ -81,7 +81,7 @@ public class ByteArray extends BlockItem {
         bts[index]=value;
     }
     public boolean getBit(int byteOffset, int bitIndex){
-        return getBit(getBytesInternal(), byteOffset, bitIndex);
+        return getBit(getBytesView(), getBytesOffset() + byteOffset, bitIndex);
     }
     public void putBit(int byteOffset, int bitIndex, boolean bit){
         putBit(getBytesInternal(), byteOffset, bitIndex, bit);
@@ -98,7 +98,8 @@ public class ByteArray extends BlockItem {
         return 0xffff & getShort(offset);
     }
     public final short getShort(int offset){
-        byte[] bts = getBytesInternal();
+        byte[] bts = getBytesView();
+        offset += getBytesOffset();
         return (short) (bts[offset] & 0xff | (bts[offset+1] & 0xff) << 8);
     }
     public final void putInteger(int offset, int val){
@@ -112,10 +113,11 @@ public class ByteArray extends BlockItem {
         bts[offset]= (byte) (val & 0xff);
     }
     public final int getInteger(int offset){
-        byte[] bts = getBytesInternal();
-        if((offset+4)>bts.length){
+        if((offset+4)>size()){
             return 0;
         }
+        byte[] bts = getBytesView();
+        offset += getBytesOffset();
         return bts[offset] & 0xff |
                 (bts[offset+1] & 0xff) << 8 |
                 (bts[offset+2] & 0xff) << 16 |
@@ -134,10 +136,10 @@ public class ByteArray extends BlockItem {
         System.arraycopy(val, 0, bts, offset, len);
     }
     public final byte[] getByteArray(int offset, int length){
-        byte[] bts = getBytesInternal();
+        byte[] bts = getBytesView();
         byte[] result = new byte[length];
         if (result.length >= 0) {
-            System.arraycopy(bts, offset, result, 0, result.length);
+            System.arraycopy(bts, getBytesOffset() + offset, result, 0, result.length);
         }
         return result;
     }
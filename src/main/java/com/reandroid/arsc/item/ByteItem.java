@@ -46,7 +46,7 @@ public class ByteItem extends BlockItem implements IntegerReference, DirectStrea
         getBytesInternal()[0] = value;
     }
     public byte getByte() {
-        return getBytesInternal()[0];
+        return getBytesView()[getBytesOffset()];
     }
     @Override
     public int get() {
@@ -29,7 +29,8 @@ public class IndirectBoolean implements BooleanReference{
 
     @Override
     public boolean get() {
-        return BlockItem.getBit(blockItem.getBytesInternal(), byteOffset, bitIndex);
+        return BlockItem.getBit(blockItem.getBytesView(),
+                blockItem.getBytesOffset() + byteOffset, bitIndex);
     }
     @Override
     public void set(boolean value) {
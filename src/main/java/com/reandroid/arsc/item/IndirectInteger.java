@@ -23,14 +23,14 @@ public class IndirectInteger extends IndirectItem<BlockItem> implements IntegerR
     }
     @Override
     public int get(){
-        return Block.getInteger(getBytesInternal(), getOffset());
+        return Block.getInteger(getBytesView(), getViewOffset());
     }
     @Override
     public void set(int value){
         Block.putInteger(getBytesInternal(), getOffset(), value);
     }
     public boolean isNull(){
-        return (getBytesInternal().length - getOffset()) < 4;
+        return getAvailable() < 4;
     }
     @Override
     public String toString(){
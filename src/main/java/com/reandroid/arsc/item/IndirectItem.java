@@ -27,6 +27,18 @@ public class IndirectItem<T extends BlockItem> {
     public byte[] getBytesInternal(){
         return blockItem.getBytesInternal();
     }
+    /**
+     * Read only bytes of the block item, the value is at getViewOffset()
+     * */
+    byte[] getBytesView(){
+        return blockItem.getBytesView();
+    }
+    int getViewOffset(){
+        return blockItem.getBytesOffset() + getOffset();
+    }
+    int getAvailable(){
+        return blockItem.getBytesLength() - getOffset();
+    }
     public T getBlockItem() {
         return blockItem;
     }
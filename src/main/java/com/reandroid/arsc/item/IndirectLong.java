@@ -25,7 +25,7 @@ public class IndirectLong extends IndirectItem<BlockItem> implements LongReferen
 
     @Override
     public long getLong() {
-        return Block.getLong(getBytesInternal(), getOffset());
+        return Block.getLong(getBytesView(), getViewOffset());
     }
 
     @Override
@@ -41,7 +41,7 @@ public class IndirectLong extends IndirectItem<BlockItem> implements LongReferen
         set((long) value);
     }
     public boolean isNull(){
-        return (getBytesInternal().length - getOffset()) < 8;
+        return getAvailable() < 8;
     }
     @Override
     public String toString(){
@@ -51,7 +51,7 @@ public class IntegerArrayBlock extends ShortArrayBlock{
         if(index < 0 || index >= size()){
             return 0;
         }
-        return getInteger(getBytesInternal(), index * 4);
+        return getInteger(getBytesView(), getBytesOffset() + index * 4);
     }
     @Override
     public int size(){
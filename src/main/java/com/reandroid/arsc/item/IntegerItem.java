@@ -68,11 +68,12 @@ public class IntegerItem extends BlockItem implements ReferenceItem, DirectStrea
     @Override
     protected void onBytesChanged() {
         int i;
-        byte[] bytes = getBytesInternal();
+        byte[] bytes = getBytesView();
+        int offset = getBytesOffset();
         if (bigEndian) {
-            i = getBigEndianInteger(bytes, 0);
+            i = getBigEndianInteger(bytes, offset);
         } else {
-            i = getInteger(bytes, 0);
+            i = getInteger(bytes, offset);
         }
         mCache = i;
     }
@@ -64,11 +64,12 @@ public class LongItem extends BlockItem implements LongReference, DirectStreamRe
     @Override
     protected void onBytesChanged() {
         long l;
-        byte[] bytes = getBytesInternal();
+        byte[] bytes = getBytesView();
+        int offset = getBytesOffset();
         if (bigEndian) {
-            l = getBigEndianLong(bytes, 0);
+            l = getBigEndianLong(bytes, offset);
         } else {
-            l = getLong(bytes, 0);
+            l = getLong(bytes, offset);
         }
         mCache = l;
     }
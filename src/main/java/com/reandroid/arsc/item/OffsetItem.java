@@ -162,7 +162,7 @@ public abstract class OffsetItem extends BlockItem implements DirectStreamReader
 
         @Override
         protected int readOffset() {
-            int offset = getShortUnsigned(getBytesInternal(), 0);
+            int offset = getShortUnsigned(getBytesView(), getBytesOffset());
             if (offset == NO_ENTRY16) {
                 offset = NO_ENTRY;
             } else {
@@ -197,7 +197,7 @@ public abstract class OffsetItem extends BlockItem implements DirectStreamReader
 
         @Override
         protected int readOffset() {
-            return getInteger(getBytesInternal(), 0);
+            return getInteger(getBytesView(), getBytesOffset());
         }
 
         @Override
@@ -239,12 +239,12 @@ public abstract class OffsetItem extends BlockItem implements DirectStreamReader
         @Override
         protected void onBytesChanged() {
             super.onBytesChanged();
-            this.mIdx = getShortUnsigned(getBytesInternal(), 0);
+            this.mIdx = getShortUnsigned(getBytesView(), getBytesOffset());
         }
 
         @Override
         protected int readOffset() {
-            return getShortUnsigned(getBytesInternal(), 2) * 4;
+            return getShortUnsigned(getBytesView(), getBytesOffset() + 2) * 4;
         }
 
         @Override
@@ -98,7 +98,7 @@ public class ShortArrayBlock extends BlockItem implements IntegerArray {
         if(index < 0 || index >= size()){
             return 0;
         }
-        return getShortUnsigned(getBytesInternal(), index * 2);
+        return getShortUnsigned(getBytesView(), getBytesOffset() + index * 2);
     }
     @Override
     public int size(){
@@ -68,11 +68,12 @@ public class ShortItem extends BlockItem implements IntegerReference, DirectStre
     @Override
     protected void onBytesChanged() {
         int s;
-        byte[] bytes = getBytesInternal();
+        byte[] bytes = getBytesView();
+        int offset = getBytesOffset();
         if (bigEndian) {
-            s = getBigEndianShort(bytes, 0);
+            s = getBigEndianShort(bytes, offset);
         } else {
-            s = getShortUnsigned(bytes, 0);
+            s = getShortUnsigned(bytes, offset);
         }
         mCache = s;
     }
@@ -23,7 +23,8 @@ public class SpecFlag extends IndirectItem<SpecFlagsArray> {
         super(specFlagsArray, offset);
     }
     public byte getFlagByte(){
-        return getBlockItem().getBytesInternal()[getOffset() + OFFSET_FLAG];
+        SpecFlagsArray array = getBlockItem();
+        return array.getBytesView()[array.getBytesOffset() + getOffset() + OFFSET_FLAG];
     }
     public void setFlagByte(byte flag){
         getBlockItem().getBytesInternal()[getOffset() + OFFSET_FLAG] = flag;
@@ -42,7 +43,8 @@ public class SpecFlag extends IndirectItem<SpecFlagsArray> {
         return SpecBlock.Flag.isPublic(getFlagByte());
     }
     public int getInteger(){
-        return BlockItem.getInteger(this.getBlockItem().getBytesInternal(), this.getOffset());
+        SpecFlagsArray array = getBlockItem();
+        return BlockItem.getInteger(array.getBytesView(), array.getBytesOffset() + this.getOffset());
     }
     public void setInteger(int value){
         if(value == getInteger()){
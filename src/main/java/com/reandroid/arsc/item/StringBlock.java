@@ -28,6 +28,10 @@ public abstract class StringBlock extends BlockItem implements StringReference {
         super(0);
         mCache = StringsUtil.EMPTY;
     }
+    /**
+     * Returns the string decoded when the bytes were set, so reads never decode and
+     * are safe from concurrent threads once the owner block is published.
+     * */
     public String get(){
         return mCache;
     }
@@ -56,7 +60,17 @@ public abstract class StringBlock extends BlockItem implements StringReference {
         setBytesInternal(bytes, false);
     }
     protected void onBytesChanged(){
-        mCache = decodeString(getBytesInternal());
+        if(isSharedBytes()){
+            mCache = decodeString(getBytesView(), getBytesOffset(), getBytesLength());
+        }else {
+            mCache = decodeString(getBytesView());
+        }
+    }
+    /**
+     * Decodes shared bytes, the default implementation decodes a copy
+     * */
+    protected String decodeString(byte[] bytes, int offset, int length){
+        return decodeString(getBytes(bytes, offset, length));
     }
     protected void onStringChanged(String old, String text){
     }
@@ -74,5 +88,9 @@ public abstract class StringBlock extends BlockItem implements StringReference {
         return get();
     }
 
+    /**
+     * A CharsetDecoder is not thread-safe, decode through {@link StringItem} instead.
+     * */
+    @Deprecated
     public static final CharsetDecoder UTF8_DECODER = StandardCharsets.UTF_8.newDecoder();
 }
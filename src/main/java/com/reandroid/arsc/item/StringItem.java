@@ -234,8 +234,11 @@ public class StringItem extends StringBlock implements JSONConvert<JSONObject>,
         if (reader.available() < 4) {
             return;
         }
-        setBytesLength(calculateReadLength(reader), false);
-        reader.readFully(getBytesInternal());
+        int length = calculateReadLength(reader);
+        if (!readShared(reader, length)) {
+            setBytesLength(length, false);
+            readOwnBytes(reader, length);
+        }
         onBytesChanged();
     }
     int calculateReadLength(BlockReader reader) throws IOException {
@@ -247,9 +250,9 @@ public class StringItem extends StringBlock implements JSONConvert<JSONObject>,
         reader.offset(-4);
         int[] lengthResult;
         if (isUtf8()) {
-            lengthResult = decodeUtf8StringByteLength(bytes);
+            lengthResult = decodeUtf8StringByteLength(bytes, 0);
         } else {
-            lengthResult = decodeUtf16StringByteLength(bytes);
+            lengthResult = decodeUtf16StringByteLength(bytes, 0);
         }
         int add = isUtf8() ? 1:2;
         return lengthResult[0] + lengthResult[1] + add;
@@ -266,6 +269,13 @@ public class StringItem extends StringBlock implements JSONConvert<JSONObject>,
             return encodeUtf16ToBytes(str);
         }
     }
+    @Override
+    protected String decodeString(byte[] bytes, int offset, int length) {
+        if (isNullBytes(bytes, offset, length)) {
+            return "";
+        }
+        return decodeString(bytes, offset, mUtf8);
+    }
     private String decodeString(byte[] encodedBytes, boolean isUtf8) {
         if (isNullBytes(encodedBytes)) {
             if (encodedBytes == null || encodedBytes.length == 0) {
@@ -273,32 +283,39 @@ public class StringItem extends StringBlock implements JSONConvert<JSONObject>,
             }
             return "";
         }
+        return decodeString(encodedBytes, 0, isUtf8);
+    }
+    /**
+     * Decodes length-prefixed string bytes as stored on string pool, starting at the given offset
+     * */
+    public static String decodeString(byte[] bytes, int offset, boolean isUtf8) {
         int[] offLen;
         if (isUtf8) {
-            offLen = decodeUtf8StringByteLength(encodedBytes);
+            offLen = decodeUtf8StringByteLength(bytes, offset);
         } else {
-            offLen = decodeUtf16StringByteLength(encodedBytes);
+            offLen = decodeUtf16StringByteLength(bytes, offset);
         }
+        offLen[0] += offset;
         CharsetDecoder charsetDecoder;
         if (isUtf8) {
-            charsetDecoder = UTF8_DECODER;
+            charsetDecoder = UTF8_DECODERS.get();
         } else {
-            charsetDecoder = UTF16LE_DECODER;
+            charsetDecoder = UTF16LE_DECODERS.get();
         }
         try {
-            ByteBuffer buffer = ByteBuffer.wrap(encodedBytes, offLen[0], offLen[1]);
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, offLen[0], offLen[1]);
             return charsetDecoder.decode(buffer).toString();
         } catch (CharacterCodingException ex) {
             if (isUtf8) {
-                return tryThreeByteDecoder(encodedBytes, offLen[0], offLen[1]);
+                return tryThreeByteDecoder(bytes, offLen[0], offLen[1]);
             }
-            return new String(encodedBytes, offLen[0], offLen[1], StandardCharsets.UTF_16LE);
+            return new String(bytes, offLen[0], offLen[1], StandardCharsets.UTF_16LE);
         }
     }
-    private String tryThreeByteDecoder(byte[] bytes, int offset, int length) {
+    private static String tryThreeByteDecoder(byte[] bytes, int offset, int length) {
         try {
             ByteBuffer byteBuffer = ByteBuffer.wrap(bytes, offset, length);
-            CharBuffer charBuffer = DECODER_3B.decode(byteBuffer);
+            CharBuffer charBuffer = DECODERS_3B.get().decode(byteBuffer);
             return charBuffer.toString();
         } catch (CharacterCodingException e) {
             return new String(bytes, offset, length, StandardCharsets.UTF_8);
@@ -459,8 +476,8 @@ public class StringItem extends StringBlock implements JSONConvert<JSONObject>,
         return getIndex() + ":" + xml;
     }
 
-    private static int[] decodeUtf8StringByteLength(byte[] lengthBytes) {
-        int offset = 0;
+    private static int[] decodeUtf8StringByteLength(byte[] lengthBytes, int start) {
+        int offset = start;
         int val = lengthBytes[offset];
         int length;
         if ((val & 0x80) != 0) {
@@ -479,13 +496,13 @@ public class StringItem extends StringBlock implements JSONConvert<JSONObject>,
         } else {
             length = val;
         }
-        return new int[] { offset, length};
+        return new int[] { offset - start, length};
     }
-    private static int[] decodeUtf16StringByteLength(byte[] lengthBytes) {
-        int val = ((lengthBytes[1] & 0xFF) << 8 | lengthBytes[0] & 0xFF);
+    private static int[] decodeUtf16StringByteLength(byte[] lengthBytes, int start) {
+        int val = ((lengthBytes[start + 1] & 0xFF) << 8 | lengthBytes[start] & 0xFF);
         if ((val & 0x8000) != 0) {
-            int high = (lengthBytes[3] & 0xFF) << 8;
-            int low = (lengthBytes[2] & 0xFF);
+            int high = (lengthBytes[start + 3] & 0xFF) << 8;
+            int low = (lengthBytes[start + 2] & 0xFF);
             int len_value =  ((val & 0x7FFF) << 16) + (high + low);
             return new int[] {4, len_value * 2};
 
@@ -496,11 +513,14 @@ public class StringItem extends StringBlock implements JSONConvert<JSONObject>,
         if (bytes == null) {
             return true;
         }
-        int length = bytes.length;
+        return isNullBytes(bytes, 0, bytes.length);
+    }
+    private static boolean isNullBytes(byte[] bytes, int offset, int length) {
         if (length < 2) {
             return true;
         }
-        for (int i = 2; i < length; i++) {
+        int end = offset + length;
+        for (int i = offset + 2; i < end; i++) {
             if (bytes[i] != 0) {
                 return false;
             }
@@ -594,8 +614,13 @@ public class StringItem extends StringBlock implements JSONConvert<JSONObject>,
         return result;
     }
 
-    private static final CharsetDecoder UTF16LE_DECODER = StandardCharsets.UTF_16LE.newDecoder();
-    private static final CharsetDecoder DECODER_3B = ThreeByteCharsetDecoder.INSTANCE;
+    // decoders are stateful, each thread decodes with its own instances
+    private static final ThreadLocal<CharsetDecoder> UTF8_DECODERS =
+            ThreadLocal.withInitial(StandardCharsets.UTF_8::newDecoder);
+    private static final ThreadLocal<CharsetDecoder> UTF16LE_DECODERS =
+            ThreadLocal.withInitial(StandardCharsets.UTF_16LE::newDecoder);
+    private static final ThreadLocal<CharsetDecoder> DECODERS_3B =
+            ThreadLocal.withInitial(ThreeByteCharsetDecoder::new);
 
     public static final String NAME_string = ObjectsUtil.of("string");
     public static final String NAME_style = ObjectsUtil.of("style");
@@ -16,6 +16,7 @@
 package com.reandroid.arsc.list;
 
 import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.chunk.TableBlock;
 import com.reandroid.arsc.chunk.TypeBlock;
 import com.reandroid.arsc.header.TypeHeader;
 import com.reandroid.arsc.item.IntegerReference;
@@ -241,6 +242,11 @@ public class EntryItemList extends OffsetBlockList<Entry> implements JSONConvert
         buildOffsetList();
     }
 
+    @Override
+    public void onChanged() {
+        super.onChanged();
+        TableBlock.notifyResourcesChanged(this);
+    }
 
     private static final Predicate<Entry> NON_NULL_PREDICATE = entry -> !entry.isNull();
 }
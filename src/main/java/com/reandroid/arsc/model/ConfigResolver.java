@@ -0,0 +1,253 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.arsc.model;
+
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.arsc.chunk.TypeBlock;
+import com.reandroid.arsc.container.SpecTypePair;
+import com.reandroid.arsc.item.SpecFlag;
+import com.reandroid.arsc.value.Entry;
+import com.reandroid.arsc.value.ResConfig;
+import com.reandroid.arsc.value.ResValue;
+import com.reandroid.arsc.value.ValueType;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Answers which entry a device of the given {@link ResConfig} gets for a resource id, using
+ * the best-match selection of the android framework across all configurations of a type.
+ * The decision of each type is computed once on first lookup, thus repeated lookups cost
+ * a map and an array access. Lookups are thread safe as long as the table is not modified,
+ * call {@link #clear()} after modifications.
+ * */
+public class ConfigResolver {
+
+    private final TableBlock tableBlock;
+    private final ResConfig resConfig;
+    private final ConfigSnapshot requested;
+    private final ConcurrentHashMap<Integer, TypeDecision> decisionMap;
+
+    public ConfigResolver(TableBlock tableBlock, ResConfig resConfig) {
+        ResConfig copy = new ResConfig();
+        copy.copyFrom(resConfig);
+        this.tableBlock = tableBlock;
+        this.resConfig = copy;
+        this.requested = new ConfigSnapshot(copy);
+        this.decisionMap = new ConcurrentHashMap<>();
+    }
+
+    public TableBlock getTableBlock() {
+        return tableBlock;
+    }
+    public ResConfig getResConfig() {
+        return resConfig;
+    }
+    /**
+     * Returns the best matching entry of the resource without following references,
+     * or null if no configuration of it matches
+     * */
+    public Entry resolve(int resourceId) {
+        resourceId = toResolvedId(resourceId);
+        if(resourceId == 0) {
+            return null;
+        }
+        return getDecision(resourceId).get(resourceId & 0xffff);
+    }
+    /**
+     * Same as {@link #resolve(int)} but follows reference values until an entry of
+     * other value or a bag, each reference resolved with the same configuration.
+     * Returns the last resolved entry on a broken or looping chain.
+     * */
+    public Entry resolveValue(int resourceId) {
+        Entry entry = resolve(resourceId);
+        int depth = 0;
+        while (entry != null && depth < MAX_REFERENCE_DEPTH) {
+            int reference = getReference(entry);
+            if(reference == 0) {
+                break;
+            }
+            Entry next = resolve(reference);
+            if(next == null) {
+                break;
+            }
+            entry = next;
+            depth ++;
+        }
+        return entry;
+    }
+    /**
+     * Returns the union of spec flags along the reference chain of the resource, i.e.
+     * configuration changes that could change the value of {@link #resolveValue(int)}.
+     * Access flags like public are excluded.
+     * */
+    public int getChangingConfigurations(int resourceId) {
+        int result = 0;
+        int depth = 0;
+        while (depth < MAX_REFERENCE_DEPTH) {
+            resourceId = toResolvedId(resourceId);
+            if(resourceId == 0) {
+                break;
+            }
+            TypeDecision decision = getDecision(resourceId);
+            int entryId = resourceId & 0xffff;
+            result |= decision.getSpecFlags(entryId);
+            Entry entry = decision.get(entryId);
+            if(entry == null) {
+                break;
+            }
+            resourceId = getReference(entry);
+            depth ++;
+        }
+        return result & ~SPEC_ACCESS_FLAGS;
+    }
+    /**
+     * Computes decisions of all types ahead, otherwise each type is computed on first lookup
+     * */
+    public void precompute() {
+        Iterator<PackageBlock> iterator = tableBlock.getAllPackages();
+        while (iterator.hasNext()) {
+            PackageBlock packageBlock = iterator.next();
+            int packageId = packageBlock.getId();
+            for(SpecTypePair specTypePair : packageBlock.listSpecTypePairs()) {
+                Integer key = (packageId << 8) | specTypePair.getId();
+                decisionMap.computeIfAbsent(key, k -> new TypeDecision(specTypePair, requested));
+            }
+        }
+    }
+    public void clear() {
+        decisionMap.clear();
+    }
+
+    /**
+     * Returns the id whose type decision exists, i.e. the resource id itself or the
+     * finalized id of a staged alias whose type is absent. Returns 0 if none.
+     * */
+    private int toResolvedId(int resourceId) {
+        if(resourceId == 0) {
+            return 0;
+        }
+        if(getDecision(resourceId) != null) {
+            return resourceId;
+        }
+        ResourceEntry resourceEntry = tableBlock.getResource(resourceId);
+        if(resourceEntry != null) {
+            int finalized = resourceEntry.getResourceId();
+            if(finalized >>> 16 != resourceId >>> 16 && getDecision(finalized) != null) {
+                return finalized;
+            }
+        }
+        return 0;
+    }
+    private TypeDecision getDecision(int resourceId) {
+        Integer key = resourceId >>> 16;
+        TypeDecision decision = decisionMap.get(key);
+        if(decision == null) {
+            decision = decisionMap.computeIfAbsent(key, k -> createDecision(resourceId));
+        }
+        if(decision == TypeDecision.EMPTY) {
+            return null;
+        }
+        return decision;
+    }
+    private TypeDecision createDecision(int resourceId) {
+        int packageId = resourceId >>> 24;
+        int typeId = (resourceId >> 16) & 0xff;
+        Iterator<PackageBlock> iterator = tableBlock.getAllPackages(packageId);
+        while (iterator.hasNext()) {
+            SpecTypePair specTypePair = iterator.next().getSpecTypePair(typeId);
+            if(specTypePair != null) {
+                return new TypeDecision(specTypePair, requested);
+            }
+        }
+        return TypeDecision.EMPTY;
+    }
+    private static int getReference(Entry entry) {
+        ResValue resValue = entry.getResValue();
+        if(resValue == null) {
+            return 0;
+        }
+        ValueType valueType = resValue.getValueType();
+        if(valueType != ValueType.REFERENCE && valueType != ValueType.DYNAMIC_REFERENCE) {
+            return 0;
+        }
+        return resValue.getData();
+    }
+
+    /**
+     * The winning entry of each entry id among the configurations matching the request
+     * */
+    static class TypeDecision {
+        private final SpecTypePair specTypePair;
+        private final Entry[] entries;
+
+        TypeDecision(SpecTypePair specTypePair, ConfigSnapshot requested) {
+            this.specTypePair = specTypePair;
+            int count = specTypePair != null ? specTypePair.getHighestEntryCount() : 0;
+            Entry[] entries = new Entry[count];
+            this.entries = entries;
+            if(count == 0) {
+                return;
+            }
+            ConfigSnapshot[] winners = new ConfigSnapshot[count];
+            Iterator<TypeBlock> iterator = specTypePair.iterator();
+            while (iterator.hasNext()) {
+                TypeBlock typeBlock = iterator.next();
+                ConfigSnapshot config = new ConfigSnapshot(typeBlock.getResConfig());
+                if(!config.match(requested)) {
+                    continue;
+                }
+                Iterator<Entry> entryIterator = typeBlock.getEntryArray().iterator(true);
+                while (entryIterator.hasNext()) {
+                    Entry entry = entryIterator.next();
+                    int id = entry.getId();
+                    if(id < 0 || id >= count) {
+                        continue;
+                    }
+                    ConfigSnapshot winner = winners[id];
+                    if(winner == null || config.isBetterThan(winner, requested)) {
+                        winners[id] = config;
+                        entries[id] = entry;
+                    }
+                }
+            }
+        }
+        Entry get(int entryId) {
+            Entry[] entries = this.entries;
+            if(entryId < entries.length) {
+                return entries[entryId];
+            }
+            return null;
+        }
+        int getSpecFlags(int entryId) {
+            if(entryId >= entries.length) {
+                return 0;
+            }
+            SpecFlag specFlag = specTypePair.getSpecBlock().getSpecFlag(entryId);
+            if(specFlag == null) {
+                return 0;
+            }
+            return specFlag.getInteger();
+        }
+
+        static final TypeDecision EMPTY = new TypeDecision(null, null);
+    }
+
+    private static final int MAX_REFERENCE_DEPTH = 32;
+    // SPEC_PUBLIC and SPEC_STAGED_API
+    private static final int SPEC_ACCESS_FLAGS = 0x40000000 | 0x20000000;
+}
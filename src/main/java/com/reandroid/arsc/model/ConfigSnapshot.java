@@ -0,0 +1,412 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.arsc.model;
+
+import com.reandroid.arsc.value.ResConfig;
+
+/**
+ * Immutable copy of {@link ResConfig} values for fast repeated matching, follows
+ * ResTable_config::match and ResTable_config::isBetterThan of the android framework.
+ * Likely-script and locale parent data of CLDR is not available, thus scripts are compared
+ * only when both sides declare one and regions fall back to the language alone.
+ * */
+class ConfigSnapshot {
+
+    private final int mcc;
+    private final int mnc;
+    private final int language;
+    private final int region;
+    private final int script;
+    private final long variant;
+    private final boolean tagalog;
+    private final int orientation;
+    private final int touchscreen;
+    private final int density;
+    private final int keyboard;
+    private final int navigation;
+    private final int inputFlags;
+    private final int grammaticalInflection;
+    private final int screenWidth;
+    private final int screenHeight;
+    private final int sdkVersion;
+    private final int minorVersion;
+    private final int screenLayout;
+    private final int uiMode;
+    private final int smallestScreenWidthDp;
+    private final int screenWidthDp;
+    private final int screenHeightDp;
+    private final int screenLayout2;
+    private final int colorMode;
+
+    ConfigSnapshot(ResConfig resConfig) {
+        this.mcc = resConfig.getMcc();
+        this.mnc = resConfig.getMnc();
+        this.language = toInt(resConfig.getLanguageBytes());
+        this.region = toInt(resConfig.getRegionBytes());
+        this.script = toInt(resConfig.getLocaleScriptBytes());
+        this.variant = toLong(resConfig.getLocaleVariantBytes());
+        String lang = resConfig.getLanguage();
+        this.tagalog = "tl".equals(lang) || "fil".equals(lang);
+        this.orientation = resConfig.getOrientationValue();
+        this.touchscreen = resConfig.getTouchscreenValue();
+        this.density = resConfig.getDensityValue();
+        this.keyboard = resConfig.getKeyboardValue();
+        this.navigation = resConfig.getNavigationValue();
+        this.inputFlags = resConfig.getInputFlagsValue();
+        this.grammaticalInflection = resConfig.getGenderValue();
+        this.screenWidth = resConfig.getScreenWidth();
+        this.screenHeight = resConfig.getScreenHeight();
+        this.sdkVersion = resConfig.getSdkVersion();
+        this.minorVersion = resConfig.getMinorVersion();
+        this.screenLayout = resConfig.getScreenLayout();
+        this.uiMode = resConfig.getUiMode();
+        this.smallestScreenWidthDp = resConfig.getSmallestScreenWidthDp();
+        this.screenWidthDp = resConfig.getScreenWidthDp();
+        this.screenHeightDp = resConfig.getScreenHeightDp();
+        this.screenLayout2 = resConfig.getScreenLayout2();
+        this.colorMode = resConfig.getColorMode();
+    }
+
+    /**
+     * Returns true if resources of this config are usable on a device of the given config
+     * */
+    boolean match(ConfigSnapshot settings) {
+        if(mcc != 0 && mcc != settings.mcc) {
+            return false;
+        }
+        if(mnc != 0 && mnc != settings.mnc) {
+            return false;
+        }
+        if(language != 0 || region != 0 || script != 0 || variant != 0) {
+            if(!isLanguageEquivalent(settings)) {
+                return false;
+            }
+            if(script != 0 && settings.script != 0) {
+                if(script != settings.script) {
+                    return false;
+                }
+            } else if(region != 0 && region != settings.region) {
+                return false;
+            }
+        }
+        if(grammaticalInflection != 0 && grammaticalInflection != settings.grammaticalInflection) {
+            return false;
+        }
+        if(!matchFlag(screenLayout, settings.screenLayout, ResConfig.ScreenLayoutDir.MASK)
+                || !matchFlag(screenLayout, settings.screenLayout, ResConfig.ScreenLayoutLong.MASK)
+                || !matchFlag(uiMode, settings.uiMode, ResConfig.UiModeType.MASK)
+                || !matchFlag(uiMode, settings.uiMode, ResConfig.UiModeNight.MASK)
+                || !matchFlag(screenLayout2, settings.screenLayout2, ResConfig.ScreenLayoutRound.MASK)
+                || !matchFlag(colorMode, settings.colorMode, ResConfig.ColorModeHdr.MASK)
+                || !matchFlag(colorMode, settings.colorMode, ResConfig.ColorModeWide.MASK)) {
+            return false;
+        }
+        int screenSize = screenLayout & ResConfig.ScreenLayoutSize.MASK;
+        if(screenSize != 0 && screenSize > (settings.screenLayout & ResConfig.ScreenLayoutSize.MASK)) {
+            return false;
+        }
+        if(!matchMax(smallestScreenWidthDp, settings.smallestScreenWidthDp)
+                || !matchMax(screenWidthDp, settings.screenWidthDp)
+                || !matchMax(screenHeightDp, settings.screenHeightDp)) {
+            return false;
+        }
+        // density always matches as it can be scaled, see isBetterThan
+        if(!matchExact(orientation, settings.orientation)
+                || !matchExact(touchscreen, settings.touchscreen)) {
+            return false;
+        }
+        int keysHidden = inputFlags & ResConfig.InputFlagsKeysHidden.MASK;
+        int setKeysHidden = settings.inputFlags & ResConfig.InputFlagsKeysHidden.MASK;
+        if(keysHidden != 0 && keysHidden != setKeysHidden) {
+            // a request for keys soft also matches keys exposed
+            if(keysHidden != KEYS_EXPOSED || setKeysHidden != KEYS_SOFT) {
+                return false;
+            }
+        }
+        if(!matchFlag(inputFlags, settings.inputFlags, ResConfig.InputFlagsNavHidden.MASK)
+                || !matchExact(keyboard, settings.keyboard)
+                || !matchExact(navigation, settings.navigation)) {
+            return false;
+        }
+        if(!matchMax(screenWidth, settings.screenWidth)
+                || !matchMax(screenHeight, settings.screenHeight)
+                || !matchMax(sdkVersion, settings.sdkVersion)) {
+            return false;
+        }
+        return matchExact(minorVersion, settings.minorVersion);
+    }
+    /**
+     * Returns true if this config is a better choice than other for the requested config,
+     * both are assumed to match the requested config
+     * */
+    boolean isBetterThan(ConfigSnapshot o, ConfigSnapshot requested) {
+        if(mcc != o.mcc && requested.mcc != 0) {
+            return mcc != 0;
+        }
+        if(mnc != o.mnc && requested.mnc != 0) {
+            return mnc != 0;
+        }
+        if(isLocaleBetterThan(o, requested)) {
+            return true;
+        }
+        if(o.isLocaleBetterThan(this, requested)) {
+            return false;
+        }
+        if(grammaticalInflection != o.grammaticalInflection && requested.grammaticalInflection != 0) {
+            return grammaticalInflection != 0;
+        }
+        int mask = ResConfig.ScreenLayoutDir.MASK;
+        if(((screenLayout ^ o.screenLayout) & mask) != 0 && (requested.screenLayout & mask) != 0) {
+            return (screenLayout & mask) > (o.screenLayout & mask);
+        }
+        if(smallestScreenWidthDp != o.smallestScreenWidthDp) {
+            // larger ones are already filtered out, the closest is the largest
+            return smallestScreenWidthDp > o.smallestScreenWidthDp;
+        }
+        int myDelta = 0;
+        int otherDelta = 0;
+        if(requested.screenWidthDp != 0) {
+            myDelta += requested.screenWidthDp - screenWidthDp;
+            otherDelta += requested.screenWidthDp - o.screenWidthDp;
+        }
+        if(requested.screenHeightDp != 0) {
+            myDelta += requested.screenHeightDp - screenHeightDp;
+            otherDelta += requested.screenHeightDp - o.screenHeightDp;
+        }
+        if(myDelta != otherDelta) {
+            return myDelta < otherDelta;
+        }
+        mask = ResConfig.ScreenLayoutSize.MASK;
+        if(((screenLayout ^ o.screenLayout) & mask) != 0 && (requested.screenLayout & mask) != 0) {
+            int mySize = screenLayout & mask;
+            int otherSize = o.screenLayout & mask;
+            // undefined is taken as normal, unless a smaller size is requested
+            if((requested.screenLayout & mask) >= SCREEN_SIZE_NORMAL) {
+                if(mySize == 0) {
+                    mySize = SCREEN_SIZE_NORMAL;
+                }
+                if(otherSize == 0) {
+                    otherSize = SCREEN_SIZE_NORMAL;
+                }
+            }
+            if(mySize == otherSize) {
+                return (screenLayout & mask) != 0;
+            }
+            return mySize > otherSize;
+        }
+        Boolean better = isFlagBetter(screenLayout, o.screenLayout, requested.screenLayout,
+                ResConfig.ScreenLayoutLong.MASK);
+        if(better == null) {
+            better = isFlagBetter(screenLayout2, o.screenLayout2, requested.screenLayout2,
+                    ResConfig.ScreenLayoutRound.MASK);
+        }
+        if(better == null) {
+            better = isFlagBetter(colorMode, o.colorMode, requested.colorMode,
+                    ResConfig.ColorModeHdr.MASK);
+        }
+        if(better == null) {
+            better = isFlagBetter(colorMode, o.colorMode, requested.colorMode,
+                    ResConfig.ColorModeWide.MASK);
+        }
+        if(better == null) {
+            better = isFlagBetter(orientation, o.orientation, requested.orientation, 0xff);
+        }
+        if(better == null) {
+            better = isFlagBetter(uiMode, o.uiMode, requested.uiMode,
+                    ResConfig.UiModeType.MASK);
+        }
+        if(better == null) {
+            better = isFlagBetter(uiMode, o.uiMode, requested.uiMode,
+                    ResConfig.UiModeNight.MASK);
+        }
+        if(better != null) {
+            return better;
+        }
+        if(density != o.density) {
+            return isDensityBetterThan(o, requested);
+        }
+        if(touchscreen != o.touchscreen && requested.touchscreen != 0) {
+            return touchscreen != 0;
+        }
+        mask = ResConfig.InputFlagsKeysHidden.MASK;
+        int keysHidden = inputFlags & mask;
+        int otherKeysHidden = o.inputFlags & mask;
+        int requestedKeysHidden = requested.inputFlags & mask;
+        if(keysHidden != otherKeysHidden && requestedKeysHidden != 0) {
+            if(keysHidden == 0) {
+                return false;
+            }
+            if(otherKeysHidden == 0) {
+                return true;
+            }
+            // exact match is better than keys exposed matching keys soft
+            if(requestedKeysHidden == keysHidden) {
+                return true;
+            }
+            if(requestedKeysHidden == otherKeysHidden) {
+                return false;
+            }
+        }
+        mask = ResConfig.InputFlagsNavHidden.MASK;
+        if(((inputFlags ^ o.inputFlags) & mask) != 0 && (requested.inputFlags & mask) != 0) {
+            return (inputFlags & mask) != 0;
+        }
+        if(keyboard != o.keyboard && requested.keyboard != 0) {
+            return keyboard != 0;
+        }
+        if(navigation != o.navigation && requested.navigation != 0) {
+            return navigation != 0;
+        }
+        myDelta = 0;
+        otherDelta = 0;
+        if(requested.screenWidth != 0) {
+            myDelta += requested.screenWidth - screenWidth;
+            otherDelta += requested.screenWidth - o.screenWidth;
+        }
+        if(requested.screenHeight != 0) {
+            myDelta += requested.screenHeight - screenHeight;
+            otherDelta += requested.screenHeight - o.screenHeight;
+        }
+        if(myDelta != otherDelta) {
+            return myDelta < otherDelta;
+        }
+        if(sdkVersion != o.sdkVersion && requested.sdkVersion != 0) {
+            return sdkVersion > o.sdkVersion;
+        }
+        if(minorVersion != o.minorVersion && requested.minorVersion != 0) {
+            return minorVersion != 0;
+        }
+        return false;
+    }
+    private boolean isLocaleBetterThan(ConfigSnapshot o, ConfigSnapshot requested) {
+        if(requested.language == 0 && requested.region == 0) {
+            return false;
+        }
+        if(!isLanguageEquivalent(o)) {
+            // one of them has no language, the one with language matched the request.
+            // For US English, resources without language are preferred over other regions
+            if(requested.language == ENGLISH && requested.region == UNITED_STATES) {
+                if(language != 0) {
+                    return region == 0 || region == UNITED_STATES;
+                }
+                return !(o.region == 0 || o.region == UNITED_STATES);
+            }
+            return language != 0;
+        }
+        if(region != o.region) {
+            if(region == requested.region) {
+                return true;
+            }
+            if(o.region == requested.region) {
+                return false;
+            }
+            // no region is the closest known parent of any other region
+            if(region == 0 || o.region == 0) {
+                return region == 0;
+            }
+        }
+        boolean variantMatches = variant == requested.variant;
+        if(variantMatches != (o.variant == requested.variant)) {
+            return variantMatches;
+        }
+        // identical is better than just equivalent, e.g. tl and fil
+        return language == requested.language && o.language != requested.language;
+    }
+    private boolean isDensityBetterThan(ConfigSnapshot o, ConfigSnapshot requested) {
+        int thisDensity = density != 0 ? density : DENSITY_MEDIUM;
+        int otherDensity = o.density != 0 ? o.density : DENSITY_MEDIUM;
+        // any density is always preferred over scaling a density bucket
+        if(thisDensity == DENSITY_ANY) {
+            return true;
+        }
+        if(otherDensity == DENSITY_ANY) {
+            return false;
+        }
+        int requestedDensity = requested.density;
+        if(requestedDensity == 0 || requestedDensity == DENSITY_ANY) {
+            requestedDensity = DENSITY_MEDIUM;
+        }
+        int high = thisDensity;
+        int low = otherDensity;
+        boolean bigger = true;
+        if(low > high) {
+            high = otherDensity;
+            low = thisDensity;
+            bigger = false;
+        }
+        if(high == requestedDensity) {
+            return bigger;
+        }
+        if(low >= requestedDensity) {
+            return !bigger;
+        }
+        // scaling down is taken as twice better than scaling up
+        if(((2L * low) - requestedDensity) * high > (long) requestedDensity * requestedDensity) {
+            return !bigger;
+        }
+        return bigger;
+    }
+    private boolean isLanguageEquivalent(ConfigSnapshot o) {
+        return language == o.language || (tagalog && o.tagalog);
+    }
+
+    private static boolean matchFlag(int value, int setting, int mask) {
+        value = value & mask;
+        return value == 0 || value == (setting & mask);
+    }
+    private static boolean matchExact(int value, int setting) {
+        return value == 0 || value == setting;
+    }
+    private static boolean matchMax(int value, int setting) {
+        return value == 0 || value <= setting;
+    }
+    private static Boolean isFlagBetter(int value, int other, int requested, int mask) {
+        if(((value ^ other) & mask) != 0 && (requested & mask) != 0) {
+            return (value & mask) != 0;
+        }
+        return null;
+    }
+    private static int toInt(byte[] bytes) {
+        if(bytes == null) {
+            return 0;
+        }
+        int result = 0;
+        int length = Math.min(4, bytes.length);
+        for(int i = 0; i < length; i++) {
+            result |= (bytes[i] & 0xff) << (i * 8);
+        }
+        return result;
+    }
+    private static long toLong(byte[] bytes) {
+        if(bytes == null) {
+            return 0;
+        }
+        long result = 0;
+        int length = Math.min(8, bytes.length);
+        for(int i = 0; i < length; i++) {
+            result |= (bytes[i] & 0xffL) << (i * 8);
+        }
+        return result;
+    }
+
+    private static final int ENGLISH = 'e' | 'n' << 8;
+    private static final int UNITED_STATES = 'U' | 'S' << 8;
+    private static final int KEYS_EXPOSED = ResConfig.InputFlagsKeysHidden.KEYSEXPOSED.getFlag();
+    private static final int KEYS_SOFT = ResConfig.InputFlagsKeysHidden.KEYSSOFT.getFlag();
+    private static final int SCREEN_SIZE_NORMAL = ResConfig.ScreenLayoutSize.NORMAL.getFlag();
+    private static final int DENSITY_MEDIUM = ResConfig.Density.MDPI.getFlag();
+    private static final int DENSITY_ANY = ResConfig.Density.ANYDPI.getFlag();
+}
@@ -52,6 +52,7 @@ public abstract class StringPool<T extends StringItem> extends Chunk<StringPoolH
 
     private final MultiMap<String, T> poolMap;
     private boolean stringLinkLocked;
+    private volatile boolean stringLinkReady;
 
     StringPool(boolean is_utf8, boolean stringLinkLocked, StringCreator<T> creator) {
         super(new StringPoolHeader(), 6);
@@ -90,6 +91,7 @@ public abstract class StringPool<T extends StringItem> extends Chunk<StringPoolH
         addChild(styleItemListEnd);
 
         this.stringLinkLocked = stringLinkLocked;
+        this.stringLinkReady = !stringLinkLocked;
 
         this.poolMap = new MultiMap<>();
         this.poolMap.setFavouriteObjectsSorter((item1, item2) -> {
@@ -129,14 +131,23 @@ public abstract class StringPool<T extends StringItem> extends Chunk<StringPoolH
     public boolean isStringLinkLocked() {
         return stringLinkLocked;
     }
+    /**
+     * Links strings to their users on first lookup. Once linked, concurrent readers
+     * return without taking the lock.
+     * */
     public void ensureStringLinkUnlockedInternal() {
+        if (stringLinkReady) {
+            return;
+        }
         synchronized (mLock) {
+            // re-entered from linking on the same thread, readers on other threads wait
             if (!stringLinkLocked) {
                 return;
             }
             stringLinkLocked = false;
             linkStrings();
             reloadPoolMap();
+            stringLinkReady = true;
         }
     }
     void linkStrings() {
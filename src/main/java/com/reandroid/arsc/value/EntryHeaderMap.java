@@ -34,13 +34,13 @@ public class EntryHeaderMap extends ValueHeader {
         return null;
     }
     public int getParentId(){
-        return getInteger(getBytesInternal(), OFFSET_PARENT_ID);
+        return getInteger(getBytesView(), getBytesOffset() + OFFSET_PARENT_ID);
     }
     public void setParentId(int parentId){
         putInteger(getBytesInternal(), OFFSET_PARENT_ID, parentId);
     }
     public int getValuesCount(){
-        return getInteger(getBytesInternal(), OFFSET_VALUE_COUNT);
+        return getInteger(getBytesView(), getBytesOffset() + OFFSET_VALUE_COUNT);
     }
     public void setValuesCount(int valuesCount){
         putInteger(getBytesInternal(), OFFSET_VALUE_COUNT, valuesCount);
@@ -42,7 +42,7 @@ class ResConfigValueContainer extends ByteArray {
         return getValue(offset, 4);
     }
     long getLongValue(int offset){
-        return getLong(getBytesInternal(), offset);
+        return getLong(getBytesView(), getBytesOffset() + offset);
     }
     void setIntValue(int offset, int value){
         setValue(offset, 4, value);
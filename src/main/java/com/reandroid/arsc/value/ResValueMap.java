@@ -174,7 +174,7 @@ public class ResValueMap extends AttributeValue implements Comparable<ResValueMa
 
     @Override
     public int getNameId() {
-        return getInteger(getBytesInternal(), OFFSET_NAME);
+        return getInteger(getBytesView(), getBytesOffset() + OFFSET_NAME);
     }
     @Override
     public void setNameId(int id){
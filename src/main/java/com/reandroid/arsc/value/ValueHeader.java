@@ -60,7 +60,7 @@ public class ValueHeader extends BlockItem implements JSONConvert<JSONObject> {
         return null;
     }
     public boolean isComplex(){
-        return getBit(getBytesInternal(), OFFSET_FLAGS,0);
+        return getBit(getBytesView(), getBytesOffset() + OFFSET_FLAGS,0);
     }
     public void setComplex(boolean complex){
         putBit(getBytesInternal(), OFFSET_FLAGS, 0, complex);
@@ -69,13 +69,13 @@ public class ValueHeader extends BlockItem implements JSONConvert<JSONObject> {
         putBit(getBytesInternal(), OFFSET_FLAGS,1, b);
     }
     public boolean isPublic(){
-        return getBit(getBytesInternal(), OFFSET_FLAGS,1);
+        return getBit(getBytesView(), getBytesOffset() + OFFSET_FLAGS,1);
     }
     public void setWeak(boolean b){
         putBit(getBytesInternal(), OFFSET_FLAGS, 2, b);
     }
     public boolean isWeak(){
-        return getBit(getBytesInternal(), OFFSET_FLAGS,2);
+        return getBit(getBytesView(), getBytesOffset() + OFFSET_FLAGS,2);
     }
     // Intentionally made accessible internal, use ResValue#setCompact
     void setCompact(boolean b){
@@ -87,12 +87,12 @@ public class ValueHeader extends BlockItem implements JSONConvert<JSONObject> {
         writeKey(key, b);
     }
     public boolean isCompact(){
-        return getBit(getBytesInternal(), OFFSET_FLAGS,3);
+        return getBit(getBytesView(), getBytesOffset() + OFFSET_FLAGS,3);
     }
 
     public int getKey(){
         if(isCompact()){
-            return getShortUnsigned(getBytesInternal(), 0);
+            return getShortUnsigned(getBytesView(), getBytesOffset());
         }
         return getData();
     }
@@ -115,13 +115,13 @@ public class ValueHeader extends BlockItem implements JSONConvert<JSONObject> {
         }
     }
     int getData(){
-        return getInteger(getBytesInternal(), 4);
+        return getInteger(getBytesView(), getBytesOffset() + 4);
     }
     void setData(int data){
         putInteger(getBytesInternal(), 4, data);
     }
     byte getType(){
-        return getBytesInternal()[OFFSET_DATA_TYPE];
+        return getBytesView()[getBytesOffset() + OFFSET_DATA_TYPE];
     }
     void setType(byte type){
         getBytesInternal()[OFFSET_DATA_TYPE] = type;
@@ -156,13 +156,13 @@ public class ValueHeader extends BlockItem implements JSONConvert<JSONObject> {
         }
     }
     public int getSize(){
-        return getBytesInternal().length;
+        return getBytesLength();
     }
     int readSize(){
         if(getSize()<2){
             return 0;
         }
-        return 0xffff & getShort(getBytesInternal(), OFFSET_SIZE);
+        return 0xffff & getShort(getBytesView(), getBytesOffset() + OFFSET_SIZE);
     }
     private void writeSize(){
         int size = getSize();
@@ -225,12 +225,16 @@ public class ValueHeader extends BlockItem implements JSONConvert<JSONObject> {
     @Override
     public void onReadBytes(BlockReader reader) throws IOException {
         int position = reader.getPosition();
-        reader.readFully(getBytesInternal());
+        if(!readShared(reader, getSize())){
+            readOwnBytes(reader, getSize());
+        }
         if(!isCompact()){
             reader.seek(position);
             int size = reader.readUnsignedShort();
             setBytesLength(size, false);
-            reader.readFully(getBytesInternal());
+            if(!readShared(reader, size)){
+                readOwnBytes(reader, size);
+            }
         }
     }
     private void setName(String name){
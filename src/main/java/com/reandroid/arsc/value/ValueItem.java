@@ -93,13 +93,13 @@ public abstract class ValueItem extends BlockItem implements Value,
 
     @SuppressWarnings("unused")
     byte getRes0(){
-        return getBytesInternal()[this.sizeOffset + OFFSET_RES0];
+        return getBytesView()[getBytesOffset() + this.sizeOffset + OFFSET_RES0];
     }
     void setRes0(byte b){
         getBytesInternal()[this.sizeOffset + OFFSET_RES0] = b;
     }
     public byte getType(){
-        return getBytesInternal()[this.sizeOffset + OFFSET_TYPE];
+        return getBytesView()[getBytesOffset() + this.sizeOffset + OFFSET_TYPE];
     }
     public void setType(byte type){
         if(type == getType()){
@@ -113,7 +113,7 @@ public abstract class ValueItem extends BlockItem implements Value,
         onDataChanged();
     }
     public int getSize(){
-        return 0xffff & getShort(getBytesInternal(), this.sizeOffset + OFFSET_SIZE);
+        return 0xffff & getShort(getBytesView(), getBytesOffset() + this.sizeOffset + OFFSET_SIZE);
     }
     public void setSize(int size){
         size = this.sizeOffset + size;
@@ -149,7 +149,7 @@ public abstract class ValueItem extends BlockItem implements Value,
     }
     @Override
     public int getData(){
-        return getInteger(getBytesInternal(), this.sizeOffset + OFFSET_DATA);
+        return getInteger(getBytesView(), getBytesOffset() + this.sizeOffset + OFFSET_DATA);
     }
     @Override
     public void setData(int data){
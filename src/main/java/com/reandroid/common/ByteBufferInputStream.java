@@ -0,0 +1,101 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.common;
+
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * Input stream over (possibly memory mapped) byte buffer, the buffer is not copied.
+ * */
+public class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer byteBuffer;
+    private int mark;
+
+    public ByteBufferInputStream(ByteBuffer byteBuffer){
+        this.byteBuffer = byteBuffer.slice();
+    }
+
+    /**
+     * Returns the unread remaining bytes as a view of the same memory
+     * */
+    public ByteBuffer getByteBuffer() {
+        return byteBuffer.slice();
+    }
+    public int getLength() {
+        return byteBuffer.limit();
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+    @Override
+    public synchronized void mark(int readLimit){
+        mark = byteBuffer.position();
+    }
+    @Override
+    public synchronized void reset() {
+        ((Buffer) byteBuffer).position(mark);
+    }
+    @Override
+    public void close() {
+        ((Buffer) byteBuffer).position(byteBuffer.limit());
+    }
+    @Override
+    public long skip(long amount) {
+        if(amount <= 0){
+            return 0;
+        }
+        int available = available();
+        if(amount > available){
+            amount = available;
+        }
+        ((Buffer) byteBuffer).position(byteBuffer.position() + (int) amount);
+        return amount;
+    }
+    @Override
+    public int read(byte[] bytes) {
+        return read(bytes, 0, bytes.length);
+    }
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+        if(length == 0){
+            return 0;
+        }
+        int available = available();
+        if(available <= 0){
+            return -1;
+        }
+        if(length > available){
+            length = available;
+        }
+        byteBuffer.get(bytes, offset, length);
+        return length;
+    }
+    @Override
+    public int read() {
+        if(available() <= 0){
+            return -1;
+        }
+        return byteBuffer.get() & 0xff;
+    }
+    @Override
+    public int available(){
+        return byteBuffer.remaining();
+    }
+}
@@ -502,6 +502,12 @@ public class InstructionList extends FixedBlockContainer implements
     @Override
     public void append(SmaliWriter writer) throws IOException {
         InsBlockList insBlockList = getInsBlockList();
+        // linking mutates the list, code items could be shared by classes written in parallel
+        synchronized (insBlockList) {
+            appendLinked(insBlockList, writer);
+        }
+    }
+    private void appendLinked(InsBlockList insBlockList, SmaliWriter writer) throws IOException {
         Object lock = insBlockList.linkLocked();
         writer.buildLabels(getCodeLabels());
         writer.setStateWritingInstructions(true);
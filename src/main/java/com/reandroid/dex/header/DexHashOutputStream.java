@@ -0,0 +1,65 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.dex.header;
+
+import com.reandroid.utils.ALDER32;
+import com.reandroid.utils.Sha1OutputStream;
+
+import java.io.IOException;
+
+/**
+ * Computes sha1 and alder32 of the bytes written after the signature in one pass,
+ * the signature resets this stream same as plain {@link Sha1OutputStream}
+ * */
+class DexHashOutputStream extends Sha1OutputStream {
+
+    private final ALDER32 alder32;
+    private long count;
+
+    DexHashOutputStream() {
+        super();
+        this.alder32 = new ALDER32();
+    }
+
+    long getAlder32() {
+        return alder32.getValue();
+    }
+    long getCount() {
+        return count;
+    }
+    @Override
+    public void reset() {
+        super.reset();
+        alder32.reset();
+        count = 0;
+    }
+    @Override
+    public void write(int i) throws IOException {
+        super.write(i);
+        alder32.update((byte) i);
+        count ++;
+    }
+    @Override
+    public void write(byte[] b) throws IOException {
+        write(b, 0, b.length);
+    }
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        super.write(b, off, len);
+        alder32.update(b, off, len);
+        count += len;
+    }
+}
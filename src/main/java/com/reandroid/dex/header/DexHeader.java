@@ -21,8 +21,10 @@ import com.reandroid.arsc.base.OffsetSupplier;
 import com.reandroid.arsc.io.BlockReader;
 import com.reandroid.arsc.item.IntegerItem;
 import com.reandroid.arsc.item.IntegerReference;
+import com.reandroid.dex.sections.DexLayoutBlock;
 import com.reandroid.dex.sections.SectionType;
 import com.reandroid.dex.sections.SpecialItem;
+import com.reandroid.utils.ALDER32;
 import com.reandroid.utils.io.FileUtil;
 
 import java.io.File;
@@ -199,6 +201,31 @@ public class DexHeader extends SpecialItem implements OffsetSupplier, DirectStre
         this.signature.update();
     }
 
+    /**
+     * Updates signature and checksum with a single write of the dex layout,
+     * returns true if the checksum is changed
+     * */
+    public boolean updateChecksumAndSignature() {
+        DexLayoutBlock dexLayoutBlock = getParentInstance(DexLayoutBlock.class);
+        if (dexLayoutBlock == null) {
+            return false;
+        }
+        DexHashOutputStream outputStream = new DexHashOutputStream();
+        try {
+            dexLayoutBlock.writeBytes(outputStream);
+        } catch (IOException exception) {
+            // will not reach here
+            throw new RuntimeException(exception);
+        }
+        this.signature.update(outputStream);
+        ALDER32 alder32 = new ALDER32();
+        alder32.update(this.signature.getBytes());
+        int previous = this.checksum.getValue();
+        this.checksum.setValue(ALDER32.combine(alder32.getValue(),
+                outputStream.getAlder32(), outputStream.getCount()));
+        return previous != this.checksum.getValue();
+    }
+
     @Override
     public String toString() {
         return "Header {" +
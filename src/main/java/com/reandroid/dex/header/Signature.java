@@ -42,6 +42,9 @@ public class Signature extends HeaderPiece {
         }
         outputStream.digest(getBytesInternal(), 0);
     }
+    void update(Sha1OutputStream outputStream) {
+        outputStream.digest(getBytesInternal(), 0);
+    }
 
     @Override
     protected int onWriteBytes(OutputStream stream) throws IOException {
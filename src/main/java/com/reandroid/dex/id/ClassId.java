@@ -432,15 +432,15 @@ public class ClassId extends IdItem implements ClassProgram,
         this.superClassId.pullItem();
         this.interfaces.pullItem();
         this.sourceFile.pullItem();
-        this.annotationsDirectory.pullItem();
-        this.classData.pullItem();
+        this.annotationsDirectory.pullItemOnDemand();
+        this.classData.pullItemOnDemand();
         this.staticValues.pullItem();
 
-        this.annotationsDirectory.addUniqueUser(this);
-        this.classData.addUniqueUser(this);
         this.staticValues.addUniqueUser(this);
 
-        linkClassData(this.classData.getItem());
+        if (!this.classData.isPending()) {
+            linkClassData(this.classData.getItem());
+        }
     }
     private void linkClassData(ClassData classData) {
         if (classData != null) {
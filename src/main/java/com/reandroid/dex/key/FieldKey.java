@@ -223,7 +223,7 @@ public class FieldKey extends NamedTypeKey implements MemberKey {
         if (declaring == null || name == null || type == null) {
             return null;
         }
-        return new FieldKey(declaring, name, type);
+        return KeyInterner.intern(new FieldKey(declaring, name, type));
     }
     public static FieldKey create(TypeKey declaring, StringKey name, TypeDescriptorKey type) {
         return create(declaring, name, (TypeKey) type);
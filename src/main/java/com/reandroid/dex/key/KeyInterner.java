@@ -0,0 +1,62 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.dex.key;
+
+import com.reandroid.utils.collection.WeakInternTable;
+
+/**
+ * Opt-in global interning of immutable keys ({@link TypeKey}, {@link StringKey},
+ * {@link ProtoKey}, {@link MethodKey} and {@link FieldKey}). When enabled, equal keys
+ * created by factory methods, dex readers and smali readers are the same instance, thus
+ * equality checks short-circuit on identity and dex files loaded together share their keys.
+ * Interned keys are weakly referenced and released once no dex model uses them.
+ * Thread safe, disabled by default.
+ * */
+public class KeyInterner {
+
+    private static volatile boolean sEnabled;
+    private static final WeakInternTable<Key> TABLE = new WeakInternTable<>();
+
+    private KeyInterner() {
+    }
+
+    public static boolean isEnabled() {
+        return sEnabled;
+    }
+    /**
+     * Enables/disables interning for keys created afterwards, existing keys are not affected.
+     * */
+    public static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+        if (!enabled) {
+            TABLE.clear();
+        }
+    }
+    /**
+     * Returns number of live interned keys
+     * */
+    public static int size() {
+        return TABLE.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T extends Key> T intern(T key) {
+        if (!sEnabled) {
+            return key;
+        }
+        return (T) TABLE.intern(key);
+    }
+}
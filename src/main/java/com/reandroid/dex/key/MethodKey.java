@@ -396,7 +396,7 @@ public class MethodKey extends NamedTypeKey implements MemberKey {
         if (declaring == null || name == null || protoKey == null) {
             return null;
         }
-        return new MethodKey(declaring, name, protoKey);
+        return KeyInterner.intern(new MethodKey(declaring, name, protoKey));
     }
     public static MethodKey create(TypeKey declaring, String name, Key protoKey) {
         return create(declaring, StringKey.create(name), (ProtoKey) protoKey);
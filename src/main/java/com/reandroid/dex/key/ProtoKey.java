@@ -231,7 +231,7 @@ public class ProtoKey implements ProtoDescriptorKey {
         if (typeListKey == null) {
             typeListKey = TypeListKey.empty();
         }
-        return new ProtoKey(typeListKey, returnType);
+        return KeyInterner.intern(new ProtoKey(typeListKey, returnType));
     }
     public static ProtoKey emptyParameters(TypeKey returnType) {
         return create(TypeListKey.empty(), returnType);
@@ -129,7 +129,7 @@ public class StringKey implements Key{
         if (text.length() == 0) {
             return EMPTY;
         }
-        return new StringKey(text);
+        return KeyInterner.intern(new StringKey(text));
     }
     public static StringKey parseQuotedString(String quotedString) {
         if (quotedString == null || quotedString.length() < 2) {
@@ -194,7 +194,7 @@ public class TypeKey implements TypeDescriptorKey, ProgramKey {
         if (dimension == getArrayDimension()) {
             return this;
         }
-        return new TypeKey(getArrayType(dimension));
+        return KeyInterner.intern(new TypeKey(getArrayType(dimension)));
     }
     public String getArrayType(int dimension) {
         return DexUtils.makeArrayType(getTypeName(), dimension);
@@ -433,7 +433,7 @@ public class TypeKey implements TypeDescriptorKey, ProgramKey {
         if (type.equals(child)) {
             return this;
         }
-        return new TypeKey(child);
+        return KeyInterner.intern(new TypeKey(child));
     }
     public Iterator<String> iteratePackageNames() {
         if (getTypeName().indexOf('/') < 0) {
@@ -672,7 +672,7 @@ public class TypeKey implements TypeDescriptorKey, ProgramKey {
             if (i == 1 || typeKey == null) {
                 return typeKey;
             }
-            return new TypeKey(typeName);
+            return KeyInterner.intern(new TypeKey(typeName));
         }
         length = length - 1;
         if (i >= length || typeName.charAt(length) != ';') {
@@ -786,7 +786,7 @@ public class TypeKey implements TypeDescriptorKey, ProgramKey {
                 return EXCEPTION;
             }
         }
-        return new TypeKey(name);
+        return KeyInterner.intern(new TypeKey(name));
     }
 
     public static boolean isPrimitive(char ch) {
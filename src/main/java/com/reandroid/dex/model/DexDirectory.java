@@ -39,6 +39,7 @@ import com.reandroid.utils.collection.CollectionUtil;
 import com.reandroid.utils.collection.EmptyList;
 import com.reandroid.utils.collection.FilterIterator;
 import com.reandroid.utils.collection.IterableIterator;
+import com.reandroid.utils.concurrent.WorkerPool;
 
 import java.io.Closeable;
 import java.io.File;
@@ -678,11 +679,16 @@ public class DexDirectory implements Iterable<DexFile>, Closeable,
     }
     public void writeSmali(SmaliWriterSetting writerSetting, File root,
                            Predicate<? super DexFile> predicate) throws IOException {
-        for (DexFile dexFile : this) {
-            if (predicate == null || predicate.evaluate(dexFile)) {
-                File dir = new File(root, dexFile.buildSmaliDirectoryName());
-                dexFile.writeSmali(writerSetting, dir);
+        WorkerPool workerPool = ParallelSmaliWriter.openSharedPool(writerSetting);
+        try {
+            for (DexFile dexFile : this) {
+                if (predicate == null || predicate.evaluate(dexFile)) {
+                    File dir = new File(root, dexFile.buildSmaliDirectoryName());
+                    dexFile.writeSmali(writerSetting, dir);
+                }
             }
+        } finally {
+            ParallelSmaliWriter.closeSharedPool(writerSetting, workerPool);
         }
     }
 
@@ -695,9 +701,18 @@ public class DexDirectory implements Iterable<DexFile>, Closeable,
         return fromZip(zipEntryMap, null);
     }
     public static DexDirectory fromZip(ZipEntryMap zipEntryMap, Predicate<SectionType<?>> readFilter) throws IOException {
+        return fromZip(zipEntryMap, readFilter, null);
+    }
+    /**
+     * Same as {@link #fromZip(ZipEntryMap, Predicate)} but parses the dex files in parallel
+     * on the given caller owned worker pool, null for sequential loading.
+     * */
+    public static DexDirectory fromZip(ZipEntryMap zipEntryMap, Predicate<SectionType<?>> readFilter,
+                                       WorkerPool workerPool) throws IOException {
         DexDirectory dexDirectory = new DexDirectory();
         DexFileSourceSet sourceSet = dexDirectory.getDexSourceSet();
         sourceSet.setReadFilter(readFilter);
+        sourceSet.setWorkerPool(workerPool);
         sourceSet.addAll(zipEntryMap);
         dexDirectory.updateDexFileList();
         return dexDirectory;
@@ -25,6 +25,7 @@ import com.reandroid.utils.CompareUtil;
 import com.reandroid.utils.ObjectsUtil;
 import com.reandroid.utils.collection.ArrayCollection;
 import com.reandroid.utils.collection.IterableIterator;
+import com.reandroid.utils.concurrent.WorkerPool;
 import com.reandroid.utils.io.FileUtil;
 
 import java.io.*;
@@ -250,6 +251,15 @@ public class DexFile implements Closeable, DexClassRepository, Iterable<DexLayou
         }
         return getContainerBlock().getBytes();
     }
+    /**
+     * See {@link DexContainerBlock#setLazyRead(boolean)}
+     * */
+    public void setLazyRead(boolean lazyRead) {
+        getContainerBlock().setLazyRead(lazyRead);
+    }
+    public boolean isLazyRead() {
+        return getContainerBlock().isLazyRead();
+    }
     public void readBytes(BlockReader reader) throws IOException {
         getContainerBlock().readBytes(reader);
     }
@@ -274,12 +284,17 @@ public class DexFile implements Closeable, DexClassRepository, Iterable<DexLayou
         }
         List<File> layoutDir = listSmaliLayouts(dir);
         if (layoutDir != null) {
-            int size = layoutDir.size();
-            for (int i = 0; i < size; i++) {
-                File file = layoutDir.get(i);
-                DexLayout layout = getOrCreateAt(i);
-                layout.parseSmaliDirectory(readerSetting, file);
-                shrink();
+            WorkerPool workerPool = ParallelSmaliReader.openSharedPool(readerSetting);
+            try {
+                int size = layoutDir.size();
+                for (int i = 0; i < size; i++) {
+                    File file = layoutDir.get(i);
+                    DexLayout layout = getOrCreateAt(i);
+                    layout.parseSmaliDirectory(readerSetting, file);
+                    shrink();
+                }
+            } finally {
+                ParallelSmaliReader.closeSharedPool(readerSetting, workerPool);
             }
         } else {
             getOrCreateFirst().parseSmaliDirectory(readerSetting, dir);
@@ -316,12 +331,17 @@ public class DexFile implements Closeable, DexClassRepository, Iterable<DexLayou
                 first.writeSmali(writerSetting, root);
             }
         } else {
-            int size = size();
-            for (int i = 0; i < size; i++) {
-                DexLayout dexLayout = getLayout(i);
-                String name = DexLayout.DIRECTORY_PREFIX + i;
-                File dir = new File(root, name);
-                dexLayout.writeSmali(writerSetting, dir);
+            WorkerPool workerPool = ParallelSmaliWriter.openSharedPool(writerSetting);
+            try {
+                int size = size();
+                for (int i = 0; i < size; i++) {
+                    DexLayout dexLayout = getLayout(i);
+                    String name = DexLayout.DIRECTORY_PREFIX + i;
+                    File dir = new File(root, name);
+                    dexLayout.writeSmali(writerSetting, dir);
+                }
+            } finally {
+                ParallelSmaliWriter.closeSharedPool(writerSetting, workerPool);
             }
         }
     }
@@ -516,8 +536,24 @@ public class DexFile implements Closeable, DexClassRepository, Iterable<DexLayou
         return read(new BlockReader(inputStream), filter);
     }
     public static DexFile read(BlockReader reader, Predicate<SectionType<?>> filter) throws IOException {
+        return read(reader, filter, false);
+    }
+    public static DexFile read(BlockReader reader, Predicate<SectionType<?>> filter, boolean lazyRead) throws IOException {
         DexFile dexFile = new DexFile(new DexContainerBlock());
+        dexFile.setLazyRead(lazyRead);
         dexFile.readBytes(reader, filter);
         return dexFile;
     }
+
+    public static DexFile readLazy(byte[] dexBytes) throws IOException {
+        return readLazy(new BlockReader(dexBytes));
+    }
+    public static DexFile readLazy(File file) throws IOException {
+        DexFile dexFile = readLazy(new BlockReader(file));
+        dexFile.setSimpleName(file.getName());
+        return dexFile;
+    }
+    public static DexFile readLazy(BlockReader reader) throws IOException {
+        return read(reader, null, true);
+    }
 }
@@ -17,15 +17,21 @@ package com.reandroid.dex.model;
 
 import com.reandroid.archive.InputSource;
 import com.reandroid.archive.ZipEntryMap;
+import com.reandroid.arsc.io.BlockReader;
 import com.reandroid.dex.sections.SectionType;
 import com.reandroid.utils.CompareUtil;
 import com.reandroid.utils.collection.ArrayCollection;
 import com.reandroid.utils.collection.ComputeIterator;
+import com.reandroid.utils.concurrent.WorkerPool;
+import com.reandroid.utils.io.IOUtil;
 
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 import org.apache.commons.collections4.Predicate;
 
 public class DexFileSourceSet implements Iterable<DexSource<DexFile>>, Closeable {
@@ -33,6 +39,9 @@ public class DexFileSourceSet implements Iterable<DexSource<DexFile>>, Closeable
     private final ArrayCollection<DexSource<DexFile>> sourceList;
     private ZipEntryMap zipEntryMap;
     private Predicate<SectionType<?>> readFilter;
+    private int parallelism;
+    private WorkerPool workerPool;
+    private boolean lazyRead;
 
     public DexFileSourceSet(){
         this.sourceList = new ArrayCollection<>();
@@ -52,6 +61,40 @@ public class DexFileSourceSet implements Iterable<DexSource<DexFile>>, Closeable
         this.readFilter = readFilter;
     }
 
+    /**
+     * See {@link DexFile#setLazyRead(boolean)}
+     * */
+    public void setLazyRead(boolean lazyRead) {
+        this.lazyRead = lazyRead;
+    }
+    public boolean isLazyRead() {
+        return lazyRead;
+    }
+
+    /**
+     * Sets number of threads used to parse dex files on addAll, the resulting files are
+     * identical and in the same order as sequential mode. Values less than 2 disables parallel mode.
+     * */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+    public int getParallelism() {
+        WorkerPool workerPool = this.workerPool;
+        if(workerPool != null){
+            return workerPool.getParallelism();
+        }
+        return parallelism;
+    }
+    /**
+     * Sets caller owned worker pool, it is not shut down after loading
+     * */
+    public void setWorkerPool(WorkerPool workerPool) {
+        this.workerPool = workerPool;
+    }
+    public WorkerPool getWorkerPool() {
+        return workerPool;
+    }
+
     public void merge(DexFileSourceSet sourceSet){
         if(sourceSet == this){
             throw new IllegalArgumentException("Cyclic merge");
@@ -150,8 +193,25 @@ public class DexFileSourceSet implements Iterable<DexSource<DexFile>>, Closeable
         addAll(zipEntryMap, zipEntryMap.iterator(filter));
     }
     public void addAll(ZipEntryMap zipEntryMap, Iterator<InputSource> iterator) throws IOException {
+        List<DexSource<DexFile>> sourceList = new ArrayCollection<>();
         while (iterator.hasNext()){
-            add(zipEntryMap, iterator.next().getAlias());
+            sourceList.add(DexSource.create(zipEntryMap, iterator.next().getAlias()));
+        }
+        if(sourceList.isEmpty()){
+            return;
+        }
+        addAll(sourceList);
+        if(getZipEntryMap() == null){
+            setZipEntryMap(zipEntryMap);
+        }
+    }
+    /**
+     * Loads and adds all sources, on parallel mode each dex file is parsed on its own worker
+     */
+    public void addAll(List<DexSource<DexFile>> sourceList) throws IOException {
+        loadAll(sourceList);
+        for(DexSource<DexFile> source : sourceList){
+            add(source);
         }
     }
     public void add(ZipEntryMap zipEntryMap, InputSource inputSource) throws IOException {
@@ -181,6 +241,7 @@ public class DexFileSourceSet implements Iterable<DexSource<DexFile>>, Closeable
         if(files == null){
             return;
         }
+        List<DexSource<DexFile>> sourceList = new ArrayCollection<>();
         for(File file : files){
             if(!file.isFile()){
                 continue;
@@ -188,8 +249,9 @@ public class DexFileSourceSet implements Iterable<DexSource<DexFile>>, Closeable
             if(DexFile.getDexFileNumber(file.getName()) < 0){
                 continue;
             }
-            add(file);
+            sourceList.add(DexSource.create(file));
         }
+        addAll(sourceList);
     }
     public DexSource<DexFile> add(File file) throws IOException {
         return add(DexSource.create(file));
@@ -272,12 +334,66 @@ public class DexFileSourceSet implements Iterable<DexSource<DexFile>>, Closeable
         sourceList.clear();
     }
 
+    private void loadAll(List<DexSource<DexFile>> sourceList) throws IOException {
+        int size = sourceList.size();
+        if(size < 2){
+            return;
+        }
+        WorkerPool workerPool = this.workerPool;
+        int parallelism = getParallelism();
+        if(parallelism < 2){
+            return;
+        }
+        boolean ownPool = workerPool == null;
+        if(ownPool){
+            workerPool = WorkerPool.create(Math.min(parallelism, size), "dex-reader");
+        }
+        Future<?>[] futures = new Future<?>[size];
+        try {
+            for(int i = 0; i < size; i++){
+                DexSource<DexFile> source = sourceList.get(i);
+                if(source.get() == null){
+                    futures[i] = workerPool.submit(createReader(source));
+                }
+            }
+            for(int i = 0; i < size; i++){
+                @SuppressWarnings("unchecked")
+                Future<DexFile> future = (Future<DexFile>) futures[i];
+                if(future == null){
+                    continue;
+                }
+                DexSource<DexFile> source = sourceList.get(i);
+                DexFile dexFile = WorkerPool.await(future);
+                futures[i] = null;
+                source.set(dexFile);
+                dexFile.setSimpleName(source.getSimpleName());
+            }
+        } finally {
+            WorkerPool.cancel(futures);
+            if(ownPool){
+                workerPool.close();
+            }
+        }
+    }
+    /**
+     * Sources that can not be read concurrently are read on the calling thread,
+     * only the parsing is done by the worker
+     * */
+    private Callable<DexFile> createReader(DexSource<DexFile> source) throws IOException {
+        Predicate<SectionType<?>> readFilter = getReadFilter();
+        boolean lazyRead = isLazyRead();
+        if(source.isThreadSafe()){
+            return () -> DexFile.read(new BlockReader(source.openStream()), readFilter, lazyRead);
+        }
+        byte[] bytes = IOUtil.readFully(source.openStream());
+        return () -> DexFile.read(new BlockReader(bytes), readFilter, lazyRead);
+    }
     private void load(DexSource<DexFile> dexSource) throws IOException {
         DexFile dexFile = dexSource.get();
         if (dexFile != null) {
             return;
         }
-        dexFile = DexFile.read(dexSource.openStream(), getReadFilter());
+        dexFile = DexFile.read(new BlockReader(dexSource.openStream()), getReadFilter(), isLazyRead());
         dexSource.set(dexFile);
         dexFile.setSimpleName(dexSource.getSimpleName());
     }
@@ -291,11 +291,15 @@ public class DexLayout implements DexClassModule, Closeable,
             throw new FileNotFoundException("No such directory: " + dir);
         }
         FileIterator iterator = new FileIterator(dir, FileIterator.getExtensionFilter(".smali"));
+        if (readerSetting != null && readerSetting.getParallelism() > 1) {
+            ParallelSmaliReader.read(CollectionUtil.toList(iterator), readerSetting, this::internSmali);
+            sort();
+            shrink();
+            return;
+        }
         FileByteSource byteSource = new FileByteSource();
         SmaliReader reader = new SmaliReader(byteSource);
         reader.setReaderSetting(readerSetting);
-        DexLayoutBlock layout = getDexLayoutBlock();
-        Section<ClassId> classIdSection = null;
         while (iterator.hasNext()) {
             reader.reset();
             File file = iterator.next();
@@ -303,18 +307,19 @@ public class DexLayout implements DexClassModule, Closeable,
             reader.setOrigin(Origin.createNew(file));
             SmaliClass smaliClass = new SmaliClass();
             smaliClass.parse(reader);
-            if (classIdSection == null) {
-                classIdSection = getSection(SectionType.CLASS_ID);
-            }
-            if (classIdSection != null && classIdSection.contains(smaliClass.getKey())) {
-                throw new IOException(smaliClass.getOrigin() + " Class: "
-                        + smaliClass.getKey() + " has already been interned");
-            }
-            layout.fromSmali(smaliClass);
+            internSmali(smaliClass);
         }
         sort();
         shrink();
     }
+    private void internSmali(SmaliClass smaliClass) throws IOException {
+        Section<ClassId> classIdSection = getSection(SectionType.CLASS_ID);
+        if (classIdSection != null && classIdSection.contains(smaliClass.getKey())) {
+            throw new IOException(smaliClass.getOrigin() + " Class: "
+                    + smaliClass.getKey() + " has already been interned");
+        }
+        getDexLayoutBlock().fromSmali(smaliClass);
+    }
 
     public void parseSmaliFile(File file) throws IOException {
         requireNotClosed();
@@ -355,6 +360,16 @@ public class DexLayout implements DexClassModule, Closeable,
     public void writeSmali(SmaliWriterSetting writerSetting, File root) throws IOException {
         SmaliFileNameFactory fileNameFactory = new SmaliFileNameFactory(root);
         Iterator<ClassId> iterator = getItems(SectionType.CLASS_ID);
+        if (writerSetting != null && writerSetting.getParallelism() > 1) {
+            ClassId[] classIds = CollectionUtil.toList(iterator).toArray(new ClassId[0]);
+            int length = classIds.length;
+            File[] files = new File[length];
+            for (int i = 0; i < length; i++) {
+                files[i] = fileNameFactory.getUniqueFilenameForClass(classIds[i].getKey());
+            }
+            ParallelSmaliWriter.write(this, writerSetting, classIds, files);
+            return;
+        }
         while (iterator.hasNext()) {
             ClassId classId = iterator.next();
             SmaliWriter writer = new SmaliWriter(writerSetting);
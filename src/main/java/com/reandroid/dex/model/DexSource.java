@@ -33,6 +33,13 @@ public interface DexSource<T> extends Comparable<DexSource<?>>, Closeable{
     @Override
     void close() throws IOException;
     boolean isClosed();
+    /**
+     * Returns true if {@link #openStream()} can be read from a worker thread while other
+     * sources of the same container are being read
+     * */
+    default boolean isThreadSafe(){
+        return false;
+    }
 
     default int getDexFileNumber(){
         return DexFile.getDexFileNumber(getName());
@@ -166,6 +173,10 @@ public interface DexSource<T> extends Comparable<DexSource<?>>, Closeable{
             }
             return new FileInputStream(getFile());
         }
+        @Override
+        public boolean isThreadSafe() {
+            return true;
+        }
 
         @Override
         public void write(byte[] bytes) throws IOException {
@@ -246,6 +257,11 @@ public interface DexSource<T> extends Comparable<DexSource<?>>, Closeable{
             return inputSource.openStream();
         }
         @Override
+        public boolean isThreadSafe() {
+            InputSource inputSource = zipEntryMap.getInputSource(getName());
+            return inputSource != null && inputSource.isThreadSafe();
+        }
+        @Override
         public void write(byte[] bytes) throws IOException {
             if(isClosed()){
                 throw new IOException("Closed: " + getName());
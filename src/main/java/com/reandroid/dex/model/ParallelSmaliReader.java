@@ -0,0 +1,131 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.dex.model;
+
+import com.reandroid.common.Origin;
+import com.reandroid.dex.smali.SmaliReader;
+import com.reandroid.dex.smali.SmaliReaderSetting;
+import com.reandroid.dex.smali.model.SmaliClass;
+import com.reandroid.utils.concurrent.WorkerPool;
+import com.reandroid.utils.io.FileByteSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * Parses smali files to {@link SmaliClass} models using worker threads. Files are split
+ * into batches, each batch is parsed by one worker with its own reader. Batches are
+ * returned in file order and only a limited number of them are kept in memory at once.
+ * */
+class ParallelSmaliReader {
+
+    private final List<File> fileList;
+    private final SmaliReaderSetting readerSetting;
+    private final WorkerPool workerPool;
+    private final Future<?>[] pending;
+    private int nextBatch;
+
+    private ParallelSmaliReader(List<File> fileList, SmaliReaderSetting readerSetting, WorkerPool workerPool) {
+        this.fileList = fileList;
+        this.readerSetting = readerSetting;
+        this.workerPool = workerPool;
+        this.pending = new Future<?>[workerPool.getParallelism() * 2];
+    }
+
+    private void read(Consumer consumer) throws IOException {
+        int batches = (fileList.size() + BATCH_SIZE - 1) / BATCH_SIZE;
+        Future<?>[] pending = this.pending;
+        int window = pending.length;
+        try {
+            for (int i = 0; i < batches; i++) {
+                while (nextBatch < batches && nextBatch < i + window) {
+                    submit(nextBatch);
+                    nextBatch ++;
+                }
+                int slot = i % window;
+                SmaliClass[] results = (SmaliClass[]) WorkerPool.await(pending[slot]);
+                pending[slot] = null;
+                for (SmaliClass smaliClass : results) {
+                    consumer.accept(smaliClass);
+                }
+            }
+        } finally {
+            WorkerPool.cancel(pending);
+        }
+    }
+    private void submit(int batch) {
+        int start = batch * BATCH_SIZE;
+        int end = Math.min(start + BATCH_SIZE, fileList.size());
+        pending[batch % pending.length] = workerPool.submit(() -> parse(start, end));
+    }
+    private SmaliClass[] parse(int start, int end) throws IOException {
+        FileByteSource byteSource = new FileByteSource();
+        SmaliReader reader = new SmaliReader(byteSource);
+        reader.setReaderSetting(readerSetting);
+        SmaliClass[] results = new SmaliClass[end - start];
+        for (int i = start; i < end; i++) {
+            File file = fileList.get(i);
+            reader.reset();
+            byteSource.setFile(file);
+            reader.setOrigin(Origin.createNew(file));
+            SmaliClass smaliClass = new SmaliClass();
+            smaliClass.parse(reader);
+            results[i - start] = smaliClass;
+        }
+        return results;
+    }
+
+    static void read(List<File> fileList, SmaliReaderSetting readerSetting, Consumer consumer) throws IOException {
+        WorkerPool workerPool = readerSetting.getWorkerPool();
+        boolean ownPool = workerPool == null;
+        if (ownPool) {
+            workerPool = WorkerPool.create(readerSetting.getParallelism(), "smali");
+        }
+        try {
+            new ParallelSmaliReader(fileList, readerSetting, workerPool).read(consumer);
+        } finally {
+            if (ownPool) {
+                workerPool.close();
+            }
+        }
+    }
+    /**
+     * Creates a pool shared by all layouts of a dex file, returns null if not required
+     * */
+    static WorkerPool openSharedPool(SmaliReaderSetting readerSetting) {
+        if (readerSetting == null || readerSetting.getWorkerPool() != null
+                || readerSetting.getParallelism() < 2) {
+            return null;
+        }
+        WorkerPool workerPool = WorkerPool.create(readerSetting.getParallelism(), "smali");
+        readerSetting.setWorkerPool(workerPool);
+        return workerPool;
+    }
+    static void closeSharedPool(SmaliReaderSetting readerSetting, WorkerPool workerPool) {
+        if (workerPool != null) {
+            readerSetting.setWorkerPool(null);
+            workerPool.close();
+        }
+    }
+
+    interface Consumer {
+        void accept(SmaliClass smaliClass) throws IOException;
+    }
+
+    private static final int BATCH_SIZE = 64;
+}
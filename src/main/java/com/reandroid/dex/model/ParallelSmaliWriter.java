@@ -0,0 +1,147 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.dex.model;
+
+import com.reandroid.dex.id.ClassId;
+import com.reandroid.dex.sections.Section;
+import com.reandroid.dex.sections.SectionType;
+import com.reandroid.dex.smali.SmaliWriter;
+import com.reandroid.dex.smali.SmaliWriterSetting;
+import com.reandroid.utils.concurrent.WorkerPool;
+import com.reandroid.utils.io.FileUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes smali files of classes using worker threads, each worker reuses its own
+ * {@link SmaliWriter} and buffer. File names are resolved by the caller in class order,
+ * thus the output is identical to sequential mode.
+ * */
+class ParallelSmaliWriter {
+
+    private final ClassId[] classIds;
+    private final File[] files;
+    private final SmaliWriterSetting writerSetting;
+    private final AtomicInteger nextIndex;
+
+    private ParallelSmaliWriter(ClassId[] classIds, File[] files, SmaliWriterSetting writerSetting) {
+        this.classIds = classIds;
+        this.files = files;
+        this.writerSetting = writerSetting;
+        this.nextIndex = new AtomicInteger();
+    }
+
+    private void write(WorkerPool workerPool) throws IOException {
+        int count = Math.min(workerPool.getParallelism(), classIds.length);
+        Future<?>[] futures = new Future<?>[count];
+        try {
+            for (int i = 0; i < count; i++) {
+                futures[i] = workerPool.submit(() -> {
+                    writeNext();
+                    return null;
+                });
+            }
+            for (int i = 0; i < count; i++) {
+                WorkerPool.await(futures[i]);
+                futures[i] = null;
+            }
+        } finally {
+            WorkerPool.cancel(futures);
+        }
+    }
+    private void writeNext() throws IOException {
+        SmaliWriter writer = new SmaliWriter(writerSetting);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        int length = classIds.length;
+        int i;
+        while ((i = nextIndex.getAndIncrement()) < length) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            buffer.reset();
+            writer.setWriter(buffer);
+            classIds[i].append(writer);
+            writer.close();
+            OutputStream outputStream = FileUtil.outputStream(files[i]);
+            try {
+                buffer.writeTo(outputStream);
+            } finally {
+                outputStream.close();
+            }
+        }
+    }
+
+    static void write(DexLayout dexLayout, SmaliWriterSetting writerSetting,
+                      ClassId[] classIds, File[] files) throws IOException {
+        prepare(dexLayout, classIds);
+        WorkerPool workerPool = writerSetting.getWorkerPool();
+        boolean ownPool = workerPool == null;
+        if (ownPool) {
+            workerPool = WorkerPool.create(writerSetting.getParallelism(), "smali");
+        }
+        try {
+            new ParallelSmaliWriter(classIds, files, writerSetting).write(workerPool);
+        } finally {
+            if (ownPool) {
+                workerPool.close();
+            }
+        }
+    }
+    /**
+     * Creates a pool shared by all layouts of a directory, returns null if not required
+     * */
+    static WorkerPool openSharedPool(SmaliWriterSetting writerSetting) {
+        if (writerSetting == null || writerSetting.getWorkerPool() != null
+                || writerSetting.getParallelism() < 2) {
+            return null;
+        }
+        WorkerPool workerPool = WorkerPool.create(writerSetting.getParallelism(), "smali");
+        writerSetting.setWorkerPool(workerPool);
+        return workerPool;
+    }
+    static void closeSharedPool(SmaliWriterSetting writerSetting, WorkerPool workerPool) {
+        if (workerPool != null) {
+            writerSetting.setWorkerPool(null);
+            workerPool.close();
+        }
+    }
+    /**
+     * Completes lazy initializations that would otherwise race between workers:
+     * lazily read class data and class lookup pools used by comments.
+     * */
+    private static void prepare(DexLayout dexLayout, ClassId[] classIds) {
+        for (ClassId classId : classIds) {
+            classId.getClassData();
+            classId.getAnnotationsDirectory();
+        }
+        Iterator<DexClassModule> iterator = dexLayout.getRootRepository().modules();
+        while (iterator.hasNext()) {
+            DexClassModule module = iterator.next();
+            if (module instanceof DexLayout) {
+                Section<ClassId> section = ((DexLayout) module).getSection(SectionType.CLASS_ID);
+                if (section != null) {
+                    section.getPool();
+                }
+            }
+        }
+    }
+}
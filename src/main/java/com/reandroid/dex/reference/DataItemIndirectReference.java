@@ -21,6 +21,8 @@ import com.reandroid.dex.common.SectionItem;
 import com.reandroid.dex.base.UsageMarker;
 import com.reandroid.dex.data.DataItem;
 import com.reandroid.dex.key.Key;
+import com.reandroid.dex.sections.DataSection;
+import com.reandroid.dex.sections.Section;
 import com.reandroid.dex.sections.SectionType;
 
 public class DataItemIndirectReference<T extends DataItem> extends IndirectItem<SectionItem>
@@ -30,6 +32,7 @@ public class DataItemIndirectReference<T extends DataItem> extends IndirectItem<
     private final int usageType;
 
     private T item;
+    private boolean pending;
 
     public DataItemIndirectReference(SectionType<T> sectionType, SectionItem blockItem, int offset, int usageType) {
         super(blockItem, offset);
@@ -39,6 +42,9 @@ public class DataItemIndirectReference<T extends DataItem> extends IndirectItem<
 
     @Override
     public T getItem() {
+        if(pending) {
+            resolvePending();
+        }
         T item = this.item;
         if(item != null) {
             T replace = item.getReplace();
@@ -69,6 +75,7 @@ public class DataItemIndirectReference<T extends DataItem> extends IndirectItem<
             value = item.getIdx();
         }
         set(value);
+        this.pending = false;
         this.item = item;
         updateItemUsage();
     }
@@ -90,6 +97,7 @@ public class DataItemIndirectReference<T extends DataItem> extends IndirectItem<
     }
     @Override
     public void pullItem(){
+        this.pending = false;
         int i = get();
         T item;
         if(i == 0){
@@ -114,8 +122,37 @@ public class DataItemIndirectReference<T extends DataItem> extends IndirectItem<
         set(value);
         updateItemUsage();
     }
+    /**
+     * Same as {@link #pullItem()} but defers it to the first {@link #getItem()} call if the
+     * target section is not read yet (lazy read), then the item gets this block as unique user.
+     * */
+    public void pullItemOnDemand(){
+        int i = get();
+        if(i != 0 && isLazySection()){
+            this.item = null;
+            this.pending = true;
+        }else {
+            pullItem();
+            addUniqueUser(getBlockItem());
+        }
+    }
+    public boolean isPending() {
+        return pending;
+    }
+    private void resolvePending(){
+        pullItem();
+        T item = this.item;
+        if(item != null){
+            item.addUniqueUser(getBlockItem());
+        }
+    }
+    private boolean isLazySection(){
+        Section<T> section = getBlockItem().getSection(getSectionType());
+        return section instanceof DataSection && ((DataSection<T>) section).isLazy();
+    }
     @Override
     public void unlink(){
+        this.pending = false;
         this.item = null;
         set(0);
     }
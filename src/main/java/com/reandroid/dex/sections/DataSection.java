@@ -15,6 +15,7 @@
  */
 package com.reandroid.dex.sections;
 
+import com.reandroid.arsc.item.IntegerReference;
 import com.reandroid.dex.base.IntegerPair;
 import com.reandroid.dex.data.DataItem;
 import com.reandroid.dex.pool.DexSectionPool;
@@ -34,7 +35,41 @@ public class DataSection<T extends DataItem> extends Section<T> {
     }
     @Override
     public T getSectionItem(int offset){
-        return getItemArray().getAt(offset);
+        return getDataArray().getAt(offset);
+    }
+    @Override
+    public int getCount() {
+        DataSectionArray<T> array = getDataArray();
+        if (array.isLazy()) {
+            return array.getLazyCount();
+        }
+        return array.getCount();
+    }
+    @Override
+    public IntegerReference getOffsetReference() {
+        return getDataArray().getOffsetReference();
+    }
+    @Override
+    public IntegerPair getCountAndOffset() {
+        return getDataArray().getCountAndOffset();
+    }
+    @Override
+    public void addCountAndOffset(IntegerPair countAndOffset) {
+        getDataArray().addCountAndOffset(countAndOffset);
+    }
+    /**
+     * Returns true if some of the items are not read yet, see {@link DexContainerBlock#setLazyRead(boolean)}
+     * */
+    public boolean isLazy() {
+        return getDataArray().isLazy();
+    }
+    boolean loadLazy() {
+        DataSectionArray<T> array = getDataArray();
+        if (array.isLazy()) {
+            array.loadAll();
+            return true;
+        }
+        return false;
     }
 
     public T createItem() {
@@ -54,6 +89,17 @@ public class DataSection<T extends DataItem> extends Section<T> {
     }
     @Override
     public DataSectionArray<T> getItemArray() {
+        DataSectionArray<T> array = getDataArray();
+        if (array.isLazy()) {
+            SectionList sectionList = getSectionList();
+            if (sectionList != null) {
+                sectionList.loadLazySections();
+            }
+            array.loadAll();
+        }
+        return array;
+    }
+    private DataSectionArray<T> getDataArray() {
         return (DataSectionArray<T>) super.getItemArray();
     }
 
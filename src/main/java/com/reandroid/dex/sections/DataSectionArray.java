@@ -18,13 +18,19 @@ package com.reandroid.dex.sections;
 import com.reandroid.arsc.base.Creator;
 import com.reandroid.arsc.io.BlockReader;
 import com.reandroid.arsc.item.IntegerReference;
+import com.reandroid.dex.base.DexException;
 import com.reandroid.dex.base.IntegerPair;
 import com.reandroid.dex.data.DataItem;
+import com.reandroid.utils.collection.IntMap;
 
 import java.io.IOException;
+import java.io.OutputStream;
 
 public class DataSectionArray<T extends DataItem> extends SectionArray<T> {
 
+    private BlockReader lazyReader;
+    private IntMap<Integer> lazyEndPositions;
+
     public DataSectionArray(IntegerPair countAndOffset, Creator<T> creator) {
         super(countAndOffset, creator);
     }
@@ -35,6 +41,9 @@ public class DataSectionArray<T extends DataItem> extends SectionArray<T> {
         }
         T item = binaryOffsetSearch(offset);
         if (item == null) {
+            if (isLazy()) {
+                return readLazy(offset);
+            }
             // should not reach here
             // un ordered offset entries or the offset does not exist
             item = lazyOffsetSearch(offset);
@@ -42,6 +51,141 @@ public class DataSectionArray<T extends DataItem> extends SectionArray<T> {
         return item;
     }
 
+    /**
+     * Returns true if items are not read yet, only the items looked up by
+     * {@link #getAt(int)} are read until {@link #loadAll()}
+     * */
+    public boolean isLazy() {
+        return lazyReader != null;
+    }
+    @Override
+    public void onReadBytes(BlockReader reader) throws IOException {
+        SectionList sectionList = getParentInstance(SectionList.class);
+        Section<T> section = getParentSection();
+        if (sectionList != null && section != null && getLazyCount() != 0
+                && sectionList.isLazyRead(section.getSectionType())) {
+            setLazyReader(reader.create(0, reader.length()));
+            return;
+        }
+        super.onReadBytes(reader);
+    }
+    int getLazyCount() {
+        return getCountAndOffset().getFirst().get();
+    }
+    void setLazyReader(BlockReader reader) {
+        this.lazyReader = reader;
+        this.lazyEndPositions = new IntMap<>();
+    }
+    private T readLazy(int offset) {
+        BlockReader reader = this.lazyReader;
+        int start = getOffsetReference().get();
+        if (offset < start || offset >= reader.length()) {
+            return null;
+        }
+        int index = binaryOffsetIndex(offset);
+        if (index >= 0) {
+            return get(index);
+        }
+        T item = newInstance();
+        item.setPosition(offset);
+        add(-(index + 1), item);
+        SectionList sectionList = getParentInstance(SectionList.class);
+        boolean reading = sectionList != null && sectionList.setReading(true);
+        int position = reader.getPosition();
+        try {
+            reader.seek(offset);
+            readChild(reader, item);
+            lazyEndPositions.put(offset, reader.getPosition());
+        } catch (IOException exception) {
+            throw new DexException("Failed to read " + item.getClass().getSimpleName()
+                    + " at offset " + offset, exception);
+        } finally {
+            reader.seek(position);
+            if (sectionList != null) {
+                sectionList.setReading(reading);
+            }
+        }
+        return item;
+    }
+    /**
+     * Reads all the remaining items in file order, already read items are kept
+     * */
+    void loadAll() {
+        BlockReader reader = this.lazyReader;
+        if (reader == null) {
+            return;
+        }
+        IntMap<Integer> endPositions = this.lazyEndPositions;
+        this.lazyReader = null;
+        this.lazyEndPositions = null;
+        int count = getLazyCount();
+        @SuppressWarnings("unchecked")
+        T[] elements = (T[]) new DataItem[count];
+        int loaded = size();
+        int next = 0;
+        SectionList sectionList = getParentInstance(SectionList.class);
+        boolean reading = sectionList != null && sectionList.setReading(true);
+        try {
+            reader.seek(getOffsetReference().get());
+            for (int i = 0; i < count; i++) {
+                int position = reader.getPosition();
+                T item = next < loaded ? get(next) : null;
+                if (item != null && item.getOffset() == position) {
+                    next ++;
+                    reader.seek(endPositions.get(position));
+                } else {
+                    item = newInstance();
+                    item.setIndex(i);
+                    item.setParent(this);
+                    readChild(reader, item);
+                }
+                elements[i] = item;
+            }
+        } catch (IOException exception) {
+            throw new DexException("Failed to read section: " + getParentSection(), exception);
+        } finally {
+            if (sectionList != null) {
+                sectionList.setReading(reading);
+            }
+        }
+        setElements(elements);
+    }
+    @Override
+    protected int onWriteBytes(OutputStream stream) throws IOException {
+        loadAll();
+        return super.onWriteBytes(stream);
+    }
+    @Override
+    public int countBytes() {
+        loadAll();
+        return super.countBytes();
+    }
+    @Override
+    protected void onPreRefresh() {
+        loadAll();
+        super.onPreRefresh();
+    }
+
+    /**
+     * Returns index of item with the given offset, or (-(insertion point) - 1)
+     * */
+    private int binaryOffsetIndex(int offset) {
+        int start = 0;
+        int end = size() - 1;
+        while (end >= start) {
+            int mid = start + ((end - start) / 2);
+            int test = get(mid).getOffset();
+            if (test == offset) {
+                return mid;
+            }
+            if (test < offset) {
+                start = mid + 1;
+            } else {
+                end = mid - 1;
+            }
+        }
+        return -(start + 1);
+    }
     private T binaryOffsetSearch(int offset) {
         // Assumed all entries are ordered in ascending offset
         int start = 0;
@@ -40,6 +40,7 @@ public class DexContainerBlock extends BlockList<DexLayoutBlock> implements
     private String mSimpleName;
 
     private boolean mReading;
+    private boolean mLazyRead;
 
     public DexContainerBlock() {
         super();
@@ -248,9 +249,18 @@ public class DexContainerBlock extends BlockList<DexLayoutBlock> implements
         while (reader.isAvailable()) {
             createNext().readBytes(reader, filter);
         }
+        if (size() > 1) {
+            // shared sections are moved across layouts, thus lazy offsets are no longer valid
+            loadLazySections();
+        }
         transferSharedToLast();
         mReading = false;
     }
+    void loadLazySections() {
+        for (DexLayoutBlock layoutBlock : this) {
+            layoutBlock.getSectionList().loadLazySections();
+        }
+    }
     private void transferSharedToLast() {
         int size = size() - 1;
         if (size < 1) {
@@ -290,6 +300,22 @@ public class DexContainerBlock extends BlockList<DexLayoutBlock> implements
     public boolean isReading() {
         return mReading;
     }
+    boolean setReading(boolean reading) {
+        boolean previous = this.mReading;
+        this.mReading = reading;
+        return previous;
+    }
+    /**
+     * When enabled, subsequent reads decode only header, map list and id sections; class data,
+     * code, debug info and annotation items are decoded on first access. Any full-section access
+     * (iterating, modifying, refreshing or writing) decodes all the remaining items.
+     * */
+    public void setLazyRead(boolean lazyRead) {
+        this.mLazyRead = lazyRead;
+    }
+    public boolean isLazyRead() {
+        return mLazyRead;
+    }
 
     public int getVersion() {
         DexLayoutBlock first = getFirst();
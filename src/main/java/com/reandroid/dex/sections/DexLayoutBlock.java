@@ -156,34 +156,28 @@ public class DexLayoutBlock extends FixedBlockContainer implements FullRefresh {
     }
     @Override
     protected void onRefreshed() {
+        this.refreshUntilStable();
         this.updateChecksumAndSignature();
     }
-
-    // Updating checksum/signature is expensive operation, but
-    // checksum (alder32) is a lot faster than signature (sha1), thus our logic is:
-    //   * Update checksum, if the value changes then repeat with refresh
-    //   * If checksum is not changed at first attempt, then no need of other action
-    //   * If checksum is changed after the first attempt, then update sig & cs
-    //   * Normally it requires not more than 3 trials to update but throws unreachable after
-    //     trying 10 times
-    private void updateChecksumAndSignature() {
-        DexHeader dexHeader = getHeader();
+    // Offsets referring to items placed later are updated on the next refresh, thus
+    // repeat only while items are moving instead of comparing checksums of whole file
+    private void refreshUntilStable() {
         SectionList sectionList = getSectionList();
         int maximumTrials = 10;
         int i = 0;
-        while (i < maximumTrials) {
-            if (dexHeader.updateChecksum()) {
-                sectionList.refresh();
-            } else {
-                if (i != 0) {
-                    dexHeader.updateSignature();
-                    dexHeader.updateChecksum();
-                }
-                return;
+        while (sectionList.isPositionsChanged()) {
+            if (i == maximumTrials) {
+                throw new RuntimeException("Failed to update offsets, trial = " + i);
             }
+            sectionList.refresh();
             i ++;
         }
-        throw new RuntimeException("Failed to update checksums, trial = " + i);
+    }
+
+    // Signature (sha1) and checksum (alder32) are computed together on a single write,
+    // the checksum of the bytes after signature is combined with checksum of the signature
+    private void updateChecksumAndSignature() {
+        getHeader().updateChecksumAndSignature();
     }
     private void updateHeaderOffset() {
         DexLayoutBlock previousLayoutBlock = getPreviousLayoutBlock();
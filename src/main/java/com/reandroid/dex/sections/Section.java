@@ -282,6 +282,12 @@ public class Section<T extends SectionItem>  extends FixedDexContainer
         clearPoolMap();
     }
 
+    void notifyPositionsChanged() {
+        SectionList sectionList = getSectionList();
+        if (sectionList != null) {
+            sectionList.onPositionsChanged();
+        }
+    }
     void onRefreshed(int position) {
         position += this.getItemArray().countBytes();
         this.updateNextSection(position);
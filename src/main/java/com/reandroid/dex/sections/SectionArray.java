@@ -16,6 +16,8 @@
 package com.reandroid.dex.sections;
 
 import com.reandroid.arsc.base.Creator;
+import com.reandroid.arsc.base.OffsetSupplier;
+import com.reandroid.arsc.item.IntegerReference;
 import com.reandroid.dex.base.*;
 import com.reandroid.dex.common.FullRefresh;
 import com.reandroid.dex.common.SectionItem;
@@ -47,6 +49,7 @@ public class SectionArray<T extends SectionItem> extends BlockListArray<T> imple
             return position;
         }
         DexPositionAlign previous = null;
+        boolean changed = false;
         for(int i = 0; i < count; i++){
             T item = this.get(i);
             if(item == null) {
@@ -67,12 +70,31 @@ public class SectionArray<T extends SectionItem> extends BlockListArray<T> imple
             if(i == count-1){
                 ((PositionedItem)item).removeLastAlign();
             }
+            if(!changed && !isAtPosition(item, position)){
+                changed = true;
+            }
             ((PositionedItem)item).setPosition(position);
             position += item.countBytes();
             previous = itemAlign;
         }
+        if(changed){
+            notifyPositionsChanged();
+        }
         return position;
     }
+    private static boolean isAtPosition(SectionItem item, int position){
+        if(item instanceof OffsetSupplier){
+            IntegerReference reference = ((OffsetSupplier) item).getOffsetReference();
+            return reference != null && reference.get() == position;
+        }
+        return false;
+    }
+    private void notifyPositionsChanged(){
+        Section<T> section = getParentSection();
+        if(section != null){
+            section.notifyPositionsChanged();
+        }
+    }
     @Override
     public void onPreRemove(T item) {
         notifyBeforeRemoved(item);
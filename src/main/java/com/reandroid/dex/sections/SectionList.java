@@ -37,6 +37,8 @@ import com.reandroid.utils.collection.ArraySupplierIterator;
 import com.reandroid.utils.collection.CollectionUtil;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -55,6 +57,10 @@ public class SectionList extends FixedBlockContainer
     private final Map<SectionType<?>, Section<?>> typeMap;
     private final MapList mapList;
 
+    private boolean mLoadingLazy;
+    private boolean positionsChanged;
+    private int[] sectionOffsets;
+
     public SectionList() {
         super(1);
 
@@ -140,6 +146,29 @@ public class SectionList extends FixedBlockContainer
     protected void onRefreshed() {
         super.onRefreshed();
         mapList.refresh();
+        if (!positionsChanged && !Arrays.equals(sectionOffsets, getSectionOffsets())) {
+            positionsChanged = true;
+        }
+        this.sectionOffsets = null;
+    }
+    /**
+     * Returns true if any data item is moved on the last refresh, offsets referring to
+     * items placed after the referring item are updated on the next refresh
+     * */
+    public boolean isPositionsChanged() {
+        return positionsChanged;
+    }
+    void onPositionsChanged() {
+        this.positionsChanged = true;
+    }
+    private int[] getSectionOffsets() {
+        BlockList<Section<?>> sectionArray = this.sectionArray;
+        int size = sectionArray.size();
+        int[] results = new int[size];
+        for (int i = 0; i < size; i++) {
+            results[i] = sectionArray.get(i).getOffset();
+        }
+        return results;
     }
 
     @Override
@@ -185,6 +214,77 @@ public class SectionList extends FixedBlockContainer
             ensureMapList(section);
         }
     }
+    boolean isLazyRead(SectionType<?> sectionType) {
+        if (!isReading() || !isLazySectionType(sectionType)) {
+            return false;
+        }
+        DexContainerBlock containerBlock = getDexContainerBlock();
+        return containerBlock != null && containerBlock.isLazyRead();
+    }
+    void loadLazySections() {
+        if (mLoadingLazy) {
+            return;
+        }
+        mLoadingLazy = true;
+        try {
+            boolean loaded = false;
+            for (SectionType<?> sectionType : LAZY_SECTION_TYPES) {
+                Section<?> section = getOwnedSection(sectionType);
+                if (section instanceof DataSection) {
+                    loaded |= ((DataSection<?>) section).loadLazy();
+                }
+            }
+            if (loaded) {
+                linkPendingClassData();
+            }
+        } finally {
+            mLoadingLazy = false;
+        }
+    }
+    private void linkPendingClassData() {
+        Section<ClassId> section = getOwnedSection(SectionType.CLASS_ID);
+        if (section == null) {
+            return;
+        }
+        int count = section.getCount();
+        for (int i = 0; i < count; i++) {
+            ClassId classId = section.get(i);
+            classId.getAnnotationsDirectory();
+            classId.getClassData();
+        }
+    }
+    boolean setReading(boolean reading) {
+        DexContainerBlock containerBlock = getDexContainerBlock();
+        if (containerBlock != null) {
+            return containerBlock.setReading(reading);
+        }
+        return true;
+    }
+    private static boolean isLazySectionType(SectionType<?> sectionType) {
+        for (SectionType<?> type : LAZY_SECTION_TYPES) {
+            if (type == sectionType) {
+                return true;
+            }
+        }
+        return false;
+    }
+    @Override
+    protected void onPreRefresh() {
+        loadLazySections();
+        this.positionsChanged = false;
+        this.sectionOffsets = getSectionOffsets();
+        super.onPreRefresh();
+    }
+    @Override
+    public int countBytes() {
+        loadLazySections();
+        return super.countBytes();
+    }
+    @Override
+    public int onWriteBytes(OutputStream stream) throws IOException {
+        loadLazySections();
+        return super.onWriteBytes(stream);
+    }
     @Override
     public boolean isReading() {
         DexContainerBlock containerBlock = getDexContainerBlock();
@@ -622,4 +722,15 @@ public class SectionList extends FixedBlockContainer
             return section1.compareOffset(section2);
         };
     }
+
+    // In the same order as body sections are read
+    private static final SectionType<?>[] LAZY_SECTION_TYPES = new SectionType<?>[]{
+            SectionType.ANNOTATION_ITEM,
+            SectionType.ANNOTATION_SET,
+            SectionType.ANNOTATION_GROUP,
+            SectionType.ANNOTATION_DIRECTORY,
+            SectionType.DEBUG_INFO,
+            SectionType.CODE,
+            SectionType.CLASS_DATA
+    };
 }
@@ -15,10 +15,14 @@
  */
 package com.reandroid.dex.smali;
 
+import com.reandroid.utils.concurrent.WorkerPool;
+
 public class SmaliReaderSetting {
 
     private boolean fixGoto = true;
     private boolean validateRegisters = true;
+    private int parallelism;
+    private WorkerPool workerPool;
 
     public SmaliReaderSetting() {
 
@@ -37,4 +41,29 @@ public class SmaliReaderSetting {
     public void setValidateRegisters(boolean validateRegisters) {
         this.validateRegisters = validateRegisters;
     }
+
+    public int getParallelism() {
+        WorkerPool workerPool = this.workerPool;
+        if (workerPool != null) {
+            return workerPool.getParallelism();
+        }
+        return parallelism;
+    }
+    /**
+     * Sets number of threads used to parse smali files of a directory, classes are still
+     * interned one by one in file order thus the result is identical to sequential mode.
+     * Values less than 2 disables parallel mode.
+     * */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+    public WorkerPool getWorkerPool() {
+        return workerPool;
+    }
+    /**
+     * Sets caller owned worker pool, it is not shut down after parsing
+     * */
+    public void setWorkerPool(WorkerPool workerPool) {
+        this.workerPool = workerPool;
+    }
 }
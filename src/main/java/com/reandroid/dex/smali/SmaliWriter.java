@@ -467,6 +467,7 @@ public class SmaliWriter implements Appendable, Closeable {
     }
     public void reset() {
         this.indent = 0;
+        this.state_new_line = true;
         this.lineNumber = 1;
         this.columnNumber = 0;
         this.comment = null;
@@ -23,6 +23,7 @@ import com.reandroid.dex.smali.formatters.ClassComment;
 import com.reandroid.dex.smali.formatters.MethodComment;
 import com.reandroid.dex.smali.formatters.ResourceIdComment;
 import com.reandroid.utils.collection.ArrayCollection;
+import com.reandroid.utils.concurrent.WorkerPool;
 
 import java.io.IOException;
 import java.util.List;
@@ -39,6 +40,9 @@ public class SmaliWriterSetting {
 
     private boolean enableComments;
 
+    private int parallelism;
+    private WorkerPool workerPool;
+
     public SmaliWriterSetting() {
         this.sequentialLabel = true;
         this.commentUnicodeStrings = false;
@@ -88,6 +92,31 @@ public class SmaliWriterSetting {
         this.maximumCommentLines = maximumCommentLines;
     }
 
+    public int getParallelism() {
+        WorkerPool workerPool = this.workerPool;
+        if (workerPool != null) {
+            return workerPool.getParallelism();
+        }
+        return parallelism;
+    }
+    /**
+     * Sets number of threads used to write smali files of a directory, the output is identical
+     * to sequential mode. Values less than 2 disables parallel mode.
+     * Comment formatters and the classes must not be modified while writing.
+     * */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+    public WorkerPool getWorkerPool() {
+        return workerPool;
+    }
+    /**
+     * Sets caller owned worker pool, it is not shut down after writing
+     * */
+    public void setWorkerPool(WorkerPool workerPool) {
+        this.workerPool = workerPool;
+    }
+
     public void writeResourceIdComment(SmaliWriter writer, long l) throws IOException {
         ResourceIdComment resourceIdComment = getResourceIdComment();
         if (resourceIdComment != null) {
@@ -35,6 +35,7 @@ public class ApkBuilder extends BaseApkModuleProcessor {
 
     private ApkBuildOption buildOption;
     private VitalClassesSet vitalClassesSet;
+    private DexDependencyGraph dependencyGraph;
 
     public ApkBuilder(ApkModule sourceModule, DexClassRepository classRepository) {
         super(sourceModule, classRepository);
@@ -75,6 +76,11 @@ public class ApkBuilder extends BaseApkModuleProcessor {
         verbose("Removed files: " + filesCount);
     }
     private void cleanDex() {
+        ApkBuildOption buildOption = getBuildOption();
+        if(!buildOption.isMinifyClasses() && !buildOption.isMinifyFields() &&
+                !buildOption.isMinifyMethods() && !buildOption.isCleanAnnotations()) {
+            return;
+        }
         int countTotal = 0;
         int count = 1;
         int cycle = 0;
@@ -84,6 +90,7 @@ public class ApkBuilder extends BaseApkModuleProcessor {
             count = cyclicCleanDex();
             countTotal += count;
         }
+        this.dependencyGraph = null;
         verbose("Cleaned dex: " + countTotal);
     }
     private int cyclicCleanDex() {
@@ -91,24 +98,28 @@ public class ApkBuilder extends BaseApkModuleProcessor {
         UnusedFieldsCleaner fieldsCleaner = new UnusedFieldsCleaner(getBuildOption(),
                 getApkModule(), getClassRepository());
         fieldsCleaner.setReporter(getReporter());
+        fieldsCleaner.setDependencyGraph(getDependencyGraph());
         fieldsCleaner.apply();
         count += fieldsCleaner.getCount();
 
         UnusedMethodsCleaner methodsCleaner = new UnusedMethodsCleaner(getBuildOption(),
                 getApkModule(), getClassRepository());
         methodsCleaner.setReporter(getReporter());
+        methodsCleaner.setDependencyGraph(getDependencyGraph());
         methodsCleaner.apply();
         count += methodsCleaner.getCount();
 
         UnusedAnnotationCleaner unusedAnnotationCleaner = new UnusedAnnotationCleaner(getBuildOption(),
                 getApkModule(), getClassRepository());
         unusedAnnotationCleaner.setReporter(getReporter());
+        unusedAnnotationCleaner.setDependencyGraph(getDependencyGraph());
         unusedAnnotationCleaner.apply();
         count += unusedAnnotationCleaner.getCount();
 
         UnusedClassesCleaner classesCleaner = new UnusedClassesCleaner(getBuildOption(),
                 getApkModule(), getClassRepository());
         classesCleaner.setReporter(getReporter());
+        classesCleaner.setDependencyGraph(getDependencyGraph());
         classesCleaner.setVitalClassesSet(this.vitalClassesSet);
         classesCleaner.apply();
         this.vitalClassesSet = classesCleaner.getVitalClassesSet();
@@ -169,6 +180,14 @@ public class ApkBuilder extends BaseApkModuleProcessor {
         resourceMergeOption.setKeepEntries(resourceEntry ->
                 requiredResources.contains(resourceEntry.toResourceName()));
     }
+    private DexDependencyGraph getDependencyGraph() {
+        DexDependencyGraph dependencyGraph = this.dependencyGraph;
+        if(dependencyGraph == null) {
+            dependencyGraph = DexDependencyGraph.build(getClassRepository());
+            this.dependencyGraph = dependencyGraph;
+        }
+        return dependencyGraph;
+    }
     public ApkBuildOption getBuildOption() {
         ApkBuildOption buildOption = this.buildOption;
         if(buildOption == null) {
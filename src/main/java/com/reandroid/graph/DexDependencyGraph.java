@@ -0,0 +1,441 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.graph;
+
+import com.reandroid.dex.key.FieldKey;
+import com.reandroid.dex.key.Key;
+import com.reandroid.dex.key.MethodKey;
+import com.reandroid.dex.key.TypeKey;
+import com.reandroid.dex.model.DexClass;
+import com.reandroid.dex.model.DexClassRepository;
+import com.reandroid.dex.model.DexField;
+import com.reandroid.dex.model.DexInstruction;
+import com.reandroid.dex.model.DexMethod;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Dependency graph of classes, methods and fields of a class repository, built once and
+ * updated as classes or members are removed. Nodes are numbered with ints, edges are kept
+ * as sorted int arrays and reachability is computed with a bitset worklist.
+ * */
+public class DexDependencyGraph {
+
+    private final DexClassRepository classRepository;
+
+    private final Map<TypeKey, Integer> classIds;
+    private TypeKey[] classKeys;
+    private int[][] classEdges;
+    private int[][] classMembers;
+    private int[][] codeMemberRefs;
+    private int[][] codeTypeRefs;
+    private int[] typeCodeUseCounts;
+    private int classCount;
+    private final BitSet removedClasses;
+
+    private final Map<Key, Integer> memberIds;
+    private Key[] memberKeys;
+    private int[] memberOwners;
+    private int[] memberUseCounts;
+    private int memberCount;
+    private final BitSet removedMembers;
+
+    private final Map<MethodKey, int[]> equivalentMethods;
+    private final IntList buffer1;
+    private final IntList buffer2;
+
+    public DexDependencyGraph(DexClassRepository classRepository) {
+        this.classRepository = classRepository;
+        this.classIds = new HashMap<>();
+        this.classKeys = new TypeKey[0];
+        this.classEdges = new int[0][];
+        this.classMembers = new int[0][];
+        this.codeMemberRefs = new int[0][];
+        this.codeTypeRefs = new int[0][];
+        this.typeCodeUseCounts = new int[0];
+        this.removedClasses = new BitSet();
+        this.memberIds = new HashMap<>();
+        this.memberKeys = new Key[0];
+        this.memberOwners = new int[0];
+        this.memberUseCounts = new int[0];
+        this.removedMembers = new BitSet();
+        this.equivalentMethods = new HashMap<>();
+        this.buffer1 = new IntList();
+        this.buffer2 = new IntList();
+    }
+
+    public DexClassRepository getClassRepository() {
+        return classRepository;
+    }
+    public int getClassesCount() {
+        return classCount - removedClasses.cardinality();
+    }
+    public int getClassNode(TypeKey typeKey) {
+        Integer id = classIds.get(typeKey);
+        if(id == null || removedClasses.get(id)) {
+            return -1;
+        }
+        return id;
+    }
+    public TypeKey getClassKey(int node) {
+        return classKeys[node];
+    }
+    public int getMemberNode(Key key) {
+        Integer id = memberIds.get(key);
+        if(id == null || removedMembers.get(id)) {
+            return -1;
+        }
+        return id;
+    }
+
+    /**
+     * Marks the given class and all classes reachable from it on the given bitset,
+     * classes already marked are not visited again
+     * */
+    public void markRequired(TypeKey typeKey, BitSet results) {
+        int node = getClassNode(typeKey);
+        if(node < 0 || results.get(node)) {
+            return;
+        }
+        results.set(node);
+        BitSet removed = this.removedClasses;
+        int[][] edges = this.classEdges;
+        IntList stack = new IntList();
+        stack.add(node);
+        while (stack.size() != 0) {
+            int[] targets = edges[stack.pop()];
+            for(int target : targets) {
+                if(!results.get(target) && !removed.get(target)) {
+                    results.set(target);
+                    stack.add(target);
+                }
+            }
+        }
+    }
+    public Set<TypeKey> toTypeKeys(BitSet nodes) {
+        Set<TypeKey> results = new HashSet<>(nodes.cardinality());
+        for(int i = nodes.nextSetBit(0); i >= 0; i = nodes.nextSetBit(i + 1)) {
+            if(!removedClasses.get(i)) {
+                results.add(classKeys[i]);
+            }
+        }
+        return results;
+    }
+    /**
+     * Returns true if the member is referenced from code of any class, including
+     * references to its equivalent (overridden or overriding) methods.
+     * Unknown members are assumed used.
+     * */
+    public boolean isUsed(Key memberKey) {
+        int node = getMemberNode(memberKey);
+        return node < 0 || memberUseCounts[node] != 0;
+    }
+    /**
+     * Returns true if the member is referenced from code of its own declaring class,
+     * fields are also referenced by const-string of their name. Unknown members are assumed used.
+     * */
+    public boolean isUsedByDeclaringClass(Key memberKey) {
+        int node = getMemberNode(memberKey);
+        if(node < 0) {
+            return true;
+        }
+        return Arrays.binarySearch(codeMemberRefs[memberOwners[node]], node) >= 0;
+    }
+    /**
+     * Returns true if the type is referenced from code of any class. Types outside of
+     * the repository are assumed used.
+     * */
+    public boolean isTypeUsedInCode(TypeKey typeKey) {
+        int node = getClassNode(typeKey);
+        return node < 0 || typeCodeUseCounts[node] != 0;
+    }
+
+    /**
+     * Re-links the class after its members or code changed
+     * */
+    public void update(DexClass dexClass) {
+        Integer id = classIds.get(dexClass.getKey());
+        int node;
+        if(id == null || removedClasses.get(id)) {
+            node = addClass(dexClass.getKey());
+        } else {
+            node = id;
+            unlink(node);
+        }
+        indexMembers(node, dexClass);
+        link(node, dexClass);
+    }
+    /**
+     * Re-links all classes depending on the given type, e.g. after its annotations are removed
+     * */
+    public void updateClassesUsing(TypeKey typeKey) {
+        int node = getClassNode(typeKey);
+        if(node < 0) {
+            return;
+        }
+        DexClassRepository repository = this.classRepository;
+        int count = this.classCount;
+        for(int i = 0; i < count; i++) {
+            if(i != node && !removedClasses.get(i)
+                    && Arrays.binarySearch(classEdges[i], node) >= 0) {
+                DexClass dexClass = repository.getDexClass(classKeys[i]);
+                if(dexClass != null) {
+                    update(dexClass);
+                }
+            }
+        }
+    }
+    public void removeClass(TypeKey typeKey) {
+        int node = getClassNode(typeKey);
+        if(node < 0) {
+            return;
+        }
+        unlink(node);
+        removedClasses.set(node);
+        for(int member : classMembers[node]) {
+            removedMembers.set(member);
+        }
+        classEdges[node] = EMPTY;
+        classMembers[node] = EMPTY;
+    }
+
+    private int addClass(TypeKey typeKey) {
+        Integer id = classIds.get(typeKey);
+        if(id != null) {
+            removedClasses.clear(id);
+            return id;
+        }
+        int node = classCount;
+        if(node == classKeys.length) {
+            int capacity = node + (node >> 1) + 16;
+            classKeys = Arrays.copyOf(classKeys, capacity);
+            classEdges = Arrays.copyOf(classEdges, capacity);
+            classMembers = Arrays.copyOf(classMembers, capacity);
+            codeMemberRefs = Arrays.copyOf(codeMemberRefs, capacity);
+            codeTypeRefs = Arrays.copyOf(codeTypeRefs, capacity);
+            typeCodeUseCounts = Arrays.copyOf(typeCodeUseCounts, capacity);
+        }
+        classKeys[node] = typeKey;
+        classEdges[node] = EMPTY;
+        classMembers[node] = EMPTY;
+        codeMemberRefs[node] = EMPTY;
+        codeTypeRefs[node] = EMPTY;
+        classIds.put(typeKey, node);
+        classCount = node + 1;
+        return node;
+    }
+    private int addMember(Key key, int owner) {
+        Integer id = memberIds.get(key);
+        if(id != null) {
+            removedMembers.clear(id);
+            memberOwners[id] = owner;
+            return id;
+        }
+        int node = memberCount;
+        if(node == memberKeys.length) {
+            int capacity = node + (node >> 1) + 64;
+            memberKeys = Arrays.copyOf(memberKeys, capacity);
+            memberOwners = Arrays.copyOf(memberOwners, capacity);
+            memberUseCounts = Arrays.copyOf(memberUseCounts, capacity);
+        }
+        memberKeys[node] = key;
+        memberOwners[node] = owner;
+        memberIds.put(key, node);
+        memberCount = node + 1;
+        return node;
+    }
+    private void indexMembers(int node, DexClass dexClass) {
+        for(int member : classMembers[node]) {
+            removedMembers.set(member);
+        }
+        IntList members = this.buffer1;
+        members.clear();
+        Iterator<DexField> fields = dexClass.declaredFields();
+        while (fields.hasNext()) {
+            members.add(addMember(fields.next().getKey(), node));
+        }
+        Iterator<DexMethod> methods = dexClass.declaredMethods();
+        while (methods.hasNext()) {
+            members.add(addMember(methods.next().getKey(), node));
+        }
+        classMembers[node] = members.toSortedArray();
+    }
+    private void link(int node, DexClass dexClass) {
+        IntList list = this.buffer1;
+        list.clear();
+        Iterator<TypeKey> iterator = dexClass.usedTypes();
+        while (iterator.hasNext()) {
+            int target = getClassNode(iterator.next().getDeclaring());
+            if(target >= 0 && target != node) {
+                list.add(target);
+            }
+        }
+        classEdges[node] = list.toSortedArray();
+
+        IntList members = this.buffer1;
+        IntList types = this.buffer2;
+        members.clear();
+        types.clear();
+        Set<String> strings = null;
+        Iterator<DexInstruction> instructions = dexClass.getDexInstructions();
+        while (instructions.hasNext()) {
+            DexInstruction instruction = instructions.next();
+            Key key = instruction.getKey();
+            if(key == null) {
+                continue;
+            }
+            Iterator<? extends Key> contents = key.contents();
+            while (contents.hasNext()) {
+                int type = getClassNode(contents.next().getDeclaring());
+                if(type >= 0) {
+                    types.add(type);
+                }
+            }
+            if(key instanceof FieldKey) {
+                addMemberRef(members, key);
+            } else if(key instanceof MethodKey) {
+                addMemberRef(members, key);
+                for(int equivalent : getEquivalentMethods((MethodKey) key)) {
+                    members.add(equivalent);
+                }
+            }
+            String string = instruction.getString();
+            if(string != null) {
+                if(strings == null) {
+                    strings = new HashSet<>();
+                }
+                strings.add(string);
+            }
+        }
+        if(strings != null) {
+            for(int member : classMembers[node]) {
+                Key key = memberKeys[member];
+                if(key instanceof FieldKey && strings.contains(((FieldKey) key).getName())) {
+                    members.add(member);
+                }
+            }
+        }
+        int[] memberRefs = members.toSortedArray();
+        int[] typeRefs = types.toSortedArray();
+        codeMemberRefs[node] = memberRefs;
+        codeTypeRefs[node] = typeRefs;
+        for(int member : memberRefs) {
+            memberUseCounts[member] ++;
+        }
+        for(int type : typeRefs) {
+            typeCodeUseCounts[type] ++;
+        }
+    }
+    private void unlink(int node) {
+        for(int member : codeMemberRefs[node]) {
+            memberUseCounts[member] --;
+        }
+        for(int type : codeTypeRefs[node]) {
+            typeCodeUseCounts[type] --;
+        }
+        codeMemberRefs[node] = EMPTY;
+        codeTypeRefs[node] = EMPTY;
+    }
+    private void addMemberRef(IntList members, Key key) {
+        Integer id = memberIds.get(key);
+        if(id != null) {
+            members.add(id);
+        }
+    }
+    private int[] getEquivalentMethods(MethodKey methodKey) {
+        int[] results = equivalentMethods.get(methodKey);
+        if(results == null) {
+            IntList list = new IntList();
+            Iterator<MethodKey> iterator = classRepository.findEquivalentMethods(methodKey);
+            while (iterator.hasNext()) {
+                addMemberRef(list, iterator.next());
+            }
+            results = list.toSortedArray();
+            equivalentMethods.put(methodKey, results);
+        }
+        return results;
+    }
+
+    public static DexDependencyGraph build(DexClassRepository classRepository) {
+        DexDependencyGraph graph = new DexDependencyGraph(classRepository);
+        // like getDexClass, the first of duplicate classes wins
+        List<DexClass> classList = new ArrayList<>();
+        Iterator<DexClass> iterator = classRepository.getDexClasses();
+        while (iterator.hasNext()) {
+            DexClass dexClass = iterator.next();
+            int node = graph.addClass(dexClass.getKey());
+            if(node == classList.size()) {
+                classList.add(dexClass);
+                graph.indexMembers(node, dexClass);
+            }
+        }
+        int size = classList.size();
+        for(int node = 0; node < size; node++) {
+            graph.link(node, classList.get(node));
+        }
+        return graph;
+    }
+
+    static class IntList {
+        private int[] elements;
+        private int size;
+
+        IntList() {
+            this.elements = new int[16];
+        }
+        int size() {
+            return size;
+        }
+        void add(int value) {
+            if(size == elements.length) {
+                elements = Arrays.copyOf(elements, size << 1);
+            }
+            elements[size ++] = value;
+        }
+        int pop() {
+            size --;
+            return elements[size];
+        }
+        void clear() {
+            size = 0;
+        }
+        int[] toSortedArray() {
+            int size = this.size;
+            if(size == 0) {
+                return EMPTY;
+            }
+            int[] elements = this.elements;
+            Arrays.sort(elements, 0, size);
+            int count = 1;
+            for(int i = 1; i < size; i++) {
+                if(elements[i] != elements[count - 1]) {
+                    elements[count ++] = elements[i];
+                }
+            }
+            return Arrays.copyOf(elements, count);
+        }
+    }
+
+    private static final int[] EMPTY = new int[0];
+}
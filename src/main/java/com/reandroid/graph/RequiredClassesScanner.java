@@ -20,21 +20,23 @@ import com.reandroid.dex.key.TypeKey;
 import com.reandroid.dex.model.DexClass;
 import com.reandroid.dex.model.DexClassRepository;
 
-import java.util.HashSet;
+import java.util.BitSet;
 import java.util.Iterator;
 import java.util.Set;
 
 public class RequiredClassesScanner extends BaseApkModuleProcessor {
 
     private final VitalClassesSet vitalClassesSet;
-    private final Set<TypeKey> requiredTypes;
+    private final BitSet requiredNodes;
+    private DexDependencyGraph dependencyGraph;
+    private Set<TypeKey> requiredTypes;
 
     private boolean lookInStrings = true;
 
     public RequiredClassesScanner(VitalClassesSet vitalClassesSet, ApkModule apkModule, DexClassRepository classRepository) {
         super(apkModule, classRepository);
         this.vitalClassesSet = vitalClassesSet;
-        this.requiredTypes = new HashSet<>();
+        this.requiredNodes = new BitSet();
     }
 
     public void setLookInStrings(boolean lookInStrings) {
@@ -47,8 +49,24 @@ public class RequiredClassesScanner extends BaseApkModuleProcessor {
         scanOnStrings();
     }
     public Set<TypeKey> getResults() {
+        Set<TypeKey> requiredTypes = this.requiredTypes;
+        if(requiredTypes == null) {
+            requiredTypes = getDependencyGraph().toTypeKeys(requiredNodes);
+            this.requiredTypes = requiredTypes;
+        }
         return requiredTypes;
     }
+    public DexDependencyGraph getDependencyGraph() {
+        DexDependencyGraph dependencyGraph = this.dependencyGraph;
+        if(dependencyGraph == null) {
+            dependencyGraph = DexDependencyGraph.build(getClassRepository());
+            this.dependencyGraph = dependencyGraph;
+        }
+        return dependencyGraph;
+    }
+    public void setDependencyGraph(DexDependencyGraph dependencyGraph) {
+        this.dependencyGraph = dependencyGraph;
+    }
 
     private void addVitalClasses() {
         VitalClassesSet vitalClassesSet = this.vitalClassesSet;
@@ -84,22 +102,15 @@ public class RequiredClassesScanner extends BaseApkModuleProcessor {
         if(dexClass == null) {
             return;
         }
-        TypeKey typeKey = dexClass.getKey();
-        Set<TypeKey> requiredTypes = this.requiredTypes;
-        if(requiredTypes.contains(typeKey)) {
-            return;
-        }
-        Set<DexClass> requiredSet = dexClass.getRequired(key -> !requiredTypes.contains(key));
-        requiredTypes.add(typeKey);
-        for(DexClass dex : requiredSet) {
-            requiredTypes.add(dex.getKey());
-        }
+        getDependencyGraph().markRequired(dexClass.getKey(), requiredNodes);
+        this.requiredTypes = null;
     }
 
     private boolean keptAll() {
-        return requiredTypes.size() == getClassRepository().getDexClassesCount();
+        return requiredNodes.cardinality() == getDependencyGraph().getClassesCount();
     }
     public void reset() {
-        this.requiredTypes.clear();
+        this.requiredNodes.clear();
+        this.requiredTypes = null;
     }
 }
@@ -16,12 +16,11 @@
 package com.reandroid.graph.cleaners;
 
 import com.reandroid.apk.ApkModule;
-import com.reandroid.dex.key.Key;
 import com.reandroid.dex.key.TypeKey;
 import com.reandroid.dex.model.DexClass;
 import com.reandroid.dex.model.DexClassRepository;
-import com.reandroid.dex.model.DexInstruction;
 import com.reandroid.graph.ApkBuildOption;
+import com.reandroid.graph.DexDependencyGraph;
 import com.reandroid.utils.collection.FilterIterator;
 
 import java.util.HashSet;
@@ -46,20 +45,25 @@ public class UnusedAnnotationCleaner extends UnusedCleaner<DexClass> {
     }
     private void cleanAnnotations(Set<TypeKey> unusedAnnotations) {
         DexClassRepository repository = getClassRepository();
+        DexDependencyGraph dependencyGraph = getDependencyGraph();
         for(TypeKey typeKey : unusedAnnotations) {
             if(repository.removeAnnotations(typeKey)) {
+                dependencyGraph.updateClassesUsing(typeKey);
                 addCount();
             }
         }
     }
     private Set<TypeKey> findUnusedAnnotations() {
         verbose("Searching ...");
+        DexDependencyGraph dependencyGraph = getDependencyGraph();
         Set<TypeKey> targetAnnotations = new HashSet<>();
         Iterator<DexClass> iterator = getTargetAnnotations();
         while (iterator.hasNext()) {
-            targetAnnotations.add(iterator.next().getKey());
+            TypeKey typeKey = iterator.next().getKey();
+            if(!dependencyGraph.isTypeUsedInCode(typeKey)) {
+                targetAnnotations.add(typeKey);
+            }
         }
-        subtractUnused(targetAnnotations);
         logUnused(targetAnnotations);
         verbose("Unused annotations: " + targetAnnotations.size());
         return targetAnnotations;
@@ -72,26 +76,6 @@ public class UnusedAnnotationCleaner extends UnusedCleaner<DexClass> {
             }
         }
     }
-    private void subtractUnused(Set<TypeKey> targetAnnotations) {
-        Iterator<DexClass> iterator = getClassRepository().getDexClasses();
-        while (!targetAnnotations.isEmpty() && iterator.hasNext()) {
-            DexClass dexClass = iterator.next();
-            Iterator<DexInstruction> instructions = dexClass.getDexInstructions();
-            while (instructions.hasNext()) {
-                subtractUnused(targetAnnotations, instructions.next());
-            }
-        }
-    }
-    private void subtractUnused(Set<TypeKey> targetAnnotations, DexInstruction userInstruction) {
-        Key key = userInstruction.getKey();
-        if(key != null) {
-            Iterator<? extends Key> iterator = key.contents();
-            while (iterator.hasNext()) {
-                TypeKey typeKey = iterator.next().getDeclaring();
-                targetAnnotations.remove(typeKey);
-            }
-        }
-    }
     private Iterator<DexClass> getTargetAnnotations() {
         return FilterIterator.of(getClassRepository().getDexClasses(),
                 DexClass::isAnnotation);
@@ -54,7 +54,7 @@ public abstract class UnusedClassComponentCleaner<T extends Dex> extends UnusedC
     }
     protected void cleanUnusedInClass(DexClass dexClass) {
         List<T> unusedList = listUnusedInClass(dexClass);
-        if(unusedList != null) {
+        if(unusedList != null && !unusedList.isEmpty()) {
             boolean debugEnabled = isDebugEnabled();
             for(T item : unusedList) {
                 if(debugEnabled) {
@@ -63,6 +63,7 @@ public abstract class UnusedClassComponentCleaner<T extends Dex> extends UnusedC
                 item.removeSelf();
                 addCount();
             }
+            getDependencyGraph().update(dexClass);
         }
     }
 
@@ -20,10 +20,13 @@ import com.reandroid.dex.key.TypeKey;
 import com.reandroid.dex.model.DexClass;
 import com.reandroid.dex.model.DexClassRepository;
 import com.reandroid.graph.ApkBuildOption;
+import com.reandroid.graph.DexDependencyGraph;
 import com.reandroid.graph.RequiredClassesScanner;
 import com.reandroid.graph.VitalClassesSet;
+import com.reandroid.utils.collection.ArrayCollection;
 
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
 public class UnusedClassesCleaner extends UnusedCleaner<DexClass> {
@@ -75,10 +78,23 @@ public class UnusedClassesCleaner extends UnusedCleaner<DexClass> {
     private int cleanUnusedClasses(Set<TypeKey> requiredClasses) {
         DexClassRepository repository = getClassRepository();
         int previousCount = repository.getDexClassesCount();
-        repository.removeClassesWithKeys(typeKey -> !requiredClasses.contains(typeKey));
+        List<TypeKey> unusedList = new ArrayCollection<>();
+        repository.removeClassesWithKeys(typeKey -> {
+            if(requiredClasses.contains(typeKey)) {
+                return false;
+            }
+            unusedList.add(typeKey);
+            return true;
+        });
         int removed = previousCount - repository.getDexClassesCount();
         setCount(removed);
         if(removed != 0) {
+            DexDependencyGraph dependencyGraph = getDependencyGraph();
+            for(TypeKey typeKey : unusedList) {
+                if(repository.getDexClass(typeKey) == null) {
+                    dependencyGraph.removeClass(typeKey);
+                }
+            }
             repository.shrink();
         }
         return removed;
@@ -99,6 +115,7 @@ public class UnusedClassesCleaner extends UnusedCleaner<DexClass> {
                 getApkModule(),
                 getClassRepository());
         scanner.setReporter(getReporter());
+        scanner.setDependencyGraph(getDependencyGraph());
         scanner.setLookInStrings(getBuildOption().isProcessClassNamesOnStrings());
         scanner.apply();
         return scanner.getResults();
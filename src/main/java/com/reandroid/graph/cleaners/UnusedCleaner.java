@@ -20,11 +20,13 @@ import com.reandroid.dex.model.Dex;
 import com.reandroid.dex.model.DexClassRepository;
 import com.reandroid.graph.ApkBuildOption;
 import com.reandroid.graph.BaseApkModuleProcessor;
+import com.reandroid.graph.DexDependencyGraph;
 
 public abstract class UnusedCleaner<T extends Dex> extends BaseApkModuleProcessor {
 
     private final ApkBuildOption buildOption;
 
+    private DexDependencyGraph dependencyGraph;
     private int mCount;
 
     public UnusedCleaner(ApkBuildOption buildOption, ApkModule apkModule, DexClassRepository classRepository) {
@@ -37,6 +39,18 @@ public abstract class UnusedCleaner<T extends Dex> extends BaseApkModuleProcesso
         return buildOption;
     }
 
+    public DexDependencyGraph getDependencyGraph() {
+        DexDependencyGraph dependencyGraph = this.dependencyGraph;
+        if(dependencyGraph == null) {
+            dependencyGraph = DexDependencyGraph.build(getClassRepository());
+            this.dependencyGraph = dependencyGraph;
+        }
+        return dependencyGraph;
+    }
+    public void setDependencyGraph(DexDependencyGraph dependencyGraph) {
+        this.dependencyGraph = dependencyGraph;
+    }
+
     public int getCount() {
         return mCount;
     }
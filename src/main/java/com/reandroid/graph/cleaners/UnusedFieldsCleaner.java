@@ -16,7 +16,6 @@
 package com.reandroid.graph.cleaners;
 
 import com.reandroid.apk.ApkModule;
-import com.reandroid.dex.key.FieldKey;
 import com.reandroid.dex.model.*;
 import com.reandroid.graph.ApkBuildOption;
 import com.reandroid.utils.collection.ArrayCollection;
@@ -58,16 +57,7 @@ public class UnusedFieldsCleaner extends UnusedClassComponentCleaner<DexField> {
         if(!dexField.isPrivate()) {
             return false;
         }
-        FieldKey fieldKey = dexField.getKey();
-        String name = fieldKey.getName();
-        Iterator<DexInstruction> iterator = dexField.getDexClass().getDexInstructions();
-        while (iterator.hasNext()) {
-            DexInstruction instruction = iterator.next();
-            if(fieldKey.equals(instruction.getKeyAsField()) || name.equals(instruction.getString())) {
-                return false;
-            }
-        }
-        return true;
+        return !getDependencyGraph().isUsedByDeclaringClass(dexField.getKey());
     }
     private boolean isUnusedInstanceField(DexField dexField) {
         // TODO:
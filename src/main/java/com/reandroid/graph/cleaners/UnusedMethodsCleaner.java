@@ -19,9 +19,9 @@ import com.reandroid.apk.ApkModule;
 import com.reandroid.dex.key.MethodKey;
 import com.reandroid.dex.model.DexClass;
 import com.reandroid.dex.model.DexClassRepository;
-import com.reandroid.dex.model.DexInstruction;
 import com.reandroid.dex.model.DexMethod;
 import com.reandroid.graph.ApkBuildOption;
+import com.reandroid.graph.DexDependencyGraph;
 import com.reandroid.utils.collection.ArrayCollection;
 
 import java.util.HashSet;
@@ -66,15 +66,7 @@ public class UnusedMethodsCleaner extends UnusedClassComponentCleaner<DexMethod>
         if(!dexMethod.isPrivate() || dexMethod.isConstructor()) {
             return false;
         }
-        MethodKey methodKey = dexMethod.getKey();
-        Iterator<DexInstruction> iterator = dexMethod.getDexClass().getDexInstructions();
-        while (iterator.hasNext()) {
-            DexInstruction instruction = iterator.next();
-            if(methodKey.equals(instruction.getKeyAsMethod())) {
-                return false;
-            }
-        }
-        return true;
+        return !getDependencyGraph().isUsedByDeclaringClass(dexMethod.getKey());
     }
     private boolean isUnusedVirtualMethod(DexMethod dexMethod) {
         // TODO:
@@ -90,6 +82,7 @@ public class UnusedMethodsCleaner extends UnusedClassComponentCleaner<DexMethod>
         return unusedInternalMethods;
     }
     private void loadUnusedInternalMethods() {
+        DexDependencyGraph dependencyGraph = getDependencyGraph();
         Set<MethodKey> unusedInternalMethods = new HashSet<>();
         Iterator<DexClass> iterator = getClassRepository().getDexClasses();
         while (iterator.hasNext()) {
@@ -100,40 +93,17 @@ public class UnusedMethodsCleaner extends UnusedClassComponentCleaner<DexMethod>
             Iterator<DexMethod> methods = dexClass.declaredMethods();
             while (methods.hasNext()) {
                 DexMethod dexMethod = methods.next();
-                if(isInternal(dexMethod)) {
+                if(isInternal(dexMethod) && !dependencyGraph.isUsed(dexMethod.getKey())) {
                     unusedInternalMethods.add(dexMethod.getKey());
                 }
             }
         }
-        subtractUnused(unusedInternalMethods);
         this.unusedInternalMethods = unusedInternalMethods;
         for(MethodKey key : unusedInternalMethods) {
             debug(key.toString());
         }
         debug("Internal methods: " + unusedInternalMethods.size());
     }
-    private void subtractUnused(Set<MethodKey> unusedInternalMethods) {
-        if(unusedInternalMethods.isEmpty()) {
-            return;
-        }
-        DexClassRepository repository = getClassRepository();
-        Iterator<DexClass> iterator = repository.getDexClasses();
-        while (iterator.hasNext()) {
-            DexClass dexClass = iterator.next();
-            Iterator<DexInstruction> instructionIterator = dexClass.getDexInstructions();
-            while (instructionIterator.hasNext()) {
-                DexInstruction instruction = instructionIterator.next();
-                MethodKey key = instruction.getKeyAsMethod();
-                if(key != null) {
-                   unusedInternalMethods.remove(key);
-                    Iterator<MethodKey> equivalents = repository.findEquivalentMethods(key);
-                    while (equivalents.hasNext()) {
-                        unusedInternalMethods.remove(equivalents.next());
-                    }
-                }
-            }
-        }
-    }
     private boolean isInternal(DexMethod dexMethod) {
         if(dexMethod.isConstructor()) {
             return false;
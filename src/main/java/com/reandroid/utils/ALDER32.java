@@ -18,6 +18,7 @@ package com.reandroid.utils;
 public class ALDER32 extends Checksum {
 
     private static final int MOD_ADLER = 0xfff1;
+    private static final int NMAX = 5552;
 
     private int a;
     private int b;
@@ -32,19 +33,41 @@ public class ALDER32 extends Checksum {
     public void update(byte[] data, int offset, int length) {
         if (length != 0) {
             int mod = MOD_ADLER;
-            int a = this.a;
-            int b = this.b;
+            long a = this.a;
+            long b = this.b;
             int end = offset + length;
-            for (int i = offset; i < end; i++) {
-                int v = data[i] & 0xFF;
-                a = (a + v) % mod;
-                b = (b + a) % mod;
+            int i = offset;
+            while (i < end) {
+                // the sums can not overflow before NMAX bytes, reduce once per block
+                int blockEnd = Math.min(end, i + NMAX);
+                for (; i < blockEnd; i++) {
+                    a += data[i] & 0xFF;
+                    b += a;
+                }
+                a %= mod;
+                b %= mod;
             }
-            this.a = a;
-            this.b = b;
+            this.a = (int) a;
+            this.b = (int) b;
         }
     }
 
+    /**
+     * Returns checksum of two joined byte ranges from checksum of each range,
+     * where length is the length of the second range
+     * */
+    public static long combine(long first, long second, long length) {
+        int mod = MOD_ADLER;
+        long rem = length % mod;
+        long sum1 = first & 0xffff;
+        long sum2 = (rem * sum1) % mod;
+        sum1 += (second & 0xffff) + mod - 1;
+        sum2 += ((first >> 16) & 0xffff) + ((second >> 16) & 0xffff) + mod - rem;
+        sum1 %= mod;
+        sum2 %= mod;
+        return (sum2 << 16) | sum1;
+    }
+
     @Override
     public long getValue() {
         int i = (this.b << 16) | this.a;
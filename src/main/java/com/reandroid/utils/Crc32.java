@@ -15,46 +15,47 @@
  */
 package com.reandroid.utils;
 
-// implemented from http://www.libpng.org/pub/png/spec/1.2/PNG-CRCAppendix.html
-
 import com.reandroid.utils.io.FileUtil;
 
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.zip.CRC32;
 
+/**
+ * CRC-32 (as used by zip), backed by {@link CRC32} which is intrinsified on modern JVMs.
+ * If it is not available a slice-by-8 table implementation is used, processing
+ * eight bytes per step instead of one.
+ * */
 public class Crc32 extends Checksum {
 
-    private static final long[] CRC_TABLE;
-
-    static {
-        long[] table = new long[256];
-        CRC_TABLE = table;
-        for (int i = 0; i < 256; i++) {
-            long c = i;
-            for (int j = 0; j < 8; j++) {
-                if ((c & 1) == 1) {
-                    c = 0xedb88320L ^ (c >> 1);
-                } else {
-                    c = c >> 1;
-                }
-            }
-            table[i] = c;
-        }
-    }
-
-    private long mCrc;
+    private final CRC32 crc32;
+    private int mCrc;
     private long mLength;
 
     public Crc32() {
+        this(JDK_CRC32_AVAILABLE);
+    }
+    Crc32(boolean useJdkCrc32) {
         super();
-        this.mCrc = 0xffffffffL;
+        CRC32 crc32;
+        if (useJdkCrc32) {
+            crc32 = new CRC32();
+        } else {
+            crc32 = null;
+        }
+        this.crc32 = crc32;
+        this.mCrc = 0xffffffff;
     }
 
     @Override
     public long getValue() {
-        return mCrc ^ 0xffffffffL;
+        CRC32 crc32 = this.crc32;
+        if (crc32 != null) {
+            return crc32.getValue();
+        }
+        return (~mCrc) & 0xffffffffL;
     }
 
     public long getLength() {
@@ -63,23 +64,80 @@ public class Crc32 extends Checksum {
 
     @Override
     public void reset() {
-        this.mCrc = 0xffffffffL;
+        CRC32 crc32 = this.crc32;
+        if (crc32 != null) {
+            crc32.reset();
+        }
+        this.mCrc = 0xffffffff;
         this.mLength = 0;
     }
 
     @Override
     public void update(byte[] data, int offset, int length) {
-        long c = mCrc;
-        int end = offset + length;
-        long[] table = CRC_TABLE;
-        for (int i = offset; i < end; i++) {
-            int b = data[i] & 0xff;
-            c = table[(int)((c ^ b) & 0xff)] ^ (c >> 8);
+        CRC32 crc32 = this.crc32;
+        if (crc32 != null) {
+            crc32.update(data, offset, length);
+        } else {
+            this.mCrc = SliceTable.update(mCrc, data, offset, length);
         }
-        this.mCrc = c;
         this.mLength += length;
     }
 
+    /**
+     * Returns crc of two consecutive data as if they were computed at once,
+     * where crc1 is crc of the first part, crc2 and length2 are crc and length of the second part.
+     * Thus, chunks can be checksummed independently (e.g. on different threads) and merged in order.
+     * */
+    public static long combine(long crc1, long crc2, long length2) {
+        if (length2 <= 0) {
+            return crc1;
+        }
+        // zlib crc32_combine: apply length2 zero bytes to crc1 via gf(2) matrix squaring
+        long[] even = new long[32];
+        long[] odd = new long[32];
+        odd[0] = 0xedb88320L;
+        long row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        gf2MatrixSquare(even, odd);
+        gf2MatrixSquare(odd, even);
+        do {
+            gf2MatrixSquare(even, odd);
+            if ((length2 & 1) != 0) {
+                crc1 = gf2MatrixTimes(even, crc1);
+            }
+            length2 >>= 1;
+            if (length2 == 0) {
+                break;
+            }
+            gf2MatrixSquare(odd, even);
+            if ((length2 & 1) != 0) {
+                crc1 = gf2MatrixTimes(odd, crc1);
+            }
+            length2 >>= 1;
+        } while (length2 != 0);
+        return crc1 ^ crc2;
+    }
+    private static long gf2MatrixTimes(long[] matrix, long vector) {
+        long sum = 0;
+        int i = 0;
+        while (vector != 0) {
+            if ((vector & 1) != 0) {
+                sum ^= matrix[i];
+            }
+            vector >>= 1;
+            i++;
+        }
+        return sum;
+    }
+    private static void gf2MatrixSquare(long[] square, long[] matrix) {
+        for (int n = 0; n < 32; n++) {
+            square[n] = gf2MatrixTimes(matrix, matrix[n]);
+        }
+    }
+
     public static long of(byte[] bytes) {
         return of(bytes, 0, bytes.length);
     }
@@ -115,4 +173,72 @@ public class Crc32 extends Checksum {
         stream.close();
         return crc32.getValue();
     }
+
+    private static boolean isJdkCrc32Available() {
+        try {
+            new CRC32().update(new byte[1], 0, 1);
+            return true;
+        } catch (Throwable throwable) {
+            return false;
+        }
+    }
+
+    private static final boolean JDK_CRC32_AVAILABLE = isJdkCrc32Available();
+
+    // table from http://www.libpng.org/pub/png/spec/1.2/PNG-CRCAppendix.html
+    // extended to eight tables for slice-by-8
+    static class SliceTable {
+
+        private static final int[][] TABLES;
+
+        static {
+            int[][] tables = new int[8][256];
+            int[] table = tables[0];
+            for (int i = 0; i < 256; i++) {
+                int c = i;
+                for (int j = 0; j < 8; j++) {
+                    if ((c & 1) == 1) {
+                        c = 0xedb88320 ^ (c >>> 1);
+                    } else {
+                        c = c >>> 1;
+                    }
+                }
+                table[i] = c;
+            }
+            for (int i = 0; i < 256; i++) {
+                int c = table[i];
+                for (int t = 1; t < 8; t++) {
+                    c = table[c & 0xff] ^ (c >>> 8);
+                    tables[t][i] = c;
+                }
+            }
+            TABLES = tables;
+        }
+
+        static int update(int crc, byte[] data, int offset, int length) {
+            int[][] tables = TABLES;
+            int[] t0 = tables[0], t1 = tables[1], t2 = tables[2], t3 = tables[3],
+                    t4 = tables[4], t5 = tables[5], t6 = tables[6], t7 = tables[7];
+            int c = crc;
+            while (length >= 8) {
+                c ^= (data[offset] & 0xff)
+                        | ((data[offset + 1] & 0xff) << 8)
+                        | ((data[offset + 2] & 0xff) << 16)
+                        | ((data[offset + 3] & 0xff) << 24);
+                int high = (data[offset + 4] & 0xff)
+                        | ((data[offset + 5] & 0xff) << 8)
+                        | ((data[offset + 6] & 0xff) << 16)
+                        | ((data[offset + 7] & 0xff) << 24);
+                c = t7[c & 0xff] ^ t6[(c >>> 8) & 0xff] ^ t5[(c >>> 16) & 0xff] ^ t4[c >>> 24]
+                        ^ t3[high & 0xff] ^ t2[(high >>> 8) & 0xff] ^ t1[(high >>> 16) & 0xff] ^ t0[high >>> 24];
+                offset += 8;
+                length -= 8;
+            }
+            int end = offset + length;
+            for (int i = offset; i < end; i++) {
+                c = t0[(c ^ data[i]) & 0xff] ^ (c >>> 8);
+            }
+            return c;
+        }
+    }
 }
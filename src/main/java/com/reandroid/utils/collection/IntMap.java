@@ -0,0 +1,121 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.utils.collection;
+
+/**
+ * Open addressing hash map of primitive int keys, avoids boxing and entry objects
+ * */
+public class IntMap<T> {
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private int mask;
+
+    public IntMap(int initialCapacity) {
+        int capacity = 16;
+        while (capacity < initialCapacity * 2) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+    public IntMap() {
+        this(8);
+    }
+
+    public int size() {
+        return size;
+    }
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    public boolean containsKey(int key) {
+        return values[indexOf(key)] != null;
+    }
+    @SuppressWarnings("unchecked")
+    public T get(int key) {
+        return (T) values[indexOf(key)];
+    }
+    /**
+     * Puts non-null value and returns previous value if any
+     * */
+    @SuppressWarnings("unchecked")
+    public T put(int key, T value) {
+        if (value == null) {
+            throw new NullPointerException("Null value");
+        }
+        int index = indexOf(key);
+        Object previous = values[index];
+        keys[index] = key;
+        values[index] = value;
+        if (previous == null) {
+            size ++;
+            if (size * 2 > keys.length) {
+                rehash(keys.length << 1);
+            }
+        }
+        return (T) previous;
+    }
+    public T putIfAbsent(int key, T value) {
+        T previous = get(key);
+        if (previous == null) {
+            put(key, value);
+        }
+        return previous;
+    }
+    public void clear() {
+        allocate(16);
+    }
+    private int indexOf(int key) {
+        int[] keys = this.keys;
+        Object[] values = this.values;
+        int mask = this.mask;
+        int index = hash(key) & mask;
+        while (values[index] != null && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+    private void rehash(int capacity) {
+        int[] oldKeys = this.keys;
+        Object[] oldValues = this.values;
+        allocate(capacity);
+        int length = oldKeys.length;
+        for (int i = 0; i < length; i++) {
+            Object value = oldValues[i];
+            if (value != null) {
+                int index = indexOf(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                values[index] = value;
+                size ++;
+            }
+        }
+    }
+    private void allocate(int capacity) {
+        this.keys = new int[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+        this.size = 0;
+    }
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+    @Override
+    public String toString() {
+        return "size = " + size();
+    }
+}
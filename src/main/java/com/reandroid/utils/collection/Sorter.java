@@ -20,9 +20,23 @@ public abstract class Sorter {
 
     public boolean sort(int start, int length){
         this.sorted = false;
+        if(isSorted(start, length - 1)){
+            return false;
+        }
         runSort(start, length - 1);
         return this.sorted;
     }
+    // Sections are mostly re-sorted without changes, a linear check is cheaper than
+    // comparisons of quick sort and results the same as it never swaps sorted elements
+    private boolean isSorted(int begin, int end) {
+        for(int i = begin + 1; i <= end; i++) {
+            setMid(i - 1);
+            if(compareToMid(i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
 
     private void runSort(int begin, int end) {
         if(end <= begin){
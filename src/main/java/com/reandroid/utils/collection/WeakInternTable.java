@@ -0,0 +1,190 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.utils.collection;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+/**
+ * Concurrent table of weakly referenced canonical instances, the equivalent of
+ * {@link String#intern()} for arbitrary immutable values. The table is split into
+ * independently locked segments, entries are removed once their value is garbage collected.
+ * */
+public class WeakInternTable<T> {
+
+    private final Segment<T>[] segments;
+    private final int segmentShift;
+
+    public WeakInternTable(int concurrencyLevel) {
+        int count = 1;
+        int shift = 0;
+        while (count < concurrencyLevel) {
+            count <<= 1;
+            shift ++;
+        }
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Segment<T>[] segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment<>();
+        }
+        this.segments = segments;
+        this.segmentShift = 32 - shift;
+    }
+    public WeakInternTable() {
+        this(32);
+    }
+
+    /**
+     * Returns the canonical instance equal to the given value, if none then the given
+     * value becomes canonical
+     * */
+    public T intern(T value) {
+        if (value == null) {
+            return null;
+        }
+        int hash = spread(value.hashCode());
+        return segmentFor(hash).intern(value, hash);
+    }
+    public int size() {
+        int result = 0;
+        for (Segment<T> segment : segments) {
+            result += segment.size();
+        }
+        return result;
+    }
+    public void clear() {
+        for (Segment<T> segment : segments) {
+            segment.clear();
+        }
+    }
+    private Segment<T> segmentFor(int hash) {
+        if (segmentShift == 32) {
+            return segments[0];
+        }
+        return segments[hash >>> segmentShift];
+    }
+
+    private static int spread(int hash) {
+        hash ^= (hash >>> 16);
+        hash *= 0x85ebca6b;
+        hash ^= (hash >>> 13);
+        return hash;
+    }
+
+    static class Segment<T> {
+
+        private final ReferenceQueue<T> queue;
+        private Entry<T>[] table;
+        private int count;
+
+        Segment() {
+            this.queue = new ReferenceQueue<>();
+            this.table = newTable(16);
+        }
+
+        synchronized T intern(T value, int hash) {
+            expunge();
+            Entry<T>[] table = this.table;
+            int index = hash & (table.length - 1);
+            for (Entry<T> entry = table[index]; entry != null; entry = entry.next) {
+                if (entry.hash == hash) {
+                    T existing = entry.get();
+                    if (existing != null && existing.equals(value)) {
+                        return existing;
+                    }
+                }
+            }
+            if (count >= (table.length >> 1) + (table.length >> 2)) {
+                resize();
+                table = this.table;
+                index = hash & (table.length - 1);
+            }
+            table[index] = new Entry<>(value, hash, queue, table[index]);
+            count ++;
+            return value;
+        }
+        synchronized int size() {
+            expunge();
+            return count;
+        }
+        synchronized void clear() {
+            while (queue.poll() != null) {
+                // drain, entries are discarded with the table
+            }
+            this.table = newTable(16);
+            this.count = 0;
+        }
+        private void expunge() {
+            Object polled;
+            while ((polled = queue.poll()) != null) {
+                @SuppressWarnings("unchecked")
+                Entry<T> removed = (Entry<T>) polled;
+                Entry<T>[] table = this.table;
+                int index = removed.hash & (table.length - 1);
+                Entry<T> previous = null;
+                Entry<T> entry = table[index];
+                while (entry != null) {
+                    Entry<T> next = entry.next;
+                    if (entry == removed) {
+                        if (previous == null) {
+                            table[index] = next;
+                        } else {
+                            previous.next = next;
+                        }
+                        count --;
+                        break;
+                    }
+                    previous = entry;
+                    entry = next;
+                }
+            }
+        }
+        private void resize() {
+            Entry<T>[] oldTable = this.table;
+            Entry<T>[] table = newTable(oldTable.length << 1);
+            int mask = table.length - 1;
+            int count = 0;
+            for (Entry<T> entry : oldTable) {
+                while (entry != null) {
+                    Entry<T> next = entry.next;
+                    if (entry.get() != null) {
+                        int index = entry.hash & mask;
+                        entry.next = table[index];
+                        table[index] = entry;
+                        count ++;
+                    }
+                    entry = next;
+                }
+            }
+            this.table = table;
+            this.count = count;
+        }
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private static <T> Entry<T>[] newTable(int length) {
+            return new Entry[length];
+        }
+    }
+    static class Entry<T> extends WeakReference<T> {
+        final int hash;
+        Entry<T> next;
+
+        Entry(T value, int hash, ReferenceQueue<T> queue, Entry<T> next) {
+            super(value, queue);
+            this.hash = hash;
+            this.next = next;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.utils.concurrent;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded pool of worker threads, either owned (created and shut down by this class)
+ * or backed by a caller supplied {@link ExecutorService} which is never shut down here.
+ * */
+public class WorkerPool implements Closeable {
+
+    private final ExecutorService executorService;
+    private final int parallelism;
+    private final boolean ownExecutor;
+
+    public WorkerPool(ExecutorService executorService, int parallelism) {
+        this(executorService, parallelism, false);
+    }
+    private WorkerPool(ExecutorService executorService, int parallelism, boolean ownExecutor) {
+        if (executorService == null) {
+            throw new NullPointerException("Null executor");
+        }
+        if (parallelism < 1) {
+            parallelism = 1;
+        }
+        this.executorService = executorService;
+        this.parallelism = parallelism;
+        this.ownExecutor = ownExecutor;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+    public ExecutorService getExecutorService() {
+        return executorService;
+    }
+    public <T> Future<T> submit(Callable<T> callable) {
+        return executorService.submit(callable);
+    }
+    @Override
+    public void close() {
+        if (ownExecutor) {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Waits for the given task and re-throws its failure as it was thrown by the task
+     * */
+    public static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(ex.getMessage());
+        } catch (ExecutionException ex) {
+            throw rethrow(ex.getCause());
+        }
+    }
+    public static void cancel(Future<?>[] futures) {
+        for (Future<?> future : futures) {
+            if (future != null) {
+                future.cancel(true);
+            }
+        }
+    }
+    private static IOException rethrow(Throwable throwable) {
+        if (throwable instanceof IOException) {
+            return (IOException) throwable;
+        }
+        if (throwable instanceof RuntimeException) {
+            throw (RuntimeException) throwable;
+        }
+        if (throwable instanceof Error) {
+            throw (Error) throwable;
+        }
+        return new IOException(throwable);
+    }
+
+    public static WorkerPool create(int parallelism) {
+        return create(parallelism, "worker");
+    }
+    public static WorkerPool create(int parallelism, String name) {
+        if (parallelism < 1) {
+            parallelism = availableProcessors();
+        }
+        ExecutorService executorService = Executors.newFixedThreadPool(parallelism,
+                new DaemonThreadFactory(name));
+        return new WorkerPool(executorService, parallelism, true);
+    }
+    public static int availableProcessors() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    static class DaemonThreadFactory implements ThreadFactory {
+        private final String name;
+        private final AtomicInteger count;
+
+        DaemonThreadFactory(String name) {
+            this.name = "arsclib-" + name + "-";
+            this.count = new AtomicInteger();
+        }
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, name + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
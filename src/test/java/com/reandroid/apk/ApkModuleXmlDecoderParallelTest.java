@@ -0,0 +1,78 @@
+package com.reandroid.apk;
+
+import com.reandroid.TestUtils;
+import com.reandroid.archive.ByteInputSource;
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.value.Entry;
+import com.reandroid.utils.io.FileUtil;
+import com.reandroid.utils.io.IOUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class ApkModuleXmlDecoderParallelTest {
+
+    @Test
+    public void testParallelDecodeMatchesSequential() throws IOException {
+        File root = new File(TestUtils.getTempDir(), "decode_parallel");
+        FileUtil.deleteDirectory(root);
+        File sequentialDir = new File(root, "sequential");
+        File parallelDir = new File(root, "parallel");
+
+        new ApkModuleXmlDecoder(createApkModule()).decode(sequentialDir);
+
+        ApkModuleXmlDecoder decoder = new ApkModuleXmlDecoder(createApkModule());
+        decoder.setParallelism(4);
+        decoder.decode(parallelDir);
+        Assert.assertNull(decoder.getWorkerPool());
+
+        List<String> expected = listFiles(sequentialDir);
+        List<String> actual = listFiles(parallelDir);
+        Assert.assertTrue(expected.size() > 60);
+        Assert.assertEquals(expected, actual);
+        for (String path : expected) {
+            Assert.assertArrayEquals(path,
+                    IOUtil.readFully(new File(sequentialDir, path)),
+                    IOUtil.readFully(new File(parallelDir, path)));
+        }
+        FileUtil.deleteDirectory(root);
+    }
+    static ApkModule createApkModule() throws IOException {
+        ApkModule apkModule = new ApkModuleTest().createApkModule();
+        PackageBlock packageBlock = apkModule.getTableBlock().pickOne();
+        byte[] layout = IOUtil.readFully(apkModule.getInputSource("res/layout/activity_main.xml").openStream());
+        String[] qualifiers = new String[]{"", "-land", "-de", "-fr-rCA", "-v21"};
+        for (int i = 0; i < 40; i++) {
+            String config = qualifiers[i % qualifiers.length];
+            String path = "res/layout" + config + "/extra_" + i + ".xml";
+            packageBlock.getOrCreate(config, "layout", "extra_" + i).setValueAsString(path);
+            apkModule.add(new ByteInputSource(layout, path));
+
+            path = "res/raw" + config + "/raw_" + i + ".bin";
+            packageBlock.getOrCreate(config, "raw", "raw_" + i).setValueAsString(path);
+            apkModule.add(new ByteInputSource(new byte[]{(byte) i, 1, 2, 3}, path));
+
+            Entry entry = packageBlock.getOrCreate(config, "string", "string_" + i);
+            entry.setValueAsString("Value " + i + config);
+        }
+        apkModule.getTableBlock().refreshFull();
+        return apkModule;
+    }
+    private static List<String> listFiles(File dir) throws IOException {
+        int prefix = dir.getAbsolutePath().length() + 1;
+        try (Stream<Path> stream = Files.walk(dir.toPath())) {
+            return stream.map(Path::toFile)
+                    .filter(File::isFile)
+                    .map(file -> file.getAbsolutePath().substring(prefix))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+}
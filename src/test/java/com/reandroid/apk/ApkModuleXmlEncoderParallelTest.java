@@ -0,0 +1,53 @@
+package com.reandroid.apk;
+
+import com.reandroid.TestUtils;
+import com.reandroid.apk.xmlencoder.XMLEncodeSource;
+import com.reandroid.archive.InputSource;
+import com.reandroid.utils.io.FileUtil;
+import com.reandroid.utils.io.IOUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+public class ApkModuleXmlEncoderParallelTest {
+
+    @Test
+    public void testParallelEncodeMatchesSequential() throws IOException {
+        File dir = new File(TestUtils.getTempDir(), "encode_parallel");
+        FileUtil.deleteDirectory(dir);
+        new ApkModuleXmlDecoder(ApkModuleXmlDecoderParallelTest.createApkModule()).decode(dir);
+
+        ApkModuleXmlEncoder sequential = new ApkModuleXmlEncoder();
+        sequential.scanDirectory(dir);
+
+        ApkModuleXmlEncoder parallel = new ApkModuleXmlEncoder();
+        parallel.setParallelism(4);
+        parallel.scanDirectory(dir);
+        Assert.assertNull(parallel.getWorkerPool());
+
+        ApkModule expected = sequential.getApkModule();
+        ApkModule actual = parallel.getApkModule();
+        Assert.assertArrayEquals(expected.getTableBlock().getBytes(), actual.getTableBlock().getBytes());
+        InputSource[] expectedSources = expected.getZipEntryMap().toArray();
+        InputSource[] actualSources = actual.getZipEntryMap().toArray();
+        Assert.assertTrue(expectedSources.length > 80);
+        Assert.assertEquals(expectedSources.length, actualSources.length);
+        int encoded = 0;
+        for (int i = 0; i < expectedSources.length; i++) {
+            InputSource source = expectedSources[i];
+            if (actualSources[i] instanceof XMLEncodeSource) {
+                Assert.assertTrue(actualSources[i].isThreadSafe());
+                Assert.assertFalse(source.isThreadSafe());
+                encoded ++;
+            }
+            Assert.assertEquals(source.getAlias(), actualSources[i].getAlias());
+            Assert.assertArrayEquals(source.getAlias(),
+                    IOUtil.readFully(source.openStream()),
+                    IOUtil.readFully(actualSources[i].openStream()));
+        }
+        Assert.assertTrue(encoded > 40);
+        FileUtil.deleteDirectory(dir);
+    }
+}
@@ -0,0 +1,86 @@
+package com.reandroid.apk.framework;
+
+import com.reandroid.apk.FrameworkApk;
+import com.reandroid.arsc.model.FrameworkTable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+public class InternalFrameworksTest {
+
+    @Test
+    public void testSharedReferenceCount() {
+        InternalFrameworks frameworks = InternalFrameworks.INSTANCE;
+        int version = frameworks.getLatestVersion();
+        FrameworkApk first = frameworks.acquire(version);
+        FrameworkApk second = frameworks.acquire(version);
+        Assert.assertSame(first, second);
+        Assert.assertSame(first, frameworks.getBestMatch(version));
+        Assert.assertEquals(2, frameworks.getReferenceCount(first));
+        frameworks.release(first);
+        frameworks.release(second);
+        Assert.assertEquals(0, frameworks.getReferenceCount(first));
+        frameworks.release(first);
+        Assert.assertEquals(0, frameworks.getReferenceCount(first));
+    }
+    @Test
+    public void testCurrentPreferred() throws IOException {
+        InternalFrameworks frameworks = InternalFrameworks.INSTANCE;
+        int version = frameworks.getLatestVersion();
+        FrameworkApk shared = frameworks.acquire(version);
+        FrameworkApk custom = FrameworkApk.loadApkBuffer(
+                new ByteArrayInputStream(shared.writeApkBytes()));
+        frameworks.release(shared);
+        FrameworkApk current = frameworks.getCurrent();
+        try {
+            frameworks.setCurrent(custom);
+            Assert.assertSame(custom, frameworks.acquire(version));
+            Assert.assertSame(custom, frameworks.acquireLatest());
+            frameworks.release(custom);
+            Assert.assertSame(custom, frameworks.getBestMatch(version));
+        } finally {
+            frameworks.setCurrent(current);
+        }
+    }
+    @Test
+    public void testSnapshot() throws IOException {
+        InternalFrameworks frameworks = InternalFrameworks.INSTANCE;
+        int version = frameworks.getNearestVersion(30);
+        File dir = Files.createTempDirectory("frameworks").toFile();
+        boolean retainUnused = frameworks.isRetainUnused();
+        try {
+            frameworks.setSnapshotDirectory(dir);
+            frameworks.setRetainUnused(false);
+            frameworks.trimUnused();
+
+            FrameworkApk decoded = frameworks.acquire(version);
+            File[] files = dir.listFiles();
+            Assert.assertNotNull(files);
+            Assert.assertEquals(1, files.length);
+            byte[] expected = decoded.getTableBlock().getBytes();
+            frameworks.release(decoded);
+
+            FrameworkApk mapped = frameworks.acquire(version);
+            Assert.assertNotSame(decoded, mapped);
+            Assert.assertEquals(decoded.getVersionCode(), mapped.getVersionCode());
+            FrameworkTable actual = mapped.getTableBlock();
+            Assert.assertArrayEquals(expected, actual.getBytes());
+            frameworks.release(mapped);
+            mapped.close();
+        } finally {
+            frameworks.setSnapshotDirectory(null);
+            frameworks.setRetainUnused(retainUnused);
+            File[] files = dir.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+            dir.delete();
+        }
+    }
+}
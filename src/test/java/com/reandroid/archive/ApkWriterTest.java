@@ -3,12 +3,29 @@ package com.reandroid.archive;
 import com.reandroid.apk.ApkModule;
 import com.reandroid.apk.ApkModuleTest;
 import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.archive.io.ArchiveEntrySource;
+import com.reandroid.archive.writer.ApkByteWriter;
+import com.reandroid.archive.writer.ApkFileWriter;
+import com.reandroid.archive.writer.ApkStreamWriter;
+import com.reandroid.archive.writer.CompressionSetting;
 import com.reandroid.arsc.chunk.xml.AndroidManifestBlock;
+import com.reandroid.utils.io.IOUtil;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.Deflater;
 
 public class ApkWriterTest {
     @Test
@@ -41,6 +58,160 @@ public class ApkWriterTest {
         Assert.assertNotNull("Missing classes.dex", inputSource);
     }
 
+    @Test
+    public void testParallelWriteIsIdentical() throws IOException {
+        byte[] bytes = getApkModule().writeApkBytes();
+        InputSource[] sources = ApkModule.readApkBytes(bytes).getZipEntryMap().toArray(true);
+
+        ApkByteWriter sequential = new ApkByteWriter(sources);
+        sequential.write();
+        byte[] expected = sequential.toByteArray();
+
+        ApkByteWriter parallel = new ApkByteWriter(sources);
+        parallel.setParallelism(4);
+        parallel.write();
+        Assert.assertArrayEquals("Parallel byte writer", expected, parallel.toByteArray());
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ApkStreamWriter streamWriter = new ApkStreamWriter(outputStream, sources);
+        streamWriter.setParallelism(3);
+        streamWriter.write();
+        Assert.assertArrayEquals("Parallel stream writer", expected, outputStream.toByteArray());
+
+        File file = File.createTempFile("parallel", ".apk");
+        file.deleteOnExit();
+        ApkFileWriter fileWriter = new ApkFileWriter(file, sources);
+        fileWriter.setParallelism(4);
+        fileWriter.write();
+        byte[] fileBytes = IOUtil.readFully(file);
+        file.delete();
+        Assert.assertArrayEquals("Parallel file writer", expected, fileBytes);
+    }
+
+    @Test
+    public void testFailedWriteDeletesBuffers() throws IOException {
+        byte[] bytes = new byte[1000];
+        InputSource[] sources = new InputSource[20];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = new ByteInputSource(bytes, "file" + i + ".txt");
+        }
+        sources[10] = new ByteInputSource(bytes, "broken.txt") {
+            @Override
+            public InputStream openStream() throws IOException {
+                throw new IOException("Broken source");
+            }
+            @Override
+            public long write(OutputStream outputStream) throws IOException {
+                throw new IOException("Broken source");
+            }
+        };
+        File dir = Files.createTempDirectory("writer").toFile();
+        File file = new File(dir, "out.apk");
+        ApkFileWriter fileWriter = new ApkFileWriter(file, sources);
+        fileWriter.setParallelism(4);
+        try {
+            fileWriter.write();
+            Assert.fail("Expecting IOException");
+        } catch (IOException ignored) {
+        }
+        file.delete();
+        String[] remaining = dir.list();
+        dir.delete();
+        Assert.assertNotNull(remaining);
+        Assert.assertEquals(Arrays.toString(remaining), 0, remaining.length);
+    }
+    @Test
+    public void testDirectWriteMatchesBuffered() throws IOException {
+        byte[] bytes = getApkModule().writeApkBytes();
+        byte[] large = new byte[ApkFileWriter.DIRECT_MEMORY_LIMIT * 2 + 100];
+        new Random(3).nextBytes(large);
+        for (int i = 0; i < large.length; i += 2) {
+            large[i] = 0;
+        }
+        File buffered = writeFile(bytes, large, false);
+        File direct = writeFile(bytes, large, true);
+        ArchiveFile expected = new ArchiveFile(buffered);
+        ArchiveFile archive = new ArchiveFile(direct);
+        Assert.assertEquals(expected.size(), archive.size());
+        for (InputSource inputSource : expected.getInputSources()) {
+            String name = inputSource.getAlias();
+            InputSource result = archive.getEntrySource(name);
+            Assert.assertNotNull("Missing: " + name, result);
+            Assert.assertEquals(name, inputSource.getMethod(), result.getMethod());
+            Assert.assertArrayEquals(name, IOUtil.readFully(inputSource.openStream()),
+                    IOUtil.readFully(result.openStream()));
+        }
+        // local headers alone must be correct for streaming readers
+        ZipInputStream zipInputStream = new ZipInputStream(new FileInputStream(direct));
+        int count = 0;
+        ZipEntry zipEntry;
+        while ((zipEntry = zipInputStream.getNextEntry()) != null) {
+            InputSource inputSource = expected.getEntrySource(zipEntry.getName());
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            IOUtil.writeAll(zipInputStream, outputStream, false);
+            Assert.assertArrayEquals(zipEntry.getName(), IOUtil.readFully(inputSource.openStream()),
+                    outputStream.toByteArray());
+            count ++;
+        }
+        zipInputStream.close();
+        Assert.assertEquals(expected.size(), count);
+        expected.close();
+        archive.close();
+        buffered.delete();
+        direct.delete();
+    }
+    private static File writeFile(byte[] apkBytes, byte[] large, boolean direct) throws IOException {
+        InputSource[] sources = ApkModule.readApkBytes(apkBytes).getZipEntryMap().toArray(true);
+        ByteInputSource stored = new ByteInputSource(large, "assets/stored.bin");
+        stored.setMethod(Archive.STORED);
+        InputSource[] results = Arrays.copyOf(sources, sources.length + 2);
+        results[sources.length] = stored;
+        results[sources.length + 1] = new ByteInputSource(large, "assets/deflated.bin");
+        File file = File.createTempFile("direct", ".apk");
+        file.deleteOnExit();
+        ApkFileWriter writer = new ApkFileWriter(file, results);
+        writer.setDirectWrite(direct);
+        writer.write();
+        return file;
+    }
+
+    @Test
+    public void testCompressionSetting() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            builder.append("entry ").append(i % 97).append(' ').append(i * 31 % 1013).append('\n');
+        }
+        byte[] text = builder.toString().getBytes(StandardCharsets.UTF_8);
+        ApkByteWriter fast = new ApkByteWriter(createSources(text));
+        fast.setCompressionSetting(CompressionSetting.fastest());
+        fast.write();
+        // byte sources are disposed after writing
+        ApkByteWriter smallest = new ApkByteWriter(createSources(text));
+        smallest.getCompressionSetting().setLevel(Deflater.BEST_COMPRESSION);
+        smallest.getCompressionSetting().setLevel("DAT", Deflater.NO_COMPRESSION);
+        smallest.write();
+
+        ArchiveBytes fastArchive = new ArchiveBytes(fast.toByteArray());
+        ArchiveBytes smallArchive = new ArchiveBytes(smallest.toByteArray());
+        Assert.assertTrue(dataSize(smallArchive, "a.txt") < dataSize(fastArchive, "a.txt"));
+        Assert.assertTrue(dataSize(smallArchive, "b.dat") > text.length);
+        for (ArchiveBytes archive : new ArchiveBytes[]{fastArchive, smallArchive}) {
+            for (String name : new String[]{"a.txt", "b.dat"}) {
+                InputStream inputStream = archive.getEntrySource(name).openStream();
+                Assert.assertArrayEquals(text, IOUtil.readFully(inputStream));
+            }
+        }
+    }
+    private static InputSource[] createSources(byte[] bytes) {
+        return new InputSource[]{
+                new ByteInputSource(bytes, "a.txt"),
+                new ByteInputSource(bytes, "b.dat")
+        };
+    }
+    private static long dataSize(Archive<?> archive, String name) {
+        return ((ArchiveEntrySource<?>) archive.getEntrySource(name)).getArchiveEntry().getDataSize();
+    }
+
     private ApkModule getApkModule() throws IOException {
         ApkModuleTest apkModuleTest = new ApkModuleTest();
         return apkModuleTest.createApkModule();
@@ -0,0 +1,58 @@
+package com.reandroid.archive;
+
+import com.reandroid.apk.ApkModule;
+import com.reandroid.apk.ApkModuleTest;
+import com.reandroid.archive.io.ArchiveMappedEntrySource;
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.arsc.io.BlockReader;
+import com.reandroid.utils.io.IOUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+public class ArchiveMappedTest {
+
+    @Test
+    public void testMappedArchive() throws IOException {
+        ApkModule apkModule = new ApkModuleTest().createApkModule();
+        apkModule.getUncompressedFiles().addPath(TableBlock.FILE_NAME);
+        byte[] apkBytes = apkModule.writeApkBytes();
+        File file = File.createTempFile("mapped", ".apk");
+        file.deleteOnExit();
+        IOUtil.writeAll(new ByteArrayInputStream(apkBytes), file);
+
+        ArchiveBytes archiveBytes = new ArchiveBytes(apkBytes);
+        ArchiveMapped archiveMapped = new ArchiveMapped(file);
+        InputSource[] expected = archiveBytes.getInputSources();
+        InputSource[] sources = archiveMapped.getInputSources();
+        Assert.assertEquals(expected.length, sources.length);
+        for (int i = 0; i < sources.length; i++) {
+            Assert.assertArrayEquals(sources[i].getAlias(),
+                    readAll(expected[i]), readAll(sources[i]));
+        }
+
+        ArchiveMappedEntrySource tableSource = (ArchiveMappedEntrySource)
+                archiveMapped.getEntrySource(TableBlock.FILE_NAME);
+        ByteBuffer byteBuffer = tableSource.getStoredBuffer();
+        Assert.assertNotNull("Stored table buffer", byteBuffer);
+        Assert.assertFalse("Zero copy", byteBuffer.hasArray());
+        BlockReader reader = new BlockReader(tableSource.openStream());
+        Assert.assertTrue(reader.isMapped());
+        Assert.assertNull("Mapped reader has no backing array", reader.getBuffer());
+        TableBlock tableBlock = new TableBlock();
+        tableBlock.readBytes(reader);
+        Assert.assertEquals(apkModule.getTableBlock().size(), tableBlock.size());
+
+        archiveMapped.close();
+        file.delete();
+    }
+    private static byte[] readAll(InputSource inputSource) throws IOException {
+        InputStream inputStream = inputSource.openStream();
+        return IOUtil.readFully(inputStream);
+    }
+}
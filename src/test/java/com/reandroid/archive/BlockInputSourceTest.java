@@ -0,0 +1,75 @@
+package com.reandroid.archive;
+
+import com.reandroid.apk.AndroidFrameworks;
+import com.reandroid.apk.ApkModule;
+import com.reandroid.apk.ApkModuleTest;
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.utils.io.IOUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+public class BlockInputSourceTest {
+
+    @Test
+    public void testCachedLengthCrcAndBytes() throws IOException {
+        byte[] bytes = IOUtil.readFully(AndroidFrameworks.getLatest()
+                .getInputSource(TableBlock.FILE_NAME).openStream());
+        TableBlock tableBlock = TableBlock.load(new ByteArrayInputStream(bytes));
+        BlockInputSource<TableBlock> inputSource = new BlockInputSource<>(TableBlock.FILE_NAME, tableBlock);
+        assertSerialized(inputSource, bytes);
+
+        inputSource.setSpillThreshold(1024);
+        assertSerialized(inputSource, bytes);
+
+        inputSource.getBlock().pickOne().setName("com.example.renamed");
+        byte[] renamed = inputSource.getBytes();
+        Assert.assertFalse(Arrays.equals(bytes, renamed));
+        Assert.assertEquals(renamed.length, inputSource.getLength());
+        Assert.assertEquals(crcOf(renamed), inputSource.getCrc());
+        Assert.assertEquals("com.example.renamed", TableBlock.load(
+                new ByteArrayInputStream(renamed)).pickOne().getName());
+        inputSource.disposeInputSource();
+    }
+    @Test
+    public void testModifiedThroughModuleBetweenWrites() throws IOException {
+        ApkModule apkModule = ApkModule.readApkBytes(new ApkModuleTest().createApkModule().writeApkBytes());
+        TableBlock tableBlock = apkModule.getTableBlock();
+        BlockInputSource<?> inputSource = (BlockInputSource<?>) apkModule.getInputSource(TableBlock.FILE_NAME);
+        long crc = inputSource.getCrc();
+
+        tableBlock.pickOne().setName("second.name");
+        Assert.assertNotEquals(crc, inputSource.getCrc());
+        Assert.assertEquals("second.name", writtenPackageName(apkModule));
+
+        byte[] bytes = inputSource.getBytes();
+        bytes[bytes.length - 1] ++;
+        Assert.assertFalse(Arrays.equals(bytes, inputSource.getBytes()));
+
+        apkModule.getTableBlock().pickOne().setName("third.name");
+        Assert.assertEquals("third.name", writtenPackageName(apkModule));
+    }
+    private static String writtenPackageName(ApkModule apkModule) throws IOException {
+        ApkModule written = ApkModule.readApkBytes(apkModule.writeApkBytes());
+        return written.getTableBlock().pickOne().getName();
+    }
+    private static void assertSerialized(BlockInputSource<?> inputSource, byte[] expected) throws IOException {
+        Assert.assertEquals(expected.length, inputSource.getLength());
+        Assert.assertEquals(crcOf(expected), inputSource.getCrc());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Assert.assertEquals(expected.length, inputSource.write(outputStream));
+        Assert.assertArrayEquals(expected, outputStream.toByteArray());
+        Assert.assertArrayEquals(expected, IOUtil.readFully(inputSource.openStream()));
+        Assert.assertArrayEquals(expected, inputSource.getBytes());
+    }
+    private static long crcOf(byte[] bytes) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(bytes, 0, bytes.length);
+        return crc32.getValue();
+    }
+}
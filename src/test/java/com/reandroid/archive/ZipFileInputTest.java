@@ -0,0 +1,59 @@
+package com.reandroid.archive;
+
+import com.reandroid.apk.ApkModuleTest;
+import com.reandroid.archive.io.ZipFileInput;
+import com.reandroid.utils.io.IOUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ZipFileInputTest {
+
+    @Test
+    public void testConcurrentPositionalRead() throws Exception {
+        byte[] apkBytes = new ApkModuleTest().createApkModule().writeApkBytes();
+        File file = File.createTempFile("positional", ".apk");
+        file.deleteOnExit();
+        IOUtil.writeAll(new ByteArrayInputStream(apkBytes), file);
+
+        ArchiveBytes archiveBytes = new ArchiveBytes(apkBytes);
+        ArchiveFile archiveFile = new ArchiveFile(new ZipFileInput(file, true));
+        InputSource[] expected = archiveBytes.getInputSources();
+        InputSource[] sources = archiveFile.getInputSources();
+        Assert.assertEquals(expected.length, sources.length);
+        Assert.assertTrue(sources[0].isThreadSafe());
+
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            for (int round = 0; round < 4; round++) {
+                List<Future<byte[]>> futures = new ArrayList<>();
+                for (InputSource inputSource : sources) {
+                    futures.add(executorService.submit(() -> readAll(inputSource)));
+                }
+                for (int i = 0; i < sources.length; i++) {
+                    Assert.assertArrayEquals(sources[i].getAlias(),
+                            readAll(expected[i]), futures.get(i).get());
+                }
+            }
+        } finally {
+            executorService.shutdownNow();
+            archiveFile.close();
+            file.delete();
+        }
+    }
+    private static byte[] readAll(InputSource inputSource) throws IOException {
+        InputStream inputStream = inputSource.openStream();
+        byte[] bytes = IOUtil.readFully(inputStream);
+        inputStream.close();
+        return bytes;
+    }
+}
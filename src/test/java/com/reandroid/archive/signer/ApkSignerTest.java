@@ -0,0 +1,237 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.archive.signer;
+
+import com.reandroid.apk.ApkModule;
+import com.reandroid.apk.ApkModuleTest;
+import com.reandroid.archive.ArchiveBytes;
+import com.reandroid.archive.ByteInputSource;
+import com.reandroid.archive.InputSource;
+import com.reandroid.archive.block.ApkSignatureBlock;
+import com.reandroid.archive.block.SignatureId;
+import com.reandroid.archive.writer.ApkByteWriter;
+import com.reandroid.archive.writer.ApkFileWriter;
+import com.reandroid.utils.io.IOUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.Signature;
+import java.security.cert.X509Certificate;
+import java.util.Enumeration;
+import java.util.Random;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+
+public class ApkSignerTest {
+
+    @Test
+    public void testSignedWhileWriting() throws Exception {
+        ApkSigner apkSigner = loadSigner();
+
+        ApkByteWriter sequential = new ApkByteWriter(createSources());
+        sequential.setApkSigner(apkSigner);
+        sequential.write();
+        byte[] expected = sequential.toByteArray();
+
+        File file = File.createTempFile("signed", ".apk");
+        file.deleteOnExit();
+        ApkFileWriter fileWriter = new ApkFileWriter(file, createSources());
+        fileWriter.setApkSigner(apkSigner);
+        fileWriter.setParallelism(4);
+        fileWriter.write();
+        Assert.assertArrayEquals("Parallel signed file writer", expected, IOUtil.readFully(file));
+
+        verifySigningBlock(expected, apkSigner.getCertificate());
+        verifyJarSignature(file);
+        file.delete();
+
+        ApkSignatureBlock signatureBlock = new ArchiveBytes(expected).getApkSignatureBlock();
+        Assert.assertNotNull("Missing signature block", signatureBlock);
+        Assert.assertNotNull("Missing V2", signatureBlock.getSignature(SignatureId.V2));
+        Assert.assertNotNull("Missing V3", signatureBlock.getSignature(SignatureId.V3));
+    }
+
+    @Test
+    public void testSignedDirectWrite() throws Exception {
+        ApkSigner apkSigner = loadSigner();
+        InputSource[] sources = createSources();
+        byte[] large = new byte[ApkFileWriter.DIRECT_MEMORY_LIMIT * 2];
+        new Random(5).nextBytes(large);
+        InputSource[] results = new InputSource[sources.length + 1];
+        System.arraycopy(sources, 0, results, 0, sources.length);
+        // deflated beyond memory limit is written with a data descriptor
+        results[sources.length] = new ByteInputSource(large, "assets/deflated.bin");
+
+        File file = File.createTempFile("direct", ".apk");
+        file.deleteOnExit();
+        ApkFileWriter fileWriter = new ApkFileWriter(file, results);
+        fileWriter.setApkSigner(apkSigner);
+        fileWriter.setDirectWrite(true);
+        fileWriter.write();
+        verifySigningBlock(IOUtil.readFully(file), apkSigner.getCertificate());
+        verifyJarSignature(file);
+        file.delete();
+    }
+
+    private InputSource[] createSources() throws IOException {
+        ApkModule apkModule = new ApkModuleTest().createApkModule();
+        InputSource[] sources = ApkModule.readApkBytes(apkModule.writeApkBytes())
+                .getZipEntryMap().toArray(true);
+        // spans over several digest chunks
+        byte[] large = new byte[ContentDigest.CHUNK_SIZE * 3 + 1000];
+        new Random(7).nextBytes(large);
+        ByteInputSource largeSource = new ByteInputSource(large, "assets/large.bin");
+        largeSource.setMethod(ZipEntry.STORED);
+        InputSource[] results = new InputSource[sources.length + 1];
+        System.arraycopy(sources, 0, results, 0, sources.length);
+        results[sources.length] = largeSource;
+        return results;
+    }
+    private static void verifyJarSignature(File file) throws IOException {
+        JarFile jarFile = new JarFile(file, true);
+        Enumeration<JarEntry> entries = jarFile.entries();
+        byte[] buffer = new byte[4096];
+        int signed = 0;
+        while (entries.hasMoreElements()){
+            JarEntry entry = entries.nextElement();
+            InputStream inputStream = jarFile.getInputStream(entry);
+            while (inputStream.read(buffer) >= 0){
+                // read fully to verify
+            }
+            inputStream.close();
+            if(entry.getName().startsWith("META-INF/")){
+                continue;
+            }
+            Assert.assertNotNull("Not signed: " + entry.getName(), entry.getCodeSigners());
+            signed ++;
+        }
+        jarFile.close();
+        Assert.assertTrue("No signed entries", signed > 0);
+    }
+    /**
+     * Verifies digest and signatures of v2 and v3 using independent implementation
+     * */
+    private static void verifySigningBlock(byte[] apk, X509Certificate certificate) throws Exception {
+        ByteBuffer buffer = ByteBuffer.wrap(apk).order(ByteOrder.LITTLE_ENDIAN);
+        int endRecord = apk.length - 22;
+        Assert.assertEquals(0x06054b50, buffer.getInt(endRecord));
+        int centralDirectory = buffer.getInt(endRecord + 16);
+        String magic = new String(apk, centralDirectory - 16, 16, StandardCharsets.US_ASCII);
+        Assert.assertEquals("APK Sig Block 42", magic);
+        int blockStart = (int) (centralDirectory - buffer.getLong(centralDirectory - 24) - 8);
+        Assert.assertEquals(0, blockStart % 4096);
+
+        byte[] endRecordBytes = new byte[22];
+        System.arraycopy(apk, endRecord, endRecordBytes, 0, 22);
+        ByteBuffer.wrap(endRecordBytes).order(ByteOrder.LITTLE_ENDIAN).putInt(16, blockStart);
+        byte[] expected = chunkedDigest(
+                ByteBuffer.wrap(apk, 0, blockStart),
+                ByteBuffer.wrap(apk, centralDirectory, endRecord - centralDirectory),
+                ByteBuffer.wrap(endRecordBytes));
+
+        ByteBuffer pairs = slice(buffer, blockStart + 8, centralDirectory - 24 - blockStart - 8);
+        int verified = 0;
+        while (pairs.hasRemaining()){
+            int length = (int) pairs.getLong();
+            int id = pairs.getInt();
+            ByteBuffer value = slice(pairs, pairs.position(), length - 4);
+            pairs.position(pairs.position() + length - 4);
+            boolean v3 = id == SignatureId.V3.getId();
+            if(id != SignatureId.V2.getId() && !v3){
+                continue;
+            }
+            ByteBuffer signer = lengthPrefixed(lengthPrefixed(value));
+            ByteBuffer signedData = lengthPrefixed(signer);
+            byte[] signedDataBytes = toArray(signedData.duplicate());
+            ByteBuffer digest = lengthPrefixed(lengthPrefixed(signedData));
+            Assert.assertEquals(0x0103, digest.getInt());
+            Assert.assertArrayEquals("Content digest", expected, toArray(lengthPrefixed(digest)));
+            ByteBuffer certificates = lengthPrefixed(signedData);
+            Assert.assertArrayEquals(certificate.getEncoded(), toArray(lengthPrefixed(certificates)));
+            if(v3){
+                signer.getInt();
+                signer.getInt();
+            }
+            ByteBuffer signature = lengthPrefixed(lengthPrefixed(signer));
+            Assert.assertEquals(0x0103, signature.getInt());
+            Signature verifier = Signature.getInstance("SHA256withRSA");
+            verifier.initVerify(certificate.getPublicKey());
+            verifier.update(signedDataBytes);
+            Assert.assertTrue("Invalid signature", verifier.verify(toArray(lengthPrefixed(signature))));
+            Assert.assertArrayEquals(certificate.getPublicKey().getEncoded(),
+                    toArray(lengthPrefixed(signer)));
+            verified ++;
+        }
+        Assert.assertEquals(2, verified);
+    }
+    private static byte[] chunkedDigest(ByteBuffer... sections) throws Exception {
+        MessageDigest top = MessageDigest.getInstance("SHA-256");
+        MessageDigest chunkDigest = MessageDigest.getInstance("SHA-256");
+        ByteBuffer digests = ByteBuffer.allocate(32 * 100).order(ByteOrder.LITTLE_ENDIAN);
+        int count = 0;
+        for(ByteBuffer section : sections){
+            while (section.hasRemaining()){
+                int length = Math.min(section.remaining(), 1024 * 1024);
+                ByteBuffer header = ByteBuffer.allocate(5).order(ByteOrder.LITTLE_ENDIAN);
+                header.put((byte) 0xa5).putInt(length);
+                chunkDigest.update(header.array());
+                chunkDigest.update(section.array(), section.arrayOffset() + section.position(), length);
+                section.position(section.position() + length);
+                digests.put(chunkDigest.digest());
+                count ++;
+            }
+        }
+        ByteBuffer header = ByteBuffer.allocate(5).order(ByteOrder.LITTLE_ENDIAN);
+        header.put((byte) 0x5a).putInt(count);
+        top.update(header.array());
+        top.update(digests.array(), 0, digests.position());
+        return top.digest();
+    }
+    private static ByteBuffer lengthPrefixed(ByteBuffer buffer){
+        int length = buffer.getInt();
+        ByteBuffer result = slice(buffer, buffer.position(), length);
+        buffer.position(buffer.position() + length);
+        return result;
+    }
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int length){
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(offset);
+        duplicate.limit(offset + length);
+        return duplicate.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+    private static byte[] toArray(ByteBuffer buffer){
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+    private static ApkSigner loadSigner() throws Exception {
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        InputStream inputStream = ApkSignerTest.class.getResourceAsStream("/test-signer.p12");
+        char[] password = "android".toCharArray();
+        keyStore.load(inputStream, password);
+        inputStream.close();
+        return ApkSigner.fromKeyStore(keyStore, "test", password);
+    }
+}
@@ -0,0 +1,146 @@
+package com.reandroid.arsc.chunk;
+
+import com.reandroid.apk.AndroidFrameworks;
+import com.reandroid.arsc.container.SpecTypePair;
+import com.reandroid.arsc.model.ResourceEntry;
+import com.reandroid.arsc.value.Entry;
+import com.reandroid.arsc.value.ResConfig;
+import com.reandroid.arsc.value.ResValue;
+import com.reandroid.utils.io.IOUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class TableBlockConcurrentReadTest {
+
+    @Test
+    public void testConcurrentLookupsMatchSequential() throws Exception {
+        byte[] bytes = IOUtil.readFully(AndroidFrameworks.getLatest()
+                .getInputSource(TableBlock.FILE_NAME).openStream());
+        TableBlock sequential = TableBlock.load(new ByteArrayInputStream(bytes));
+        List<Integer> idList = new ArrayList<>();
+        Iterator<ResourceEntry> iterator = sequential.getResources();
+        while (iterator.hasNext()) {
+            idList.add(iterator.next().getResourceId());
+        }
+        Assert.assertTrue(idList.size() > 1000);
+        List<String> expected = new ArrayList<>(idList.size());
+        for (int id : idList) {
+            expected.add(describe(sequential, id));
+        }
+
+        // a fresh table so that all lazy state is first touched concurrently
+        TableBlock shared = TableBlock.loadShared(bytes);
+        int threads = 8;
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                int start = i * idList.size() / threads;
+                futures.add(executorService.submit(() -> {
+                    int size = idList.size();
+                    for (int j = 0; j < size; j++) {
+                        int index = (start + j) % size;
+                        String description = describe(shared, idList.get(index));
+                        if (!expected.get(index).equals(description)) {
+                            throw new AssertionError("Expecting: " + expected.get(index)
+                                    + ", but got: " + description);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+    @Test
+    public void testConcurrentConfigLookups() throws Exception {
+        TableBlock tableBlock = new TableBlock();
+        PackageBlock packageBlock = tableBlock.newPackage(0x7f, "com.example");
+        String[] languages = {"", "fr", "fr-rCA", "de", "ja", "zh-rTW", "b+sr+Latn", "ar"};
+        String[] densities = {"", "-mdpi", "-hdpi", "-xhdpi", "-land", "-night", "-v21", "-sw600dp"};
+        String[] types = {"string", "integer", "bool"};
+        List<String> typeList = new ArrayList<>();
+        List<String> qualifiersList = new ArrayList<>();
+        for (String type : types) {
+            for (String language : languages) {
+                for (String density : densities) {
+                    String qualifiers = language.length() == 0 && density.length() != 0
+                            ? density.substring(1) : language + density;
+                    Entry entry = packageBlock.getOrCreate(qualifiers, type, "name");
+                    entry.setValueAsBoolean(true);
+                    typeList.add(type);
+                    qualifiersList.add(entry.getResConfig().getQualifiers());
+                }
+            }
+        }
+        tableBlock.refresh();
+        byte[] bytes = tableBlock.getBytes();
+        int size = qualifiersList.size();
+        int threads = 8;
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        try {
+            // fresh tables, so that the qualifiers maps are first built concurrently
+            for (int round = 0; round < 16; round++) {
+                PackageBlock shared = TableBlock.loadShared(bytes).pickOne();
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    int start = i * size / threads;
+                    futures.add(executorService.submit(() -> {
+                        for (int j = 0; j < size; j++) {
+                            int index = (start + j) % size;
+                            String qualifiers = qualifiersList.get(index);
+                            SpecTypePair specTypePair = shared.getSpecTypePair(typeList.get(index));
+                            TypeBlock byName = specTypePair.getTypeBlock(qualifiers);
+                            TypeBlock byConfig = specTypePair.getTypeBlock(ResConfig.parse(qualifiers));
+                            if (byName == null || !qualifiers.equals(byName.getQualifiers())) {
+                                throw new AssertionError("Lookup failed: " + qualifiers);
+                            }
+                            if (byName != byConfig) {
+                                throw new AssertionError("Config lookup mismatch: " + qualifiers);
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+    private static String describe(TableBlock tableBlock, int resourceId) throws IOException {
+        ResourceEntry resourceEntry = tableBlock.getResource(resourceId);
+        StringBuilder builder = new StringBuilder();
+        builder.append(resourceEntry.buildReference());
+        Entry byName = tableBlock.getEntry(resourceEntry.getPackageName(),
+                resourceEntry.getType(), resourceEntry.getName());
+        if (byName != null) {
+            // duplicate names resolve in identity hash order, compare the name only
+            builder.append(' ').append(byName.getTypeName()).append('/').append(byName.getName());
+        }
+        for (Entry entry : resourceEntry) {
+            builder.append(" [").append(entry.getResConfig().getQualifiers()).append(']');
+            ResValue resValue = entry.getResValue();
+            if (resValue != null) {
+                builder.append(resValue.decodeValue());
+            }
+        }
+        builder.append(' ').append(tableBlock.resolveReference(resourceId).size());
+        return builder.toString();
+    }
+}
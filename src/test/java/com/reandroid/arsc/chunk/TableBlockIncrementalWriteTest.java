@@ -0,0 +1,90 @@
+package com.reandroid.arsc.chunk;
+
+import com.reandroid.apk.AndroidFrameworks;
+import com.reandroid.arsc.container.SpecTypePair;
+import com.reandroid.arsc.model.ResourceEntry;
+import com.reandroid.arsc.value.Entry;
+import com.reandroid.arsc.value.ValueType;
+import com.reandroid.utils.io.IOUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+public class TableBlockIncrementalWriteTest {
+
+    @Test
+    public void testUnchangedChunksReuseSource() throws IOException {
+        byte[] bytes = IOUtil.readFully(AndroidFrameworks.getLatest()
+                .getInputSource(TableBlock.FILE_NAME).openStream());
+        TableBlock shared = TableBlock.loadShared(bytes.clone());
+        shared.refresh();
+        int total = countTypeBlocks(shared, false);
+        Assert.assertTrue(total > 10);
+        Assert.assertEquals(total, countTypeBlocks(shared, true));
+        Assert.assertArrayEquals(bytes, shared.getBytes());
+    }
+    @Test
+    public void testModifiedMatchesFullWrite() throws IOException {
+        byte[] bytes = IOUtil.readFully(AndroidFrameworks.getLatest()
+                .getInputSource(TableBlock.FILE_NAME).openStream());
+        TableBlock copied = TableBlock.load(new ByteArrayInputStream(bytes));
+        TableBlock shared = TableBlock.loadShared(bytes.clone());
+
+        int valueId = 0;
+        int removeId = 0;
+        Iterator<ResourceEntry> iterator = copied.pickOne().getResources("integer");
+        while (iterator.hasNext() && (valueId == 0 || removeId == 0)) {
+            Entry entry = iterator.next().get();
+            if (entry == null || entry.getResValue() == null) {
+                continue;
+            }
+            if (valueId == 0) {
+                valueId = entry.getResourceId();
+            } else {
+                removeId = entry.getResourceId();
+            }
+        }
+        Assert.assertNotEquals(0, removeId);
+        modify(copied, valueId, removeId);
+        modify(shared, valueId, removeId);
+
+        Entry entry = shared.getResource(valueId).get();
+        Assert.assertFalse(entry.getTypeBlock().isSourceUnchanged());
+
+        copied.refresh();
+        shared.refresh();
+        Assert.assertArrayEquals(copied.getBytes(), shared.getBytes());
+        Assert.assertTrue(countTypeBlocks(shared, true) > 10);
+        Assert.assertFalse(entry.getTypeBlock().isSourceUnchanged());
+
+        TableBlock reloaded = TableBlock.load(new ByteArrayInputStream(shared.getBytes()));
+        Assert.assertEquals("com.example.renamed", reloaded.pickOne().getName());
+        Assert.assertEquals(0x1234, reloaded.getResource(valueId).get().getResValue().getData());
+    }
+    private static void modify(TableBlock tableBlock, int valueId, int removeId) {
+        PackageBlock packageBlock = tableBlock.pickOne();
+        packageBlock.setName("com.example.renamed");
+        Entry entry = tableBlock.getResource(valueId).get();
+        entry.setValueAsRaw(ValueType.DEC, 0x1234);
+        tableBlock.getResource(removeId).get().setNull(true);
+        // a new key name would re-sort key strings and modify most types
+        packageBlock.getOrCreate("fr", entry.getTypeName(), entry.getName())
+                .setValueAsRaw(ValueType.DEC, 0x5678);
+    }
+    private static int countTypeBlocks(TableBlock tableBlock, boolean unchangedOnly) {
+        int result = 0;
+        for (SpecTypePair specTypePair : tableBlock.pickOne().listSpecTypePairs()) {
+            Iterator<TypeBlock> iterator = specTypePair.iterator();
+            while (iterator.hasNext()) {
+                TypeBlock typeBlock = iterator.next();
+                if (!unchangedOnly || typeBlock.isSourceUnchanged()) {
+                    result ++;
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,67 @@
+package com.reandroid.arsc.chunk;
+
+import com.reandroid.apk.AndroidFrameworks;
+import com.reandroid.arsc.model.ResourceEntry;
+import com.reandroid.arsc.value.Entry;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+public class TableBlockResourceIndexTest {
+
+    @Test
+    public void testIndexedLookupMatchesScan() throws IOException {
+        TableBlock framework = AndroidFrameworks.getLatest().getTableBlock();
+        TableBlock tableBlock = new TableBlock();
+        PackageBlock packageBlock = tableBlock.newPackage(0x7f, "com.example");
+        packageBlock.getOrCreate("", "string", "app_name");
+        packageBlock.getOrCreate("-v21", "style", "AppTheme");
+        tableBlock.addFramework(framework);
+        tableBlock.refresh();
+
+        int count = 0;
+        Iterator<PackageBlock> iterator = tableBlock.getAllPackages();
+        while (iterator.hasNext()) {
+            Iterator<ResourceEntry> resources = iterator.next().getResources();
+            while (resources.hasNext()) {
+                int resourceId = resources.next().getResourceId();
+                tableBlock.setResourceIndexEnabled(false);
+                ResourceEntry expected = tableBlock.getResource(resourceId);
+                tableBlock.setResourceIndexEnabled(true);
+                assertSameResource(expected, tableBlock.getResource(resourceId));
+                assertSameResource(expected, tableBlock.getResource(packageBlock, resourceId));
+                count ++;
+            }
+        }
+        Assert.assertTrue(count > 1000);
+        Assert.assertNull(tableBlock.getResource(0x7f7f0000));
+    }
+    @Test
+    public void testIndexInvalidatedOnChange() {
+        TableBlock tableBlock = new TableBlock();
+        PackageBlock packageBlock = tableBlock.newPackage(0x7f, "com.example");
+        Entry entry = packageBlock.getOrCreate("", "string", "first");
+        tableBlock.setResourceIndexEnabled(true);
+        Assert.assertNotNull(tableBlock.getResource(entry.getResourceId()));
+
+        Entry added = packageBlock.getOrCreate("", "string", "second");
+        ResourceEntry resourceEntry = tableBlock.getResource(added.getResourceId());
+        Assert.assertNotNull("Stale index after adding entry", resourceEntry);
+        Assert.assertEquals(added.getResourceId(), resourceEntry.getResourceId());
+
+        Entry otherType = packageBlock.getOrCreate("-land", "dimen", "margin");
+        Assert.assertNotNull("Stale index after adding type",
+                tableBlock.getResource(otherType.getResourceId()));
+    }
+    private static void assertSameResource(ResourceEntry expected, ResourceEntry actual) {
+        if (expected == null) {
+            Assert.assertNull(actual);
+            return;
+        }
+        Assert.assertNotNull(actual);
+        Assert.assertEquals(expected.getResourceId(), actual.getResourceId());
+        Assert.assertSame(expected.getPackageBlock(), actual.getPackageBlock());
+    }
+}
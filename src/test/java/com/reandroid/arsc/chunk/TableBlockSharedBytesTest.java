@@ -0,0 +1,73 @@
+package com.reandroid.arsc.chunk;
+
+import com.reandroid.apk.AndroidFrameworks;
+import com.reandroid.arsc.model.ResourceEntry;
+import com.reandroid.arsc.value.Entry;
+import com.reandroid.arsc.value.ResValue;
+import com.reandroid.arsc.value.ValueType;
+import com.reandroid.utils.io.IOUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+public class TableBlockSharedBytesTest {
+
+    @Test
+    public void testSharedMatchesCopied() throws IOException {
+        byte[] bytes = IOUtil.readFully(AndroidFrameworks.getLatest()
+                .getInputSource(TableBlock.FILE_NAME).openStream());
+        byte[] buffer = bytes.clone();
+        TableBlock copied = TableBlock.load(new ByteArrayInputStream(bytes));
+        TableBlock shared = TableBlock.loadShared(buffer);
+
+        Assert.assertArrayEquals(copied.getBytes(), shared.getBytes());
+
+        ResValue first = null;
+        int resourceId = 0;
+        int count = 0;
+        int sharedCount = 0;
+        Iterator<ResourceEntry> iterator = copied.pickOne().getResources();
+        while (iterator.hasNext()) {
+            ResourceEntry resourceEntry = iterator.next();
+            Entry expected = resourceEntry.get();
+            Entry actual = shared.getResource(resourceEntry.getResourceId()).get();
+            if (expected == null) {
+                continue;
+            }
+            Assert.assertEquals(expected.getName(), actual.getName());
+            Assert.assertEquals(expected.isComplex(), actual.isComplex());
+            count ++;
+            ResValue resValue = actual.getResValue();
+            if (resValue != null) {
+                Assert.assertEquals(expected.getResValue().getData(), resValue.getData());
+                Assert.assertEquals(expected.getResValue().getValueType(), resValue.getValueType());
+                if (!resValue.isSharedBytes()) {
+                    // compact entries hold the value on the header
+                    continue;
+                }
+                sharedCount ++;
+                if (first == null) {
+                    first = resValue;
+                    resourceId = resourceEntry.getResourceId();
+                }
+            }
+        }
+        Assert.assertTrue(count > 1000);
+        Assert.assertTrue(sharedCount > 100);
+
+        // modified items copy their bytes, the shared buffer stays intact
+        first.setTypeAndData(ValueType.DEC, 0x12345678);
+        Assert.assertFalse(first.isSharedBytes());
+        Assert.assertArrayEquals(bytes, buffer);
+        copied.getResource(resourceId).get().getResValue()
+                .setTypeAndData(ValueType.DEC, 0x12345678);
+
+        copied.refresh();
+        shared.refresh();
+        Assert.assertArrayEquals(copied.getBytes(), shared.getBytes());
+        Assert.assertArrayEquals(bytes, buffer);
+    }
+}
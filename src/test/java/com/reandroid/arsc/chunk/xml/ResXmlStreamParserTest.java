@@ -0,0 +1,119 @@
+package com.reandroid.arsc.chunk.xml;
+
+import com.reandroid.apk.AndroidFrameworks;
+import com.reandroid.archive.InputSource;
+import com.reandroid.arsc.model.ResourceLibrary;
+import com.reandroid.arsc.value.ValueType;
+import org.junit.Assert;
+import org.junit.Test;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+public class ResXmlStreamParserTest {
+
+    @Test
+    public void testParseCreatedDocument() throws IOException, XmlPullParserException {
+        ResXmlDocument document = new ResXmlDocument();
+        ResXmlElement root = document.getOrCreateElement("manifest");
+        root.getOrCreateAttribute(null, null, "package", 0)
+                .setValueAsString("com.example");
+        root.getOrCreateAttribute(ResourceLibrary.URI_ANDROID, ResourceLibrary.PREFIX_ANDROID,
+                "versionCode", 0x0101021b).setTypeAndData(ValueType.DEC, 12);
+        ResXmlElement application = root.newElement("application");
+        application.getOrCreateAttribute(ResourceLibrary.URI_ANDROID, ResourceLibrary.PREFIX_ANDROID,
+                "icon", 0x01010002).setTypeAndData(ValueType.REFERENCE, 0x7f020000);
+        application.getOrCreateAttribute(ResourceLibrary.URI_ANDROID, ResourceLibrary.PREFIX_ANDROID,
+                "debuggable", 0x0101000f).setValueAsBoolean(true);
+        ResXmlElement child = application.newElement("child");
+        child.setNamespace(ResourceLibrary.URI_RES_AUTO, ResourceLibrary.PREFIX_APP);
+        child.newText().setText("Text value");
+        document.refresh();
+
+        ResXmlStreamParser parser = new ResXmlStreamParser(document.getBytes());
+        Assert.assertEquals(XmlPullParser.START_DOCUMENT, parser.getEventType());
+
+        Assert.assertEquals(XmlPullParser.START_TAG, parser.nextTag());
+        Assert.assertEquals("manifest", parser.getName());
+        Assert.assertEquals(1, parser.getDepth());
+        Assert.assertEquals(2, parser.getNamespaceCount(1));
+        Assert.assertEquals(ResourceLibrary.URI_ANDROID, parser.getNamespace(ResourceLibrary.PREFIX_ANDROID));
+        Assert.assertEquals(2, parser.getAttributeCount());
+        Assert.assertEquals("com.example", parser.getAttributeValue(null, "package"));
+        Assert.assertEquals(12, parser.getAttributeIntValue(ResourceLibrary.URI_ANDROID, "versionCode", 0));
+        Assert.assertEquals("versionCode", parser.getAttributeName(0));
+        Assert.assertEquals(0x0101021b, parser.getAttributeNameResource(0));
+
+        parser.setFeature(XmlPullParser.FEATURE_REPORT_NAMESPACE_ATTRIBUTES, true);
+        Assert.assertEquals(4, parser.getAttributeCount());
+        Assert.assertEquals(parser.getNamespaceUri(0), parser.getAttributeValue(0));
+        parser.setFeature(XmlPullParser.FEATURE_REPORT_NAMESPACE_ATTRIBUTES, false);
+
+        Assert.assertEquals(XmlPullParser.START_TAG, parser.nextTag());
+        Assert.assertEquals("application", parser.getName());
+        Assert.assertEquals(2, parser.getDepth());
+        Assert.assertEquals(0x7f020000, parser.getAttributeResourceValue(
+                ResourceLibrary.URI_ANDROID, "icon", 0));
+        Assert.assertTrue(parser.getAttributeBooleanValue(ResourceLibrary.URI_ANDROID, "debuggable", false));
+        Assert.assertEquals(ResourceLibrary.PREFIX_ANDROID, parser.getAttributePrefix(0));
+
+        Assert.assertEquals(XmlPullParser.START_TAG, parser.nextTag());
+        Assert.assertEquals("child", parser.getName());
+        Assert.assertEquals(ResourceLibrary.URI_RES_AUTO, parser.getNamespace());
+        Assert.assertFalse(parser.isEmptyElementTag());
+        Assert.assertEquals("Text value", parser.nextText());
+        Assert.assertEquals(XmlPullParser.END_TAG, parser.getEventType());
+        Assert.assertEquals(3, parser.getDepth());
+
+        Assert.assertEquals(XmlPullParser.END_TAG, parser.nextTag());
+        Assert.assertEquals("application", parser.getName());
+        Assert.assertEquals(XmlPullParser.END_TAG, parser.nextTag());
+        Assert.assertEquals(1, parser.getDepth());
+        Assert.assertEquals(XmlPullParser.END_DOCUMENT, parser.next());
+        Assert.assertEquals(0, parser.getDepth());
+        Assert.assertEquals(XmlPullParser.END_DOCUMENT, parser.next());
+    }
+    @Test
+    public void testParseMatchesDocument() throws IOException, XmlPullParserException {
+        InputSource inputSource = AndroidFrameworks.getLatest()
+                .getInputSource(AndroidManifestBlock.FILE_NAME);
+        AndroidManifestBlock manifestBlock = AndroidManifestBlock.load(inputSource.openStream());
+        ResXmlStreamParser parser = ResXmlStreamParser.of(inputSource);
+        ResXmlElement element = manifestBlock.getDocumentElement();
+        Assert.assertEquals(XmlPullParser.START_TAG, parser.next());
+        assertElement(element, parser);
+        Assert.assertEquals(XmlPullParser.END_DOCUMENT, parser.next());
+    }
+    private static void assertElement(ResXmlElement element, ResXmlStreamParser parser)
+            throws IOException, XmlPullParserException {
+        Assert.assertEquals(XmlPullParser.START_TAG, parser.getEventType());
+        Assert.assertEquals(element.getName(false), parser.getName());
+        Assert.assertEquals(element.getDepth(), parser.getDepth());
+        int count = element.getAttributeCount();
+        Assert.assertEquals(count, parser.getAttributeCount());
+        for (int i = 0; i < count; i++) {
+            ResXmlAttribute attribute = element.getAttributeAt(i);
+            Assert.assertEquals(attribute.getName(false), parser.getAttributeName(i));
+            Assert.assertEquals(attribute.getNameId(), parser.getAttributeNameResource(i));
+            String uri = attribute.getUri();
+            Assert.assertEquals(uri == null ? "" : uri, parser.getAttributeNamespace(i));
+            if (attribute.getValueType() == ValueType.STRING) {
+                Assert.assertEquals(attribute.getValueAsString(), parser.getAttributeValue(i));
+            } else if (attribute.getValueType() == ValueType.REFERENCE) {
+                Assert.assertEquals(attribute.getData(), parser.getAttributeResourceValue(i, 0));
+            }
+        }
+        Iterator<ResXmlNode> iterator = element.iterator();
+        while (iterator.hasNext()) {
+            ResXmlNode node = iterator.next();
+            if (node instanceof ResXmlElement) {
+                Assert.assertEquals(XmlPullParser.START_TAG, parser.nextTag());
+                assertElement((ResXmlElement) node, parser);
+            }
+        }
+        Assert.assertEquals(XmlPullParser.END_TAG, parser.nextTag());
+        Assert.assertEquals(element.getName(false), parser.getName());
+    }
+}
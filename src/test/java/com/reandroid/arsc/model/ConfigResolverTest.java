@@ -0,0 +1,118 @@
+package com.reandroid.arsc.model;
+
+import com.reandroid.apk.AndroidFrameworks;
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.chunk.StagedAlias;
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.arsc.value.Entry;
+import com.reandroid.arsc.value.ResConfig;
+import com.reandroid.arsc.value.StagedAliasEntry;
+import com.reandroid.arsc.value.ValueType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+public class ConfigResolverTest {
+
+    @Test
+    public void testBestMatch() {
+        TableBlock tableBlock = new TableBlock();
+        PackageBlock packageBlock = tableBlock.newPackage(0x7f, "com.example");
+        int greeting = create(packageBlock, "string", "greeting", "", "fr", "fr-rCA", "de");
+        int size = create(packageBlock, "integer", "size", "mdpi", "hdpi", "xhdpi");
+        int any = create(packageBlock, "integer", "any", "hdpi", "anydpi");
+        int version = create(packageBlock, "integer", "version", "", "v21", "v30");
+        int night = create(packageBlock, "integer", "night", "night");
+        Entry alias = packageBlock.getOrCreate("", "integer", "alias");
+        alias.setValueAsReference(version);
+        tableBlock.refresh();
+
+        ConfigResolver resolver = new ConfigResolver(tableBlock, ResConfig.parse("fr-rFR-xxhdpi-v26"));
+        assertQualifiers("-fr", resolver.resolve(greeting));
+        assertQualifiers("-xhdpi", resolver.resolve(size));
+        assertQualifiers("-anydpi", resolver.resolve(any));
+        assertQualifiers("-v21", resolver.resolve(version));
+        Assert.assertNull(resolver.resolve(night));
+        Assert.assertEquals(ValueType.REFERENCE, resolver.resolve(alias.getResourceId())
+                .getResValue().getValueType());
+        assertQualifiers("-v21", resolver.resolveValue(alias.getResourceId()));
+        Assert.assertNull(resolver.resolve(0x7f7f0000));
+
+        resolver = new ConfigResolver(tableBlock, ResConfig.parse("fr-rCA-ldpi-night"));
+        assertQualifiers("-fr-rCA", resolver.resolve(greeting));
+        assertQualifiers("-mdpi", resolver.resolve(size));
+        assertQualifiers("", resolver.resolve(version));
+        assertQualifiers("-night", resolver.resolve(night));
+
+        resolver = new ConfigResolver(tableBlock, ResConfig.parse("ja-v31"));
+        assertQualifiers("", resolver.resolve(greeting));
+        assertQualifiers("-v30", resolver.resolve(version));
+    }
+    @Test
+    public void testStagedAlias() {
+        TableBlock tableBlock = new TableBlock();
+        PackageBlock packageBlock = tableBlock.newPackage(0x7f, "com.example");
+        create(packageBlock, "integer", "first", "", "hdpi");
+        create(packageBlock, "integer", "second", "", "hdpi");
+        int finalized = create(packageBlock, "integer", "third", "", "hdpi", "xhdpi");
+        Assert.assertNotEquals(0, finalized & 0xffff);
+        int staged = (finalized & 0xff000000) | 0x00050000;
+        StagedAlias stagedAlias = new StagedAlias();
+        packageBlock.getStagedAliasList().add(stagedAlias);
+        StagedAliasEntry aliasEntry = stagedAlias.getStagedAliasEntryArray().createNext();
+        aliasEntry.setStagedResId(staged);
+        aliasEntry.setFinalizedResId(finalized);
+        tableBlock.refresh();
+        Assert.assertEquals(finalized, tableBlock.getResource(staged).getResourceId());
+
+        ConfigResolver resolver = new ConfigResolver(tableBlock, ResConfig.parse("xhdpi"));
+        Entry entry = resolver.resolve(staged);
+        Assert.assertSame(resolver.resolve(finalized), entry);
+        Assert.assertEquals(finalized, entry.getResourceId());
+        assertQualifiers("-xhdpi", entry);
+        Assert.assertSame(entry, resolver.resolveValue(staged));
+        Assert.assertEquals(resolver.getChangingConfigurations(finalized),
+                resolver.getChangingConfigurations(staged));
+    }
+    @Test
+    public void testPrecomputeMatchesLazy() throws IOException {
+        TableBlock tableBlock = AndroidFrameworks.getLatest().getTableBlock();
+        ResConfig resConfig = ResConfig.parse("en-rGB-land-xhdpi-v30");
+        ConfigResolver lazy = new ConfigResolver(tableBlock, resConfig);
+        ConfigResolver precomputed = new ConfigResolver(tableBlock, resConfig);
+        precomputed.precompute();
+        int count = 0;
+        int changing = 0;
+        Iterator<ResourceEntry> iterator = tableBlock.getResources();
+        while (iterator.hasNext()) {
+            int resourceId = iterator.next().getResourceId();
+            Entry entry = lazy.resolve(resourceId);
+            Assert.assertSame(entry, precomputed.resolve(resourceId));
+            Assert.assertSame(lazy.resolveValue(resourceId), precomputed.resolveValue(resourceId));
+            if (entry != null) {
+                Assert.assertFalse(entry.isNull());
+                count ++;
+            }
+            if (lazy.getChangingConfigurations(resourceId) != 0) {
+                changing ++;
+            }
+        }
+        Assert.assertTrue(count > 1000);
+        Assert.assertTrue(changing > 0);
+    }
+    private static int create(PackageBlock packageBlock, String type, String name, String... qualifiers) {
+        int resourceId = 0;
+        for (int i = 0; i < qualifiers.length; i++) {
+            Entry entry = packageBlock.getOrCreate(qualifiers[i], type, name);
+            entry.setValueAsRaw(ValueType.DEC, i);
+            resourceId = entry.getResourceId();
+        }
+        return resourceId;
+    }
+    private static void assertQualifiers(String expected, Entry entry) {
+        Assert.assertNotNull(entry);
+        Assert.assertEquals(expected, entry.getResConfig().getQualifiers());
+    }
+}
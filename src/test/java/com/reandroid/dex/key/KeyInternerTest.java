@@ -0,0 +1,40 @@
+package com.reandroid.dex.key;
+
+import com.reandroid.dex.SampleDexFileCreator;
+import com.reandroid.dex.model.DexFile;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+
+public class KeyInternerTest {
+
+    @Test
+    public void testInterning() throws IOException {
+        String method = "Lcom/example/Main;->run(Ljava/lang/String;[I)V";
+        Assert.assertFalse(KeyInterner.isEnabled());
+        Assert.assertNotSame(MethodKey.parse(method), MethodKey.parse(method));
+        KeyInterner.setEnabled(true);
+        try {
+            MethodKey methodKey = MethodKey.parse(method);
+            Assert.assertSame(methodKey, MethodKey.parse(method));
+            Assert.assertSame(methodKey.getDeclaring(), TypeKey.create("Lcom/example/Main;"));
+            Assert.assertSame(methodKey.getProto(), ProtoKey.parse("(Ljava/lang/String;[I)V"));
+            Assert.assertSame(StringKey.create("run"), methodKey.getNameKey());
+            Assert.assertSame(TypeKey.create("[I"), TypeKey.TYPE_I.setArrayDimension(1));
+
+            byte[] bytes = SampleDexFileCreator.createApplicationClass(
+                    "Lcom/example/App;", "Lcom/example/Main;", 0x7f010000).getBytes();
+            DexFile dexFile1 = DexFile.read(bytes);
+            DexFile dexFile2 = DexFile.read(bytes);
+            TypeKey typeKey = TypeKey.create("Lcom/example/Main;");
+            Assert.assertSame(dexFile1.getFirst().getDexClass(typeKey).getKey(),
+                    dexFile2.getFirst().getDexClass(typeKey).getKey());
+            Assert.assertTrue(KeyInterner.size() > 0);
+        } finally {
+            KeyInterner.setEnabled(false);
+        }
+        Assert.assertEquals(0, KeyInterner.size());
+        Assert.assertNotSame(TypeKey.create("Lcom/example/Main;"), TypeKey.create("Lcom/example/Main;"));
+    }
+}
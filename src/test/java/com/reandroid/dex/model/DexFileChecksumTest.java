@@ -0,0 +1,72 @@
+package com.reandroid.dex.model;
+
+import com.reandroid.dex.ins.Opcode;
+import com.reandroid.dex.key.MethodKey;
+import com.reandroid.dex.smali.SmaliReader;
+import com.reandroid.utils.ALDER32;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.zip.Adler32;
+
+public class DexFileChecksumTest {
+
+    @Test
+    public void testChecksumAndSignatureAfterPatch() throws IOException, NoSuchAlgorithmException {
+        DexFile sample = DexFile.createDefault();
+        sample.getOrCreateFirst().fromSmaliAll(SmaliReader.of(
+                ".class public Lcom/example/Main;\n" +
+                ".super Ljava/lang/Object;\n" +
+                ".method public static name()Ljava/lang/String;\n" +
+                "    .registers 1\n" +
+                "    const-string v0, \"original string\"\n" +
+                "    return-object v0\n" +
+                ".end method\n"));
+        sample.refresh();
+        byte[] bytes = sample.getBytes();
+        assertChecksumAndSignature(bytes);
+
+        DexFile dexFile = DexFile.read(bytes);
+        MethodKey methodKey = MethodKey.parse("Lcom/example/Main;->name()Ljava/lang/String;");
+        DexInstruction instruction = dexFile.getDeclaredMethod(methodKey)
+                .getInstructionsWithOpcode(Opcode.CONST_STRING).next();
+        instruction.setString("patched string");
+        dexFile.refresh();
+        byte[] patched = dexFile.getBytes();
+        assertChecksumAndSignature(patched);
+
+        dexFile.refresh();
+        Assert.assertArrayEquals(patched, dexFile.getBytes());
+        Assert.assertEquals("patched string", DexFile.read(patched).getDeclaredMethod(methodKey)
+                .getInstructionsWithOpcode(Opcode.CONST_STRING).next().getString());
+    }
+    @Test
+    public void testAlder32Combine() {
+        byte[] bytes = new byte[20000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (i * 31 + (i >> 7));
+        }
+        Adler32 expected = new Adler32();
+        expected.update(bytes, 0, bytes.length);
+        ALDER32 first = new ALDER32();
+        first.update(bytes, 0, 20);
+        ALDER32 second = new ALDER32();
+        second.update(bytes, 20, bytes.length - 20);
+        Assert.assertEquals(expected.getValue(), ALDER32.combine(first.getValue(),
+                second.getValue(), bytes.length - 20));
+    }
+    private static void assertChecksumAndSignature(byte[] bytes) throws NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-1");
+        digest.update(bytes, 32, bytes.length - 32);
+        Assert.assertArrayEquals(digest.digest(), Arrays.copyOfRange(bytes, 12, 32));
+        Adler32 adler32 = new Adler32();
+        adler32.update(bytes, 12, bytes.length - 12);
+        long checksum = (bytes[8] & 0xff) | (bytes[9] & 0xff) << 8
+                | (bytes[10] & 0xff) << 16 | (long) (bytes[11] & 0xff) << 24;
+        Assert.assertEquals(adler32.getValue(), checksum);
+    }
+}
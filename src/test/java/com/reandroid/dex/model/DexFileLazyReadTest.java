@@ -0,0 +1,175 @@
+package com.reandroid.dex.model;
+
+import com.reandroid.dex.SampleDexFileCreator;
+import com.reandroid.dex.data.ClassData;
+import com.reandroid.dex.key.TypeKey;
+import com.reandroid.dex.sections.DataSection;
+import com.reandroid.dex.sections.Section;
+import com.reandroid.dex.sections.SectionType;
+import com.reandroid.dex.smali.SmaliReader;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class DexFileLazyReadTest {
+
+    @Test
+    public void testLazyReadMatchesEager() throws IOException {
+        DexFile sample = SampleDexFileCreator.createApplicationClass(
+                "Lcom/example/App;", "Lcom/example/Main;", 0x7f010000);
+        sample.refresh();
+        byte[] bytes = sample.getBytes();
+
+        DexFile eager = DexFile.read(bytes);
+        DexFile lazy = DexFile.readLazy(bytes);
+        Assert.assertTrue(lazy.isLazyRead());
+
+        DataSection<ClassData> classDataSection = (DataSection<ClassData>) lazy.getFirst()
+                .getSection(SectionType.CLASS_DATA);
+        Assert.assertTrue(classDataSection.isLazy());
+        Assert.assertEquals(2, classDataSection.getCount());
+
+        TypeKey typeKey = TypeKey.parse("Lcom/example/Main;");
+        DexClass expected = eager.getFirst().getDexClass(typeKey);
+        DexClass actual = lazy.getFirst().getDexClass(typeKey);
+        Assert.assertEquals(expected.toSmaliString(), actual.toSmaliString());
+        Assert.assertTrue(classDataSection.isLazy());
+
+        Assert.assertArrayEquals(eager.getBytes(), lazy.getBytes());
+        Assert.assertFalse(classDataSection.isLazy());
+        Assert.assertEquals(2, classDataSection.getCount());
+
+        lazy.refresh();
+        Assert.assertArrayEquals(bytes, lazy.getBytes());
+    }
+    @Test
+    public void testLazyReadMultiSectionOutOfOrder() throws IOException {
+        int count = 60;
+        DexFile source = DexFile.createDefault();
+        source.getOrCreateFirst().fromSmaliAll(SmaliReader.of(createSmali(count)));
+        source.refresh();
+        byte[] bytes = source.getBytes();
+
+        DexFile eager = DexFile.read(bytes);
+        DexFile lazy = DexFile.readLazy(bytes);
+        SectionType<?>[] lazyTypes = new SectionType<?>[]{
+                SectionType.ANNOTATION_ITEM,
+                SectionType.ANNOTATION_SET,
+                SectionType.ANNOTATION_GROUP,
+                SectionType.ANNOTATION_DIRECTORY,
+                SectionType.DEBUG_INFO,
+                SectionType.CODE,
+                SectionType.CLASS_DATA
+        };
+        for (SectionType<?> sectionType : lazyTypes) {
+            Section<?> section = lazy.getFirst().getSection(sectionType);
+            Assert.assertNotNull(sectionType.getName(), section);
+            Assert.assertTrue(sectionType.getName(), ((DataSection<?>) section).isLazy());
+        }
+        Assert.assertNotNull(lazy.getFirst().getSection(SectionType.ENCODED_ARRAY));
+
+        // decode classes in an order unrelated to their position within sections
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            order.add(i);
+        }
+        Collections.shuffle(order, new Random(7));
+        for (int i = 0; i < count / 2; i++) {
+            TypeKey typeKey = TypeKey.parse(className(order.get(i)));
+            Assert.assertEquals(typeKey.getTypeName(),
+                    eager.getFirst().getDexClass(typeKey).toSmaliString(),
+                    lazy.getFirst().getDexClass(typeKey).toSmaliString());
+        }
+        Assert.assertTrue(((DataSection<?>) lazy.getFirst()
+                .getSection(SectionType.CLASS_DATA)).isLazy());
+
+        Assert.assertArrayEquals(eager.getBytes(), lazy.getBytes());
+        for (SectionType<?> sectionType : lazyTypes) {
+            Assert.assertEquals(sectionType.getName(),
+                    eager.getFirst().getSection(sectionType).getCount(),
+                    lazy.getFirst().getSection(sectionType).getCount());
+        }
+        for (int i = count / 2; i < count; i++) {
+            TypeKey typeKey = TypeKey.parse(className(order.get(i)));
+            Assert.assertEquals(typeKey.getTypeName(),
+                    eager.getFirst().getDexClass(typeKey).toSmaliString(),
+                    lazy.getFirst().getDexClass(typeKey).toSmaliString());
+        }
+        eager.refresh();
+        lazy.refresh();
+        Assert.assertArrayEquals(eager.getBytes(), lazy.getBytes());
+    }
+    private static String className(int i) {
+        return "Lcom/example/lazy/C" + i + ";";
+    }
+    /**
+     * Classes calling each other in a ring, with class, field, method and parameter
+     * annotations, static values, debug info and try blocks
+     * */
+    private static String createSmali(int count) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(".class public interface abstract annotation Lcom/example/lazy/Marker;\n")
+                .append(".super Ljava/lang/Object;\n")
+                .append(".implements Ljava/lang/annotation/Annotation;\n")
+                .append(".method public abstract level()I\n.end method\n")
+                .append(".method public abstract value()Ljava/lang/String;\n.end method\n");
+        for (int i = 0; i < count; i++) {
+            String next = className((i + 1) % count);
+            builder.append(".class public ").append(className(i)).append("\n")
+                    .append(".super Ljava/lang/Object;\n")
+                    .append(".source \"C").append(i).append(".java\"\n");
+            if (i % 2 == 0) {
+                builder.append(".implements Ljava/lang/Runnable;\n");
+            }
+            builder.append(".annotation runtime Lcom/example/lazy/Marker;\n")
+                    .append("    level = 0x").append(Integer.toHexString(i)).append("\n")
+                    .append("    value = \"class ").append(i).append("\"\n")
+                    .append(".end annotation\n")
+                    .append(".field public static final COUNT:I = 0x").append(Integer.toHexString(i)).append("\n")
+                    .append(".field public static final NAME:Ljava/lang/String; = \"name").append(i).append("\"\n")
+                    .append(".field private value:I\n")
+                    .append("    .annotation runtime Lcom/example/lazy/Marker;\n")
+                    .append("        value = \"field ").append(i % 5).append("\"\n")
+                    .append("    .end annotation\n")
+                    .append(".end field\n")
+                    .append(".method public constructor <init>()V\n")
+                    .append("    .registers 1\n")
+                    .append("    .line ").append(10 + i).append("\n")
+                    .append("    invoke-direct {p0}, Ljava/lang/Object;-><init>()V\n")
+                    .append("    return-void\n")
+                    .append(".end method\n")
+                    .append(".method public static call(Ljava/lang/String;)I\n")
+                    .append("    .registers 2\n")
+                    .append("    .param p0, \"text\"\n")
+                    .append("        .annotation runtime Lcom/example/lazy/Marker;\n")
+                    .append("            value = \"param ").append(i % 3).append("\"\n")
+                    .append("        .end annotation\n")
+                    .append("    .end param\n")
+                    .append("    .line ").append(20 + i).append("\n")
+                    .append("    invoke-virtual {p0}, Ljava/lang/String;->length()I\n")
+                    .append("    move-result v0\n")
+                    .append("    return v0\n")
+                    .append(".end method\n")
+                    .append(".method public run()V\n")
+                    .append("    .registers 3\n")
+                    .append("    .line ").append(30 + i).append("\n")
+                    .append("    :try_start_0\n")
+                    .append("    const-string v0, \"run").append(i).append("\"\n")
+                    .append("    .local v0, \"text\":Ljava/lang/String;\n")
+                    .append("    invoke-static {v0}, ").append(next).append("->call(Ljava/lang/String;)I\n")
+                    .append("    :try_end_0\n")
+                    .append("    .catch Ljava/lang/Exception; {:try_start_0 .. :try_end_0} :catch_0\n")
+                    .append("    return-void\n")
+                    .append("    :catch_0\n")
+                    .append("    move-exception v1\n")
+                    .append("    return-void\n")
+                    .append(".end method\n");
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,41 @@
+package com.reandroid.dex.model;
+
+import com.reandroid.archive.ByteInputSource;
+import com.reandroid.archive.ZipEntryMap;
+import com.reandroid.dex.SampleDexFileCreator;
+import com.reandroid.utils.concurrent.WorkerPool;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+public class DexFileSourceSetTest {
+
+    @Test
+    public void testParallelLoadMatchesSequential() throws IOException {
+        ZipEntryMap zipEntryMap = new ZipEntryMap();
+        for(int i = 0; i < 6; i++){
+            DexFile dexFile = SampleDexFileCreator.createApplicationClass(
+                    "Lcom/example/App" + i + ";", "Lcom/example/Main" + i + ";", 0x7f010000 + i);
+            dexFile.refresh();
+            zipEntryMap.add(new ByteInputSource(dexFile.getBytes(), DexFile.getDexName(i == 0 ? 0 : i + 1)));
+        }
+        DexDirectory sequential = DexDirectory.fromZip(zipEntryMap);
+        DexDirectory parallel;
+        try(WorkerPool workerPool = WorkerPool.create(3, "test")){
+            parallel = DexDirectory.fromZip(zipEntryMap, null, workerPool);
+        }
+        Assert.assertEquals(6, parallel.size());
+        Assert.assertEquals(sequential.size(), parallel.size());
+        Iterator<DexSource<DexFile>> expected = sequential.getDexSourceSet().iterator();
+        Iterator<DexSource<DexFile>> actual = parallel.getDexSourceSet().iterator();
+        while (expected.hasNext()){
+            DexSource<DexFile> expectedSource = expected.next();
+            DexSource<DexFile> actualSource = actual.next();
+            Assert.assertEquals(expectedSource.getName(), actualSource.getName());
+            Assert.assertSame(parallel, actualSource.get().getDexDirectory());
+            Assert.assertArrayEquals(expectedSource.get().getBytes(), actualSource.get().getBytes());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.reandroid.dex.smali;
+
+import com.reandroid.TestUtils;
+import com.reandroid.dex.model.DexFile;
+import com.reandroid.utils.io.FileUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+public class SmaliReaderParallelTest {
+
+    @Test
+    public void testParallelParseMatchesSequential() throws IOException {
+        File dir = new File(TestUtils.getTempDir(), "smali_parallel_parse");
+        FileUtil.deleteDirectory(dir);
+        for (int i = 0; i < 150; i++) {
+            writeClass(dir, "Lcom/example/p" + (i % 7) + "/Class" + i + ";", i);
+        }
+        DexFile sequential = DexFile.createDefault();
+        sequential.parseSmaliDirectory(dir);
+        sequential.refresh();
+
+        SmaliReaderSetting setting = new SmaliReaderSetting();
+        setting.setParallelism(3);
+        DexFile parallel = DexFile.createDefault();
+        parallel.parseSmaliDirectory(setting, dir);
+        parallel.refresh();
+
+        Assert.assertEquals(150, parallel.getFirst().getDexClassesCount());
+        Assert.assertArrayEquals(sequential.getBytes(), parallel.getBytes());
+
+        writeClass(dir, "Lcom/example/p0/Class0;", -1);
+        writeClass(new File(dir, "copy"), "Lcom/example/p0/Class0;", -1);
+        try {
+            DexFile.createDefault().parseSmaliDirectory(setting, dir);
+            Assert.fail("Duplicate class not detected");
+        } catch (IOException exception) {
+            Assert.assertTrue(exception.getMessage(), exception.getMessage().contains("already been interned"));
+        }
+        FileUtil.deleteDirectory(dir);
+    }
+    private static void writeClass(File dir, String type, int value) throws IOException {
+        String name = type.substring(type.lastIndexOf('/') + 1, type.length() - 1);
+        String smali = ".class public " + type + "\n" +
+                ".super Ljava/lang/Object;\n\n" +
+                ".method public static value()I\n" +
+                "    .registers 1\n" +
+                "    const v0, " + value + "\n" +
+                "    return v0\n" +
+                ".end method\n";
+        File file = new File(dir, type.substring(1, type.length() - name.length() - 1) + name + ".smali");
+        OutputStream outputStream = FileUtil.outputStream(file);
+        outputStream.write(smali.getBytes(StandardCharsets.UTF_8));
+        outputStream.close();
+    }
+}
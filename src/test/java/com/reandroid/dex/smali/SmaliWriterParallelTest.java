@@ -0,0 +1,68 @@
+package com.reandroid.dex.smali;
+
+import com.reandroid.TestUtils;
+import com.reandroid.archive.ByteInputSource;
+import com.reandroid.archive.ZipEntryMap;
+import com.reandroid.dex.SampleDexFileCreator;
+import com.reandroid.dex.model.DexDirectory;
+import com.reandroid.dex.model.DexFile;
+import com.reandroid.utils.io.FileUtil;
+import com.reandroid.utils.io.IOUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class SmaliWriterParallelTest {
+
+    @Test
+    public void testParallelSmaliMatchesSequential() throws IOException {
+        ZipEntryMap zipEntryMap = new ZipEntryMap();
+        for (int i = 0; i < 3; i++) {
+            // class names differing only by case exercise file name collision handling
+            DexFile dexFile = SampleDexFileCreator.createApplicationClass(
+                    "Lcom/example/App" + i + ";", "Lcom/example/APP" + i + ";", 0x7f010000 + i);
+            dexFile.refresh();
+            zipEntryMap.add(new ByteInputSource(dexFile.getBytes(), DexFile.getDexName(i == 0 ? 0 : i + 1)));
+        }
+        DexDirectory dexDirectory = DexDirectory.fromZip(zipEntryMap);
+        File root = new File(TestUtils.getTempDir(), "smali_parallel");
+        FileUtil.deleteDirectory(root);
+        File sequentialDir = new File(root, "sequential");
+        File parallelDir = new File(root, "parallel");
+
+        SmaliWriterSetting setting = new SmaliWriterSetting();
+        setting.addClassComments(dexDirectory);
+        setting.addMethodComments(dexDirectory);
+        dexDirectory.writeSmali(setting, sequentialDir);
+
+        setting.setParallelism(4);
+        dexDirectory.writeSmali(setting, parallelDir);
+        Assert.assertNull(setting.getWorkerPool());
+
+        List<File> expected = listSmaliFiles(sequentialDir);
+        List<File> actual = listSmaliFiles(parallelDir);
+        Assert.assertEquals(6, expected.size());
+        Assert.assertEquals(expected.size(), actual.size());
+        int prefix = sequentialDir.getAbsolutePath().length();
+        for (File file : expected) {
+            File other = new File(parallelDir, file.getAbsolutePath().substring(prefix));
+            Assert.assertTrue(other.isFile());
+            Assert.assertArrayEquals(IOUtil.readFully(file), IOUtil.readFully(other));
+        }
+        FileUtil.deleteDirectory(root);
+    }
+    private static List<File> listSmaliFiles(File dir) throws IOException {
+        try (Stream<Path> stream = Files.walk(dir.toPath())) {
+            return stream.map(Path::toFile)
+                    .filter(file -> file.getName().endsWith(".smali"))
+                    .collect(Collectors.toList());
+        }
+    }
+}
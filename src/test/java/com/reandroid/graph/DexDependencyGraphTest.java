@@ -0,0 +1,117 @@
+package com.reandroid.graph;
+
+import com.reandroid.dex.key.FieldKey;
+import com.reandroid.dex.key.MethodKey;
+import com.reandroid.dex.key.TypeKey;
+import com.reandroid.dex.model.DexClass;
+import com.reandroid.dex.model.DexFile;
+import com.reandroid.dex.smali.SmaliReader;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.Set;
+
+public class DexDependencyGraphTest {
+
+    @Test
+    public void testReachabilityAndIncrementalUpdate() throws IOException {
+        DexFile dexFile = DexFile.createDefault();
+        dexFile.getOrCreateFirst().fromSmaliAll(SmaliReader.of(SMALI));
+        TypeKey typeA = TypeKey.parse("Lp/A;");
+        TypeKey typeB = TypeKey.parse("Lp/B;");
+        TypeKey typeC = TypeKey.parse("Lp/C;");
+        TypeKey typeD = TypeKey.parse("Lp/D;");
+
+        DexDependencyGraph graph = DexDependencyGraph.build(dexFile);
+        Assert.assertEquals(4, graph.getClassesCount());
+
+        BitSet required = new BitSet();
+        graph.markRequired(typeA, required);
+        Set<TypeKey> results = graph.toTypeKeys(required);
+        Assert.assertEquals(3, results.size());
+        Assert.assertTrue(results.contains(typeB));
+        Assert.assertTrue(results.contains(typeC));
+        Assert.assertFalse(results.contains(typeD));
+
+        Assert.assertTrue(graph.isUsedByDeclaringClass(FieldKey.parse("Lp/A;->byName:I")));
+        Assert.assertFalse(graph.isUsedByDeclaringClass(FieldKey.parse("Lp/A;->unused:I")));
+        Assert.assertTrue(graph.isUsed(MethodKey.parse("Lp/B;->run()V")));
+        Assert.assertFalse(graph.isUsed(MethodKey.parse("Lp/A;->callB()V")));
+        Assert.assertTrue(graph.isTypeUsedInCode(typeB));
+
+        DexClass classA = dexFile.getDexClass(typeA);
+        classA.getDeclaredMethod(MethodKey.parse("Lp/A;->callB()V")).removeSelf();
+        graph.update(classA);
+        Assert.assertFalse(graph.isUsed(MethodKey.parse("Lp/B;->run()V")));
+        Assert.assertFalse(graph.isTypeUsedInCode(typeB));
+
+        required.clear();
+        graph.markRequired(typeA, required);
+        Assert.assertEquals(1, required.cardinality());
+
+        graph.removeClass(typeD);
+        Assert.assertEquals(3, graph.getClassesCount());
+        Assert.assertEquals(-1, graph.getClassNode(typeD));
+    }
+
+    @Test
+    public void testDuplicateClassFirstWins() throws IOException {
+        DexFile dexFile = DexFile.createDefault();
+        dexFile.getOrCreateAt(0).fromSmaliAll(SmaliReader.of(SMALI));
+        dexFile.getOrCreateAt(1).fromSmaliAll(SmaliReader.of(DUPLICATE_SMALI));
+        TypeKey typeA = TypeKey.parse("Lp/A;");
+        MethodKey run = MethodKey.parse("Lp/B;->run()V");
+
+        DexDependencyGraph graph = DexDependencyGraph.build(dexFile);
+        Assert.assertEquals(4, graph.getClassesCount());
+        BitSet required = new BitSet();
+        graph.markRequired(typeA, required);
+        Assert.assertFalse(graph.toTypeKeys(required).contains(TypeKey.parse("Lp/D;")));
+        Assert.assertTrue(graph.isUsed(run));
+
+        DexClass classA = dexFile.getDexClass(typeA);
+        classA.getDeclaredMethod(MethodKey.parse("Lp/A;->callB()V")).removeSelf();
+        graph.update(classA);
+        Assert.assertFalse(graph.isUsed(run));
+    }
+
+    private static final String DUPLICATE_SMALI = "" +
+            ".class public Lp/A;\n" +
+            ".super Ljava/lang/Object;\n" +
+            ".field public static d:Lp/D;\n" +
+            ".method private callB()V\n" +
+            "    .registers 1\n" +
+            "    invoke-static {}, Lp/B;->run()V\n" +
+            "    return-void\n" +
+            ".end method\n";
+
+    private static final String SMALI = "" +
+            ".class public Lp/A;\n" +
+            ".super Ljava/lang/Object;\n" +
+            ".field private byName:I\n" +
+            ".field private unused:I\n" +
+            ".method private callB()V\n" +
+            "    .registers 1\n" +
+            "    invoke-static {}, Lp/B;->run()V\n" +
+            "    return-void\n" +
+            ".end method\n" +
+            ".method public name()Ljava/lang/String;\n" +
+            "    .registers 2\n" +
+            "    const-string v0, \"byName\"\n" +
+            "    return-object v0\n" +
+            ".end method\n" +
+            ".class public Lp/B;\n" +
+            ".super Ljava/lang/Object;\n" +
+            ".field public static c:Lp/C;\n" +
+            ".method public static run()V\n" +
+            "    .registers 0\n" +
+            "    return-void\n" +
+            ".end method\n" +
+            ".class public Lp/C;\n" +
+            ".super Ljava/lang/Object;\n" +
+            ".class public Lp/D;\n" +
+            ".super Ljava/lang/Object;\n" +
+            ".field public static a:Lp/A;\n";
+}
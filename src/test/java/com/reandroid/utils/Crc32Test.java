@@ -0,0 +1,54 @@
+package com.reandroid.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.zip.CRC32;
+
+public class Crc32Test {
+
+    @Test
+    public void testSliceTableMatchesJdk() {
+        Random random = new Random(11);
+        byte[] bytes = new byte[4099];
+        random.nextBytes(bytes);
+        for (int length = 0; length < 70; length++) {
+            assertCrc(bytes, random.nextInt(100), length);
+        }
+        assertCrc(bytes, 3, bytes.length - 3);
+
+        Crc32 crc32 = new Crc32(false);
+        crc32.update(bytes, 0, 5);
+        crc32.update(bytes, 5, 1000);
+        crc32.update(bytes, 1005, bytes.length - 1005);
+        CRC32 expected = new CRC32();
+        expected.update(bytes);
+        Assert.assertEquals(expected.getValue(), crc32.getValue());
+        Assert.assertEquals(bytes.length, crc32.getLength());
+        crc32.reset();
+        Assert.assertEquals(0, crc32.getValue());
+    }
+    @Test
+    public void testCombine() {
+        Random random = new Random(13);
+        byte[] bytes = new byte[10000];
+        random.nextBytes(bytes);
+        long expected = Crc32.of(bytes);
+        int[] splits = new int[]{0, 1, 7, 4096, 9999, 10000};
+        for (int split : splits) {
+            long crc1 = Crc32.of(bytes, 0, split);
+            long crc2 = Crc32.of(bytes, split, bytes.length - split);
+            Assert.assertEquals("split = " + split, expected,
+                    Crc32.combine(crc1, crc2, bytes.length - split));
+        }
+    }
+    private static void assertCrc(byte[] bytes, int offset, int length) {
+        CRC32 expected = new CRC32();
+        expected.update(bytes, offset, length);
+        Crc32 crc32 = new Crc32(false);
+        crc32.update(bytes, offset, length);
+        Assert.assertEquals("offset = " + offset + ", length = " + length,
+                expected.getValue(), crc32.getValue());
+    }
+}